@@ -12,14 +12,18 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * AOP Aspect that automatically creates audit log entries for key operations.
  * Intercepts service methods to log:
  * - Operation lifecycle (start, execute line, complete)
- * - Stock movements (receipt, transfer, picking, delivery)
+ * - Stock movements (receipt, transfer, picking, delivery, moves)
  * - AI decision overrides
  * - User management actions
  */
@@ -107,6 +111,73 @@ public class AuditAspect {
         auditStockMovement(joinPoint, "STOCK_ADJUSTMENT");
     }
 
+    @AfterReturning(pointcut = "execution(* org.example.backend.service.impl.StockLedgerServiceImpl.recordBatch(..))", returning = "result")
+    public void auditStockBatch(JoinPoint joinPoint, Object result) {
+        try {
+            User user = getCurrentUser();
+            if (user == null)
+                return;
+
+            // One entry per transaction of the batch (bulk execution spans several tasks)
+            if (!(result instanceof List<?> entries) || entries.isEmpty())
+                return;
+            Map<Optional<org.example.backend.entity.Transaction>, List<Object>> byTransaction = new LinkedHashMap<>();
+            for (Object item : entries) {
+                org.example.backend.entity.StockLedger entry = (org.example.backend.entity.StockLedger) item;
+                byTransaction.computeIfAbsent(Optional.ofNullable(entry.getTransaction()), key -> new ArrayList<>())
+                        .add(entry);
+            }
+            byTransaction.forEach((key, movements) -> {
+                org.example.backend.entity.Transaction transaction = key.orElse(null);
+                auditService.log(user, "STOCK_BATCH", "Transaction", transaction != null ? transaction.getId() : null,
+                        null, "txn=" + (transaction != null ? transaction.getReference() : null)
+                                + ", movements=" + movements.size() + ", " + describeMovements(movements));
+            });
+        } catch (Exception e) {
+            log.warn("Failed to create audit log for stock batch: {}", e.getMessage());
+        }
+    }
+
+    @AfterReturning(pointcut = "execution(* org.example.backend.service.impl.StockLedgerServiceImpl.move(..))", returning = "result")
+    public void auditStockMove(JoinPoint joinPoint, Object result) {
+        try {
+            User user = getCurrentUser();
+            if (user == null)
+                return;
+
+            Object[] args = joinPoint.getArgs();
+            // args: Product, Location from, Location to, int quantity, Transaction, TransactionLine, User
+            org.example.backend.entity.Product product = (org.example.backend.entity.Product) args[0];
+            org.example.backend.entity.Location from = (org.example.backend.entity.Location) args[1];
+            org.example.backend.entity.Location to = (org.example.backend.entity.Location) args[2];
+            int quantity = (int) args[3];
+
+            auditService.log(user, "STOCK_MOVE", "StockLedger", product.getId(),
+                    null, "product=" + product.getSku() + ", from=" + from.getCode() + ", to=" + to.getCode()
+                            + ", qty=" + quantity);
+        } catch (Exception e) {
+            log.warn("Failed to create audit log for stock move: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * {@code [STOCK_IN product=..., location=..., qty=...; ...]}, in the same
+     * terms as the single-movement entries.
+     */
+    private String describeMovements(List<?> entries) {
+        StringBuilder details = new StringBuilder("[");
+        for (Object item : entries) {
+            org.example.backend.entity.StockLedger entry = (org.example.backend.entity.StockLedger) item;
+            if (details.length() > 1)
+                details.append("; ");
+            details.append(entry.getMovementType())
+                    .append(" product=").append(entry.getProduct().getSku())
+                    .append(", location=").append(entry.getLocation().getCode())
+                    .append(", qty=").append(entry.getQuantity());
+        }
+        return details.append(']').toString();
+    }
+
     private void auditStockMovement(JoinPoint joinPoint, String action) {
         try {
             User user = getCurrentUser();
@@ -1,4 +1,76 @@
 package org.example.backend.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named Caffeine caches, each with its own size and TTL. A cache's policy can
+ * be overridden with {@code cache.specs.<name>} (Caffeine spec syntax, e.g.
+ * {@code maximumSize=1000,expireAfterWrite=5m}).
+ * <p>
+ * Cached entities are detached and shared between requests: read them, never
+ * modify them or follow their lazy collections. Hit, miss, eviction and size
+ * metrics are published by Actuator as {@code cache.*} meters.
+ */
+@Configuration
+@EnableCaching
+@Slf4j
 public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    /** Barcode to product id. */
+    public static final String BARCODES = "barcodes";
+    /** SKU to product id. SKUs never change once created, so entries are never evicted. */
+    public static final String SKUS = "skus";
+    public static final String LOCATIONS = "locations";
+    public static final String WAREHOUSES = "warehouses";
+    /** Login (username or email) to UserDetails, read on every authenticated request. */
+    public static final String USERS = "users";
+    public static final String AI_MODEL_INFO = "aiModelInfo";
+
+    private static final Map<String, String> DEFAULT_SPECS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_SPECS.put(PRODUCTS, "maximumSize=20000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(BARCODES, "maximumSize=50000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(SKUS, "maximumSize=50000,expireAfterWrite=6h");
+        DEFAULT_SPECS.put(LOCATIONS, "maximumSize=20000,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(WAREHOUSES, "maximumSize=500,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(USERS, "maximumSize=5000,expireAfterWrite=5m");
+        DEFAULT_SPECS.put(AI_MODEL_INFO, "maximumSize=1,expireAfterWrite=10m");
+    }
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        // Static mode: only the caches below exist, a mistyped cache name fails
+        cacheManager.setCacheNames(Set.of());
+        DEFAULT_SPECS.forEach((name, defaultSpec) -> {
+            String spec = environment.getProperty("cache.specs." + name, defaultSpec);
+            cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build());
+            log.debug("Cache '{}' configured with {}", name, spec);
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Effective spec of each cache, for the admin cache endpoint.
+     */
+    public static Map<String, String> specs(Environment environment) {
+        Map<String, String> specs = new LinkedHashMap<>();
+        DEFAULT_SPECS.forEach((name, defaultSpec) -> specs.put(name,
+                environment.getProperty("cache.specs." + name, defaultSpec)));
+        return specs;
+    }
 }
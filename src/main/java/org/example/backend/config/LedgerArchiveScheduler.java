@@ -0,0 +1,66 @@
+package org.example.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.service.LedgerArchiveService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+
+/**
+ * Archives closed stock ledger months (disabled unless
+ * {@code stock.archive.enabled=true}).
+ * <p>
+ * Archived rows are deleted from stock_ledger, so the segments must outlive the
+ * process: startup fails unless {@code stock.archive.directory} is an absolute,
+ * writable path, which in a container has to be a mounted volume.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.archive.enabled", havingValue = "true")
+@Slf4j
+public class LedgerArchiveScheduler {
+
+    private final LedgerArchiveService ledgerArchiveService;
+
+    public LedgerArchiveScheduler(LedgerArchiveService ledgerArchiveService,
+            @Value("${stock.archive.directory:./data/ledger-archive}") String directory) {
+        this.ledgerArchiveService = ledgerArchiveService;
+        checkDirectory(Paths.get(directory));
+    }
+
+    private static void checkDirectory(Path directory) {
+        // A relative path resolves inside the working directory, e.g. the container's own filesystem
+        if (!directory.isAbsolute()) {
+            throw new IllegalStateException("stock.archive.enabled=true needs stock.archive.directory "
+                    + "(STOCK_ARCHIVE_DIR) set to an absolute path on persistent storage, got " + directory);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create ledger archive directory " + directory, e);
+        }
+        if (!Files.isWritable(directory)) {
+            throw new IllegalStateException("Ledger archive directory " + directory + " is not writable");
+        }
+        log.info("Stock ledger archive segments are written to {}", directory);
+    }
+
+    @Scheduled(cron = "${stock.archive.cron:0 30 2 * * *}")
+    public void archive() {
+        for (YearMonth month : ledgerArchiveService.findArchivableMonths()) {
+            try {
+                ledgerArchiveService.archiveMonth(month);
+            } catch (Exception e) {
+                log.error("Stock ledger archive of {} failed: {}", month, e.getMessage(), e);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.service.LedgerCheckpointService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the ledger checkpoint compactor periodically.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.checkpoint.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerCheckpointScheduler {
+
+    private final LedgerCheckpointService ledgerCheckpointService;
+
+    @Scheduled(initialDelayString = "${stock.checkpoint.initial-delay-ms:60000}",
+            fixedDelayString = "${stock.checkpoint.interval-ms:3600000}")
+    public void compact() {
+        try {
+            ledgerCheckpointService.createCheckpoints();
+        } catch (Exception e) {
+            log.error("Stock ledger checkpoint run failed: {}", e.getMessage(), e);
+        }
+    }
+}
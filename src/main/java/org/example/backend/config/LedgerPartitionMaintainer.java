@@ -0,0 +1,43 @@
+package org.example.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.YearMonth;
+
+/**
+ * Creates the stock_ledger partitions of the current and next month on a
+ * PostgreSQL database converted with {@code db/postgres/stock_ledger_partitioning.sql}
+ * (enabled with {@code stock.ledger.partitioned=true}). Rows of those months that
+ * landed in the default partition are moved into the new partition before it
+ * is attached.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.ledger.partitioned", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerPartitionMaintainer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 1 * * *")
+    public void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        for (YearMonth month : new YearMonth[] { current, current.plusMonths(1) }) {
+            try {
+                jdbcTemplate.query("SELECT stock_ledger_ensure_partition(?)", rs -> null,
+                        Date.valueOf(month.atDay(1)));
+            } catch (Exception e) {
+                log.error("Failed to create stock_ledger partition for {}: {}", month, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.service.MovementRollupService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the daily stock movement rollup current.
+ */
+@Component
+@ConditionalOnProperty(name = "stock.rollup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class MovementRollupScheduler {
+
+    private final MovementRollupService movementRollupService;
+
+    @Scheduled(initialDelayString = "${stock.rollup.initial-delay-ms:60000}",
+            fixedDelayString = "${stock.rollup.interval-ms:900000}")
+    public void rollUp() {
+        try {
+            movementRollupService.rollUp();
+        } catch (Exception e) {
+            log.error("Stock movement rollup failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.backend.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.security.JwtAuthenticationEntryPoint;
 import org.example.backend.security.JwtAuthenticationFilter;
@@ -49,6 +50,8 @@ public class SecurityConfig {
                                 "/swagger-resources/**", "/webjars/**")
                         .permitAll()
                         .requestMatchers("/actuator/**").permitAll()
+                        // Async dispatches of streamed responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Protected endpoints
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
@@ -0,0 +1,35 @@
+package org.example.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.StockLedgerService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Populates stock_balance from the ledger on first start after the table was
+ * introduced (or after it was dropped), so balance lookups never start empty
+ * over an existing ledger.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockBalanceInitializer implements CommandLineRunner {
+
+    private final StockBalanceRepository stockBalanceRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final StockLedgerService stockLedgerService;
+
+    @Override
+    public void run(String... args) {
+        boolean hasHistory = stockLedgerRepository.count() > 0 || ledgerArchiveRepository.findArchivedUpTo().isPresent();
+        if (stockBalanceRepository.count() == 0 && hasHistory) {
+            log.info("stock_balance is empty but the ledger has entries — rebuilding balances...");
+            stockLedgerService.rebuildBalances();
+        }
+    }
+}
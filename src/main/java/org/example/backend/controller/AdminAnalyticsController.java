@@ -0,0 +1,52 @@
+package org.example.backend.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.request.MovementCubeQueryRequest;
+import org.example.backend.dto.response.ApiResponse;
+import org.example.backend.service.MovementCube;
+import org.example.backend.service.MovementCube.CubeQuery;
+import org.example.backend.service.MovementCube.CubeResult;
+import org.example.backend.service.MovementCube.CubeStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Ad-hoc slicing of stock movements, served from the in-memory
+ * {@link MovementCube}.
+ */
+@RestController
+@RequestMapping("/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminAnalyticsController {
+
+    private final MovementCube movementCube;
+
+    /**
+     * Group movements by up to three dimensions, e.g.
+     * {@code {"groupBy": ["CATEGORY", "DAY"], "filters": {"ZONE": ["A"]}, "sortBy": "OUT"}}.
+     */
+    @PostMapping("/movements/query")
+    public ResponseEntity<ApiResponse<CubeResult>> queryMovements(
+            @Valid @RequestBody MovementCubeQueryRequest request) {
+
+        CubeResult result = movementCube.query(new CubeQuery(request.getGroupBy(), request.getFilters(),
+                request.getFrom(), request.getTo(), request.getSortBy(),
+                request.getLimit() != null ? request.getLimit() : 0));
+
+        return ResponseEntity.ok(ApiResponse.success(result, "Movement analytics computed"));
+    }
+
+    @GetMapping("/movements/stats")
+    public ResponseEntity<ApiResponse<CubeStats>> getCubeStats() {
+        return ResponseEntity.ok(ApiResponse.success(movementCube.getStats(), "Movement cube statistics retrieved"));
+    }
+
+    @PostMapping("/movements/reload")
+    public ResponseEntity<ApiResponse<CubeStats>> reloadCube() {
+        movementCube.reload();
+        return ResponseEntity.ok(ApiResponse.success(movementCube.getStats(), "Movement cube reloaded"));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.backend.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
+import org.example.backend.dto.response.ApiResponse;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AdminCacheController {
+
+    private final CacheManager cacheManager;
+    private final Environment environment;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getCacheStats() {
+        Map<String, String> specs = CacheConfig.specs(environment);
+        List<Map<String, Object>> caches = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = getCache(name).getNativeCache();
+            CacheStats stats = nativeCache.stats();
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", name);
+            map.put("spec", specs.get(name));
+            map.put("size", nativeCache.estimatedSize());
+            map.put("hits", stats.hitCount());
+            map.put("misses", stats.missCount());
+            map.put("hitRate", stats.hitRate());
+            map.put("evictions", stats.evictionCount());
+            caches.add(map);
+        }
+        return ResponseEntity.ok(ApiResponse.success(caches, "Cache statistics retrieved"));
+    }
+
+    @DeleteMapping("/{name}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> clearCache(@PathVariable String name) {
+        getCache(name).clear();
+        return ResponseEntity.ok(ApiResponse.success(Map.of("cleared", List.of(name)), "Cache cleared"));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> clearAllCaches() {
+        Collection<String> names = cacheManager.getCacheNames();
+        names.forEach(name -> getCache(name).clear());
+        return ResponseEntity.ok(ApiResponse.success(Map.of("cleared", names), "All caches cleared"));
+    }
+
+    private CaffeineCache getCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            throw new ResourceNotFoundException("Cache not found: " + name);
+        }
+        return caffeineCache;
+    }
+}
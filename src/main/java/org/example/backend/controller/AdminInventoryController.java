@@ -2,30 +2,45 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.ArchivedLedgerEntry;
+import org.example.backend.dto.projection.LocationStock;
+import org.example.backend.dto.projection.ProductStockSummary;
 import org.example.backend.dto.request.StockAdjustmentRequest;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Location;
 import org.example.backend.entity.Product;
+import org.example.backend.entity.StockBalance;
 import org.example.backend.entity.StockLedger;
 import org.example.backend.entity.Transaction;
 import org.example.backend.entity.User;
-import org.example.backend.enums.MovementType;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.enums.TransactionType;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.exception.InvalidOperationException;
 import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.LedgerArchiveRepository;
 import org.example.backend.repository.LocationRepository;
 import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockBalanceRepository;
 import org.example.backend.repository.StockLedgerRepository;
 import org.example.backend.repository.TransactionRepository;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.service.LedgerArchiveService;
+import org.example.backend.service.LedgerCheckpointService;
+import org.example.backend.service.LedgerIntegrityService;
+import org.example.backend.service.LowStockAlertEngine;
+import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLockMetrics;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,8 +53,17 @@ public class AdminInventoryController {
     private final ProductRepository productRepository;
     private final LocationRepository locationRepository;
     private final StockLedgerRepository stockLedgerRepository;
+    private final StockBalanceRepository stockBalanceRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final StockLedgerService stockLedgerService;
+    private final LedgerCheckpointService ledgerCheckpointService;
+    private final LedgerArchiveService ledgerArchiveService;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final StockLockMetrics stockLockMetrics;
+    private final LedgerIntegrityService ledgerIntegrityService;
+    private final StockEventBus stockEventBus;
+    private final LowStockAlertEngine lowStockAlertEngine;
 
     @GetMapping("/summary")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getInventorySummary(
@@ -48,50 +72,36 @@ public class AdminInventoryController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
 
-        var products = productRepository.findWithFilters(category, true, null, PageRequest.of(page, size));
-        int lowStockCount = 0;
-
-        List<Map<String, Object>> content = new ArrayList<>();
-        for (Product product : products.getContent()) {
-            List<StockLedger> ledgers = stockLedgerRepository.findByProduct_Id(product.getId());
-
-            // Calculate total stock by summing running balances per location
-            Map<UUID, Integer> stockByLocation = new LinkedHashMap<>();
-            for (StockLedger ledger : ledgers) {
-                stockByLocation.merge(ledger.getLocation().getId(), ledger.getQuantity() *
-                        (ledger.getMovementType() == MovementType.OUT ? -1 : 1), Integer::sum);
+        boolean lowOnly = Boolean.TRUE.equals(lowStockOnly);
+        Page<ProductStockSummary> products = productRepository.findStockSummaries(category, lowOnly,
+                PageRequest.of(page, size));
+        long lowStockCount = lowOnly ? products.getTotalElements() : productRepository.countLowStock(category);
+
+        Map<UUID, List<Map<String, Object>>> stockLocations = new HashMap<>();
+        if (products.hasContent()) {
+            List<UUID> productIds = products.getContent().stream().map(ProductStockSummary::productId).toList();
+            for (LocationStock stock : stockBalanceRepository.findPositiveByProductIds(productIds)) {
+                Map<String, Object> locMap = new LinkedHashMap<>();
+                locMap.put("locationCode", stock.locationCode());
+                locMap.put("quantity", stock.quantity());
+                stockLocations.computeIfAbsent(stock.productId(), id -> new ArrayList<>()).add(locMap);
             }
+        }
 
-            int totalStock = stockByLocation.values().stream().mapToInt(Integer::intValue).sum();
-            boolean isLowStock = product.getMinStock() != null && totalStock < product.getMinStock();
-            if (isLowStock)
-                lowStockCount++;
-
-            if (Boolean.TRUE.equals(lowStockOnly) && !isLowStock)
-                continue;
-
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (ProductStockSummary product : products.getContent()) {
             Map<String, Object> item = new LinkedHashMap<>();
-            item.put("productId", product.getId());
-            item.put("sku", product.getSku());
-            item.put("name", product.getName());
-            item.put("category", product.getCategory());
-            item.put("price", product.getPrice());
-            item.put("unitOfMeasure", product.getUnitOfMeasure());
-            item.put("totalStock", totalStock);
-            item.put("minStock", product.getMinStock());
-            item.put("maxStock", product.getMaxStock());
-            item.put("stockAlert", isLowStock);
-
-            List<Map<String, Object>> stockLocations = stockByLocation.entrySet().stream()
-                    .filter(e -> e.getValue() > 0)
-                    .map(e -> {
-                        Location loc = locationRepository.findById(e.getKey()).orElse(null);
-                        Map<String, Object> locMap = new LinkedHashMap<>();
-                        locMap.put("locationCode", loc != null ? loc.getCode() : e.getKey().toString());
-                        locMap.put("quantity", e.getValue());
-                        return locMap;
-                    }).collect(Collectors.toList());
-            item.put("stockLocations", stockLocations);
+            item.put("productId", product.productId());
+            item.put("sku", product.sku());
+            item.put("name", product.name());
+            item.put("category", product.category());
+            item.put("price", product.price());
+            item.put("unitOfMeasure", product.unitOfMeasure());
+            item.put("totalStock", product.totalStock());
+            item.put("minStock", product.minStock());
+            item.put("maxStock", product.maxStock());
+            item.put("stockAlert", product.isLowStock());
+            item.put("stockLocations", stockLocations.getOrDefault(product.productId(), List.of()));
             content.add(item);
         }
 
@@ -105,26 +115,26 @@ public class AdminInventoryController {
 
     @GetMapping("/alerts")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getStockAlerts() {
-        List<Product> products = productRepository.findAll().stream()
-                .filter(p -> p.getActive() && p.getMinStock() != null)
-                .toList();
+        List<LowStockAlertEngine.LowStockAlert> lowStock;
+        if (lowStockAlertEngine.isActive()) {
+            lowStock = lowStockAlertEngine.getAlerts();
+        } else {
+            lowStock = productRepository.findStockSummaries(null, true, Pageable.unpaged()).stream()
+                    .map(p -> new LowStockAlertEngine.LowStockAlert(p.productId(), p.sku(), p.name(),
+                            p.totalStock(), p.minStock(), p.minStock() - p.totalStock()))
+                    .toList();
+        }
 
         List<Map<String, Object>> alerts = new ArrayList<>();
-        for (Product product : products) {
-            List<StockLedger> ledgers = stockLedgerRepository.findByProduct_Id(product.getId());
-            int totalStock = ledgers.stream()
-                    .mapToInt(l -> l.getMovementType() == MovementType.OUT ? -l.getQuantity() : l.getQuantity()).sum();
-
-            if (totalStock < product.getMinStock()) {
-                Map<String, Object> alert = new LinkedHashMap<>();
-                alert.put("productId", product.getId());
-                alert.put("sku", product.getSku());
-                alert.put("name", product.getName());
-                alert.put("currentStock", totalStock);
-                alert.put("minStock", product.getMinStock());
-                alert.put("deficit", product.getMinStock() - totalStock);
-                alerts.add(alert);
-            }
+        for (LowStockAlertEngine.LowStockAlert lowStockAlert : lowStock) {
+            Map<String, Object> alert = new LinkedHashMap<>();
+            alert.put("productId", lowStockAlert.productId());
+            alert.put("sku", lowStockAlert.sku());
+            alert.put("name", lowStockAlert.name());
+            alert.put("currentStock", lowStockAlert.currentStock());
+            alert.put("minStock", lowStockAlert.minStock());
+            alert.put("deficit", lowStockAlert.deficit());
+            alerts.add(alert);
         }
 
         return ResponseEntity.ok(ApiResponse.success(alerts, "Stock alerts retrieved"));
@@ -135,29 +145,21 @@ public class AdminInventoryController {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
 
-        List<StockLedger> ledgers = stockLedgerRepository.findByProduct_Id(productId);
+        List<StockBalance> balances = stockBalanceRepository.findByProductIdWithLocation(productId);
+        int totalStock = balances.stream().mapToInt(StockBalance::getQuantity).sum();
 
-        Map<UUID, Integer> stockByLocation = new LinkedHashMap<>();
-        for (StockLedger ledger : ledgers) {
-            stockByLocation.merge(ledger.getLocation().getId(), ledger.getQuantity() *
-                    (ledger.getMovementType() == MovementType.OUT ? -1 : 1), Integer::sum);
-        }
-        int totalStock = stockByLocation.values().stream().mapToInt(Integer::intValue).sum();
-
-        List<Map<String, Object>> stockLocations = stockByLocation.entrySet().stream()
-                .map(e -> {
-                    Location loc = locationRepository.findById(e.getKey()).orElse(null);
+        List<Map<String, Object>> stockLocations = balances.stream()
+                .map(b -> {
                     Map<String, Object> locMap = new LinkedHashMap<>();
-                    locMap.put("locationId", e.getKey());
-                    locMap.put("locationCode", loc != null ? loc.getCode() : "UNKNOWN");
-                    locMap.put("quantity", e.getValue());
+                    locMap.put("locationId", b.getLocation().getId());
+                    locMap.put("locationCode", b.getLocation().getCode());
+                    locMap.put("quantity", b.getQuantity());
                     return locMap;
                 }).collect(Collectors.toList());
 
         // Recent movements
-        List<Map<String, Object>> movements = ledgers.stream()
-                .sorted(Comparator.comparing(StockLedger::getPerformedAt).reversed())
-                .limit(20)
+        List<Map<String, Object>> movements = stockLedgerRepository
+                .findTop20ByProduct_IdOrderByPerformedAtDesc(productId).stream()
                 .map(l -> {
                     Map<String, Object> map = new LinkedHashMap<>();
                     map.put("id", l.getId());
@@ -186,24 +188,15 @@ public class AdminInventoryController {
         Location location = locationRepository.findById(locationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found: " + locationId));
 
-        List<UUID> productIds = stockLedgerRepository.findDistinctProductIdsByLocationId(locationId);
-
-        List<Map<String, Object>> products = productIds.stream().map(pid -> {
-            Product product = productRepository.findById(pid).orElse(null);
-            if (product == null)
-                return null;
-
-            List<StockLedger> ledgers = stockLedgerRepository.findByProduct_IdAndLocation_Id(pid, locationId);
-            int quantity = ledgers.stream()
-                    .mapToInt(l -> l.getMovementType() == MovementType.OUT ? -l.getQuantity() : l.getQuantity()).sum();
-
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("productId", product.getId());
-            map.put("sku", product.getSku());
-            map.put("name", product.getName());
-            map.put("quantity", quantity);
-            return map;
-        }).filter(Objects::nonNull).collect(Collectors.toList());
+        List<Map<String, Object>> products = stockBalanceRepository.findByLocationIdWithProduct(locationId).stream()
+                .map(b -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("productId", b.getProduct().getId());
+                    map.put("sku", b.getProduct().getSku());
+                    map.put("name", b.getProduct().getName());
+                    map.put("quantity", b.getQuantity());
+                    return map;
+                }).collect(Collectors.toList());
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("location", Map.of(
@@ -228,6 +221,13 @@ public class AdminInventoryController {
         User admin = userRepository.findByUsername(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        // Negative adjustments are checked up front so a rejected request does not
+        // leave an orphan adjustment transaction behind
+        if (request.getAdjustmentQuantity() < 0) {
+            stockLedgerService.validateStockAvailability(request.getProductId(), request.getLocationId(),
+                    -request.getAdjustmentQuantity());
+        }
+
         // Create adjustment transaction
         Transaction transaction = Transaction.builder()
                 .type(TransactionType.TRANSFER)
@@ -239,32 +239,121 @@ public class AdminInventoryController {
                 .build();
         transaction = transactionRepository.save(transaction);
 
-        // Determine movement type
-        MovementType movementType = request.getAdjustmentQuantity() >= 0 ? MovementType.IN : MovementType.ADJUSTMENT;
-        int qty = Math.abs(request.getAdjustmentQuantity());
-
-        // Calculate new balance
-        Long currentBalance = stockLedgerRepository.calculateBalance(request.getProductId(), request.getLocationId());
-        int newBalance = (int) (currentBalance + request.getAdjustmentQuantity());
-
-        StockLedger ledger = StockLedger.builder()
-                .product(product)
-                .location(location)
-                .transaction(transaction)
-                .movementType(movementType)
-                .quantity(qty)
-                .runningBalance(Math.max(0, newBalance))
-                .performedBy(admin)
-                .performedAt(LocalDateTime.now())
-                .build();
-        stockLedgerRepository.save(ledger);
+        StockLedger ledger = stockLedgerService.recordAdjustment(product, location,
+                request.getAdjustmentQuantity(), transaction, null, admin);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("transactionId", transaction.getId());
-        response.put("newBalance", Math.max(0, newBalance));
+        response.put("newBalance", ledger.getRunningBalance());
         response.put("message", "Stock adjusted successfully");
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(response, "Stock adjusted successfully"));
     }
+
+    @PostMapping("/balances/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildStockBalances() {
+        int rows = stockLedgerService.rebuildBalances();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("balanceRows", rows);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock balances rebuilt from ledger"));
+    }
+
+    @PostMapping("/checkpoints")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> createLedgerCheckpoints() {
+        int written = ledgerCheckpointService.createCheckpoints();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("checkpointsWritten", written);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock ledger checkpoints created"));
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> archiveLedger() {
+        Map<String, Object> archived = new LinkedHashMap<>();
+        for (YearMonth month : ledgerArchiveService.findArchivableMonths()) {
+            archived.put(month.toString(), ledgerArchiveService.archiveMonth(month));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("archivedMonths", archived);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock ledger archived"));
+    }
+
+    @GetMapping("/archive/segments")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getArchiveSegments() {
+        List<Map<String, Object>> segments = ledgerArchiveRepository.listSegments().stream()
+                .map(s -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("month", s.month().toString());
+                    map.put("entries", s.entries());
+                    map.put("blocks", s.blocks());
+                    map.put("sizeBytes", s.sizeBytes());
+                    return map;
+                }).collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponse.success(segments, "Archive segments retrieved"));
+    }
+
+    @GetMapping("/archive/entries")
+    public ResponseEntity<ApiResponse<List<ArchivedLedgerEntry>>> getArchivedEntries(
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID locationId,
+            @RequestParam(required = false) UUID transactionId) {
+        List<ArchivedLedgerEntry> entries;
+        if (transactionId != null) {
+            entries = ledgerArchiveRepository.findByTransaction_Id(transactionId);
+        } else if (productId != null) {
+            entries = ledgerArchiveRepository.findByProduct_IdAndLocation_Id(productId, locationId);
+        } else {
+            throw new InvalidOperationException("productId or transactionId is required");
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(entries, "Archived ledger entries retrieved"));
+    }
+
+    @GetMapping("/contention")
+    public ResponseEntity<ApiResponse<List<StockLockMetrics.ContentionStats>>> getBalanceContention(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(stockLockMetrics.getTopContended(limit),
+                "Stock balance contention retrieved"));
+    }
+
+    @DeleteMapping("/contention")
+    public ResponseEntity<ApiResponse<Void>> resetBalanceContention() {
+        stockLockMetrics.reset();
+        return ResponseEntity.ok(ApiResponse.success(null, "Stock balance contention statistics reset"));
+    }
+
+    @PostMapping("/integrity/verify")
+    public ResponseEntity<ApiResponse<LedgerIntegrityService.IntegrityStatus>> verifyLedgerIntegrity(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        LedgerIntegrityService.IntegrityStatus status = ledgerIntegrityService.startVerification(repair);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(status, "Ledger integrity verification started"));
+    }
+
+    @GetMapping("/integrity/status")
+    public ResponseEntity<ApiResponse<LedgerIntegrityService.IntegrityStatus>> getLedgerIntegrityStatus() {
+        LedgerIntegrityService.IntegrityStatus status = ledgerIntegrityService.getStatus();
+        if (status == null) {
+            throw new ResourceNotFoundException("No ledger integrity run has been started");
+        }
+        return ResponseEntity.ok(ApiResponse.success(status, "Ledger integrity status retrieved"));
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStockEventBusStatus() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("capacity", stockEventBus.getCapacity());
+        response.put("published", stockEventBus.getPublishedCount());
+        response.put("blockTimeouts", stockEventBus.getBlockTimeouts());
+        response.put("subscriptions", stockEventBus.getSubscriptions());
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock event bus status retrieved"));
+    }
 }
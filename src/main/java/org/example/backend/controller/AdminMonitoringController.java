@@ -1,6 +1,7 @@
 package org.example.backend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.LineCount;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Chariot;
 import org.example.backend.entity.Transaction;
@@ -9,8 +10,10 @@ import org.example.backend.enums.ChariotStatus;
 import org.example.backend.enums.Role;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.repository.ChariotRepository;
+import org.example.backend.repository.TransactionLineRepository;
 import org.example.backend.repository.TransactionRepository;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.service.LiveFeedService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,11 +31,22 @@ public class AdminMonitoringController {
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
     private final ChariotRepository chariotRepository;
+    private final TransactionLineRepository transactionLineRepository;
+    private final LiveFeedService liveFeedService;
 
     @GetMapping("/warehouse-status")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getWarehouseStatus() {
         Map<String, Object> response = new LinkedHashMap<>();
 
+        // Active operations, loaded once for the employee and operation sections
+        List<Transaction> activeOps = transactionRepository.findByStatus(TransactionStatus.IN_PROGRESS);
+        Map<UUID, Transaction> taskByAssignee = new HashMap<>();
+        for (Transaction t : activeOps) {
+            if (t.getAssignedTo() != null) {
+                taskByAssignee.putIfAbsent(t.getAssignedTo().getId(), t);
+            }
+        }
+
         // Employees with positions and current tasks
         List<User> employees = userRepository.findByRole(Role.EMPLOYEE);
         List<Map<String, Object>> employeesList = employees.stream().map(emp -> {
@@ -42,19 +56,17 @@ public class AdminMonitoringController {
             map.put("username", emp.getUsername());
 
             // Current task
-            List<Transaction> activeTasks = transactionRepository.findByAssignedTo_Id(emp.getId()).stream()
-                    .filter(t -> t.getStatus() == TransactionStatus.IN_PROGRESS)
-                    .toList();
-            map.put("currentTask", activeTasks.isEmpty() ? null
+            Transaction currentTask = taskByAssignee.get(emp.getId());
+            map.put("currentTask", currentTask == null ? null
                     : Map.of(
-                            "id", activeTasks.get(0).getId(),
-                            "reference", activeTasks.get(0).getReference(),
-                            "type", activeTasks.get(0).getType().name()));
+                            "id", currentTask.getId(),
+                            "reference", currentTask.getReference(),
+                            "type", currentTask.getType().name()));
 
             map.put("currentPositionX", emp.getCurrentPositionX());
             map.put("currentPositionY", emp.getCurrentPositionY());
             map.put("lastPositionUpdate", emp.getLastPositionUpdate());
-            map.put("status", activeTasks.isEmpty() ? "IDLE" : "WORKING");
+            map.put("status", currentTask == null ? "IDLE" : "WORKING");
             return map;
         }).toList();
         response.put("employees", employeesList);
@@ -80,7 +92,13 @@ public class AdminMonitoringController {
         response.put("chariots", chariotList);
 
         // Active operations
-        List<Transaction> activeOps = transactionRepository.findByStatus(TransactionStatus.IN_PROGRESS);
+        Map<UUID, Long> lineCounts = new HashMap<>();
+        if (!activeOps.isEmpty()) {
+            for (LineCount count : transactionLineRepository.countByTransactionIds(
+                    activeOps.stream().map(Transaction::getId).toList())) {
+                lineCounts.put(count.transactionId(), count.lines());
+            }
+        }
         List<Map<String, Object>> operationsList = activeOps.stream().map(t -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("transactionId", t.getId());
@@ -90,7 +108,7 @@ public class AdminMonitoringController {
                     "id", t.getAssignedTo().getId(),
                     "username", t.getAssignedTo().getUsername(),
                     "fullName", t.getAssignedTo().getFullName()) : null);
-            int totalLines = t.getTransactionLines() != null ? t.getTransactionLines().size() : 0;
+            long totalLines = lineCounts.getOrDefault(t.getId(), 0L);
             map.put("progress", totalLines > 0 ? "0/" + totalLines + " lines completed" : "No lines");
             return map;
         }).toList();
@@ -98,4 +116,9 @@ public class AdminMonitoringController {
 
         return ResponseEntity.ok(ApiResponse.success(response, "Warehouse status retrieved"));
     }
+
+    @GetMapping("/live")
+    public ResponseEntity<ApiResponse<LiveFeedService.LiveFeedStats>> getLiveFeedStats() {
+        return ResponseEntity.ok(ApiResponse.success(liveFeedService.getStats(), "Live feed status retrieved"));
+    }
 }
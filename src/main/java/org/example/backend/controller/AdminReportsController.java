@@ -1,26 +1,35 @@
 package org.example.backend.controller;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.MovementDayTotal;
+import org.example.backend.dto.projection.MovementRow;
+import org.example.backend.dto.request.ReportJobRequest;
 import org.example.backend.dto.response.ApiResponse;
-import org.example.backend.entity.StockLedger;
-import org.example.backend.entity.Transaction;
-import org.example.backend.entity.User;
-import org.example.backend.enums.MovementType;
-import org.example.backend.enums.Role;
-import org.example.backend.enums.TransactionStatus;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
 import org.example.backend.repository.StockLedgerRepository;
-import org.example.backend.repository.TaskDiscrepancyRepository;
-import org.example.backend.repository.TransactionRepository;
-import org.example.backend.repository.UserRepository;
+import org.example.backend.service.MovementRollupService;
+import org.example.backend.service.ReportJobService;
+import org.example.backend.service.ReportJobService.ReportJob;
+import org.example.backend.service.ReportJobService.ReportSpec;
+import org.example.backend.service.UserProductivityService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/admin/reports")
@@ -28,96 +37,199 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AdminReportsController {
 
-    private final StockLedgerRepository stockLedgerRepository;
-    private final TransactionRepository transactionRepository;
-    private final UserRepository userRepository;
-    private final TaskDiscrepancyRepository taskDiscrepancyRepository;
+    private static final int MAX_MOVEMENTS_PAGE_SIZE = 500;
 
+    private final StockLedgerRepository stockLedgerRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final MovementRollupService movementRollupService;
+    private final ReportJobService reportJobService;
+    private final UserProductivityService userProductivityService;
+
+    /**
+     * In/out totals of a period, overall and per day, read from the daily
+     * movement rollup. The individual ledger rows are only listed with
+     * {@code includeMovements=true}, one page at a time, and only for the days
+     * not yet archived ({@code movements.from}).
+     */
     @GetMapping("/stock-movements")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getStockMovementReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(required = false) UUID productId) {
-
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
-
-        List<StockLedger> movements = stockLedgerRepository.findMovementsByDateRange(productId, start, end);
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID locationId,
+            @RequestParam(defaultValue = "false") boolean includeMovements,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidOperationException("Start date must not be after end date");
+        }
 
-        int totalIn = 0;
-        int totalOut = 0;
-        for (StockLedger ledger : movements) {
-            if (ledger.getMovementType() == MovementType.IN) {
-                totalIn += ledger.getQuantity();
-            } else if (ledger.getMovementType() == MovementType.OUT) {
-                totalOut += ledger.getQuantity();
+        long totalIn = 0;
+        long totalOut = 0;
+        long totalAdjustment = 0;
+        long movementCount = 0;
+        Map<LocalDate, Map<String, Object>> daily = new LinkedHashMap<>();
+        for (MovementDayTotal t : movementRollupService.getDailyTotals(productId, locationId, startDate, endDate)) {
+            Map<String, Object> day = daily.computeIfAbsent(t.day(), d -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("date", d);
+                map.put("totalIn", 0L);
+                map.put("totalOut", 0L);
+                map.put("totalAdjustment", 0L);
+                map.put("movementCount", 0L);
+                return map;
+            });
+            switch (t.movementType()) {
+                case IN -> {
+                    totalIn += t.quantity();
+                    day.put("totalIn", t.quantity());
+                }
+                case OUT -> {
+                    totalOut += t.quantity();
+                    day.put("totalOut", t.quantity());
+                }
+                case ADJUSTMENT -> {
+                    totalAdjustment += t.quantity();
+                    day.put("totalAdjustment", t.quantity());
+                }
             }
+            movementCount += t.count();
+            day.merge("movementCount", t.count(), (a, b) -> (Long) a + (Long) b);
         }
 
-        List<Map<String, Object>> movementList = movements.stream().map(m -> {
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("id", m.getId());
-            map.put("productSku", m.getProduct().getSku());
-            map.put("productName", m.getProduct().getName());
-            map.put("locationCode", m.getLocation().getCode());
-            map.put("movementType", m.getMovementType().name());
-            map.put("quantity", m.getQuantity());
-            map.put("performedBy", m.getPerformedBy().getFullName());
-            map.put("performedAt", m.getPerformedAt());
-            return map;
-        }).collect(Collectors.toList());
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("totalIn", totalIn);
+        summary.put("totalOut", totalOut);
+        summary.put("netChange", totalIn - totalOut);
+        summary.put("totalAdjustment", totalAdjustment);
+        summary.put("movementCount", movementCount);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("period", startDate + " to " + endDate);
-        response.put("movements", movementList);
-        response.put("summary", Map.of(
-                "totalIn", totalIn,
-                "totalOut", totalOut,
-                "netChange", totalIn - totalOut));
+        response.put("summary", summary);
+        response.put("daily", daily.values());
+        response.put("rolledUpThrough", movementRollupService.getRolledUpThrough().orElse(null));
+
+        if (includeMovements) {
+            int pageSize = Math.min(Math.max(size, 1), MAX_MOVEMENTS_PAGE_SIZE);
+            // Archived months are whole days, gone from the ledger the rows are read from
+            LocalDate from = ledgerArchiveRepository.findArchivedUpTo()
+                    .map(LocalDateTime::toLocalDate)
+                    .filter(startDate::isBefore)
+                    .orElse(startDate);
+            // The per-day counts already give the total, no count query needed
+            long listedCount = daily.values().stream()
+                    .filter(day -> !((LocalDate) day.get("date")).isBefore(from))
+                    .mapToLong(day -> (Long) day.get("movementCount"))
+                    .sum();
+            List<MovementRow> rows = from.isAfter(endDate) ? List.of()
+                    : stockLedgerRepository.findMovementRows(productId, locationId, from.atStartOfDay(),
+                            endDate.plusDays(1).atStartOfDay(), PageRequest.of(page, pageSize));
+
+            Map<String, Object> movements = new LinkedHashMap<>();
+            movements.put("from", from);
+            movements.put("content", rows);
+            movements.put("page", page);
+            movements.put("size", pageSize);
+            movements.put("totalElements", listedCount);
+            movements.put("totalPages", (listedCount + pageSize - 1) / pageSize);
+            movements.put("hasMore", (long) (page + 1) * pageSize < listedCount);
+            response.put("movements", movements);
+        }
 
         return ResponseEntity.ok(ApiResponse.success(response, "Stock movement report generated"));
     }
 
+    /**
+     * Recompute the daily movement rollup of a date range from the ledger.
+     */
+    @PostMapping("/stock-movements/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildStockMovementRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        int rows = movementRollupService.rebuild(startDate, endDate);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("period", startDate + " to " + endDate);
+        response.put("rowsWritten", rows);
+        response.put("rolledUpThrough", movementRollupService.getRolledUpThrough().orElse(null));
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Stock movement rollup rebuilt"));
+    }
+
+    /**
+     * Per-employee totals of the period, summed from the daily productivity
+     * counters.
+     */
     @GetMapping("/user-productivity")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getUserProductivityReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) UUID userId) {
 
-        List<User> employees;
-        if (userId != null) {
-            employees = userRepository.findById(userId).map(List::of).orElse(List.of());
-        } else {
-            employees = userRepository.findByRole(Role.EMPLOYEE);
-        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("period", startDate + " to " + endDate);
+        response.put("users", userProductivityService.getReport(startDate, endDate, userId));
 
-        List<Map<String, Object>> userStats = employees.stream().map(user -> {
-            List<Transaction> tasks = transactionRepository.findByAssignedTo_Id(user.getId());
-
-            long completed = tasks.stream()
-                    .filter(t -> t.getStatus() == TransactionStatus.COMPLETED)
-                    .filter(t -> t.getCompletedAt() != null &&
-                            !t.getCompletedAt().toLocalDate().isBefore(startDate) &&
-                            !t.getCompletedAt().toLocalDate().isAfter(endDate))
-                    .count();
-
-            long discrepancies = taskDiscrepancyRepository.findByResolvedAtIsNull().stream()
-                    .filter(d -> d.getReportedBy() != null && d.getReportedBy().getId().equals(user.getId()))
-                    .count();
-
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("userId", user.getId());
-            map.put("fullName", user.getFullName());
-            map.put("username", user.getUsername());
-            map.put("tasksCompleted", completed);
-            map.put("discrepanciesReported", discrepancies);
-            return map;
-        }).collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success(response, "User productivity report generated"));
+    }
+
+    /**
+     * Recompute the productivity counters of a date range from tasks, ledger and
+     * discrepancies.
+     */
+    @PostMapping("/user-productivity/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildUserProductivity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        int rows = userProductivityService.rebuild(startDate, endDate);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("period", startDate + " to " + endDate);
-        response.put("users", userStats);
+        response.put("rowsWritten", rows);
 
-        return ResponseEntity.ok(ApiResponse.success(response, "User productivity report generated"));
+        return ResponseEntity.ok(ApiResponse.success(response, "User productivity counters rebuilt"));
+    }
+
+    /**
+     * Generate a report in the background. Poll the returned job, then fetch the
+     * gzip-compressed result from {@code /jobs/{jobId}/download}.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ReportJob>> submitReportJob(
+            @Valid @RequestBody ReportJobRequest request,
+            Authentication authentication) {
+        ReportSpec spec = new ReportSpec(request.getType(), request.getFormat(), request.getStartDate(),
+                request.getEndDate(), request.getProductId(), request.getLocationId(), request.getUserId());
+        ReportJob job = reportJobService.submit(spec, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(job, "Report job queued"));
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<ApiResponse<List<ReportJob>>> getReportJobs() {
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.getJobs()));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJob>> getReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.getJob(jobId)));
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ReportJob>> cancelReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(ApiResponse.success(reportJobService.cancel(jobId), "Report job cancelled"));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadReportJob(@PathVariable UUID jobId) {
+        ReportJob job = reportJobService.getJob(jobId);
+        Path file = reportJobService.getResultFile(jobId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.fileName() + "\"")
+                .body(new FileSystemResource(file));
     }
 }
@@ -14,8 +14,11 @@ import org.example.backend.enums.TransactionStatus;
 import org.example.backend.enums.TransactionType;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.*;
+import org.example.backend.service.AdminTaskService;
+import org.example.backend.util.KeysetCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -37,25 +40,48 @@ public class AdminTaskController {
     private final ProductRepository productRepository;
     private final LocationRepository locationRepository;
     private final ChariotRepository chariotRepository;
+    private final AdminTaskService adminTaskService;
 
+    /**
+     * Tasks, newest first. Accepts either page/size or the {@code nextCursor}
+     * of a previous response (keyset paging, constant cost per page).
+     */
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> getAllTasks(
             @RequestParam(required = false) TransactionType type,
             @RequestParam(required = false) TransactionStatus status,
             @RequestParam(required = false) UUID assignedToId,
             @RequestParam(required = false) UUID createdById,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
 
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            List<Transaction> rows = transactionRepository.findWithFiltersBefore(
+                    type, status, assignedToId, createdById, after.at(), after.id(), KeysetCursor.limit(size));
+            Map<UUID, Long> lineCounts = countLines(rows);
+            Map<String, Object> response = KeysetCursor.page(rows, size,
+                    t -> new KeysetCursor(t.getCreatedAt(), t.getId()),
+                    t -> toTaskMap(t, lineCounts.getOrDefault(t.getId(), 0L)));
+            return ResponseEntity.ok(ApiResponse.success(response, "Tasks retrieved successfully"));
+        }
+
         Page<Transaction> tasks = transactionRepository.findWithFilters(
-                type, status, assignedToId, createdById, PageRequest.of(page, size));
+                type, status, assignedToId, createdById,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
 
-        List<Map<String, Object>> content = tasks.getContent().stream().map(this::toTaskMap).toList();
+        Map<UUID, Long> lineCounts = countLines(tasks.getContent());
+        List<Map<String, Object>> content = tasks.getContent().stream()
+                .map(t -> toTaskMap(t, lineCounts.getOrDefault(t.getId(), 0L)))
+                .toList();
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("content", content);
         response.put("totalElements", tasks.getTotalElements());
         response.put("totalPages", tasks.getTotalPages());
+        response.put("nextCursor", KeysetCursor.next(tasks, t -> new KeysetCursor(t.getCreatedAt(), t.getId())));
+        response.put("hasMore", tasks.hasNext());
 
         return ResponseEntity.ok(ApiResponse.success(response, "Tasks retrieved successfully"));
     }
@@ -136,44 +162,36 @@ public class AdminTaskController {
             @PathVariable UUID taskId,
             @Valid @RequestBody UpdateTaskRequest request) {
 
-        Transaction transaction = transactionRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found: " + taskId));
+        Transaction transaction = adminTaskService.updateTask(taskId, request);
 
-        if (request.getAssignedToId() != null) {
-            User assignee = userRepository.findById(request.getAssignedToId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found: " + request.getAssignedToId()));
-            transaction.setAssignedTo(assignee);
-            transaction.setAssignedAt(LocalDateTime.now());
-        }
-        if (request.getPriority() != null)
-            transaction.setPriority(request.getPriority());
-        if (request.getStatus() != null) {
-            transaction.setStatus(request.getStatus());
-            if (request.getStatus() == TransactionStatus.COMPLETED) {
-                transaction.setCompletedAt(LocalDateTime.now());
-            }
-        }
-        if (request.getNotes() != null)
-            transaction.setNotes(request.getNotes());
-
-        transaction = transactionRepository.save(transaction);
-
-        return ResponseEntity.ok(ApiResponse.success(toTaskMap(transaction), "Task updated successfully"));
+        return ResponseEntity.ok(ApiResponse.success(
+                toTaskMap(transaction, transactionLineRepository.countByTransaction_Id(transaction.getId())),
+                "Task updated successfully"));
     }
 
     @DeleteMapping("/{taskId}")
     public ResponseEntity<ApiResponse<Map<String, Object>>> deleteTask(@PathVariable UUID taskId) {
-        Transaction transaction = transactionRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found: " + taskId));
-
-        transaction.setStatus(TransactionStatus.CANCELLED);
-        transactionRepository.save(transaction);
+        adminTaskService.cancelTask(taskId);
 
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("message", "Task cancelled successfully"), "Task cancelled successfully"));
     }
 
-    private Map<String, Object> toTaskMap(Transaction t) {
+    /**
+     * Line counts of a page of tasks in one query; the lines collection itself
+     * is lazy and the session is closed by the time the page is mapped.
+     */
+    private Map<UUID, Long> countLines(List<Transaction> tasks) {
+        if (tasks.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Long> counts = new HashMap<>();
+        transactionLineRepository.countByTransactionIds(tasks.stream().map(Transaction::getId).toList())
+                .forEach(c -> counts.put(c.transactionId(), c.lines()));
+        return counts;
+    }
+
+    private Map<String, Object> toTaskMap(Transaction t, long linesCount) {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("id", t.getId());
         map.put("reference", t.getReference());
@@ -187,7 +205,7 @@ public class AdminTaskController {
                 "fullName", t.getAssignedTo().getFullName()) : null);
         map.put("chariot", t.getChariot() != null ? Map.of(
                 "id", t.getChariot().getId(), "code", t.getChariot().getCode()) : null);
-        map.put("linesCount", t.getTransactionLines() != null ? t.getTransactionLines().size() : 0);
+        map.put("linesCount", linesCount);
         map.put("notes", t.getNotes());
         map.put("createdAt", t.getCreatedAt());
         map.put("assignedAt", t.getAssignedAt());
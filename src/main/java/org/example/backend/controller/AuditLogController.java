@@ -7,6 +7,7 @@ import org.example.backend.entity.User;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.AuditLogRepository;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.util.KeysetCursor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -26,6 +27,12 @@ public class AuditLogController {
     private final AuditLogRepository auditLogRepository;
     private final UserRepository userRepository;
 
+    /**
+     * Audit logs, newest first. Without {@code cursor} the classic page/size
+     * paging is used; every response also carries a {@code nextCursor} that can
+     * be passed back instead of a page number, which keeps deep pages as cheap
+     * as the first one.
+     */
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> getAuditLogs(
             @RequestParam(required = false) UUID userId,
@@ -34,12 +41,23 @@ public class AuditLogController {
             @RequestParam(required = false) UUID entityId,
             @RequestParam(required = false) LocalDateTime startDate,
             @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
 
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            List<AuditLog> rows = auditLogRepository.findWithFiltersBefore(
+                    userId, action, entityType, entityId, startDate, endDate,
+                    after.at(), after.id(), KeysetCursor.limit(size));
+            Map<String, Object> response = KeysetCursor.page(rows, size,
+                    a -> new KeysetCursor(a.getCreatedAt(), a.getId()), this::toAuditLogMap);
+            return ResponseEntity.ok(ApiResponse.success(response, "Audit logs retrieved"));
+        }
+
         Page<AuditLog> logs = auditLogRepository.findWithFilters(
                 userId, action, entityType, entityId, startDate, endDate,
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt")));
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
 
         List<Map<String, Object>> content = logs.getContent().stream().map(this::toAuditLogMap).toList();
 
@@ -47,6 +65,8 @@ public class AuditLogController {
         response.put("content", content);
         response.put("totalElements", logs.getTotalElements());
         response.put("totalPages", logs.getTotalPages());
+        response.put("nextCursor", KeysetCursor.next(logs, a -> new KeysetCursor(a.getCreatedAt(), a.getId())));
+        response.put("hasMore", logs.hasNext());
 
         return ResponseEntity.ok(ApiResponse.success(response, "Audit logs retrieved"));
     }
@@ -9,6 +9,7 @@ import org.example.backend.entity.Chariot;
 import org.example.backend.enums.ChariotStatus;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.ChariotRepository;
+import org.example.backend.service.ScanDecoder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,6 +24,7 @@ import java.util.*;
 public class ChariotManagementController {
 
     private final ChariotRepository chariotRepository;
+    private final ScanDecoder scanDecoder;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAllChariots(
@@ -63,6 +65,7 @@ public class ChariotManagementController {
                 .build();
 
         chariot = chariotRepository.save(chariot);
+        scanDecoder.onChariotChanged(chariot);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("id", chariot.getId());
@@ -89,6 +92,7 @@ public class ChariotManagementController {
             chariot.setActive(request.getActive());
 
         chariot = chariotRepository.save(chariot);
+        scanDecoder.onChariotChanged(chariot);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("id", chariot.getId());
@@ -107,6 +111,7 @@ public class ChariotManagementController {
 
         chariot.setActive(false);
         chariotRepository.save(chariot);
+        scanDecoder.onChariotChanged(chariot);
 
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("message", "Chariot deleted successfully"), "Chariot deleted successfully"));
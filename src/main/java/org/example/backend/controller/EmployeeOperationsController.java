@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.request.CompleteOperationRequest;
 import org.example.backend.dto.request.ExecuteLineRequest;
+import org.example.backend.dto.request.ExecuteLinesRequest;
 import org.example.backend.dto.request.ReportIssueRequest;
 import org.example.backend.dto.request.StartOperationRequest;
 import org.example.backend.dto.response.ApiResponse;
@@ -14,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
 
@@ -46,6 +48,31 @@ public class EmployeeOperationsController {
                 "Line executed successfully"));
     }
 
+    /**
+     * Execute several scanned lines in one request. Per-line outcomes are
+     * returned; nothing was recorded when {@code committed} is false.
+     */
+    @PostMapping("/execute-lines")
+    @PreAuthorize("hasAuthority('operation:write')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> executeLines(
+            @Valid @RequestBody ExecuteLinesRequest request,
+            Authentication authentication) {
+
+        Map<String, Object> result = employeeWorkflowService.executeOperationLines(authentication.getName(),
+                request.getLines(), request.isBestEffort());
+        if (!Boolean.TRUE.equals(result.get("committed"))) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(ApiResponse.<Map<String, Object>>builder()
+                            .success(false)
+                            .message("No line executed")
+                            .data(result)
+                            .timestamp(LocalDateTime.now())
+                            .errorCode("LINES_REJECTED")
+                            .build());
+        }
+        return ResponseEntity.ok(ApiResponse.success(result, "Lines executed"));
+    }
+
     @PostMapping("/report-issue")
     @PreAuthorize("hasAuthority('operation:write')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> reportIssue(
@@ -1,6 +1,12 @@
 package org.example.backend.controller;
 
+import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.LocationProductStock;
+import org.example.backend.dto.projection.LocationStock;
 import org.example.backend.dto.response.ApiResponse;
+import org.example.backend.service.InventoryService;
+import org.example.backend.service.InventoryService.LocationContents;
+import org.example.backend.service.InventoryService.ProductStock;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,57 +15,86 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/inventory")
+@RequiredArgsConstructor
 public class InventoryController {
 
+    private final InventoryService inventoryService;
+
     @GetMapping("/stock/product/{productId}")
     @PreAuthorize("hasAuthority('inventory:read')")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductStock(@PathVariable String productId) {
-        int totalStock = Math.abs(productId.hashCode() % 300) + 50;
-        Map<String, Object> response = Map.of(
-                "productId", productId,
-                "productSku", "SKU-" + productId,
-                "productName", "Product " + productId,
-                "totalStock", totalStock,
-                "unitOfMeasure", "pcs",
-                "locations", List.of(
-                        Map.of("locationCode", "B07-N1-A3", "quantity", totalStock / 2),
-                        Map.of("locationCode", "B07-N2-C7", "quantity", totalStock - (totalStock / 2))));
-
-        return ResponseEntity.ok(ApiResponse.success(response, "Product stock retrieved"));
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductStock(@PathVariable UUID productId) {
+        return ResponseEntity.ok(ApiResponse.success(
+                toProductStockMap(inventoryService.getProductStock(productId)), "Product stock retrieved"));
     }
 
+    /**
+     * Stock of a product by SKU; a scanned barcode is accepted as well.
+     */
     @GetMapping("/stock/search")
     @PreAuthorize("hasAuthority('inventory:read')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> searchStockBySku(@RequestParam String sku) {
-        int totalStock = Math.abs(sku.hashCode() % 250) + 30;
-        Map<String, Object> response = Map.of(
-                "productSku", sku,
-                "productName", "Product for " + sku,
-                "totalStock", totalStock,
-                "unitOfMeasure", "pcs",
-                "locations", List.of(
-                        Map.of("locationCode", "B07-N1-A5", "quantity", totalStock / 2),
-                        Map.of("locationCode", "B07-N2-B2", "quantity", totalStock - (totalStock / 2))));
-
-        return ResponseEntity.ok(ApiResponse.success(response, "Stock search completed"));
+        return ResponseEntity.ok(ApiResponse.success(
+                toProductStockMap(inventoryService.findStockBySku(sku)), "Stock search completed"));
     }
 
     @GetMapping("/location/{locationId}")
     @PreAuthorize("hasAuthority('inventory:read')")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getLocationContents(@PathVariable String locationId) {
-        Map<String, Object> response = Map.of(
-                "locationId", locationId,
-                "locationCode", "LOC-" + locationId,
-                "products", List.of(
-                        Map.of("productSku", "MIXER-001", "quantity", 100),
-                        Map.of("productSku", "VALVE-045", "quantity", 45)),
-                "capacityStatus", "NORMAL");
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLocationContents(@PathVariable UUID locationId) {
+        LocationContents contents = inventoryService.getLocationContents(locationId);
+
+        List<Map<String, Object>> products = contents.products().stream()
+                .map(this::toLocationProductMap)
+                .toList();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("locationId", contents.locationId());
+        response.put("locationCode", contents.code());
+        response.put("zone", contents.zone());
+        response.put("type", contents.type() != null ? contents.type().name() : null);
+        response.put("products", products);
+        response.put("occupancyPercent", contents.occupancyPercent());
+        response.put("capacityStatus", contents.capacityStatus().name());
 
         return ResponseEntity.ok(ApiResponse.success(response, "Location inventory retrieved"));
     }
+
+    private Map<String, Object> toProductStockMap(ProductStock stock) {
+        List<Map<String, Object>> locations = stock.locations().stream()
+                .map(this::toLocationStockMap)
+                .toList();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("productId", stock.productId());
+        map.put("productSku", stock.sku());
+        map.put("productName", stock.name());
+        map.put("totalStock", stock.totalStock());
+        map.put("unitOfMeasure", stock.unitOfMeasure());
+        map.put("locations", locations);
+        return map;
+    }
+
+    private Map<String, Object> toLocationStockMap(LocationStock stock) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("locationId", stock.locationId());
+        map.put("locationCode", stock.locationCode());
+        map.put("quantity", stock.quantity());
+        return map;
+    }
+
+    private Map<String, Object> toLocationProductMap(LocationProductStock stock) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("productId", stock.productId());
+        map.put("productSku", stock.sku());
+        map.put("productName", stock.name());
+        map.put("unitOfMeasure", stock.unitOfMeasure());
+        map.put("quantity", stock.quantity());
+        return map;
+    }
 }
@@ -3,8 +3,8 @@ package org.example.backend.controller;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Location;
-import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.LocationRepository;
+import org.example.backend.service.LocationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +21,7 @@ import java.util.stream.Collectors;
 public class LocationController {
 
     private final LocationRepository locationRepository;
+    private final LocationService locationService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('location:read')")
@@ -34,8 +35,7 @@ public class LocationController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('location:read')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getLocation(@PathVariable UUID id) {
-        Location location = locationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Location not found: " + id));
+        Location location = locationService.getLocation(id);
         return ResponseEntity.ok(ApiResponse.success(toMap(location), "Location retrieved"));
     }
 
@@ -2,6 +2,7 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
 import org.example.backend.dto.request.LocationCreateRequest;
 import org.example.backend.dto.request.UpdateLocationRequest;
 import org.example.backend.dto.response.ApiResponse;
@@ -12,6 +13,8 @@ import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.LocationRepository;
 import org.example.backend.repository.StockLedgerRepository;
 import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.ScanDecoder;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
@@ -31,6 +34,7 @@ public class LocationManagementController {
     private final LocationRepository locationRepository;
     private final WarehouseRepository warehouseRepository;
     private final StockLedgerRepository stockLedgerRepository;
+    private final ScanDecoder scanDecoder;
 
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> getAllLocations(
@@ -90,12 +94,14 @@ public class LocationManagementController {
                 .build();
 
         location = locationRepository.save(location);
+        scanDecoder.onLocationChanged(location.getId());
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(toLocationMap(location), "Location created successfully"));
     }
 
     @PutMapping("/{locationId}")
+    @CacheEvict(cacheNames = CacheConfig.LOCATIONS, key = "#locationId")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateLocation(
             @PathVariable UUID locationId,
             @Valid @RequestBody UpdateLocationRequest request) {
@@ -115,17 +121,20 @@ public class LocationManagementController {
             location.setActive(request.getActive());
 
         location = locationRepository.save(location);
+        scanDecoder.onLocationChanged(location.getId());
 
         return ResponseEntity.ok(ApiResponse.success(toLocationMap(location), "Location updated successfully"));
     }
 
     @DeleteMapping("/{locationId}")
+    @CacheEvict(cacheNames = CacheConfig.LOCATIONS, key = "#locationId")
     public ResponseEntity<ApiResponse<Map<String, Object>>> deleteLocation(@PathVariable UUID locationId) {
         Location location = locationRepository.findById(locationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found: " + locationId));
 
         location.setActive(false);
         locationRepository.save(location);
+        scanDecoder.onLocationChanged(locationId);
 
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("message", "Location deleted successfully"), "Location deleted successfully"));
@@ -5,20 +5,27 @@ import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Chariot;
 import org.example.backend.entity.Transaction;
 import org.example.backend.entity.User;
+import org.example.backend.enums.LiveTopic;
 import org.example.backend.enums.Role;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.repository.ChariotRepository;
 import org.example.backend.repository.TransactionRepository;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.service.LiveFeedService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,6 +36,7 @@ public class MonitoringController {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final ChariotRepository chariotRepository;
+    private final LiveFeedService liveFeedService;
 
     @GetMapping("/active-operations")
     @PreAuthorize("hasAuthority('dashboard:read')")
@@ -84,6 +92,19 @@ public class MonitoringController {
         return ResponseEntity.ok(ApiResponse.success(chariots, "Chariot status retrieved"));
     }
 
+    /**
+     * Live feed as Server-Sent Events: a {@code snapshot} event per topic, then
+     * {@code stock}, {@code low-stock}, {@code task} and {@code chariot} deltas. All
+     * topics when none are given.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('dashboard:read')")
+    public SseEmitter streamLive(@RequestParam(required = false) Set<LiveTopic> topics) {
+        return liveFeedService.subscribe(topics == null || topics.isEmpty()
+                ? EnumSet.allOf(LiveTopic.class)
+                : topics);
+    }
+
     private Map<String, Object> toOperationMap(Transaction t) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", t.getId());
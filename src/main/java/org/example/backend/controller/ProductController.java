@@ -3,8 +3,8 @@ package org.example.backend.controller;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Product;
-import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.ProductRepository;
+import org.example.backend.service.ProductService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +21,7 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductRepository productRepository;
+    private final ProductService productService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('product:read')")
@@ -34,8 +35,7 @@ public class ProductController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('product:read')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getProduct(@PathVariable UUID id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+        Product product = productService.getProduct(id);
         return ResponseEntity.ok(ApiResponse.success(toMap(product), "Product retrieved"));
     }
 
@@ -2,6 +2,7 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
 import org.example.backend.dto.request.AddBarcodeRequest;
 import org.example.backend.dto.request.ProductCreateRequest;
 import org.example.backend.dto.request.UpdateProductRequest;
@@ -11,6 +12,10 @@ import org.example.backend.entity.ProductBarcode;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.ProductBarcodeRepository;
 import org.example.backend.repository.ProductRepository;
+import org.example.backend.service.BarcodeIndex;
+import org.example.backend.service.LowStockAlertEngine;
+import org.example.backend.service.ScanDecoder;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
@@ -29,6 +34,9 @@ public class ProductManagementController {
 
     private final ProductRepository productRepository;
     private final ProductBarcodeRepository productBarcodeRepository;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final BarcodeIndex barcodeIndex;
+    private final ScanDecoder scanDecoder;
 
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> getAllProducts(
@@ -90,6 +98,8 @@ public class ProductManagementController {
                 .build();
 
         product = productRepository.save(product);
+        lowStockAlertEngine.onProductChanged(product);
+        scanDecoder.onProductChanged(product);
 
         // Add barcodes if provided
         if (request.getBarcodes() != null && !request.getBarcodes().isEmpty()) {
@@ -98,8 +108,10 @@ public class ProductManagementController {
                         .barcode(entry.getBarcode())
                         .product(product)
                         .isPrimary(entry.getIsPrimary() != null ? entry.getIsPrimary() : false)
+                        .codeBarreFardeau(entry.getCodeBarreFardeau())
+                        .codeBarrePalette(entry.getCodeBarrePalette())
                         .build();
-                productBarcodeRepository.save(barcode);
+                barcodeIndex.onBarcodeAdded(productBarcodeRepository.save(barcode));
             }
         }
 
@@ -108,6 +120,7 @@ public class ProductManagementController {
     }
 
     @PutMapping("/{productId}")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateProduct(
             @PathVariable UUID productId,
             @Valid @RequestBody UpdateProductRequest request) {
@@ -141,17 +154,23 @@ public class ProductManagementController {
             product.setQuantity(request.getQuantity());
 
         product = productRepository.save(product);
+        lowStockAlertEngine.onProductChanged(product);
+        scanDecoder.onProductChanged(product);
+        barcodeIndex.onProductChanged(product);
 
         return ResponseEntity.ok(ApiResponse.success(toProductMap(product), "Product updated successfully"));
     }
 
     @DeleteMapping("/{productId}")
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
     public ResponseEntity<ApiResponse<Map<String, Object>>> deleteProduct(@PathVariable UUID productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
 
         product.setActive(false);
         productRepository.save(product);
+        lowStockAlertEngine.onProductChanged(product);
+        scanDecoder.onProductChanged(product);
 
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("message", "Product deleted successfully"), "Product deleted successfully"));
@@ -169,20 +188,26 @@ public class ProductManagementController {
                 .barcode(request.getBarcode())
                 .product(product)
                 .isPrimary(request.getIsPrimary() != null ? request.getIsPrimary() : false)
+                .codeBarreFardeau(request.getCodeBarreFardeau())
+                .codeBarrePalette(request.getCodeBarrePalette())
                 .build();
 
         barcode = productBarcodeRepository.save(barcode);
+        barcodeIndex.onBarcodeAdded(barcode);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("id", barcode.getId());
         response.put("barcode", barcode.getBarcode());
         response.put("isPrimary", barcode.getIsPrimary());
+        response.put("codeBarreFardeau", barcode.getCodeBarreFardeau());
+        response.put("codeBarrePalette", barcode.getCodeBarrePalette());
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(response, "Barcode added successfully"));
     }
 
     @DeleteMapping("/{productId}/barcodes/{barcodeId}")
+    @CacheEvict(cacheNames = CacheConfig.BARCODES, allEntries = true)
     public ResponseEntity<ApiResponse<Map<String, Object>>> removeBarcode(
             @PathVariable UUID productId,
             @PathVariable UUID barcodeId) {
@@ -194,6 +219,7 @@ public class ProductManagementController {
                 .orElseThrow(() -> new ResourceNotFoundException("Barcode not found: " + barcodeId));
 
         productBarcodeRepository.delete(barcode);
+        barcodeIndex.onBarcodeRemoved(barcode);
 
         return ResponseEntity.ok(ApiResponse.success(
                 Map.of("message", "Barcode removed successfully"), "Barcode removed successfully"));
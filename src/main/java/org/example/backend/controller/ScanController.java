@@ -1,42 +1,73 @@
 package org.example.backend.controller;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.response.ApiResponse;
+import org.example.backend.service.EmployeeWorkflowService;
+import org.example.backend.service.ScanDecoder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/scan")
+@RequiredArgsConstructor
 public class ScanController {
 
+    private final ScanDecoder scanDecoder;
+    private final EmployeeWorkflowService employeeWorkflowService;
+
+    /**
+     * Decode a scanned code from memory and tell the employee what to do next
+     * in their task in progress.
+     */
     @PostMapping("/decode")
     @PreAuthorize("hasAuthority('operation:read')")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> decode(@RequestBody ScanRequest request) {
-        String barcodeData = request.barcodeData == null ? "" : request.barcodeData.trim();
-
-        String entityType;
-        if (barcodeData.startsWith("CH-")) {
-            entityType = "CHARIOT";
-        } else if (barcodeData.contains("-") && barcodeData.startsWith("B")) {
-            entityType = "LOCATION";
+    public ResponseEntity<ApiResponse<Map<String, Object>>> decode(@Valid @RequestBody ScanRequest request,
+            Authentication authentication) {
+        ScanDecoder.Decoded decoded = scanDecoder.decode(request.barcodeData.trim());
+        Map<String, Object> nextAction = employeeWorkflowService.suggestScanAction(authentication.getName(), decoded);
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("code", decoded.code());
+        details.put("context", request.scanContext);
+        if (decoded.chariot() != null) {
+            details.put("id", decoded.chariot().id());
+            details.put("active", decoded.chariot().active());
+        } else if (decoded.location() != null) {
+            details.put("id", decoded.location().id());
+            details.put("locationCode", decoded.location().code());
+            details.put("zone", decoded.location().zone());
+            details.put("type", decoded.location().type());
+            details.put("warehouseCode", decoded.location().warehouseCode());
+        } else if (decoded.product() != null) {
+            details.put("id", decoded.product().id());
+            details.put("sku", decoded.product().sku());
+            details.put("name", decoded.product().name());
+            details.put("unitOfMeasure", decoded.product().unitOfMeasure());
+            details.put("packLevel", decoded.scan().level());
+            details.put("unitsPerScan", decoded.scan().multiplier());
         } else {
-            entityType = "PRODUCT";
+            details.put("likelyType", decoded.likelyType());
         }
 
-        Map<String, Object> response = Map.of(
-                "entityType", entityType,
-                "entityDetails", Map.of("code", barcodeData, "context", request.scanContext),
-                "suggestedAction", "Proceed with current task validation");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("entityType", decoded.type());
+        response.put("entityDetails", details);
+        response.put("suggestedAction", nextAction.get("message"));
+        response.put("nextAction", nextAction);
 
         return ResponseEntity.ok(ApiResponse.success(response, "Barcode decoded successfully"));
     }
 
     private record ScanRequest(@NotBlank String barcodeData, String scanContext) {
     }
-}
\ No newline at end of file
+}
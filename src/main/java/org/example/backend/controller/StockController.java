@@ -1,17 +1,38 @@
 package org.example.backend.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.BalanceAggregate;
 import org.example.backend.dto.response.ApiResponse;
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
 import org.example.backend.entity.StockLedger;
+import org.example.backend.entity.Warehouse;
+import org.example.backend.enums.ExportFormat;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
 import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.LedgerCheckpointService;
+import org.example.backend.service.LedgerCheckpointService.BalancesAsOf;
+import org.example.backend.service.LedgerExportService;
+import org.example.backend.util.KeysetCursor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -23,6 +44,11 @@ import java.util.stream.Collectors;
 public class StockController {
 
     private final StockLedgerRepository stockLedgerRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final LedgerCheckpointService ledgerCheckpointService;
+    private final LedgerExportService ledgerExportService;
 
     @GetMapping("/summary")
     @PreAuthorize("hasAuthority('inventory:read')")
@@ -42,29 +68,165 @@ public class StockController {
 
     @GetMapping("/by-product/{id}")
     @PreAuthorize("hasAuthority('inventory:read')")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getStockByProduct(@PathVariable UUID id) {
-        List<Map<String, Object>> result = stockLedgerRepository.findByProduct_Id(id).stream()
-                .map(this::toMap)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.success(result, "Stock by product retrieved"));
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStockByProduct(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+        List<StockLedger> rows = stockLedgerRepository.findPageByProductBefore(id, after.at(), after.id(),
+                KeysetCursor.limit(size));
+        return ResponseEntity.ok(ApiResponse.success(toPage(rows, size), "Stock by product retrieved"));
     }
 
     @GetMapping("/by-location/{id}")
     @PreAuthorize("hasAuthority('inventory:read')")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getStockByLocation(@PathVariable UUID id) {
-        List<Map<String, Object>> result = stockLedgerRepository.findByLocation_Id(id).stream()
-                .map(this::toMap)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.success(result, "Stock by location retrieved"));
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStockByLocation(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+        List<StockLedger> rows = stockLedgerRepository.findPageByLocationBefore(id, after.at(), after.id(),
+                KeysetCursor.limit(size));
+        return ResponseEntity.ok(ApiResponse.success(toPage(rows, size), "Stock by location retrieved"));
     }
 
+    /**
+     * Ledger entries newest first, one page at a time. Pass the returned
+     * {@code nextCursor} to get the next page.
+     */
     @GetMapping("/ledger")
     @PreAuthorize("hasAuthority('inventory:read')")
-    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getStockLedger() {
-        List<Map<String, Object>> result = stockLedgerRepository.findAll().stream()
-                .map(this::toMap)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.success(result, "Stock ledger retrieved"));
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStockLedger(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetCursor after = KeysetCursor.decodeOrStart(cursor);
+        List<StockLedger> rows = stockLedgerRepository.findPageBefore(after.at(), after.id(),
+                KeysetCursor.limit(size));
+        return ResponseEntity.ok(ApiResponse.success(toPage(rows, size), "Stock ledger retrieved"));
+    }
+
+    /**
+     * Streams the ledger as NDJSON or CSV. Rows are written while they are read
+     * from the database, so the export can be of any size.
+     */
+    @GetMapping("/ledger/export")
+    @PreAuthorize("hasAuthority('inventory:read')")
+    public ResponseEntity<StreamingResponseBody> exportStockLedger(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID locationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> ledgerExportService.export(format, productId, locationId, from, to, out);
+
+        String extension = format == ExportFormat.CSV ? "csv" : "ndjson";
+        return ResponseEntity.ok()
+                .contentType(format == ExportFormat.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stock-ledger." + extension + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/as-of/product/{id}")
+    @PreAuthorize("hasAuthority('inventory:read')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductStockAsOf(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + id));
+
+        BalancesAsOf asOf = ledgerCheckpointService.getBalancesAsOf(id, null, null, timestamp);
+        List<BalanceAggregate> balances = asOf.balances();
+        Map<UUID, Location> locations = locationRepository.findAllById(
+                balances.stream().map(BalanceAggregate::locationId).toList()).stream()
+                .collect(Collectors.toMap(Location::getId, l -> l));
+
+        List<Map<String, Object>> stockByLocation = balances.stream().map(b -> {
+            Location loc = locations.get(b.locationId());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("locationId", b.locationId());
+            map.put("locationCode", loc != null ? loc.getCode() : "UNKNOWN");
+            map.put("quantity", b.quantity());
+            return map;
+        }).collect(Collectors.toList());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("productId", product.getId());
+        response.put("sku", product.getSku());
+        response.put("timestamp", timestamp);
+        response.put("checkpointAt", asOf.checkpointAt());
+        response.put("totalStock", balances.stream().mapToLong(BalanceAggregate::quantity).sum());
+        response.put("stockByLocation", stockByLocation);
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Product stock as of " + timestamp + " retrieved"));
+    }
+
+    @GetMapping("/as-of/location/{id}")
+    @PreAuthorize("hasAuthority('inventory:read')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLocationStockAsOf(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        Location location = locationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Location not found: " + id));
+
+        BalancesAsOf asOf = ledgerCheckpointService.getBalancesAsOf(null, id, null, timestamp);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("locationId", location.getId());
+        response.put("locationCode", location.getCode());
+        response.put("timestamp", timestamp);
+        response.put("checkpointAt", asOf.checkpointAt());
+        response.put("products", toProductQuantities(asOf.balances()));
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Location stock as of " + timestamp + " retrieved"));
+    }
+
+    @GetMapping("/as-of/warehouse/{id}")
+    @PreAuthorize("hasAuthority('inventory:read')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getWarehouseStockAsOf(
+            @PathVariable UUID id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
+        Warehouse warehouse = warehouseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Warehouse not found: " + id));
+
+        // Warehouse-wide quantities are summed per product over its locations
+        BalancesAsOf asOf = ledgerCheckpointService.getBalancesAsOf(null, null, id, timestamp);
+        Map<UUID, Long> byProduct = new LinkedHashMap<>();
+        asOf.balances().forEach(b -> byProduct.merge(b.productId(), b.quantity(), Long::sum));
+        List<BalanceAggregate> totals = byProduct.entrySet().stream()
+                .map(e -> new BalanceAggregate(e.getKey(), null, e.getValue()))
+                .toList();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("warehouseId", warehouse.getId());
+        response.put("warehouseCode", warehouse.getCode());
+        response.put("timestamp", timestamp);
+        response.put("checkpointAt", asOf.checkpointAt());
+        response.put("totalStock", totals.stream().mapToLong(BalanceAggregate::quantity).sum());
+        response.put("products", toProductQuantities(totals));
+
+        return ResponseEntity.ok(ApiResponse.success(response, "Warehouse stock as of " + timestamp + " retrieved"));
+    }
+
+    private List<Map<String, Object>> toProductQuantities(List<BalanceAggregate> balances) {
+        Map<UUID, Product> products = productRepository.findAllById(
+                balances.stream().map(BalanceAggregate::productId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+
+        return balances.stream().map(b -> {
+            Product product = products.get(b.productId());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("productId", b.productId());
+            map.put("sku", product != null ? product.getSku() : "UNKNOWN");
+            map.put("name", product != null ? product.getName() : null);
+            map.put("quantity", b.quantity());
+            return map;
+        }).collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toPage(List<StockLedger> rows, int size) {
+        return KeysetCursor.page(rows, size, s -> new KeysetCursor(s.getPerformedAt(), s.getId()), this::toMap);
     }
 
     private Map<String, Object> toMap(StockLedger s) {
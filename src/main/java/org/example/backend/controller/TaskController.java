@@ -3,6 +3,8 @@ package org.example.backend.controller;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.service.EmployeeWorkflowService;
+import org.example.backend.service.TaskListVersions;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -11,8 +13,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,14 +26,29 @@ import java.util.UUID;
 public class TaskController {
 
     private final EmployeeWorkflowService employeeWorkflowService;
+    private final TaskListVersions taskListVersions;
 
+    /**
+     * Conditional on the employee's task-list version and the status filter,
+     * sent back as the ETag: with a matching {@code If-None-Match} header or
+     * {@code version} parameter the answer is an empty 304 and nothing is read
+     * from the database.
+     */
     @GetMapping("/my-tasks")
     @PreAuthorize("hasAuthority('operation:read')")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getMyTasks(
             @RequestParam(required = false) String status,
-            Authentication authentication) {
+            @RequestParam(required = false) String version,
+            Authentication authentication,
+            WebRequest webRequest) {
 
-        return ResponseEntity.ok(ApiResponse.success(
+        String filter = status == null || status.isBlank() ? "ALL" : status.trim().toUpperCase(Locale.ROOT);
+        String current = taskListVersions.currentVersion(authentication.getName()) + "-" + filter;
+        if (current.equals(version) || webRequest.checkNotModified(current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+        }
+
+        return ResponseEntity.ok().eTag(current).body(ApiResponse.success(
                 employeeWorkflowService.getMyTasks(authentication.getName(), status),
                 "My tasks retrieved successfully"));
     }
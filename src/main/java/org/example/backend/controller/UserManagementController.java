@@ -2,6 +2,7 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
 import org.example.backend.dto.request.CreateUserRequest;
 import org.example.backend.dto.request.ResetPasswordRequest;
 import org.example.backend.dto.request.UpdateUserRequest;
@@ -13,6 +14,7 @@ import org.example.backend.enums.TransactionStatus;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.TransactionRepository;
 import org.example.backend.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
@@ -132,6 +134,7 @@ public class UserManagementController {
     }
 
     @PutMapping("/{userId}")
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateUser(
             @PathVariable UUID userId,
             @Valid @RequestBody UpdateUserRequest request) {
@@ -169,6 +172,7 @@ public class UserManagementController {
     }
 
     @DeleteMapping("/{userId}")
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
     public ResponseEntity<ApiResponse<Map<String, Object>>> deleteUser(@PathVariable UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
@@ -181,6 +185,7 @@ public class UserManagementController {
     }
 
     @PutMapping("/{userId}/reset-password")
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
     public ResponseEntity<ApiResponse<Map<String, Object>>> resetPassword(
             @PathVariable UUID userId,
             @Valid @RequestBody ResetPasswordRequest request) {
@@ -3,7 +3,7 @@ package org.example.backend.controller;
 import lombok.RequiredArgsConstructor;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Warehouse;
-import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.WarehouseService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,13 +22,12 @@ import java.util.*;
 @RequiredArgsConstructor
 public class WarehouseController {
 
-    private final WarehouseRepository warehouseRepository;
+    private final WarehouseService warehouseService;
 
     @GetMapping
     @PreAuthorize("hasAuthority('location:read')")
     public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getAllWarehouses() {
-        List<Warehouse> warehouses = warehouseRepository.findAll().stream()
-                .filter(Warehouse::getActive).toList();
+        List<Warehouse> warehouses = warehouseService.getActiveWarehouses();
 
         List<Map<String, Object>> content = warehouses.stream().map(w -> {
             Map<String, Object> map = new LinkedHashMap<>();
@@ -45,9 +44,7 @@ public class WarehouseController {
     @GetMapping("/{warehouseId}")
     @PreAuthorize("hasAuthority('location:read')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getWarehouseById(@PathVariable UUID warehouseId) {
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new org.example.backend.exception.ResourceNotFoundException(
-                        "Warehouse not found: " + warehouseId));
+        Warehouse warehouse = warehouseService.getWarehouse(warehouseId);
 
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("id", warehouse.getId());
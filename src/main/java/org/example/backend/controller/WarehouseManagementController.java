@@ -2,12 +2,15 @@ package org.example.backend.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
 import org.example.backend.dto.request.CreateWarehouseRequest;
 import org.example.backend.dto.request.UpdateWarehouseRequest;
 import org.example.backend.dto.response.ApiResponse;
 import org.example.backend.entity.Warehouse;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.WarehouseRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -65,6 +68,7 @@ public class WarehouseManagementController {
     }
 
     @PostMapping
+    @CacheEvict(cacheNames = CacheConfig.WAREHOUSES, key = "'active'")
     public ResponseEntity<ApiResponse<Map<String, Object>>> createWarehouse(
             @Valid @RequestBody CreateWarehouseRequest request) {
         if (warehouseRepository.existsByCode(request.getCode())) {
@@ -93,6 +97,11 @@ public class WarehouseManagementController {
     }
 
     @PutMapping("/{warehouseId}")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.WAREHOUSES, allEntries = true),
+            // Cached locations carry their warehouse
+            @CacheEvict(cacheNames = CacheConfig.LOCATIONS, allEntries = true)
+    })
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateWarehouse(
             @PathVariable UUID warehouseId,
             @Valid @RequestBody UpdateWarehouseRequest request) {
@@ -121,6 +130,10 @@ public class WarehouseManagementController {
     }
 
     @DeleteMapping("/{warehouseId}")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.WAREHOUSES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.LOCATIONS, allEntries = true)
+    })
     public ResponseEntity<ApiResponse<Map<String, Object>>> deleteWarehouse(@PathVariable UUID warehouseId) {
         Warehouse warehouse = warehouseRepository.findById(warehouseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Warehouse not found: " + warehouseId));
@@ -0,0 +1,22 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.Priority;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A transaction being worked on, with its assignee flattened.
+ */
+public record ActiveTaskRow(
+        UUID id,
+        String reference,
+        TransactionType type,
+        TransactionStatus status,
+        Priority priority,
+        LocalDateTime startedAt,
+        UUID assignedToId,
+        String assignedToUsername) {
+}
@@ -0,0 +1,31 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat copy of a stock_ledger row, as stored in the cold archive segments.
+ */
+public record ArchivedLedgerEntry(
+        UUID id,
+        UUID productId,
+        UUID locationId,
+        UUID warehouseId,
+        UUID transactionId,
+        UUID transactionLineId,
+        UUID performedById,
+        MovementType movementType,
+        Integer quantity,
+        Integer runningBalance,
+        LocalDateTime performedAt,
+        LocalDateTime createdAt) {
+
+    /**
+     * Signed effect of this entry on the balance.
+     */
+    public int delta() {
+        return movementType == MovementType.OUT ? -quantity : quantity;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Summed ledger quantity of a product at a location.
+ */
+public record BalanceAggregate(UUID productId, UUID locationId, Long quantity) {
+}
@@ -0,0 +1,7 @@
+package org.example.backend.dto.projection;
+
+/**
+ * Quantity and version of a stock_balance row, read without loading the entity.
+ */
+public record BalanceVersion(Integer quantity, Long version) {
+}
@@ -0,0 +1,10 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * A code_barre row with the pack sizes of its product.
+ */
+public record BarcodeEntry(String barcode, String fardeauBarcode, String paletteBarcode, UUID productId,
+        Integer colisageFardeau, Integer colisagePalette) {
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Product a barcode is registered to.
+ */
+public record BarcodeProduct(String barcode, UUID productId) {
+}
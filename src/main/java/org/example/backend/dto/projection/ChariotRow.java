@@ -0,0 +1,19 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.ChariotStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chariot with its location and last user flattened.
+ */
+public record ChariotRow(
+        UUID id,
+        String code,
+        ChariotStatus status,
+        Boolean active,
+        String currentLocationCode,
+        String lastUsedByUsername,
+        LocalDateTime lastUsedAt) {
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * User attributes used as analytics dimensions.
+ */
+public record EmployeeDimension(UUID id, String username) {
+}
@@ -0,0 +1,26 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The fields of a stock_ledger row needed to replay its (product, location)
+ * running-balance chain.
+ */
+public record LedgerChainRow(
+        UUID id,
+        UUID locationId,
+        MovementType movementType,
+        Integer quantity,
+        Integer runningBalance,
+        LocalDateTime performedAt) {
+
+    /**
+     * Signed effect of this entry on the balance.
+     */
+    public int delta() {
+        return movementType == MovementType.OUT ? -quantity : quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One stock_ledger row flattened for export, with the codes of its product,
+ * location, transaction and user instead of the entities.
+ */
+public record LedgerExportRow(
+        UUID id,
+        LocalDateTime performedAt,
+        MovementType movementType,
+        Integer quantity,
+        Integer runningBalance,
+        UUID productId,
+        String sku,
+        UUID locationId,
+        String locationCode,
+        UUID transactionId,
+        String transactionReference,
+        String performedBy) {
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Number of lines of a transaction.
+ */
+public record LineCount(UUID transactionId, Long lines) {
+}
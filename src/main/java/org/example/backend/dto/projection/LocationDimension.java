@@ -0,0 +1,11 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.LocationType;
+
+import java.util.UUID;
+
+/**
+ * Location attributes used as analytics dimensions.
+ */
+public record LocationDimension(UUID id, String code, String zone, LocationType type, String warehouseCode) {
+}
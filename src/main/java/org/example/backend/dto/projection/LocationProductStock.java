@@ -0,0 +1,11 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Quantity of a product held at one location, with the product fields the
+ * location views need.
+ */
+public record LocationProductStock(UUID productId, String sku, String name, String unitOfMeasure, Double volumePcs,
+        Integer quantity) {
+}
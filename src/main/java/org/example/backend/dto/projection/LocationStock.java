@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Quantity of a product held at one location.
+ */
+public record LocationStock(UUID productId, UUID locationId, String locationCode, Integer quantity) {
+}
@@ -0,0 +1,13 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Ledger entries of one day summed per (product, location, movement type).
+ */
+public record MovementDayAggregate(LocalDate day, UUID productId, UUID locationId, MovementType movementType,
+        Long quantity, Long count) {
+}
@@ -0,0 +1,12 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDate;
+
+/**
+ * Quantity and number of movements of one type on one day, summed over the
+ * products and locations in scope.
+ */
+public record MovementDayTotal(LocalDate day, MovementType movementType, Long quantity, Long count) {
+}
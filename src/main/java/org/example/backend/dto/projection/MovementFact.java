@@ -0,0 +1,13 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One ledger entry reduced to the keys and measure of the movement cube.
+ */
+public record MovementFact(UUID productId, UUID locationId, UUID performedById, MovementType movementType,
+        Integer quantity, LocalDateTime performedAt) {
+}
@@ -0,0 +1,13 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One ledger entry as listed in the stock movement report.
+ */
+public record MovementRow(UUID id, String productSku, String productName, String locationCode,
+        MovementType movementType, Integer quantity, String performedBy, LocalDateTime performedAt) {
+}
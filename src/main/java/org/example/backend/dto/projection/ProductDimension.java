@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Product attributes used as analytics dimensions.
+ */
+public record ProductDimension(UUID id, String sku, String category) {
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * What a scan shows of a product.
+ */
+public record ProductLabel(UUID id, String sku, String name, String unitOfMeasure, boolean active) {
+}
@@ -0,0 +1,10 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * A product's stock threshold and its stock summed over all locations.
+ */
+public record ProductStockLevel(UUID productId, String sku, String name, Integer minStock, Boolean active,
+        Long totalStock) {
+}
@@ -0,0 +1,22 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * A product with its stock summed over all locations.
+ */
+public record ProductStockSummary(
+        UUID productId,
+        String sku,
+        String name,
+        String category,
+        Double price,
+        String unitOfMeasure,
+        Integer minStock,
+        Integer maxStock,
+        Long totalStock) {
+
+    public boolean isLowStock() {
+        return minStock != null && totalStock < minStock;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.Priority;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A task as shown in an employee's task list.
+ */
+public record TaskCardRow(
+        UUID id,
+        TransactionType type,
+        String reference,
+        TransactionStatus status,
+        Priority priority,
+        LocalDateTime assignedAt) {
+}
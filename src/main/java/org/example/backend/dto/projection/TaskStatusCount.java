@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.TransactionStatus;
+
+/**
+ * Number of transactions in a status.
+ */
+public record TaskStatusCount(TransactionStatus status, Long count) {
+}
@@ -0,0 +1,13 @@
+package org.example.backend.dto.projection;
+
+import org.example.backend.enums.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * When an assigned task was started and finished.
+ */
+public record TaskTiming(UUID assigneeId, TransactionStatus status, LocalDateTime startedAt,
+        LocalDateTime completedAt) {
+}
@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Number of rows attributed to a user.
+ */
+public record UserCount(UUID userId, Long count) {
+}
@@ -0,0 +1,10 @@
+package org.example.backend.dto.projection;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Number of rows attributed to a user on one day.
+ */
+public record UserDayCount(LocalDate day, UUID userId, Long count) {
+}
@@ -0,0 +1,10 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Productivity counters of a user summed over a period.
+ */
+public record UserProductivityTotal(UUID userId, Long tasksCompleted, Long linesExecuted,
+        Long discrepanciesReported, Long activeMinutes) {
+}
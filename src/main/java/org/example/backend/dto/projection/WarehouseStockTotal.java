@@ -0,0 +1,9 @@
+package org.example.backend.dto.projection;
+
+import java.util.UUID;
+
+/**
+ * Stock on hand in a warehouse, summed over stock_balance.
+ */
+public record WarehouseStockTotal(UUID warehouseId, String warehouseCode, Long quantity, Long products) {
+}
@@ -17,4 +17,10 @@ public class AddBarcodeRequest {
 
     @Builder.Default
     private Boolean isPrimary = false;
+
+    /** Barcode printed on the fardeau (pack) of this product, if any. */
+    private String codeBarreFardeau;
+
+    /** Barcode printed on the pallet of this product, if any. */
+    private String codeBarrePalette;
 }
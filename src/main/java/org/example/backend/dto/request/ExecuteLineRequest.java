@@ -1,5 +1,6 @@
 package org.example.backend.dto.request;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -24,7 +25,12 @@ public class ExecuteLineRequest {
     @NotBlank(message = "Product barcode is required")
     private String productBarcode;
 
+    /**
+     * Number of scanned items: units, fardeaux or pallets depending on the
+     * barcode. Times the pack size it must equal the line quantity.
+     */
     @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
 
     private String sourceLocationCode;
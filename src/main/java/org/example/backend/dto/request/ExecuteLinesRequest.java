@@ -0,0 +1,26 @@
+package org.example.backend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecuteLinesRequest {
+
+    @NotEmpty(message = "At least one line is required")
+    @Size(max = 500, message = "At most 500 lines per request")
+    private List<@Valid ExecuteLineRequest> lines;
+
+    /** Execute the valid lines even if others fail; by default all lines commit together or none does. */
+    @Builder.Default
+    private boolean bestEffort = false;
+}
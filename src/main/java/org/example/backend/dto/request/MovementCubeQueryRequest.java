@@ -0,0 +1,41 @@
+package org.example.backend.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.backend.enums.CubeDimension;
+import org.example.backend.enums.CubeMeasure;
+import org.example.backend.service.MovementCube;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementCubeQueryRequest {
+
+    @Size(max = MovementCube.MAX_GROUP_BY, message = "Group by at most 3 dimensions")
+    private List<CubeDimension> groupBy;
+
+    /** Allowed values per dimension, e.g. {"ZONE": ["A", "B"], "MOVEMENT_TYPE": ["OUT"]}. */
+    private Map<CubeDimension, Set<String>> filters;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    /** Measure to sort by, descending; omitted sorts by group key. */
+    private CubeMeasure sortBy;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 10000, message = "Limit must be at most 10000")
+    private Integer limit;
+}
@@ -59,5 +59,7 @@ public class ProductCreateRequest {
         @NotBlank(message = "Barcode is required")
         private String barcode;
         private Boolean isPrimary = false;
+        private String codeBarreFardeau;
+        private String codeBarrePalette;
     }
 }
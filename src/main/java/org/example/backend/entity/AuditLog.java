@@ -24,7 +24,8 @@ import java.util.UUID;
 @Table(name = "audit_logs", indexes = {
         @Index(name = "idx_audit_user_created", columnList = "user_id, created_at"),
         @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id"),
-        @Index(name = "idx_audit_action", columnList = "action, created_at")
+        @Index(name = "idx_audit_action", columnList = "action, created_at"),
+        @Index(name = "idx_audit_created", columnList = "created_at, id")
 })
 @Getter
 @Setter
@@ -2,6 +2,7 @@ package org.example.backend.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -10,15 +11,21 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.example.backend.enums.ChariotStatus;
+import org.example.backend.event.StatusChangeListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -26,6 +33,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(StatusChangeListener.class)
 @Table(name = "chariots")
 @Getter
 @Setter
@@ -75,6 +83,11 @@ public class Chariot {
     @Builder.Default
     private List<Transaction> transactions = new ArrayList<>();
 
+    /** Status as last loaded or written, to detect transitions. */
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private ChariotStatus persistedStatus;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -85,4 +98,11 @@ public class Chariot {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberStatus() {
+        persistedStatus = status;
+    }
 }
\ No newline at end of file
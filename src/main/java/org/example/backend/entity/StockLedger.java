@@ -26,7 +26,11 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "stock_ledger", indexes = {
-        @Index(name = "idx_stock_ledger_product_location", columnList = "product_id, location_id, performed_at")
+        @Index(name = "idx_stock_ledger_product_location", columnList = "product_id, location_id, performed_at"),
+        // Keyset pagination (newest first) over the whole ledger, a product or a location
+        @Index(name = "idx_stock_ledger_performed", columnList = "performed_at, id"),
+        @Index(name = "idx_stock_ledger_product_performed", columnList = "product_id, performed_at, id"),
+        @Index(name = "idx_stock_ledger_location_performed", columnList = "location_id, performed_at, id")
 })
 @Check(constraints = "running_balance >= 0")
 @Getter
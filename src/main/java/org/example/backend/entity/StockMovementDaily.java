@@ -0,0 +1,70 @@
+package org.example.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entries of one closed day summed per (product, location, movement
+ * type). Quantities are summed as recorded in the ledger: positive for IN and
+ * OUT, signed for ADJUSTMENT. Written by MovementRollupServiceImpl, never by
+ * the stock movement paths.
+ */
+@Entity
+@Table(name = "stock_movement_daily", indexes = {
+        @Index(name = "idx_stock_movement_daily_product_day", columnList = "product_id, movement_day"),
+        @Index(name = "idx_stock_movement_daily_location_day", columnList = "location_id, movement_day")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementDaily {
+
+    @EmbeddedId
+    private StockMovementDailyId id;
+
+    /** Also tells Spring Data that a row with an assigned id is new. */
+    @Version
+    private Long version;
+
+    @MapsId("productId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @MapsId("locationId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "location_id", nullable = false)
+    private Location location;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Long totalQuantity;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+
+    @Column(name = "rolled_up_at", nullable = false)
+    private LocalDateTime rolledUpAt;
+
+    @PrePersist
+    protected void onCreate() {
+        rolledUpAt = LocalDateTime.now();
+    }
+}
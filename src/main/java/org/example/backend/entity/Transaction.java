@@ -3,16 +3,23 @@ package org.example.backend.entity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,6 +28,8 @@ import lombok.Setter;
 import org.example.backend.enums.Priority;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.enums.TransactionType;
+import org.example.backend.event.StatusChangeListener;
+import org.example.backend.event.TaskListChangeListener;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -28,7 +37,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@EntityListeners({ StatusChangeListener.class, TaskListChangeListener.class })
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_created", columnList = "cree_le, id_transaction"),
+        @Index(name = "idx_transactions_assignee", columnList = "assigned_to_id, assigned_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -96,8 +109,26 @@ public class Transaction {
     @Builder.Default
     private List<TaskDiscrepancy> discrepancies = new ArrayList<>();
 
+    /** Status as last loaded or written, to detect transitions. */
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private TransactionStatus persistedStatus;
+
+    /** Username of the assignee as last loaded or written, to detect reassignment. */
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private String persistedAssignee;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void rememberPersistedState() {
+        persistedStatus = status;
+        persistedAssignee = assignedTo != null ? assignedTo.getUsername() : null;
+    }
 }
@@ -0,0 +1,71 @@
+package org.example.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * What one employee did on one day. Incremented by the employee workflow in
+ * the same transaction as the operation, and recomputed from transactions,
+ * ledger and discrepancies by UserProductivityServiceImpl#rebuild.
+ */
+@Entity
+@Table(name = "user_productivity_daily", indexes = {
+        @Index(name = "idx_user_productivity_daily_day", columnList = "activity_day")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserProductivityDaily {
+
+    @EmbeddedId
+    private UserProductivityDailyId id;
+
+    @Version
+    private Long version;
+
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "tasks_completed", nullable = false)
+    private Long tasksCompleted;
+
+    @Column(name = "lines_executed", nullable = false)
+    private Long linesExecuted;
+
+    @Column(name = "discrepancies_reported", nullable = false)
+    private Long discrepanciesReported;
+
+    /** Start-to-finish time of the tasks finished that day. */
+    @Column(name = "active_minutes", nullable = false)
+    private Long activeMinutes;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (updatedAt == null) {
+            updatedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.backend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Composite key of a productivity counter row: one row per (day, user).
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class UserProductivityDailyId implements Serializable {
+
+    @Column(name = "activity_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+}
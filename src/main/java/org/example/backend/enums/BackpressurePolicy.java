@@ -0,0 +1,11 @@
+package org.example.backend.enums;
+
+/**
+ * What the stock event bus does when a subscriber falls a full buffer behind.
+ */
+public enum BackpressurePolicy {
+    /** Skip the events the subscriber missed; producers never wait. */
+    DROP,
+    /** Make producers wait (bounded) until the subscriber catches up. */
+    BLOCK_PRODUCER
+}
@@ -0,0 +1,11 @@
+package org.example.backend.enums;
+
+/**
+ * How StockLedgerServiceImpl serializes writes to a stock_balance row.
+ */
+public enum BalanceLockingMode {
+    /** SELECT ... FOR UPDATE before computing the new balance. */
+    PESSIMISTIC,
+    /** Conditional update on the row version, retried on conflict. */
+    OPTIMISTIC
+}
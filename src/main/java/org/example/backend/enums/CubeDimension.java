@@ -0,0 +1,17 @@
+package org.example.backend.enums;
+
+/**
+ * Dimensions of the movement cube. Category, zone, location type and
+ * warehouse are read from the current product and location.
+ */
+public enum CubeDimension {
+    PRODUCT,
+    CATEGORY,
+    WAREHOUSE,
+    ZONE,
+    LOCATION,
+    LOCATION_TYPE,
+    EMPLOYEE,
+    MOVEMENT_TYPE,
+    DAY
+}
@@ -0,0 +1,17 @@
+package org.example.backend.enums;
+
+/**
+ * Measures of the movement cube.
+ */
+public enum CubeMeasure {
+    /** Number of movements. */
+    COUNT,
+    /** Quantity received (IN). */
+    IN,
+    /** Quantity issued (OUT). */
+    OUT,
+    /** Signed quantity of adjustments. */
+    ADJUSTMENT,
+    /** Signed effect on stock: IN - OUT + ADJUSTMENT. */
+    NET
+}
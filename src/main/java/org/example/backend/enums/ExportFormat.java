@@ -0,0 +1,11 @@
+package org.example.backend.enums;
+
+/**
+ * Output formats of the streaming exports.
+ */
+public enum ExportFormat {
+    /** One JSON object per line (application/x-ndjson). */
+    NDJSON,
+    /** RFC 4180 CSV with a header row (text/csv). */
+    CSV
+}
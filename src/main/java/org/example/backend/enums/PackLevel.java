@@ -0,0 +1,11 @@
+package org.example.backend.enums;
+
+/**
+ * Packaging a barcode identifies: a single unit, a fardeau (bundle of
+ * {@code colisageFardeau} units) or a palette ({@code colisagePalette} units).
+ */
+public enum PackLevel {
+    UNIT,
+    FARDEAU,
+    PALETTE
+}
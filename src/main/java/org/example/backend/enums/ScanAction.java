@@ -0,0 +1,23 @@
+package org.example.backend.enums;
+
+/**
+ * What an employee should do after a scan, given their tasks in progress.
+ */
+public enum ScanAction {
+    /** The product of a pending line: execute it with the expected scan count. */
+    EXECUTE_LINE,
+    /** The pack scanned does not divide the quantity of the product's pending line. */
+    WRONG_PACK,
+    /** The source location of a pending line: scan its product next. */
+    SCAN_PRODUCT,
+    /** The destination location of a pending line. */
+    CONFIRM_DESTINATION,
+    /** The chariot attached to a task in progress. */
+    CHARIOT_CONFIRMED,
+    /** A chariot other than the one attached to the tasks in progress. */
+    WRONG_CHARIOT,
+    /** A known code that no pending line of the tasks in progress uses. */
+    NOT_IN_TASK,
+    NO_ACTIVE_TASK,
+    UNKNOWN_CODE
+}
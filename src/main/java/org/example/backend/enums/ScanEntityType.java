@@ -0,0 +1,8 @@
+package org.example.backend.enums;
+
+public enum ScanEntityType {
+    CHARIOT,
+    LOCATION,
+    PRODUCT,
+    UNKNOWN
+}
@@ -0,0 +1,32 @@
+package org.example.backend.event;
+
+import org.example.backend.entity.Chariot;
+import org.example.backend.enums.ChariotStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A chariot entered a new status. {@code previousStatus} is null for newly
+ * registered chariots.
+ */
+public record ChariotStatusChangedEvent(
+        UUID chariotId,
+        String code,
+        ChariotStatus previousStatus,
+        ChariotStatus status,
+        UUID currentLocationId,
+        UUID lastUsedById,
+        LocalDateTime changedAt) {
+
+    public static ChariotStatusChangedEvent of(Chariot chariot, ChariotStatus previousStatus) {
+        return new ChariotStatusChangedEvent(
+                chariot.getId(),
+                chariot.getCode(),
+                previousStatus,
+                chariot.getStatus(),
+                chariot.getCurrentLocation() != null ? chariot.getCurrentLocation().getId() : null,
+                chariot.getLastUsedBy() != null ? chariot.getLastUsedBy().getId() : null,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.backend.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A product crossed its minimum stock: {@code belowMin} is true when it
+ * dropped below, false when it was restocked (or its threshold lowered or
+ * removed).
+ */
+public record LowStockEvent(
+        UUID productId,
+        String sku,
+        String name,
+        long totalStock,
+        Integer minStock,
+        boolean belowMin,
+        LocalDateTime at) {
+}
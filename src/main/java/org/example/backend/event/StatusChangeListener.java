@@ -0,0 +1,36 @@
+package org.example.backend.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.example.backend.entity.Chariot;
+import org.example.backend.entity.Transaction;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Transaction} and {@link Chariot} that turns status
+ * transitions into application events, whichever service made them. Runs when
+ * the row is flushed; listeners that only want committed changes should use
+ * {@code @TransactionalEventListener}.
+ * <p>
+ * JPA invokes listener callbacks before the entity's own, so the entity's
+ * persisted status is still the previous one here.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatusChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void afterWrite(Object entity) {
+        if (entity instanceof Transaction transaction
+                && transaction.getStatus() != transaction.getPersistedStatus()) {
+            eventPublisher.publishEvent(TaskStatusChangedEvent.of(transaction, transaction.getPersistedStatus()));
+        } else if (entity instanceof Chariot chariot && chariot.getStatus() != chariot.getPersistedStatus()) {
+            eventPublisher.publishEvent(ChariotStatusChangedEvent.of(chariot, chariot.getPersistedStatus()));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.backend.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.enums.BackpressurePolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of committed stock movements.
+ * <p>
+ * Events go into a fixed ring buffer. Producers claim a sequence with a single
+ * atomic increment and publish the event together with its sequence in one
+ * reference write. Each subscriber runs on its own thread with its own cursor
+ * into the buffer, so a slow subscriber never delays the others. What happens
+ * when a subscriber falls a full buffer behind is its
+ * {@link BackpressurePolicy}.
+ * <p>
+ * Delivery is at most once and in publish order. Events are lost on restart;
+ * subscribers that need history must load it from the database first.
+ */
+@Component
+@Slf4j
+public class StockEventBus {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int IDLE_SPINS = 100;
+
+    private final int capacity;
+    private final int mask;
+    private final long blockTimeoutNanos;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong blockTimeouts = new AtomicLong();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public StockEventBus(@Value("${stock.events.buffer-size:8192}") int bufferSize,
+            @Value("${stock.events.block-timeout-ms:1000}") long blockTimeoutMs) {
+        int size = 1;
+        while (size < bufferSize) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Publish one event. Never blocks unless a {@link BackpressurePolicy#BLOCK_PRODUCER}
+     * subscriber is a full buffer behind, and then at most
+     * {@code stock.events.block-timeout-ms}.
+     */
+    public void publish(StockMovedEvent event) {
+        long sequence = nextSequence.getAndIncrement();
+        int index = (int) (sequence & mask);
+
+        awaitBlockingSubscribers(sequence);
+        // A producer from the previous lap may still be writing this slot
+        if (sequence >= capacity) {
+            Slot previous;
+            while ((previous = slots.get(index)) == null || previous.sequence < sequence - capacity) {
+                Thread.onSpinWait();
+            }
+        }
+        slots.set(index, new Slot(sequence, event));
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.idle) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    /**
+     * Start delivering events published from now on to {@code handler}, on a
+     * dedicated thread. Exceptions thrown by the handler are logged and the
+     * event is skipped.
+     */
+    public Subscription subscribe(String name, BackpressurePolicy policy, Consumer<StockMovedEvent> handler) {
+        Subscription subscription = new Subscription(name, policy, handler, nextSequence.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        log.info("Stock event subscriber '{}' registered ({})", name, policy);
+        return subscription;
+    }
+
+    public List<SubscriptionStats> getSubscriptions() {
+        long head = nextSequence.get();
+        return subscriptions.stream().map(s -> s.stats(head)).toList();
+    }
+
+    public long getPublishedCount() {
+        return nextSequence.get();
+    }
+
+    public long getBlockTimeouts() {
+        return blockTimeouts.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::close);
+    }
+
+    private void awaitBlockingSubscribers(long sequence) {
+        long wrapPoint = sequence - capacity;
+        if (wrapPoint < 0) {
+            return;
+        }
+        long deadline = 0;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.policy != BackpressurePolicy.BLOCK_PRODUCER) {
+                continue;
+            }
+            while (subscription.active && subscription.cursor <= wrapPoint) {
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + blockTimeoutNanos;
+                } else if (System.nanoTime() - deadline > 0) {
+                    blockTimeouts.incrementAndGet();
+                    log.warn("Stock event subscriber '{}' is {} events behind, overwriting", subscription.name,
+                            sequence - subscription.cursor);
+                    break;
+                }
+                LockSupport.unpark(subscription.thread);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+    }
+
+    /** One buffer cell; event and sequence are published together. */
+    private record Slot(long sequence, StockMovedEvent event) {
+    }
+
+    public record SubscriptionStats(String name, BackpressurePolicy policy, long lag, long delivered,
+            long dropped, long failed) {
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final String name;
+        private final BackpressurePolicy policy;
+        private final Consumer<StockMovedEvent> handler;
+        private final Thread thread;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        /** Next sequence to deliver; only written by the subscriber thread. */
+        private volatile long cursor;
+        private volatile boolean idle;
+        private volatile boolean active = true;
+
+        private Subscription(String name, BackpressurePolicy policy, Consumer<StockMovedEvent> handler,
+                long start) {
+            this.name = name;
+            this.policy = policy;
+            this.handler = handler;
+            this.cursor = start;
+            this.thread = new Thread(this::run, "stock-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void close() {
+            active = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            int spins = 0;
+            while (active) {
+                long next = cursor;
+                Slot slot = slots.get((int) (next & mask));
+                if (slot == null || slot.sequence < next) {
+                    if (++spins < IDLE_SPINS) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    idle = true;
+                    // Re-check after announcing, so a publish in between is not missed
+                    Slot recheck = slots.get((int) (next & mask));
+                    if (recheck == null || recheck.sequence < next) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                spins = 0;
+
+                if (slot.sequence > next) {
+                    // Lapped: the events in between were overwritten
+                    dropped.addAndGet(slot.sequence - next);
+                    cursor = slot.sequence;
+                    continue;
+                }
+
+                try {
+                    handler.accept(slot.event);
+                    delivered.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    log.warn("Stock event subscriber '{}' failed on {}: {}", name, slot.event.ledgerId(),
+                            e.getMessage());
+                }
+                cursor = next + 1;
+            }
+        }
+
+        private SubscriptionStats stats(long head) {
+            return new SubscriptionStats(name, policy, Math.max(0, head - cursor), delivered.get(), dropped.get(),
+                    failed.get());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.backend.event;
+
+import org.example.backend.entity.StockLedger;
+import org.example.backend.enums.MovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A committed stock movement. Carries plain values only, so subscribers never
+ * touch JPA entities outside of their session.
+ *
+ * @param delta          signed effect on the balance
+ * @param runningBalance balance of the (product, location) after the movement
+ */
+public record StockMovedEvent(
+        UUID ledgerId,
+        UUID productId,
+        String sku,
+        UUID locationId,
+        String locationCode,
+        UUID warehouseId,
+        UUID transactionId,
+        MovementType movementType,
+        int quantity,
+        int delta,
+        int runningBalance,
+        UUID performedById,
+        LocalDateTime performedAt) {
+
+    public static StockMovedEvent of(StockLedger entry) {
+        int delta = entry.getMovementType() == MovementType.OUT ? -entry.getQuantity() : entry.getQuantity();
+        return new StockMovedEvent(
+                entry.getId(),
+                entry.getProduct().getId(),
+                entry.getProduct().getSku(),
+                entry.getLocation().getId(),
+                entry.getLocation().getCode(),
+                entry.getLocation().getWarehouse().getId(),
+                entry.getTransaction().getId(),
+                entry.getMovementType(),
+                entry.getQuantity(),
+                delta,
+                entry.getRunningBalance(),
+                entry.getPerformedBy().getId(),
+                entry.getPerformedAt());
+    }
+}
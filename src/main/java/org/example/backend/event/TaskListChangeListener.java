@@ -0,0 +1,42 @@
+package org.example.backend.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.service.TaskListVersions;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * JPA listener on {@link Transaction} that marks the task lists of the old and
+ * new assignee as changed on every write, whichever service made it. Bulk JPQL
+ * updates bypass it.
+ * <p>
+ * Runs before the entity's own callbacks, so its persisted assignee is still
+ * the previous one here.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskListChangeListener {
+
+    private final TaskListVersions taskListVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void afterWrite(Transaction transaction) {
+        User assignee = transaction.getAssignedTo();
+        String current = assignee != null ? assignee.getUsername() : null;
+        String previous = transaction.getPersistedAssignee();
+        if (current != null) {
+            taskListVersions.onTaskListChanged(current);
+        }
+        if (previous != null && !Objects.equals(previous, current)) {
+            taskListVersions.onTaskListChanged(previous);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.backend.event;
+
+import org.example.backend.entity.Transaction;
+import org.example.backend.enums.Priority;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A task (transaction) entered a new status. {@code previousStatus} is null for
+ * newly created tasks.
+ */
+public record TaskStatusChangedEvent(
+        UUID transactionId,
+        String reference,
+        TransactionType type,
+        Priority priority,
+        TransactionStatus previousStatus,
+        TransactionStatus status,
+        UUID assignedToId,
+        UUID chariotId,
+        LocalDateTime changedAt) {
+
+    public static TaskStatusChangedEvent of(Transaction transaction, TransactionStatus previousStatus) {
+        return new TaskStatusChangedEvent(
+                transaction.getId(),
+                transaction.getReference(),
+                transaction.getType(),
+                transaction.getPriority(),
+                previousStatus,
+                transaction.getStatus(),
+                transaction.getAssignedTo() != null ? transaction.getAssignedTo().getId() : null,
+                transaction.getChariot() != null ? transaction.getChariot().getId() : null,
+                LocalDateTime.now());
+    }
+}
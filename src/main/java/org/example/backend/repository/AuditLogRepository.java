@@ -48,5 +48,29 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #findWithFilters}: the rows strictly before
+     * (at, id), newest first.
+     */
+    @Query("SELECT a FROM AuditLog a WHERE " +
+            "(:userId IS NULL OR a.user.id = :userId) " +
+            "AND (:action IS NULL OR a.action = :action) " +
+            "AND (:entityType IS NULL OR a.entityType = :entityType) " +
+            "AND (:entityId IS NULL OR a.entityId = :entityId) " +
+            "AND (:startDate IS NULL OR a.createdAt >= :startDate) " +
+            "AND (:endDate IS NULL OR a.createdAt <= :endDate) " +
+            "AND (a.createdAt, a.id) < (:at, :id) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLog> findWithFiltersBefore(
+            @Param("userId") UUID userId,
+            @Param("action") String action,
+            @Param("entityType") String entityType,
+            @Param("entityId") UUID entityId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("at") LocalDateTime at,
+            @Param("id") UUID id,
+            Pageable pageable);
+
     List<AuditLog> findTop10ByOrderByCreatedAtDesc();
 }
@@ -1,8 +1,10 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.ChariotRow;
 import org.example.backend.entity.Chariot;
 import org.example.backend.enums.ChariotStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +23,9 @@ public interface ChariotRepository extends JpaRepository<Chariot, UUID> {
     List<Chariot> findByActive(Boolean active);
 
     long countByStatus(ChariotStatus status);
+
+    @Query("SELECT new org.example.backend.dto.projection.ChariotRow(c.id, c.code, c.status, c.active, l.code, " +
+            "u.username, c.lastUsedAt) " +
+            "FROM Chariot c LEFT JOIN c.currentLocation l LEFT JOIN c.lastUsedBy u ORDER BY c.code")
+    List<ChariotRow> findAllRows();
 }
\ No newline at end of file
@@ -0,0 +1,490 @@
+package org.example.backend.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.ArchivedLedgerEntry;
+import org.example.backend.dto.projection.BalanceAggregate;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.enums.MovementType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read-only, file-backed store of archived stock ledger entries.
+ * <p>
+ * Each archived month is one append-only segment ({@code ledger-YYYY-MM.seg})
+ * of independently deflated blocks, sorted by (product, location,
+ * performedAt), plus a sparse index ({@code ledger-YYYY-MM.idx}) holding the
+ * first key and file offset of every block. Product lookups only inflate the
+ * blocks whose key range can contain the product; other lookups scan the
+ * segments of the requested months.
+ */
+@Repository
+@Slf4j
+public class LedgerArchiveRepository {
+
+    private static final int SEGMENT_MAGIC = 0x534C4547; // "SLEG"
+    private static final int INDEX_MAGIC = 0x534C4958; // "SLIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final Comparator<UUID> UUID_ORDER = Comparator.naturalOrder();
+
+    /** Sort order of the entries inside a segment. */
+    public static final Comparator<ArchivedLedgerEntry> ENTRY_ORDER = Comparator
+            .comparing(ArchivedLedgerEntry::productId, UUID_ORDER)
+            .thenComparing(ArchivedLedgerEntry::locationId, UUID_ORDER)
+            .thenComparing(ArchivedLedgerEntry::performedAt)
+            .thenComparing(ArchivedLedgerEntry::id, UUID_ORDER);
+
+    private final Path directory;
+    private final int blockSize;
+    private final Map<YearMonth, List<BlockIndex>> indexCache = new ConcurrentHashMap<>();
+
+    public LedgerArchiveRepository(
+            @Value("${stock.archive.directory:./data/ledger-archive}") String directory,
+            @Value("${stock.archive.block-size:1024}") int blockSize) {
+        this.directory = Paths.get(directory);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Sparse index entry: first key of a block and where the block starts.
+     */
+    private record BlockIndex(UUID productId, UUID locationId, long offset, int entries) {
+    }
+
+    /**
+     * Archived month as found on disk.
+     */
+    public record Segment(YearMonth month, int blocks, long entries, long sizeBytes) {
+    }
+
+    // ===================== WRITE =====================
+
+    /**
+     * Write the segment of a month under a pending name. Entries must be sorted
+     * by {@link #ENTRY_ORDER}. The files are synced to disk but stay invisible
+     * to readers until {@link #publishSegment}, which the archiver calls once
+     * the deletion of the month from stock_ledger has committed.
+     *
+     * @return number of entries written
+     */
+    public long writeSegment(YearMonth month, Iterator<ArchivedLedgerEntry> entries) throws IOException {
+        Files.createDirectories(directory);
+        Path segmentPending = directory.resolve(pending(segmentName(month)));
+        Path indexPending = directory.resolve(pending(indexName(month)));
+
+        List<BlockIndex> index = new ArrayList<>();
+        long written = 0;
+
+        try (FileOutputStream fileOut = new FileOutputStream(segmentPending.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(SEGMENT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            long offset = 8;
+
+            List<ArchivedLedgerEntry> block = new ArrayList<>(blockSize);
+            while (entries.hasNext()) {
+                block.add(entries.next());
+                if (block.size() == blockSize || !entries.hasNext()) {
+                    byte[] compressed = compressBlock(block);
+                    ArchivedLedgerEntry first = block.get(0);
+                    index.add(new BlockIndex(first.productId(), first.locationId(), offset, block.size()));
+
+                    out.writeInt(block.size());
+                    out.writeInt(compressed.length);
+                    out.write(compressed);
+                    offset += 8 + compressed.length;
+                    written += block.size();
+                    block.clear();
+                }
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+
+        try (FileOutputStream fileOut = new FileOutputStream(indexPending.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(index.size());
+            for (BlockIndex entry : index) {
+                writeUuid(out, entry.productId());
+                writeUuid(out, entry.locationId());
+                out.writeLong(entry.offset());
+                out.writeInt(entry.entries());
+            }
+            out.flush();
+            fileOut.getFD().sync();
+        }
+
+        log.info("Wrote {} ledger entries of {} in {} blocks (pending)", written, month, index.size());
+        return written;
+    }
+
+    /**
+     * Move the pending segment of a month into place; an existing segment of
+     * the same month is replaced. Safe to repeat after a crash half-way.
+     */
+    public void publishSegment(YearMonth month) throws IOException {
+        // Segment first: a month is only listed once its index exists
+        for (String name : List.of(segmentName(month), indexName(month))) {
+            Path pending = directory.resolve(pending(name));
+            if (Files.exists(pending)) {
+                Files.move(pending, directory.resolve(name),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        indexCache.remove(month);
+        log.info("Published ledger archive segment {}", month);
+    }
+
+    /**
+     * Remove the pending segment of a month, e.g. when the transaction deleting
+     * its rows from stock_ledger rolled back.
+     */
+    public void discardPendingSegment(YearMonth month) {
+        try {
+            Files.deleteIfExists(directory.resolve(pending(indexName(month))));
+            Files.deleteIfExists(directory.resolve(pending(segmentName(month))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete pending ledger archive segment " + month, e);
+        }
+    }
+
+    /**
+     * Months with a pending segment left behind, i.e. the process stopped
+     * between writing a segment and publishing or discarding it.
+     */
+    public List<YearMonth> findPendingMonths() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith("ledger-") && name.endsWith(PENDING_SUFFIX))
+                    .map(name -> YearMonth.parse(name.substring("ledger-".length(), "ledger-YYYY-MM".length())))
+                    .distinct()
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list ledger archive " + directory, e);
+        }
+    }
+
+    // ===================== READ =====================
+
+    public List<Segment> listSegments() {
+        return archivedMonths().stream().map(month -> {
+            List<BlockIndex> index = loadIndex(month);
+            long size;
+            try {
+                size = Files.size(directory.resolve(segmentName(month)));
+            } catch (IOException e) {
+                size = -1;
+            }
+            return new Segment(month, index.size(), index.stream().mapToLong(BlockIndex::entries).sum(), size);
+        }).toList();
+    }
+
+    /**
+     * Start of the archived history (first day of the oldest segment).
+     */
+    public Optional<LocalDateTime> findArchivedFrom() {
+        List<YearMonth> months = archivedMonths();
+        return months.isEmpty() ? Optional.empty() : Optional.of(months.get(0).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Exclusive upper bound of the archived history (start of the month after
+     * the newest segment).
+     */
+    public Optional<LocalDateTime> findArchivedUpTo() {
+        List<YearMonth> months = archivedMonths();
+        return months.isEmpty()
+                ? Optional.empty()
+                : Optional.of(months.get(months.size() - 1).plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    public List<ArchivedLedgerEntry> findByProduct_Id(UUID productId) {
+        return findByProduct_IdAndLocation_Id(productId, null);
+    }
+
+    /**
+     * @param locationId optional; null returns every location of the product
+     */
+    public List<ArchivedLedgerEntry> findByProduct_IdAndLocation_Id(UUID productId, UUID locationId) {
+        List<ArchivedLedgerEntry> result = new ArrayList<>();
+        for (YearMonth month : archivedMonths()) {
+            scan(month, productId, locationId,
+                    e -> e.productId().equals(productId)
+                            && (locationId == null || e.locationId().equals(locationId)),
+                    result::add);
+        }
+        return result;
+    }
+
+    public List<ArchivedLedgerEntry> findByTransaction_Id(UUID transactionId) {
+        List<ArchivedLedgerEntry> result = new ArrayList<>();
+        for (YearMonth month : archivedMonths()) {
+            scan(month, null, null, e -> transactionId.equals(e.transactionId()), result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Entries in {@code [startDate, endDate]}, newest first, optionally for one
+     * product.
+     */
+    public List<ArchivedLedgerEntry> findMovementsByDateRange(UUID productId, LocalDateTime startDate,
+            LocalDateTime endDate) {
+        List<ArchivedLedgerEntry> result = new ArrayList<>();
+        for (YearMonth month : monthsBetween(startDate, endDate)) {
+            scan(month, productId, null,
+                    e -> (productId == null || e.productId().equals(productId))
+                            && !e.performedAt().isBefore(startDate) && !e.performedAt().isAfter(endDate),
+                    result::add);
+        }
+        result.sort(Comparator.comparing(ArchivedLedgerEntry::performedAt).reversed());
+        return result;
+    }
+
+    /**
+     * Signed sums per (product, location) of the archived entries in
+     * {@code (from, to]}, with the same optional filters as
+     * {@link StockLedgerRepository#aggregateBalancesBetweenInScope}.
+     */
+    public List<BalanceAggregate> aggregateBalancesBetweenInScope(UUID productId, UUID locationId,
+            UUID warehouseId, LocalDateTime from, LocalDateTime to) {
+        Map<StockBalanceId, Long> sums = new LinkedHashMap<>();
+        for (YearMonth month : monthsBetween(from, to)) {
+            scan(month, productId, locationId,
+                    e -> (productId == null || e.productId().equals(productId))
+                            && (locationId == null || e.locationId().equals(locationId))
+                            && (warehouseId == null || warehouseId.equals(e.warehouseId()))
+                            && e.performedAt().isAfter(from) && !e.performedAt().isAfter(to),
+                    e -> sums.merge(new StockBalanceId(e.productId(), e.locationId()), (long) e.delta(),
+                            Long::sum));
+        }
+        return sums.entrySet().stream()
+                .map(e -> new BalanceAggregate(e.getKey().getProductId(), e.getKey().getLocationId(), e.getValue()))
+                .toList();
+    }
+
+    // ===================== INTERNALS =====================
+
+    /**
+     * Inflate the candidate blocks of a month and pass matching entries on. When
+     * {@code productId} is set only the blocks whose key range can hold
+     * (productId, locationId) are read.
+     */
+    private void scan(YearMonth month, UUID productId, UUID locationId,
+            Predicate<ArchivedLedgerEntry> filter, Consumer<ArchivedLedgerEntry> consumer) {
+        List<BlockIndex> index = loadIndex(month);
+        if (index.isEmpty()) {
+            return;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve(segmentName(month)).toFile(), "r")) {
+            for (int i = 0; i < index.size(); i++) {
+                if (productId != null && !mayContain(index, i, productId, locationId)) {
+                    continue;
+                }
+                for (ArchivedLedgerEntry entry : readBlock(file, index.get(i).offset())) {
+                    if (filter.test(entry)) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ledger archive segment " + month, e);
+        }
+    }
+
+    /**
+     * Block i holds keys from its first key up to the first key of block i+1.
+     */
+    private boolean mayContain(List<BlockIndex> index, int i, UUID productId, UUID locationId) {
+        BlockIndex first = index.get(i);
+        int startCmp = compareKey(first.productId(), first.locationId(), productId, locationId);
+        if (startCmp > 0) {
+            return false;
+        }
+        if (i + 1 == index.size()) {
+            return true;
+        }
+        BlockIndex next = index.get(i + 1);
+        return compareKey(next.productId(), next.locationId(), productId, locationId) >= 0;
+    }
+
+    /**
+     * Compare a block key with a lookup key; a null lookup location matches any
+     * location of the product.
+     */
+    private int compareKey(UUID productId, UUID locationId, UUID lookupProductId, UUID lookupLocationId) {
+        int cmp = UUID_ORDER.compare(productId, lookupProductId);
+        if (cmp != 0 || lookupLocationId == null) {
+            return cmp;
+        }
+        return UUID_ORDER.compare(locationId, lookupLocationId);
+    }
+
+    private List<BlockIndex> loadIndex(YearMonth month) {
+        return indexCache.computeIfAbsent(month, m -> {
+            Path indexPath = directory.resolve(indexName(m));
+            if (!Files.exists(indexPath)) {
+                return List.of();
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+                if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION) {
+                    throw new IOException("Unsupported index format: " + indexPath);
+                }
+                int blocks = in.readInt();
+                List<BlockIndex> index = new ArrayList<>(blocks);
+                for (int i = 0; i < blocks; i++) {
+                    index.add(new BlockIndex(readUuid(in), readUuid(in), in.readLong(), in.readInt()));
+                }
+                return List.copyOf(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read ledger archive index " + indexPath, e);
+            }
+        });
+    }
+
+    private List<ArchivedLedgerEntry> readBlock(RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        int count = file.readInt();
+        byte[] compressed = new byte[file.readInt()];
+        file.readFully(compressed);
+
+        List<ArchivedLedgerEntry> entries = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            for (int i = 0; i < count; i++) {
+                entries.add(readEntry(in));
+            }
+        }
+        return entries;
+    }
+
+    private byte[] compressBlock(List<ArchivedLedgerEntry> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            for (ArchivedLedgerEntry entry : block) {
+                writeEntry(out, entry);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeEntry(DataOutputStream out, ArchivedLedgerEntry e) throws IOException {
+        writeUuid(out, e.id());
+        writeUuid(out, e.productId());
+        writeUuid(out, e.locationId());
+        writeNullableUuid(out, e.warehouseId());
+        writeUuid(out, e.transactionId());
+        writeNullableUuid(out, e.transactionLineId());
+        writeUuid(out, e.performedById());
+        out.writeByte(e.movementType().ordinal());
+        out.writeInt(e.quantity());
+        out.writeInt(e.runningBalance());
+        writeDateTime(out, e.performedAt());
+        writeDateTime(out, e.createdAt());
+    }
+
+    private ArchivedLedgerEntry readEntry(DataInputStream in) throws IOException {
+        return new ArchivedLedgerEntry(
+                readUuid(in),
+                readUuid(in),
+                readUuid(in),
+                readNullableUuid(in),
+                readUuid(in),
+                readNullableUuid(in),
+                readUuid(in),
+                MovementType.values()[in.readByte()],
+                in.readInt(),
+                in.readInt(),
+                readDateTime(in),
+                readDateTime(in));
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeNullableUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            writeUuid(out, id);
+        }
+    }
+
+    private static UUID readNullableUuid(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readUuid(in) : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private List<YearMonth> archivedMonths() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith("ledger-") && name.endsWith(".idx"))
+                    .map(name -> YearMonth.parse(name.substring("ledger-".length(), name.length() - ".idx".length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list ledger archive " + directory, e);
+        }
+    }
+
+    private List<YearMonth> monthsBetween(LocalDateTime from, LocalDateTime to) {
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to);
+        return archivedMonths().stream()
+                .filter(m -> !m.isBefore(first) && !m.isAfter(last))
+                .toList();
+    }
+
+    private static String segmentName(YearMonth month) {
+        return "ledger-" + month + ".seg";
+    }
+
+    private static String indexName(YearMonth month) {
+        return "ledger-" + month + ".idx";
+    }
+
+    private static String pending(String name) {
+        return name + PENDING_SUFFIX;
+    }
+}
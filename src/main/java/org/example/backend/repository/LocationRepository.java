@@ -1,5 +1,6 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.LocationDimension;
 import org.example.backend.entity.Location;
 import org.example.backend.enums.LocationType;
 import org.springframework.data.domain.Page;
@@ -35,4 +36,20 @@ public interface LocationRepository extends JpaRepository<Location, UUID> {
             @Param("type") LocationType type,
             @Param("active") Boolean active,
             Pageable pageable);
+
+    @Query("SELECT new org.example.backend.dto.projection.LocationDimension(l.id, l.code, l.zone, l.type, w.code) " +
+            "FROM Location l LEFT JOIN l.warehouse w")
+    List<LocationDimension> findAllDimensions();
+
+    @Query("SELECT new org.example.backend.dto.projection.LocationDimension(l.id, l.code, l.zone, l.type, w.code) " +
+            "FROM Location l LEFT JOIN l.warehouse w WHERE l.id = :id")
+    Optional<LocationDimension> findDimension(@Param("id") UUID id);
+
+    @Query("SELECT new org.example.backend.dto.projection.LocationDimension(l.id, l.code, l.zone, l.type, w.code) " +
+            "FROM Location l LEFT JOIN l.warehouse w WHERE l.active = true")
+    List<LocationDimension> findAllActiveDimensions();
+
+    @Query("SELECT new org.example.backend.dto.projection.LocationDimension(l.id, l.code, l.zone, l.type, w.code) " +
+            "FROM Location l LEFT JOIN l.warehouse w WHERE l.id = :id AND l.active = true")
+    Optional<LocationDimension> findActiveDimension(@Param("id") UUID id);
 }
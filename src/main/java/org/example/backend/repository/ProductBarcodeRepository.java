@@ -1,9 +1,15 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.BarcodeEntry;
+import org.example.backend.dto.projection.BarcodeProduct;
 import org.example.backend.entity.ProductBarcode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +17,20 @@ import java.util.UUID;
 public interface ProductBarcodeRepository extends JpaRepository<ProductBarcode, UUID> {
 
     Optional<ProductBarcode> findByBarcode(String barcode);
+
+    @Query("SELECT b.product.id FROM ProductBarcode b WHERE b.barcode = :barcode")
+    Optional<UUID> findProductIdByBarcode(@Param("barcode") String barcode);
+
+    /**
+     * Every barcode with its pack codes, oldest first, so that a code claimed by
+     * several products always resolves to the one that registered it first.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.BarcodeEntry(b.barcode, b.codeBarreFardeau, " +
+            "b.codeBarrePalette, p.id, p.colisageFardeau, p.colisagePalette) " +
+            "FROM ProductBarcode b JOIN b.product p ORDER BY b.createdAt, b.id")
+    List<BarcodeEntry> findAllEntries();
+
+    @Query("SELECT new org.example.backend.dto.projection.BarcodeProduct(b.barcode, b.product.id) " +
+            "FROM ProductBarcode b WHERE b.barcode IN :barcodes")
+    List<BarcodeProduct> findProductIdsByBarcodes(@Param("barcodes") Collection<String> barcodes);
 }
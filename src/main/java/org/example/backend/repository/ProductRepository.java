@@ -1,5 +1,9 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.ProductDimension;
+import org.example.backend.dto.projection.ProductLabel;
+import org.example.backend.dto.projection.ProductStockLevel;
+import org.example.backend.dto.projection.ProductStockSummary;
 import org.example.backend.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +21,9 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
 
     Optional<Product> findBySku(String sku);
 
+    @Query("SELECT p.id FROM Product p WHERE p.sku = :sku")
+    Optional<UUID> findIdBySku(@Param("sku") String sku);
+
     boolean existsBySku(String sku);
 
     List<Product> findByNameContainingIgnoreCaseOrSkuContainingIgnoreCase(String name, String sku);
@@ -34,4 +41,48 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
             @Param("active") Boolean active,
             @Param("search") String search,
             Pageable pageable);
+
+    /**
+     * Active products with their total stock from stock_balance, ordered by SKU.
+     * With {@code lowStockOnly}, only products below their minimum stock.
+     */
+    @Query(value = "SELECT new org.example.backend.dto.projection.ProductStockSummary(p.id, p.sku, p.name, " +
+            "p.category, p.price, p.unitOfMeasure, p.minStock, p.maxStock, COALESCE(SUM(b.quantity), 0L)) " +
+            "FROM Product p LEFT JOIN StockBalance b ON b.id.productId = p.id " +
+            "WHERE p.active = true AND (:category IS NULL OR p.category = :category) " +
+            "GROUP BY p.id, p.sku, p.name, p.category, p.price, p.unitOfMeasure, p.minStock, p.maxStock " +
+            "HAVING :lowStockOnly = false OR (p.minStock IS NOT NULL AND COALESCE(SUM(b.quantity), 0L) < p.minStock) " +
+            "ORDER BY p.sku",
+            countQuery = "SELECT COUNT(p) FROM Product p " +
+                    "WHERE p.active = true AND (:category IS NULL OR p.category = :category) " +
+                    "AND (:lowStockOnly = false OR (p.minStock IS NOT NULL AND COALESCE((SELECT SUM(b.quantity) " +
+                    "FROM StockBalance b WHERE b.id.productId = p.id), 0L) < p.minStock))")
+    Page<ProductStockSummary> findStockSummaries(
+            @Param("category") String category,
+            @Param("lowStockOnly") boolean lowStockOnly,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p " +
+            "WHERE p.active = true AND (:category IS NULL OR p.category = :category) " +
+            "AND p.minStock IS NOT NULL AND COALESCE((SELECT SUM(b.quantity) " +
+            "FROM StockBalance b WHERE b.id.productId = p.id), 0L) < p.minStock")
+    long countLowStock(@Param("category") String category);
+
+    @Query("SELECT new org.example.backend.dto.projection.ProductStockLevel(p.id, p.sku, p.name, p.minStock, " +
+            "p.active, COALESCE(SUM(b.quantity), 0L)) " +
+            "FROM Product p LEFT JOIN StockBalance b ON b.id.productId = p.id " +
+            "GROUP BY p.id, p.sku, p.name, p.minStock, p.active")
+    List<ProductStockLevel> findAllStockLevels();
+
+    @Query("SELECT new org.example.backend.dto.projection.ProductDimension(p.id, p.sku, p.category) FROM Product p")
+    List<ProductDimension> findAllDimensions();
+
+    @Query("SELECT new org.example.backend.dto.projection.ProductDimension(p.id, p.sku, p.category) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductDimension> findDimension(@Param("id") UUID id);
+
+    @Query("SELECT new org.example.backend.dto.projection.ProductLabel(p.id, p.sku, p.name, p.unitOfMeasure, " +
+            "p.active) " +
+            "FROM Product p")
+    List<ProductLabel> findAllLabels();
 }
@@ -0,0 +1,130 @@
+package org.example.backend.repository;
+
+import org.example.backend.dto.projection.BalanceVersion;
+import org.example.backend.dto.projection.LocationProductStock;
+import org.example.backend.dto.projection.LocationStock;
+import org.example.backend.dto.projection.WarehouseStockTotal;
+import org.example.backend.entity.StockBalance;
+import org.example.backend.entity.StockBalanceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockBalanceRepository extends JpaRepository<StockBalance, StockBalanceId> {
+
+    /**
+     * Lock the balance rows of a product at several locations in one statement.
+     * Rows are locked in location order, so concurrent callers locking
+     * overlapping sets of locations always queue up in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StockBalance b WHERE b.id.productId = :productId AND b.id.locationId IN :locationIds " +
+            "ORDER BY b.id.locationId")
+    List<StockBalance> findByProductIdAndLocationIdsForUpdate(
+            @Param("productId") UUID productId,
+            @Param("locationIds") Collection<UUID> locationIds);
+
+    /**
+     * Read the current quantity without loading the entity (primary-key lookup).
+     */
+    @Query("SELECT b.quantity FROM StockBalance b WHERE b.id.productId = :productId AND b.id.locationId = :locationId")
+    Optional<Integer> findQuantity(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId);
+
+    /**
+     * Current quantity and version, for optimistic writes. Projections bypass the
+     * persistence context, so a retry always sees the latest committed row.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.BalanceVersion(b.quantity, b.version) FROM StockBalance b " +
+            "WHERE b.id.productId = :productId AND b.id.locationId = :locationId")
+    Optional<BalanceVersion> findQuantityAndVersion(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId);
+
+    /**
+     * Create a zero balance row unless one exists. Unlike a persist, losing the
+     * race to a concurrent insert is not an error, so it cannot abort the
+     * surrounding transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_balance (product_id, location_id, quantity, version, updated_at) " +
+            "VALUES (:productId, :locationId, 0, 0, :updatedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertZeroIfAbsent(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Set the quantity only if the row still has {@code version}.
+     *
+     * @return 1 on success, 0 if another transaction changed the row first
+     */
+    @Modifying
+    @Query("UPDATE StockBalance b SET b.quantity = :quantity, b.version = b.version + 1, b.updatedAt = :updatedAt " +
+            "WHERE b.id.productId = :productId AND b.id.locationId = :locationId AND b.version = :version")
+    int updateIfVersion(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId,
+            @Param("quantity") int quantity,
+            @Param("version") long version,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Balances of a product at every location it has been stored in.
+     */
+    @Query("SELECT b FROM StockBalance b JOIN FETCH b.location WHERE b.id.productId = :productId")
+    List<StockBalance> findByProductIdWithLocation(@Param("productId") UUID productId);
+
+    /**
+     * Balances of every product that has been stored at a location.
+     */
+    @Query("SELECT b FROM StockBalance b JOIN FETCH b.product WHERE b.id.locationId = :locationId")
+    List<StockBalance> findByLocationIdWithProduct(@Param("locationId") UUID locationId);
+
+    /**
+     * Products held at a location, by SKU. Reads the location index of
+     * stock_balance and joins products by primary key.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.LocationProductStock(p.id, p.sku, p.name, " +
+            "p.unitOfMeasure, p.volumePcs, b.quantity) " +
+            "FROM StockBalance b JOIN b.product p " +
+            "WHERE b.id.locationId = :locationId AND b.quantity > 0 ORDER BY p.sku")
+    List<LocationProductStock> findPositiveByLocationId(@Param("locationId") UUID locationId);
+
+    @Query("SELECT new org.example.backend.dto.projection.WarehouseStockTotal(w.id, w.code, SUM(b.quantity), " +
+            "COUNT(DISTINCT b.id.productId)) " +
+            "FROM StockBalance b JOIN b.location l JOIN l.warehouse w WHERE b.quantity > 0 GROUP BY w.id, w.code")
+    List<WarehouseStockTotal> sumByWarehouse();
+
+    /**
+     * Current quantities of the (product, location) pairs among the given
+     * products and locations that have a balance row. Not locked: for checks
+     * ahead of the actual write.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.LocationStock(b.id.productId, l.id, l.code, b.quantity) " +
+            "FROM StockBalance b JOIN b.location l " +
+            "WHERE b.id.productId IN :productIds AND b.id.locationId IN :locationIds")
+    List<LocationStock> findByProductIdsAndLocationIds(
+            @Param("productIds") Collection<UUID> productIds,
+            @Param("locationIds") Collection<UUID> locationIds);
+
+    /**
+     * Locations holding stock of any of the given products, by location code.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.LocationStock(b.id.productId, l.id, l.code, b.quantity) " +
+            "FROM StockBalance b JOIN b.location l " +
+            "WHERE b.id.productId IN :productIds AND b.quantity > 0 ORDER BY l.code")
+    List<LocationStock> findPositiveByProductIds(@Param("productIds") Collection<UUID> productIds);
+}
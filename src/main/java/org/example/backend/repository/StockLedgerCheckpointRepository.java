@@ -0,0 +1,67 @@
+package org.example.backend.repository;
+
+import org.example.backend.entity.StockLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockLedgerCheckpointRepository extends JpaRepository<StockLedgerCheckpoint, UUID> {
+
+    /**
+     * Position of the most recent compaction run.
+     */
+    @Query("SELECT MAX(c.asOf) FROM StockLedgerCheckpoint c")
+    Optional<LocalDateTime> findLatestAsOf();
+
+    /**
+     * Most recent compaction position at or before {@code asOf}. Every run holds
+     * the full set of non-zero balances at its position.
+     */
+    @Query("SELECT MAX(c.asOf) FROM StockLedgerCheckpoint c WHERE c.asOf <= :asOf")
+    Optional<LocalDateTime> findLatestAsOfAtOrBefore(@Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Checkpoint of a product at a location written by the run at {@code asOf}
+     * (unique index lookup). Absent when the pair had a zero balance then.
+     */
+    Optional<StockLedgerCheckpoint> findByProduct_IdAndLocation_IdAndAsOf(
+            UUID productId, UUID locationId, LocalDateTime asOf);
+
+    /**
+     * Every checkpoint written by the run at {@code asOf}.
+     */
+    List<StockLedgerCheckpoint> findByAsOf(LocalDateTime asOf);
+
+    /**
+     * Checkpoints of the run at {@code asOf} of every pair matching the optional
+     * product, location and warehouse filters.
+     */
+    @Query("SELECT c FROM StockLedgerCheckpoint c WHERE c.asOf = :asOf " +
+            "AND (:productId IS NULL OR c.product.id = :productId) " +
+            "AND (:locationId IS NULL OR c.location.id = :locationId) " +
+            "AND (:warehouseId IS NULL OR c.location.warehouse.id = :warehouseId)")
+    List<StockLedgerCheckpoint> findByAsOfInScope(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId,
+            @Param("warehouseId") UUID warehouseId,
+            @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Positions of the runs taken before {@code before}.
+     */
+    @Query("SELECT DISTINCT c.asOf FROM StockLedgerCheckpoint c WHERE c.asOf < :before")
+    List<LocalDateTime> findRunsBefore(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM StockLedgerCheckpoint c WHERE c.asOf IN :runs")
+    int deleteByAsOfIn(@Param("runs") Collection<LocalDateTime> runs);
+}
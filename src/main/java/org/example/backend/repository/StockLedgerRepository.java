@@ -1,17 +1,32 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.ArchivedLedgerEntry;
+import org.example.backend.dto.projection.BalanceAggregate;
+import org.example.backend.dto.projection.LedgerChainRow;
+import org.example.backend.dto.projection.LedgerExportRow;
+import org.example.backend.dto.projection.MovementDayAggregate;
+import org.example.backend.dto.projection.MovementDayTotal;
+import org.example.backend.dto.projection.MovementFact;
+import org.example.backend.dto.projection.MovementRow;
+import org.example.backend.dto.projection.UserDayCount;
 import org.example.backend.entity.StockLedger;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockLedgerRepository extends JpaRepository<StockLedger, UUID> {
@@ -37,20 +52,267 @@ public interface StockLedgerRepository extends JpaRepository<StockLedger, UUID>
                         @Param("startDate") LocalDateTime startDate,
                         @Param("endDate") LocalDateTime endDate);
 
-        @Query("SELECT DISTINCT s.product.id FROM StockLedger s WHERE s.location.id = :locationId")
-        List<UUID> findDistinctProductIdsByLocationId(@Param("locationId") UUID locationId);
+        /**
+         * Ledger rows of the stock movement report in {@code [from, to)}, newest
+         * first, as flat rows (no entities are loaded).
+         */
+        @Query("SELECT new org.example.backend.dto.projection.MovementRow(s.id, p.sku, p.name, l.code, " +
+                        "s.movementType, s.quantity, u.nomComplet, s.performedAt) " +
+                        "FROM StockLedger s JOIN s.product p JOIN s.location l JOIN s.performedBy u " +
+                        "WHERE (:productId IS NULL OR p.id = :productId) " +
+                        "AND (:locationId IS NULL OR l.id = :locationId) " +
+                        "AND s.performedAt >= :from AND s.performedAt < :to " +
+                        "ORDER BY s.performedAt DESC, s.id DESC")
+        List<MovementRow> findMovementRows(
+                        @Param("productId") UUID productId,
+                        @Param("locationId") UUID locationId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to,
+                        Pageable pageable);
 
         /**
-         * Get the latest stock ledger entry for a product at a location (for running
-         * balance).
-         * Uses pessimistic write lock for concurrency safety.
+         * Entries in {@code [from, to)} summed per (day, product, location,
+         * movement type). Source of the daily movement rollup.
          */
-        @Lock(LockModeType.PESSIMISTIC_WRITE)
-        @Query("SELECT s FROM StockLedger s WHERE s.product.id = :productId AND s.location.id = :locationId " +
-                        "ORDER BY s.performedAt DESC, s.createdAt DESC LIMIT 1")
-        Optional<StockLedger> findLatestByProductAndLocationForUpdate(
+        @Query("SELECT new org.example.backend.dto.projection.MovementDayAggregate(" +
+                        "CAST(s.performedAt AS LocalDate), s.product.id, s.location.id, s.movementType, " +
+                        "SUM(s.quantity), COUNT(s)) " +
+                        "FROM StockLedger s WHERE s.performedAt >= :from AND s.performedAt < :to " +
+                        "GROUP BY CAST(s.performedAt AS LocalDate), s.product.id, s.location.id, s.movementType")
+        List<MovementDayAggregate> aggregateDaily(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Entries in {@code [from, to)} matching the optional filters, summed per
+         * (day, movement type). Covers the days not rolled up yet.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.MovementDayTotal(" +
+                        "CAST(s.performedAt AS LocalDate), s.movementType, SUM(s.quantity), COUNT(s)) " +
+                        "FROM StockLedger s WHERE " +
+                        "(:productId IS NULL OR s.product.id = :productId) " +
+                        "AND (:locationId IS NULL OR s.location.id = :locationId) " +
+                        "AND s.performedAt >= :from AND s.performedAt < :to " +
+                        "GROUP BY CAST(s.performedAt AS LocalDate), s.movementType")
+        List<MovementDayTotal> sumDailyByType(
                         @Param("productId") UUID productId,
-                        @Param("locationId") UUID locationId);
+                        @Param("locationId") UUID locationId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Ledger entries in {@code [from, to)} for the movement cube, streamed in
+         * chunks; must be consumed inside a transaction. A null bound is open.
+         */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+        @Query("SELECT new org.example.backend.dto.projection.MovementFact(s.product.id, s.location.id, " +
+                        "s.performedBy.id, s.movementType, s.quantity, s.performedAt) " +
+                        "FROM StockLedger s WHERE (:from IS NULL OR s.performedAt >= :from) " +
+                        "AND s.performedAt < :to")
+        Stream<MovementFact> streamMovementFacts(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Sum the whole ledger per (product, location). Used to rebuild the
+         * stock_balance table.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.BalanceAggregate(s.product.id, s.location.id, " +
+                        "SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END)) " +
+                        "FROM StockLedger s GROUP BY s.product.id, s.location.id")
+        List<BalanceAggregate> aggregateBalances();
+
+        /**
+         * Sum the ledger per (product, location) up to a position. Used for the
+         * first checkpoint run.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.BalanceAggregate(s.product.id, s.location.id, " +
+                        "SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END)) " +
+                        "FROM StockLedger s WHERE s.performedAt <= :to " +
+                        "GROUP BY s.product.id, s.location.id")
+        List<BalanceAggregate> aggregateBalancesUpTo(@Param("to") LocalDateTime to);
+
+        /**
+         * Sum the ledger per (product, location) for entries in {@code (from, to]}.
+         * Pairs whose entries cancel out are still returned.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.BalanceAggregate(s.product.id, s.location.id, " +
+                        "SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END)) " +
+                        "FROM StockLedger s WHERE s.performedAt > :from AND s.performedAt <= :to " +
+                        "GROUP BY s.product.id, s.location.id")
+        List<BalanceAggregate> aggregateBalancesBetween(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Same as {@link #aggregateBalancesBetween} restricted to the optional
+         * product, location and warehouse filters.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.BalanceAggregate(s.product.id, s.location.id, " +
+                        "SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END)) " +
+                        "FROM StockLedger s WHERE " +
+                        "(:productId IS NULL OR s.product.id = :productId) " +
+                        "AND (:locationId IS NULL OR s.location.id = :locationId) " +
+                        "AND (:warehouseId IS NULL OR s.location.warehouse.id = :warehouseId) " +
+                        "AND s.performedAt > :from AND s.performedAt <= :to " +
+                        "GROUP BY s.product.id, s.location.id")
+        List<BalanceAggregate> aggregateBalancesBetweenInScope(
+                        @Param("productId") UUID productId,
+                        @Param("locationId") UUID locationId,
+                        @Param("warehouseId") UUID warehouseId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Signed sum of the entries of a product at a location in
+         * {@code (from, to]} (index range scan).
+         */
+        @Query("SELECT COALESCE(SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END), 0) " +
+                        "FROM StockLedger s WHERE s.product.id = :productId AND s.location.id = :locationId " +
+                        "AND s.performedAt > :from AND s.performedAt <= :to")
+        Long sumQuantityBetween(
+                        @Param("productId") UUID productId,
+                        @Param("locationId") UUID locationId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        @Query("SELECT COALESCE(SUM(CASE WHEN s.movementType = 'IN' THEN s.quantity " +
+                        "WHEN s.movementType = 'OUT' THEN -s.quantity " +
+                        "ELSE s.quantity END), 0) " +
+                        "FROM StockLedger s WHERE s.product.id = :productId AND s.location.id = :locationId " +
+                        "AND s.performedAt <= :to")
+        Long sumQuantityUpTo(
+                        @Param("productId") UUID productId,
+                        @Param("locationId") UUID locationId,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Most recent movements of a product, all locations.
+         */
+        List<StockLedger> findTop20ByProduct_IdOrderByPerformedAtDesc(UUID productId);
+
+        @Query("SELECT DISTINCT s.product.id FROM StockLedger s WHERE s.performedAt >= :from AND s.performedAt < :to")
+        List<UUID> findDistinctProductIdsBetween(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Keyset pages of the ledger, newest first: the rows strictly before
+         * (at, id). Start with {@link org.example.backend.util.KeysetCursor#START}.
+         */
+        @Query("SELECT s FROM StockLedger s JOIN FETCH s.product JOIN FETCH s.location JOIN FETCH s.transaction " +
+                        "WHERE (s.performedAt, s.id) < (:at, :id) " +
+                        "ORDER BY s.performedAt DESC, s.id DESC")
+        List<StockLedger> findPageBefore(
+                        @Param("at") LocalDateTime at,
+                        @Param("id") UUID id,
+                        Pageable pageable);
+
+        @Query("SELECT s FROM StockLedger s JOIN FETCH s.product JOIN FETCH s.location JOIN FETCH s.transaction " +
+                        "WHERE s.product.id = :productId AND (s.performedAt, s.id) < (:at, :id) " +
+                        "ORDER BY s.performedAt DESC, s.id DESC")
+        List<StockLedger> findPageByProductBefore(
+                        @Param("productId") UUID productId,
+                        @Param("at") LocalDateTime at,
+                        @Param("id") UUID id,
+                        Pageable pageable);
+
+        @Query("SELECT s FROM StockLedger s JOIN FETCH s.product JOIN FETCH s.location JOIN FETCH s.transaction " +
+                        "WHERE s.location.id = :locationId AND (s.performedAt, s.id) < (:at, :id) " +
+                        "ORDER BY s.performedAt DESC, s.id DESC")
+        List<StockLedger> findPageByLocationBefore(
+                        @Param("locationId") UUID locationId,
+                        @Param("at") LocalDateTime at,
+                        @Param("id") UUID id,
+                        Pageable pageable);
+
+        @Query("SELECT DISTINCT s.product.id FROM StockLedger s")
+        List<UUID> findDistinctProductIds();
+
+        /**
+         * Every entry of a product, grouped by location and in chain order. Streamed
+         * with a fetch size so hot products are not loaded at once; must be consumed
+         * inside a transaction.
+         */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("SELECT new org.example.backend.dto.projection.LedgerChainRow(" +
+                        "s.id, s.location.id, s.movementType, s.quantity, s.runningBalance, s.performedAt) " +
+                        "FROM StockLedger s WHERE s.product.id = :productId " +
+                        "ORDER BY s.location.id, s.performedAt, s.createdAt")
+        Stream<LedgerChainRow> streamChainRowsByProduct(@Param("productId") UUID productId);
+
+        /**
+         * Ledger rows in {@code [from, to)} for export, oldest first. Every filter is
+         * optional. Rows are flat projections (nothing enters the persistence
+         * context) fetched in chunks, so callers can stream any number of them;
+         * must be consumed inside a transaction.
+         */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+        @Query("SELECT new org.example.backend.dto.projection.LedgerExportRow(" +
+                        "s.id, s.performedAt, s.movementType, s.quantity, s.runningBalance, " +
+                        "p.id, p.sku, l.id, l.code, t.id, t.reference, u.username) " +
+                        "FROM StockLedger s JOIN s.product p JOIN s.location l JOIN s.transaction t JOIN s.performedBy u " +
+                        "WHERE (:productId IS NULL OR p.id = :productId) " +
+                        "AND (:locationId IS NULL OR l.id = :locationId) " +
+                        "AND (:from IS NULL OR s.performedAt >= :from) " +
+                        "AND (:to IS NULL OR s.performedAt < :to) " +
+                        "ORDER BY s.performedAt, s.id")
+        Stream<LedgerExportRow> streamForExport(
+                        @Param("productId") UUID productId,
+                        @Param("locationId") UUID locationId,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Flat copies of the entries of some products in {@code [from, to)}, for
+         * archiving.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.ArchivedLedgerEntry(s.id, s.product.id, s.location.id, " +
+                        "w.id, s.transaction.id, tl.id, s.performedBy.id, s.movementType, s.quantity, " +
+                        "s.runningBalance, s.performedAt, s.createdAt) " +
+                        "FROM StockLedger s JOIN s.location l LEFT JOIN l.warehouse w LEFT JOIN s.transactionLine tl " +
+                        "WHERE s.product.id IN :productIds AND s.performedAt >= :from AND s.performedAt < :to")
+        List<ArchivedLedgerEntry> findArchiveEntries(
+                        @Param("productIds") Collection<UUID> productIds,
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        /**
+         * Transaction lines each assignee executed in {@code [from, to)}, per day.
+         * Movements recorded by someone other than the task's assignee are ignored.
+         */
+        @Query("SELECT new org.example.backend.dto.projection.UserDayCount(" +
+                        "CAST(s.performedAt AS LocalDate), s.performedBy.id, COUNT(DISTINCT s.transactionLine.id)) " +
+                        "FROM StockLedger s WHERE s.performedAt >= :from AND s.performedAt < :to " +
+                        "AND s.transactionLine IS NOT NULL AND s.transaction.assignedTo.id = s.performedBy.id " +
+                        "GROUP BY CAST(s.performedAt AS LocalDate), s.performedBy.id")
+        List<UserDayCount> countExecutedLinesByPerformerAndDay(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        @Query("SELECT MIN(s.performedAt) FROM StockLedger s")
+        Optional<LocalDateTime> findOldestPerformedAt();
+
+        boolean existsByPerformedAtGreaterThanEqualAndPerformedAtLessThan(LocalDateTime from, LocalDateTime to);
+
+        @Modifying
+        @Query("DELETE FROM StockLedger s WHERE s.performedAt >= :from AND s.performedAt < :to")
+        int deleteByPerformedAtBetween(
+                        @Param("from") LocalDateTime from,
+                        @Param("to") LocalDateTime to);
+
+        @Query("SELECT DISTINCT s.product.id FROM StockLedger s WHERE s.location.id = :locationId")
+        List<UUID> findDistinctProductIdsByLocationId(@Param("locationId") UUID locationId);
 
         /**
          * Get the latest stock ledger entry without lock (for reads).
@@ -65,4 +327,11 @@ public interface StockLedgerRepository extends JpaRepository<StockLedger, UUID>
          * Find all stock entries by transaction.
          */
         List<StockLedger> findByTransaction_Id(UUID transactionId);
+
+        /**
+         * Lines of these transactions that already moved stock.
+         */
+        @Query("SELECT DISTINCT s.transactionLine.id FROM StockLedger s " +
+                        "WHERE s.transaction.id IN :transactionIds AND s.transactionLine IS NOT NULL")
+        Set<UUID> findExecutedLineIds(@Param("transactionIds") Collection<UUID> transactionIds);
 }
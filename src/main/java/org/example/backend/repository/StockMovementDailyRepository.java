@@ -0,0 +1,47 @@
+package org.example.backend.repository;
+
+import org.example.backend.dto.projection.MovementDayTotal;
+import org.example.backend.entity.StockMovementDaily;
+import org.example.backend.entity.StockMovementDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StockMovementDailyRepository extends JpaRepository<StockMovementDaily, StockMovementDailyId> {
+
+    /**
+     * Last day rolled up. Every day up to it is complete in the rollup; days
+     * without movements simply have no rows.
+     */
+    @Query("SELECT MAX(d.id.day) FROM StockMovementDaily d")
+    Optional<LocalDate> findLastDay();
+
+    /**
+     * Rollup rows in {@code [from, to]} matching the optional filters, summed per
+     * (day, movement type).
+     */
+    @Query("SELECT new org.example.backend.dto.projection.MovementDayTotal(" +
+            "d.id.day, d.id.movementType, SUM(d.totalQuantity), SUM(d.movementCount)) " +
+            "FROM StockMovementDaily d WHERE " +
+            "(:productId IS NULL OR d.id.productId = :productId) " +
+            "AND (:locationId IS NULL OR d.id.locationId = :locationId) " +
+            "AND d.id.day >= :from AND d.id.day <= :to " +
+            "GROUP BY d.id.day, d.id.movementType")
+    List<MovementDayTotal> sumDailyByType(
+            @Param("productId") UUID productId,
+            @Param("locationId") UUID locationId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM StockMovementDaily d WHERE d.id.day >= :from AND d.id.day < :to")
+    int deleteByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,5 +1,7 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.UserCount;
+import org.example.backend.dto.projection.UserDayCount;
 import org.example.backend.entity.TaskDiscrepancy;
 import org.example.backend.enums.IssueType;
 import org.springframework.data.domain.Page;
@@ -9,7 +11,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -27,4 +31,23 @@ public interface TaskDiscrepancyRepository extends JpaRepository<TaskDiscrepancy
             Pageable pageable);
 
     long countByResolvedAtIsNull();
-}
\ No newline at end of file
+
+    @Query("SELECT new org.example.backend.dto.projection.UserCount(d.reportedBy.id, COUNT(d)) " +
+            "FROM TaskDiscrepancy d WHERE d.resolvedAt IS NULL AND d.reportedBy IS NOT NULL " +
+            "GROUP BY d.reportedBy.id")
+    List<UserCount> countOpenByReporter();
+
+    /**
+     * Discrepancies reported in {@code [from, to)} per (day, reporter).
+     */
+    @Query("SELECT new org.example.backend.dto.projection.UserDayCount(" +
+            "CAST(d.reportedAt AS LocalDate), d.reportedBy.id, COUNT(d)) " +
+            "FROM TaskDiscrepancy d WHERE d.reportedAt >= :from AND d.reportedAt < :to " +
+            "GROUP BY CAST(d.reportedAt AS LocalDate), d.reportedBy.id")
+    List<UserDayCount> countByReporterAndDay(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(d.reportedAt) FROM TaskDiscrepancy d")
+    Optional<LocalDateTime> findOldestReportedAt();
+}
@@ -1,9 +1,14 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.LineCount;
 import org.example.backend.entity.TransactionLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +16,19 @@ import java.util.UUID;
 public interface TransactionLineRepository extends JpaRepository<TransactionLine, UUID> {
 
     Optional<TransactionLine> findByTransaction_IdAndLineNumber(UUID transactionId, Integer lineNumber);
+
+    long countByTransaction_Id(UUID transactionId);
+
+    /**
+     * Every line of the given transactions with product and locations.
+     */
+    @Query("SELECT l FROM TransactionLine l JOIN FETCH l.product " +
+            "LEFT JOIN FETCH l.sourceLocation LEFT JOIN FETCH l.destinationLocation " +
+            "WHERE l.transaction.id IN :transactionIds")
+    List<TransactionLine> findByTransactionIdsWithProductAndLocations(
+            @Param("transactionIds") Collection<UUID> transactionIds);
+
+    @Query("SELECT new org.example.backend.dto.projection.LineCount(l.transaction.id, COUNT(l)) " +
+            "FROM TransactionLine l WHERE l.transaction.id IN :transactionIds GROUP BY l.transaction.id")
+    List<LineCount> countByTransactionIds(@Param("transactionIds") Collection<UUID> transactionIds);
 }
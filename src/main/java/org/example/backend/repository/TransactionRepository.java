@@ -1,5 +1,9 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.ActiveTaskRow;
+import org.example.backend.dto.projection.TaskCardRow;
+import org.example.backend.dto.projection.TaskStatusCount;
+import org.example.backend.dto.projection.TaskTiming;
 import org.example.backend.entity.Transaction;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.enums.TransactionType;
@@ -11,7 +15,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -39,10 +45,65 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             @Param("createdById") UUID createdById,
             Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #findWithFilters}: the rows strictly before
+     * (at, id), newest first.
+     */
+    @Query("SELECT t FROM Transaction t WHERE " +
+            "(:type IS NULL OR t.type = :type) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:assignedToId IS NULL OR t.assignedTo.id = :assignedToId) " +
+            "AND (:createdById IS NULL OR t.createdBy.id = :createdById) " +
+            "AND (t.createdAt, t.id) < (:at, :id) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findWithFiltersBefore(
+            @Param("type") TransactionType type,
+            @Param("status") TransactionStatus status,
+            @Param("assignedToId") UUID assignedToId,
+            @Param("createdById") UUID createdById,
+            @Param("at") LocalDateTime at,
+            @Param("id") UUID id,
+            Pageable pageable);
+
     long countByStatus(TransactionStatus status);
 
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.status = :status AND t.completedAt >= :since")
     long countByStatusAndCompletedAtAfter(
             @Param("status") TransactionStatus status,
             @Param("since") LocalDateTime since);
+
+    /**
+     * Assigned tasks finished (with one of {@code statuses}) in {@code [from, to)}.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.TaskTiming(" +
+            "t.assignedTo.id, t.status, t.startedAt, t.completedAt) " +
+            "FROM Transaction t WHERE t.status IN :statuses AND t.assignedTo IS NOT NULL " +
+            "AND t.completedAt >= :from AND t.completedAt < :to")
+    List<TaskTiming> findTaskTimings(
+            @Param("statuses") Collection<TransactionStatus> statuses,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(t.completedAt) FROM Transaction t WHERE t.assignedTo IS NOT NULL")
+    Optional<LocalDateTime> findOldestCompletedAt();
+
+    @Query("SELECT new org.example.backend.dto.projection.TaskStatusCount(t.status, COUNT(t)) " +
+            "FROM Transaction t GROUP BY t.status")
+    List<TaskStatusCount> countGroupedByStatus();
+
+    @Query("SELECT new org.example.backend.dto.projection.ActiveTaskRow(t.id, t.reference, t.type, t.status, " +
+            "t.priority, t.startedAt, u.id, u.username) " +
+            "FROM Transaction t LEFT JOIN t.assignedTo u WHERE t.status = :status ORDER BY t.startedAt")
+    List<ActiveTaskRow> findActiveTaskRows(@Param("status") TransactionStatus status);
+
+    /**
+     * An employee's task list, most recently assigned first. A null status
+     * returns every status.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.TaskCardRow(t.id, t.type, t.reference, t.status, " +
+            "t.priority, t.assignedAt) " +
+            "FROM Transaction t JOIN t.assignedTo u " +
+            "WHERE u.username = :username AND (:status IS NULL OR t.status = :status) " +
+            "ORDER BY t.assignedAt DESC NULLS FIRST, t.id")
+    List<TaskCardRow> findTaskCards(@Param("username") String username, @Param("status") TransactionStatus status);
 }
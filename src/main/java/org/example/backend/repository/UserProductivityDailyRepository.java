@@ -0,0 +1,73 @@
+package org.example.backend.repository;
+
+import org.example.backend.dto.projection.UserProductivityTotal;
+import org.example.backend.entity.UserProductivityDaily;
+import org.example.backend.entity.UserProductivityDailyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserProductivityDailyRepository extends JpaRepository<UserProductivityDaily, UserProductivityDailyId> {
+
+    /**
+     * Add to an existing counter row.
+     *
+     * @return 0 if the user has no row for that day yet
+     */
+    @Modifying
+    @Query("UPDATE UserProductivityDaily d SET d.tasksCompleted = d.tasksCompleted + :tasks, " +
+            "d.linesExecuted = d.linesExecuted + :lines, " +
+            "d.discrepanciesReported = d.discrepanciesReported + :discrepancies, " +
+            "d.activeMinutes = d.activeMinutes + :minutes, " +
+            "d.version = d.version + 1, d.updatedAt = :updatedAt " +
+            "WHERE d.id.day = :day AND d.id.userId = :userId")
+    int increment(
+            @Param("day") LocalDate day,
+            @Param("userId") UUID userId,
+            @Param("tasks") long tasks,
+            @Param("lines") long lines,
+            @Param("discrepancies") long discrepancies,
+            @Param("minutes") long minutes,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Create the user's zero row for the day unless it exists. Losing the race
+     * to a concurrent insert is not an error, so it cannot abort the caller.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_productivity_daily (activity_day, user_id, tasks_completed, lines_executed, " +
+            "discrepancies_reported, active_minutes, version, updated_at) " +
+            "VALUES (:day, :userId, 0, 0, 0, 0, 0, :updatedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertZeroIfAbsent(
+            @Param("day") LocalDate day,
+            @Param("userId") UUID userId,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Counters in {@code [from, to]} summed per user, optionally for one user.
+     */
+    @Query("SELECT new org.example.backend.dto.projection.UserProductivityTotal(d.id.userId, " +
+            "SUM(d.tasksCompleted), SUM(d.linesExecuted), SUM(d.discrepanciesReported), SUM(d.activeMinutes)) " +
+            "FROM UserProductivityDaily d WHERE d.id.day >= :from AND d.id.day <= :to " +
+            "AND (:userId IS NULL OR d.id.userId = :userId) " +
+            "GROUP BY d.id.userId")
+    List<UserProductivityTotal> sumByUser(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("userId") UUID userId);
+
+    @Query("SELECT d FROM UserProductivityDaily d WHERE d.id.day >= :from AND d.id.day <= :to")
+    List<UserProductivityDaily> findByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM UserProductivityDaily d WHERE d.id.day >= :from AND d.id.day <= :to")
+    int deleteByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
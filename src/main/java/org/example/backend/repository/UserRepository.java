@@ -1,5 +1,6 @@
 package org.example.backend.repository;
 
+import org.example.backend.dto.projection.EmployeeDimension;
 import org.example.backend.entity.User;
 import org.example.backend.enums.Role;
 import org.springframework.data.domain.Page;
@@ -44,4 +45,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role AND u.active = true")
     long countByRoleAndActiveTrue(@Param("role") Role role);
+
+    @Query("SELECT new org.example.backend.dto.projection.EmployeeDimension(u.id, u.username) FROM User u")
+    List<EmployeeDimension> findAllDimensions();
+
+    @Query("SELECT new org.example.backend.dto.projection.EmployeeDimension(u.id, u.username) " +
+            "FROM User u WHERE u.id = :id")
+    Optional<EmployeeDimension> findDimension(@Param("id") UUID id);
 }
@@ -0,0 +1,25 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.request.UpdateTaskRequest;
+import org.example.backend.entity.Transaction;
+
+import java.util.UUID;
+
+/**
+ * Task edits made by an administrator. Productivity counters follow the task's
+ * current state, as a rebuild would, and commit or roll back with the edit.
+ */
+public interface AdminTaskService {
+
+    /**
+     * Apply the non-null fields of {@code request}. What was counted for a
+     * finished task is taken back before its status or assignee changes, and
+     * counted again if it is still finished afterwards.
+     */
+    Transaction updateTask(UUID taskId, UpdateTaskRequest request);
+
+    /**
+     * Set a task to CANCELLED, taking back its counters if it was finished.
+     */
+    Transaction cancelTask(UUID taskId);
+}
@@ -0,0 +1,292 @@
+package org.example.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.BarcodeEntry;
+import org.example.backend.entity.Product;
+import org.example.backend.entity.ProductBarcode;
+import org.example.backend.enums.PackLevel;
+import org.example.backend.repository.ProductBarcodeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Every unit, fardeau and palette barcode of code_barre mapped to its product
+ * and pack multiplier, so scans are validated without a database read.
+ * <p>
+ * Entries live in an open-addressing table (linear probing, parallel arrays)
+ * that readers use without locking. Each change builds a new table and swaps
+ * it in, which is cheap at the rate barcodes are edited. A code claimed by two
+ * products keeps its first owner and is logged.
+ * <p>
+ * Loaded at startup, updated by the product management endpoints and reloaded
+ * every {@code stock.barcodes.resync-ms} to pick up changes made elsewhere.
+ */
+@Component
+@Slf4j
+public class BarcodeIndex {
+
+    private static final PackLevel[] PACK_LEVELS = PackLevel.values();
+
+    private final ProductBarcodeRepository productBarcodeRepository;
+
+    private volatile Table table = new Table(0);
+    private volatile boolean ready;
+
+    public BarcodeIndex(ProductBarcodeRepository productBarcodeRepository) {
+        this.productBarcodeRepository = productBarcodeRepository;
+    }
+
+    /**
+     * True once loaded; callers fall back to the database otherwise.
+     */
+    public boolean isActive() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${stock.barcodes.resync-ms:600000}",
+            fixedDelayString = "${stock.barcodes.resync-ms:600000}")
+    public void resync() {
+        if (ready) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        List<BarcodeEntry> entries = productBarcodeRepository.findAllEntries();
+        Table loaded = new Table(entries.size() * 3);
+        int conflicts = 0;
+        for (BarcodeEntry entry : entries) {
+            conflicts += loaded.putAll(entry.barcode(), entry.fardeauBarcode(), entry.paletteBarcode(),
+                    entry.productId(), entry.colisageFardeau(), entry.colisagePalette());
+        }
+        table = loaded;
+        ready = true;
+        log.info("Barcode index loaded {} codes ({} conflicting) in {} ms", loaded.size, conflicts,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Product and pack multiplier of a scanned code.
+     */
+    public Optional<ScanTarget> resolve(String code) {
+        return Optional.ofNullable(code).map(table::get);
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Index the codes of a barcode row. Call after it was committed.
+     */
+    public synchronized void onBarcodeAdded(ProductBarcode barcode) {
+        Product product = barcode.getProduct();
+        Table updated = table.copy(3);
+        updated.putAll(barcode.getBarcode(), barcode.getCodeBarreFardeau(), barcode.getCodeBarrePalette(),
+                product.getId(), product.getColisageFardeau(), product.getColisagePalette());
+        table = updated;
+    }
+
+    /**
+     * Drop the codes of a deleted barcode row that still point to its product.
+     */
+    public synchronized void onBarcodeRemoved(ProductBarcode barcode) {
+        UUID productId = barcode.getProduct().getId();
+        Table updated = table.copy(0);
+        for (String code : new String[] { barcode.getBarcode(), barcode.getCodeBarreFardeau(),
+                barcode.getCodeBarrePalette() }) {
+            ScanTarget target = code != null ? updated.get(code) : null;
+            if (target != null && target.productId().equals(productId)) {
+                updated.remove(code);
+            }
+        }
+        table = updated;
+    }
+
+    /**
+     * Apply a product's new fardeau and palette sizes to its codes.
+     */
+    public synchronized void onProductChanged(Product product) {
+        Table updated = table.copy(0);
+        updated.setMultipliers(product.getId(), multiplier(product.getColisageFardeau()),
+                multiplier(product.getColisagePalette()));
+        table = updated;
+    }
+
+    private static int multiplier(Integer packSize) {
+        return packSize != null && packSize > 0 ? packSize : 0;
+    }
+
+    /**
+     * @param multiplier units per scanned item; 0 when the product's pack size
+     *                   is not set
+     */
+    public record ScanTarget(UUID productId, PackLevel level, int multiplier) {
+    }
+
+    /**
+     * Code to product, pack level and multiplier; package-private so it can be
+     * tested on its own.
+     */
+    static final class Table {
+
+        private final String[] keys;
+        private final long[] productHigh;
+        private final long[] productLow;
+        private final byte[] levels;
+        private final int[] multipliers;
+        private final int mask;
+        private int size;
+
+        Table(int expected) {
+            // At most half full
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new String[capacity];
+            productHigh = new long[capacity];
+            productLow = new long[capacity];
+            levels = new byte[capacity];
+            multipliers = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * A copy with room for {@code extra} more entries.
+         */
+        private Table copy(int extra) {
+            Table copy = new Table(Math.max(size + extra, keys.length / 2));
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    copy.put(keys[i], productHigh[i], productLow[i], levels[i], multipliers[i]);
+                }
+            }
+            return copy;
+        }
+
+        /**
+         * @return number of codes not indexed because another product owns them
+         */
+        int putAll(String unit, String fardeau, String palette, UUID productId, Integer colisageFardeau,
+                Integer colisagePalette) {
+            int conflicts = 0;
+            conflicts += put(unit, productId, PackLevel.UNIT, 1);
+            conflicts += put(fardeau, productId, PackLevel.FARDEAU, multiplier(colisageFardeau));
+            conflicts += put(palette, productId, PackLevel.PALETTE, multiplier(colisagePalette));
+            return conflicts;
+        }
+
+        int put(String code, UUID productId, PackLevel level, int multiplier) {
+            if (code == null || code.isBlank()) {
+                return 0;
+            }
+            int existing = find(code);
+            if (existing >= 0 && (productHigh[existing] != productId.getMostSignificantBits()
+                    || productLow[existing] != productId.getLeastSignificantBits())) {
+                log.warn("Barcode {} is already used by product {}, ignored for product {}", code,
+                        new UUID(productHigh[existing], productLow[existing]), productId);
+                return 1;
+            }
+            put(code, productId.getMostSignificantBits(), productId.getLeastSignificantBits(),
+                    (byte) level.ordinal(), multiplier);
+            return 0;
+        }
+
+        private void put(String code, long high, long low, byte level, int multiplier) {
+            int i = slot(code);
+            while (keys[i] != null && !keys[i].equals(code)) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == null) {
+                keys[i] = code;
+                size++;
+            }
+            productHigh[i] = high;
+            productLow[i] = low;
+            levels[i] = level;
+            multipliers[i] = multiplier;
+        }
+
+        ScanTarget get(String code) {
+            int i = find(code);
+            if (i < 0) {
+                return null;
+            }
+            return new ScanTarget(new UUID(productHigh[i], productLow[i]), PACK_LEVELS[levels[i]],
+                    multipliers[i]);
+        }
+
+        /**
+         * Backward-shift deletion: later entries of the probe run move up, so no
+         * tombstones are needed.
+         */
+        void remove(String code) {
+            int hole = find(code);
+            if (hole < 0) {
+                return;
+            }
+            for (int i = (hole + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+                int home = slot(keys[i]);
+                boolean reachable = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+                if (!reachable) {
+                    move(i, hole);
+                    hole = i;
+                }
+            }
+            keys[hole] = null;
+            size--;
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            productHigh[to] = productHigh[from];
+            productLow[to] = productLow[from];
+            levels[to] = levels[from];
+            multipliers[to] = multipliers[from];
+        }
+
+        void setMultipliers(UUID productId, int fardeau, int palette) {
+            long high = productId.getMostSignificantBits();
+            long low = productId.getLeastSignificantBits();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null && productHigh[i] == high && productLow[i] == low) {
+                    if (levels[i] == PackLevel.FARDEAU.ordinal()) {
+                        multipliers[i] = fardeau;
+                    } else if (levels[i] == PackLevel.PALETTE.ordinal()) {
+                        multipliers[i] = palette;
+                    }
+                }
+            }
+        }
+
+        private int find(String code) {
+            for (int i = slot(code);; i = (i + 1) & mask) {
+                if (keys[i] == null) {
+                    return -1;
+                }
+                if (keys[i].equals(code)) {
+                    return i;
+                }
+            }
+        }
+
+        int slot(String code) {
+            int h = code.hashCode();
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -1,27 +1,36 @@
 package org.example.backend.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.LocationStock;
+import org.example.backend.dto.projection.TaskCardRow;
 import org.example.backend.dto.request.CompleteOperationRequest;
 import org.example.backend.dto.request.ExecuteLineRequest;
 import org.example.backend.dto.request.ReportIssueRequest;
 import org.example.backend.dto.request.StartOperationRequest;
 import org.example.backend.entity.Chariot;
 import org.example.backend.entity.Product;
-import org.example.backend.entity.ProductBarcode;
+import org.example.backend.entity.StockBalanceId;
 import org.example.backend.entity.TaskDiscrepancy;
 import org.example.backend.entity.Transaction;
 import org.example.backend.entity.TransactionLine;
 import org.example.backend.entity.User;
 import org.example.backend.enums.IssueType;
+import org.example.backend.enums.PackLevel;
+import org.example.backend.enums.ScanAction;
+import org.example.backend.enums.ScanEntityType;
 import org.example.backend.enums.TransactionStatus;
 import org.example.backend.exception.ResourceNotFoundException;
 import org.example.backend.repository.ChariotRepository;
 import org.example.backend.repository.ProductBarcodeRepository;
 import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.repository.StockLedgerRepository;
 import org.example.backend.repository.TaskDiscrepancyRepository;
 import org.example.backend.repository.TransactionLineRepository;
 import org.example.backend.repository.TransactionRepository;
 import org.example.backend.repository.UserRepository;
+import org.example.backend.service.BarcodeIndex.ScanTarget;
+import org.example.backend.service.StockLedgerService.Movement;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,9 +38,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -40,7 +55,7 @@ public class EmployeeWorkflowService {
 
     private final TransactionRepository transactionRepository;
     private final TransactionLineRepository transactionLineRepository;
-    private final ProductBarcodeRepository productBarcodeRepository;
+    private final ProductService productService;
     private final ProductRepository productRepository;
     private final TaskDiscrepancyRepository taskDiscrepancyRepository;
     private final UserRepository userRepository;
@@ -49,22 +64,24 @@ public class EmployeeWorkflowService {
     private final TransferService transferService;
     private final PickingService pickingService;
     private final DeliveryService deliveryService;
+    private final UserProductivityService userProductivityService;
+    private final StockLedgerService stockLedgerService;
+    private final StockBalanceRepository stockBalanceRepository;
+    private final ProductBarcodeRepository productBarcodeRepository;
+    private final BarcodeIndex barcodeIndex;
+    private final StockLedgerRepository stockLedgerRepository;
 
+    /**
+     * The employee's tasks, most recently assigned first, read as projections.
+     * Pair with {@link TaskListVersions} to skip unchanged polls.
+     */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getMyTasks(String username, String statusFilter) {
-        List<Transaction> tasks;
-        if (statusFilter == null || statusFilter.isBlank()) {
-            tasks = transactionRepository.findByAssignedTo_Username(username);
-        } else {
-            TransactionStatus status = TransactionStatus.valueOf(statusFilter.trim().toUpperCase());
-            tasks = transactionRepository.findByAssignedTo_UsernameAndStatus(username, status);
-        }
-
-        tasks.sort(Comparator.comparing(Transaction::getAssignedAt, Comparator.nullsLast(Comparator.naturalOrder()))
-                .reversed());
+        TransactionStatus status = statusFilter == null || statusFilter.isBlank() ? null
+                : TransactionStatus.valueOf(statusFilter.trim().toUpperCase());
 
         List<Map<String, Object>> response = new ArrayList<>();
-        for (Transaction task : tasks) {
+        for (TaskCardRow task : transactionRepository.findTaskCards(username, status)) {
             response.add(toTaskCard(task));
         }
         return response;
@@ -123,20 +140,130 @@ public class EmployeeWorkflowService {
                 .findByTransaction_IdAndLineNumber(request.getTransactionId(), request.getLineNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction line not found"));
 
-        validateScannedBarcode(line, request.getProductBarcode());
+        ScanTarget scan = resolveScan(line, request.getProductBarcode());
+        String scanError = checkScan(line, request, scan);
+        if (scanError != null) {
+            throw new org.example.backend.exception.InvalidOperationException(scanError);
+        }
 
         // Process actual stock movement based on transaction type
         User performer = getUserByUsername(username);
         processStockMovement(task, line, performer);
+        userProductivityService.recordLinesExecuted(performer, 1);
 
         Map<String, Object> response = new HashMap<>();
         response.put("lineNumber", line.getLineNumber());
         response.put("status", "COMPLETED");
         response.put("product", toProductPayload(line.getProduct()));
+        response.put("packLevel", scan.level());
+        response.put("quantity", line.getQuantity());
         response.put("message", "Line processed and stock updated successfully");
         return response;
     }
 
+    /**
+     * Execute several scanned lines in one transaction. Tasks, lines and barcodes
+     * are loaded with one query each, and the stock movements of all lines go
+     * through a single {@link StockLedgerService#recordBatch}, in request order.
+     * <p>
+     * By default (FR-56) nothing is executed unless every line is valid. With
+     * {@code bestEffort}, invalid lines are reported and the others executed.
+     * Stock is checked before writing; if a concurrent operation takes that stock
+     * in between, the whole batch fails with the usual insufficient-stock error.
+     */
+    public Map<String, Object> executeOperationLines(String username, List<ExecuteLineRequest> requests,
+            boolean bestEffort) {
+        User performer = getUserByUsername(username);
+
+        Set<UUID> transactionIds = requests.stream()
+                .map(ExecuteLineRequest::getTransactionId)
+                .collect(Collectors.toSet());
+        Map<UUID, Transaction> tasks = transactionRepository.findAllById(transactionIds).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        Map<LineKey, TransactionLine> lines = new HashMap<>();
+        if (!tasks.isEmpty()) {
+            for (TransactionLine line : transactionLineRepository
+                    .findByTransactionIdsWithProductAndLocations(tasks.keySet())) {
+                lines.put(new LineKey(line.getTransaction().getId(), line.getLineNumber()), line);
+            }
+        }
+        Map<String, ScanTarget> barcodes = findScannedBarcodes(requests, lines);
+
+        // Per request: an error, or the movements to record
+        List<String> errors = new ArrayList<>(requests.size());
+        List<List<Movement>> movements = new ArrayList<>(requests.size());
+        Set<LineKey> seen = new HashSet<>();
+        for (ExecuteLineRequest request : requests) {
+            LineKey key = new LineKey(request.getTransactionId(), request.getLineNumber());
+            Transaction task = tasks.get(request.getTransactionId());
+            TransactionLine line = lines.get(key);
+            String error = validateLine(username, request, task, line, barcodes);
+            if (error == null && !seen.add(key)) {
+                error = "Line is listed more than once";
+            }
+            List<Movement> lineMovements = List.of();
+            if (error == null) {
+                error = missingLocation(task, line);
+            }
+            if (error == null) {
+                try {
+                    lineMovements = lineMovements(task, line, performer);
+                } catch (org.example.backend.exception.InvalidOperationException e) {
+                    // Thrown by the Movement builders, not through a transactional proxy
+                    error = e.getMessage();
+                }
+            }
+            errors.add(error);
+            movements.add(lineMovements);
+        }
+        checkStock(movements, errors);
+
+        boolean allValid = errors.stream().allMatch(Objects::isNull);
+        boolean execute = allValid || bestEffort;
+        List<Movement> batch = new ArrayList<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        int executed = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            String status;
+            if (errors.get(i) != null) {
+                status = "FAILED";
+            } else if (execute) {
+                batch.addAll(movements.get(i));
+                executed++;
+                status = "COMPLETED";
+            } else {
+                status = "NOT_EXECUTED";
+            }
+            ExecuteLineRequest request = requests.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("transactionId", request.getTransactionId());
+            result.put("lineNumber", request.getLineNumber());
+            result.put("status", status);
+            if (errors.get(i) == null) {
+                TransactionLine line = lines.get(new LineKey(request.getTransactionId(), request.getLineNumber()));
+                result.put("packLevel", scanTarget(line, request.getProductBarcode(), barcodes).level());
+                result.put("quantity", line.getQuantity());
+            }
+            result.put("error", errors.get(i));
+            results.add(result);
+        }
+
+        if (!batch.isEmpty()) {
+            stockLedgerService.recordBatch(batch);
+        }
+        if (executed > 0) {
+            userProductivityService.recordLinesExecuted(performer, executed);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("mode", bestEffort ? "BEST_EFFORT" : "ALL_OR_NOTHING");
+        response.put("committed", executed > 0);
+        response.put("executed", executed);
+        response.put("failed", errors.stream().filter(Objects::nonNull).count());
+        response.put("lines", results);
+        return response;
+    }
+
     public Map<String, Object> reportIssue(String username, ReportIssueRequest request) {
         Transaction task = getAssignedTransaction(username, request.getTransactionId());
         User reporter = getUserByUsername(username);
@@ -161,6 +288,7 @@ public class EmployeeWorkflowService {
                 .build();
 
         TaskDiscrepancy saved = taskDiscrepancyRepository.save(discrepancy);
+        userProductivityService.recordDiscrepancyReported(reporter);
 
         Map<String, Object> response = new HashMap<>();
         response.put("discrepancyId", saved.getId());
@@ -177,10 +305,15 @@ public class EmployeeWorkflowService {
                     "Status must be COMPLETED or FAILED");
         }
 
+        boolean alreadyFinished = task.getStatus() == TransactionStatus.COMPLETED
+                || task.getStatus() == TransactionStatus.FAILED;
         task.setStatus(TransactionStatus.valueOf(statusText));
         task.setCompletedAt(LocalDateTime.now());
         task.setNotes(request.getNotes());
         transactionRepository.save(task);
+        if (!alreadyFinished) {
+            userProductivityService.recordTaskFinished(task);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("transactionId", task.getId());
@@ -203,6 +336,63 @@ public class EmployeeWorkflowService {
         return dashboard;
     }
 
+    /**
+     * Next step after a scan, from the employee's tasks in progress: oldest task
+     * first, lines in order, lines that already moved stock skipped.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> suggestScanAction(String username, ScanDecoder.Decoded scan) {
+        if (scan.type() == ScanEntityType.UNKNOWN) {
+            return scanAction(ScanAction.UNKNOWN_CODE, "Code not recognised", null, null);
+        }
+        List<Transaction> tasks = transactionRepository.findByAssignedTo_UsernameAndStatus(username,
+                TransactionStatus.IN_PROGRESS);
+        if (tasks.isEmpty()) {
+            return scanAction(ScanAction.NO_ACTIVE_TASK, "Start a task before scanning", null, null);
+        }
+        tasks.sort(Comparator.comparing(Transaction::getStartedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        if (scan.chariot() != null) {
+            UUID chariotId = scan.chariot().id();
+            for (Transaction task : tasks) {
+                if (task.getChariot() != null && chariotId.equals(task.getChariot().getId())) {
+                    return scanAction(ScanAction.CHARIOT_CONFIRMED, "Chariot of task " + task.getReference(),
+                            task, null);
+                }
+            }
+            boolean anyChariot = tasks.stream().anyMatch(task -> task.getChariot() != null);
+            return anyChariot
+                    ? scanAction(ScanAction.WRONG_CHARIOT, "This chariot is not attached to your task", null, null)
+                    : scanAction(ScanAction.NOT_IN_TASK, "No chariot is attached to your task", null, null);
+        }
+
+        Set<UUID> executed = stockLedgerRepository.findExecutedLineIds(
+                tasks.stream().map(Transaction::getId).toList());
+        for (Transaction task : tasks) {
+            List<TransactionLine> pending = task.getTransactionLines().stream()
+                    .filter(line -> !executed.contains(line.getId()))
+                    .sorted(Comparator.comparing(TransactionLine::getLineNumber))
+                    .toList();
+            for (TransactionLine line : pending) {
+                if (scan.location() != null) {
+                    UUID locationId = scan.location().id();
+                    if (line.getSourceLocation() != null && locationId.equals(line.getSourceLocation().getId())) {
+                        return scanAction(ScanAction.SCAN_PRODUCT, "Scan " + line.getProduct().getSku()
+                                + " for line " + line.getLineNumber(), task, line);
+                    }
+                    if (line.getDestinationLocation() != null
+                            && locationId.equals(line.getDestinationLocation().getId())) {
+                        return scanAction(ScanAction.CONFIRM_DESTINATION, "Drop " + line.getQuantity() + " x "
+                                + line.getProduct().getSku() + " here", task, line);
+                    }
+                } else if (scan.product() != null && scan.product().id().equals(line.getProduct().getId())) {
+                    return productScanAction(scan.scan(), task, line);
+                }
+            }
+        }
+        return scanAction(ScanAction.NOT_IN_TASK, "Not part of your tasks in progress", null, null);
+    }
+
     /**
      * Dispatch stock movement to the appropriate operation service based on
      * transaction type.
@@ -219,19 +409,214 @@ public class EmployeeWorkflowService {
         }
     }
 
-    private void validateScannedBarcode(TransactionLine line, String scannedBarcode) {
+    /**
+     * What the scanned codes that are not simply the line's SKU stand for: from
+     * the barcode index, or in one query while it is still loading.
+     */
+    private Map<String, ScanTarget> findScannedBarcodes(List<ExecuteLineRequest> requests,
+            Map<LineKey, TransactionLine> lines) {
+        Set<String> codes = new HashSet<>();
+        for (ExecuteLineRequest request : requests) {
+            TransactionLine line = lines.get(new LineKey(request.getTransactionId(), request.getLineNumber()));
+            if (line != null && !line.getProduct().getSku().equalsIgnoreCase(request.getProductBarcode())) {
+                codes.add(request.getProductBarcode());
+            }
+        }
+        if (codes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, ScanTarget> targets = new HashMap<>();
+        if (barcodeIndex.isActive()) {
+            for (String code : codes) {
+                barcodeIndex.resolve(code).ifPresent(target -> targets.put(code, target));
+            }
+        } else {
+            productBarcodeRepository.findProductIdsByBarcodes(codes).forEach(row -> targets
+                    .putIfAbsent(row.barcode(), new ScanTarget(row.productId(), PackLevel.UNIT, 1)));
+        }
+        return targets;
+    }
+
+    /**
+     * Same checks as {@link #executeOperationLine}, reported instead of thrown.
+     */
+    private String validateLine(String username, ExecuteLineRequest request, Transaction task,
+            TransactionLine line, Map<String, ScanTarget> barcodes) {
+        if (task == null || task.getAssignedTo() == null || !username.equals(task.getAssignedTo().getUsername())) {
+            return "Transaction not assigned to current employee: " + request.getTransactionId();
+        }
+        if (task.getStatus() != TransactionStatus.IN_PROGRESS) {
+            return "Transaction must be IN_PROGRESS";
+        }
+        if (line == null) {
+            return "Transaction line not found";
+        }
+        return checkScan(line, request, scanTarget(line, request.getProductBarcode(), barcodes));
+    }
+
+    private String missingLocation(Transaction task, TransactionLine line) {
+        boolean needsSource = switch (task.getType()) {
+            case TRANSFER, PICKING, DELIVERY -> true;
+            case RECEIPT, ADJUSTMENT -> false;
+        };
+        boolean needsDestination = switch (task.getType()) {
+            case RECEIPT, TRANSFER, PICKING -> true;
+            case DELIVERY, ADJUSTMENT -> false;
+        };
+        if (needsSource && line.getSourceLocation() == null) {
+            return "Line " + line.getLineNumber() + " must have a source location";
+        }
+        if (needsDestination && line.getDestinationLocation() == null) {
+            return "Line " + line.getLineNumber() + " must have a destination location";
+        }
+        return null;
+    }
+
+    /**
+     * The movements {@link #processStockMovement} records for a line, built with
+     * the same {@link Movement} factories and therefore the same checks
+     * (positive quantity, distinct source and destination).
+     *
+     * @throws org.example.backend.exception.InvalidOperationException if a check fails
+     */
+    private List<Movement> lineMovements(Transaction task, TransactionLine line, User performer) {
         Product product = line.getProduct();
-        if (product.getSku().equalsIgnoreCase(scannedBarcode)) {
+        int quantity = line.getQuantity();
+        return switch (task.getType()) {
+            case RECEIPT -> List.of(
+                    Movement.in(product, line.getDestinationLocation(), quantity, task, line, performer));
+            case TRANSFER, PICKING -> Movement.transfer(product, line.getSourceLocation(),
+                    line.getDestinationLocation(), quantity, task, line, performer);
+            case DELIVERY -> List.of(
+                    Movement.out(product, line.getSourceLocation(), quantity, task, line, performer));
+            case ADJUSTMENT -> List.of();
+        };
+    }
+
+    /**
+     * Replay the valid lines against the current balances, in order, and fail the
+     * lines that would take a balance below zero. Failed lines do not count
+     * towards later ones.
+     */
+    private void checkStock(List<List<Movement>> movements, List<String> errors) {
+        Set<UUID> productIds = new HashSet<>();
+        Set<UUID> locationIds = new HashSet<>();
+        for (int i = 0; i < movements.size(); i++) {
+            if (errors.get(i) == null) {
+                for (Movement movement : movements.get(i)) {
+                    productIds.add(movement.product().getId());
+                    locationIds.add(movement.location().getId());
+                }
+            }
+        }
+        if (productIds.isEmpty()) {
             return;
         }
+        Map<StockBalanceId, Long> balances = new HashMap<>();
+        for (LocationStock stock : stockBalanceRepository.findByProductIdsAndLocationIds(productIds, locationIds)) {
+            balances.put(new StockBalanceId(stock.productId(), stock.locationId()), stock.quantity().longValue());
+        }
 
-        ProductBarcode barcode = productBarcodeRepository.findByBarcode(scannedBarcode)
-                .orElseThrow(
-                        () -> new org.example.backend.exception.InvalidOperationException("Wrong product scanned"));
+        for (int i = 0; i < movements.size(); i++) {
+            if (errors.get(i) != null) {
+                continue;
+            }
+            Map<StockBalanceId, Long> after = new HashMap<>();
+            for (Movement movement : movements.get(i)) {
+                StockBalanceId id = new StockBalanceId(movement.product().getId(), movement.location().getId());
+                long current = after.getOrDefault(id, balances.getOrDefault(id, 0L));
+                long updated = current + movement.delta();
+                if (updated < 0) {
+                    errors.set(i, "Insufficient stock of " + movement.product().getSku() + " at "
+                            + movement.location().getCode() + ": available " + current + ", required "
+                            + movement.quantity());
+                    break;
+                }
+                after.put(id, updated);
+            }
+            if (errors.get(i) == null) {
+                balances.putAll(after);
+            }
+        }
+    }
 
-        if (!barcode.getProduct().getId().equals(product.getId())) {
-            throw new org.example.backend.exception.InvalidOperationException("Wrong product scanned");
+    /**
+     * What a scanned code stands for: the line's SKU counts as one unit, other
+     * codes go through the barcode index (or the barcode cache while the index
+     * is still loading). Null when the code is unknown.
+     */
+    private ScanTarget resolveScan(TransactionLine line, String code) {
+        Product product = line.getProduct();
+        if (product.getSku().equalsIgnoreCase(code)) {
+            return new ScanTarget(product.getId(), PackLevel.UNIT, 1);
+        }
+        if (barcodeIndex.isActive()) {
+            return barcodeIndex.resolve(code).orElse(null);
+        }
+        return productService.findProductIdByBarcode(code)
+                .map(productId -> new ScanTarget(productId, PackLevel.UNIT, 1))
+                .orElse(null);
+    }
+
+    private ScanTarget scanTarget(TransactionLine line, String code, Map<String, ScanTarget> barcodes) {
+        Product product = line.getProduct();
+        if (product.getSku().equalsIgnoreCase(code)) {
+            return new ScanTarget(product.getId(), PackLevel.UNIT, 1);
+        }
+        return barcodes.get(code);
+    }
+
+    /**
+     * A scan must be of the line's product, and the scanned count times the pack
+     * size (1 for units) must make up the line quantity, so a single pallet scan
+     * executes a line of one pallet.
+     */
+    private String checkScan(TransactionLine line, ExecuteLineRequest request, ScanTarget scan) {
+        Product product = line.getProduct();
+        if (scan == null || !scan.productId().equals(product.getId())) {
+            return "Wrong product scanned";
+        }
+        if (scan.multiplier() == 0) {
+            return "No " + scan.level().name().toLowerCase() + " size defined for product " + product.getSku();
         }
+        long units = (long) request.getQuantity() * scan.multiplier();
+        if (units != line.getQuantity()) {
+            return "Scanned " + request.getQuantity() + " x " + scan.level() + " (" + units
+                    + " units) but line " + line.getLineNumber() + " expects " + line.getQuantity();
+        }
+        return null;
+    }
+
+    private Map<String, Object> productScanAction(ScanTarget scan, Transaction task, TransactionLine line) {
+        int multiplier = scan.multiplier();
+        if (multiplier == 0 || line.getQuantity() % multiplier != 0) {
+            Map<String, Object> action = scanAction(ScanAction.WRONG_PACK, "Line " + line.getLineNumber()
+                    + " needs " + line.getQuantity() + " units, not a whole number of " + scan.level(), task, line);
+            action.put("packLevel", scan.level());
+            return action;
+        }
+        int scans = line.getQuantity() / multiplier;
+        Map<String, Object> action = scanAction(ScanAction.EXECUTE_LINE, "Execute line " + line.getLineNumber()
+                + " with " + scans + " x " + scan.level(), task, line);
+        action.put("packLevel", scan.level());
+        action.put("expectedScans", scans);
+        return action;
+    }
+
+    private Map<String, Object> scanAction(ScanAction action, String message, Transaction task,
+            TransactionLine line) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("action", action);
+        payload.put("message", message);
+        if (task != null) {
+            payload.put("transactionId", task.getId());
+            payload.put("reference", task.getReference());
+        }
+        if (line != null) {
+            payload.put("lineNumber", line.getLineNumber());
+            payload.put("quantity", line.getQuantity());
+        }
+        return payload;
     }
 
     private Transaction getAssignedTransaction(String username, UUID transactionId) {
@@ -248,14 +633,17 @@ public class EmployeeWorkflowService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
     }
 
-    private Map<String, Object> toTaskCard(Transaction task) {
+    private record LineKey(UUID transactionId, Integer lineNumber) {
+    }
+
+    private Map<String, Object> toTaskCard(TaskCardRow task) {
         Map<String, Object> response = new HashMap<>();
-        response.put("id", task.getId());
-        response.put("type", task.getType().name());
-        response.put("reference", task.getReference());
-        response.put("status", task.getStatus().name());
-        response.put("priority", task.getPriority().name());
-        response.put("assignedAt", task.getAssignedAt());
+        response.put("id", task.id());
+        response.put("type", task.type().name());
+        response.put("reference", task.reference());
+        response.put("status", task.status().name());
+        response.put("priority", task.priority().name());
+        response.put("assignedAt", task.assignedAt());
         return response;
     }
 
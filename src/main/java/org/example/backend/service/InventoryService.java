@@ -1,4 +1,65 @@
 package org.example.backend.service;
 
+import org.example.backend.dto.projection.LocationProductStock;
+import org.example.backend.dto.projection.LocationStock;
+import org.example.backend.enums.LocationType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Current stock as seen from the floor: where a product is and what a
+ * location holds. Balances come from stock_balance (one indexed read per
+ * call); product and location details from the read caches.
+ */
 public interface InventoryService {
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the
+     *                                                                 product
+     *                                                                 does not
+     *                                                                 exist
+     */
+    ProductStock getProductStock(UUID productId);
+
+    /**
+     * Stock of the product with this SKU, or failing that, with this barcode.
+     *
+     * @throws org.example.backend.exception.ResourceNotFoundException if neither
+     *                                                                 matches
+     */
+    ProductStock findStockBySku(String sku);
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the
+     *                                                                 location
+     *                                                                 does not
+     *                                                                 exist
+     */
+    LocationContents getLocationContents(UUID locationId);
+
+    enum CapacityStatus {
+        EMPTY,
+        NORMAL,
+        /** At least 85% of the location's volume is used. */
+        NEAR_FULL,
+        FULL,
+        /** Location or product volumes are not known. */
+        UNKNOWN
+    }
+
+    /**
+     * @param locations locations holding the product, by location code
+     */
+    record ProductStock(UUID productId, String sku, String name, String unitOfMeasure, long totalStock,
+            List<LocationStock> locations) {
+    }
+
+    /**
+     * @param occupancyPercent volume used by the stored products, null when
+     *                         unknown
+     */
+    record LocationContents(UUID locationId, String code, String zone, LocationType type,
+            List<LocationProductStock> products, Double occupancyPercent, CapacityStatus capacityStatus) {
+    }
 }
@@ -0,0 +1,27 @@
+package org.example.backend.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Moves closed months of stock_ledger into compressed archive segments
+ * (see {@link org.example.backend.repository.LedgerArchiveRepository}), keeping
+ * the hot table small while archived entries stay queryable.
+ */
+public interface LedgerArchiveService {
+
+    /**
+     * Months still in stock_ledger that are older than the retention window,
+     * oldest first.
+     */
+    List<YearMonth> findArchivableMonths();
+
+    /**
+     * Archive one month: write checkpoints at the end of the month, copy its
+     * entries into a segment and delete them from stock_ledger. Months must be
+     * archived oldest first.
+     *
+     * @return number of entries archived
+     */
+    long archiveMonth(YearMonth month);
+}
@@ -0,0 +1,59 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.projection.BalanceAggregate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodic per-(product, location) checkpoints of the stock ledger, so
+ * historical balances never have to replay the full history.
+ */
+public interface LedgerCheckpointService {
+
+    /**
+     * Fold the ledger entries recorded since the previous run into new runs
+     * holding every non-zero balance: one at each retained boundary passed since
+     * the previous run (day starts over the last
+     * {@code stock.checkpoint.daily-run-days} days, month starts before that)
+     * and one at the cutoff. Other runs are pruned once superseded, so an as-of
+     * query replays at most the entries of one boundary interval. Only entries
+     * older than the configured lag are folded, so transactions still in flight
+     * are not skipped.
+     *
+     * @return number of checkpoints written
+     */
+    int createCheckpoints();
+
+    /**
+     * Write a full set of checkpoints exactly at {@code boundary}, so that
+     * ledger entries up to it can be archived without affecting later balance
+     * queries. Does nothing if a run already exists at that position.
+     *
+     * @return number of checkpoints written
+     */
+    int createCheckpointsAt(LocalDateTime boundary);
+
+    /**
+     * Balance of a product at a location as of a point in time: its checkpoint
+     * in the latest run at or before {@code asOf} plus the ledger tail after it.
+     */
+    int getBalanceAsOf(UUID productId, UUID locationId, LocalDateTime asOf);
+
+    /**
+     * Non-zero balances as of a point in time of every (product, location)
+     * matching the optional filters (null = no filter). Reads the checkpoints of
+     * the latest run at or before {@code asOf} and replays only the ledger
+     * entries recorded after it: at most a day for recent timestamps, a month
+     * further back.
+     */
+    BalancesAsOf getBalancesAsOf(UUID productId, UUID locationId, UUID warehouseId, LocalDateTime asOf);
+
+    /**
+     * Balances as of a point in time and the position of the checkpoint run
+     * they were replayed from (null when {@code asOf} precedes every run).
+     */
+    record BalancesAsOf(LocalDateTime checkpointAt, List<BalanceAggregate> balances) {
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.backend.service;
+
+import org.example.backend.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Writes stock_ledger rows to a stream without loading them first, so exports
+ * use the same amount of memory whatever their size.
+ */
+public interface LedgerExportService {
+
+    /**
+     * Write the ledger rows matching the filters (all optional) to {@code out},
+     * oldest first. {@code from} is inclusive and {@code to} exclusive.
+     *
+     * @return number of rows written
+     */
+    long export(ExportFormat format, UUID productId, UUID locationId, LocalDateTime from, LocalDateTime to,
+            OutputStream out) throws IOException;
+}
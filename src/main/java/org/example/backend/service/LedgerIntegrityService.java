@@ -0,0 +1,72 @@
+package org.example.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Replays every (product, location) chain of stock_ledger and checks that the
+ * stored running balances match the sum of the movements before them, and that
+ * the final sum matches stock_balance. Runs in the background; only one run at
+ * a time.
+ */
+public interface LedgerIntegrityService {
+
+    /**
+     * Start a verification run.
+     *
+     * @param repair rewrite inconsistent running balances (in batches) instead of
+     *               only reporting them
+     * @return the status of the new run
+     * @throws org.example.backend.exception.InvalidOperationException if a run is
+     *                                                                  already in
+     *                                                                  progress
+     */
+    IntegrityStatus startVerification(boolean repair);
+
+    /**
+     * Progress of the current run, or the result of the last one (null if none
+     * was started since the application started).
+     */
+    IntegrityStatus getStatus();
+
+    enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    enum IssueType {
+        /** Stored running balance differs from the replayed sum. */
+        RUNNING_BALANCE,
+        /** Replayed sum is negative, so the row cannot be repaired in place. */
+        NEGATIVE_BALANCE,
+        /**
+         * stock_balance differs from the sum of the chain. Can be a false positive for
+         * pairs that received movements during the run.
+         */
+        STOCK_BALANCE
+    }
+
+    /**
+     * One inconsistency. {@code ledgerId} is null for {@link IssueType#STOCK_BALANCE}.
+     */
+    record Issue(IssueType type, UUID productId, UUID locationId, UUID ledgerId, long stored, long expected) {
+    }
+
+    record IntegrityStatus(
+            UUID runId,
+            RunStatus status,
+            boolean repair,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            int totalProducts,
+            int processedProducts,
+            long rowsScanned,
+            long pairsChecked,
+            long inconsistentRows,
+            long negativeRows,
+            long repairedRows,
+            long balanceMismatches,
+            String error,
+            List<Issue> sampleIssues) {
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.backend.service;
+
+import org.example.backend.enums.LiveTopic;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-Sent Events feed of stock movements, task status transitions and
+ * chariot status changes for the supervisor screens.
+ * <p>
+ * Each subscriber first receives a snapshot of every topic it asked for, then
+ * one small delta event per committed change, and a fresh snapshot at a fixed
+ * interval so a client that missed events converges again.
+ */
+public interface LiveFeedService {
+
+    /**
+     * Register a new subscriber. The emitter completes when the client goes away,
+     * times out, or falls too far behind.
+     */
+    SseEmitter subscribe(Set<LiveTopic> topics);
+
+    LiveFeedStats getStats();
+
+    /**
+     * @param dropped subscribers disconnected because their queue overflowed
+     */
+    record LiveFeedStats(int subscribers, Map<LiveTopic, Integer> subscribersByTopic, long eventsBroadcast,
+            long framesSent, long dropped, long disconnected) {
+    }
+}
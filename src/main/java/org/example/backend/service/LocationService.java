@@ -1,4 +1,17 @@
 package org.example.backend.service;
 
+import org.example.backend.entity.Location;
+
+import java.util.UUID;
+
+/**
+ * Cached location lookups for read paths. Returned entities are shared: do not
+ * modify them.
+ */
 public interface LocationService {
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the location does not exist
+     */
+    Location getLocation(UUID locationId);
 }
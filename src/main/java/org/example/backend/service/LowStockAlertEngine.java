@@ -0,0 +1,245 @@
+package org.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.ProductStockLevel;
+import org.example.backend.entity.Product;
+import org.example.backend.enums.BackpressurePolicy;
+import org.example.backend.event.LowStockEvent;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.event.StockMovedEvent;
+import org.example.backend.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every product's total stock and the set of products below their
+ * {@code minStock} in memory, so low-stock alerts are read without touching
+ * the database.
+ * <p>
+ * Loaded from stock_balance at startup, then kept current from committed
+ * movements on the {@link StockEventBus} and from product edits. Each time a
+ * product crosses its threshold a {@link LowStockEvent} is published as an
+ * application event; any {@code @EventListener} can hook in.
+ * <p>
+ * Totals of products moved while a reload runs can be off by those movements
+ * until the next reload. Reloads happen every {@code stock.alerts.resync-ms}
+ * and whenever the bus reports events dropped for this subscriber.
+ */
+@Component
+@Slf4j
+public class LowStockAlertEngine {
+
+    private static final String SUBSCRIPTION = "low-stock";
+
+    private final ProductRepository productRepository;
+    private final StockEventBus stockEventBus;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Map<UUID, Level> levels = new ConcurrentHashMap<>();
+    private final Set<UUID> lowStock = ConcurrentHashMap.newKeySet();
+    private StockEventBus.Subscription subscription;
+    private long droppedSeen;
+    private volatile boolean ready;
+
+    public LowStockAlertEngine(ProductRepository productRepository, StockEventBus stockEventBus,
+            ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.stockEventBus = stockEventBus;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * True once loaded; callers fall back to the database otherwise.
+     */
+    public boolean isActive() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        subscription = stockEventBus.subscribe(SUBSCRIPTION, BackpressurePolicy.DROP, this::onStockMoved);
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Rebuild all totals from stock_balance. Publishes a {@link LowStockEvent} for
+     * every product whose state differs from before, except on the first load.
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        boolean initial = !ready;
+
+        Map<UUID, Level> loaded = new ConcurrentHashMap<>();
+        for (ProductStockLevel row : productRepository.findAllStockLevels()) {
+            loaded.put(row.productId(), new Level(row.productId(), row.sku(), row.name(), row.minStock(),
+                    Boolean.TRUE.equals(row.active()), row.totalStock()));
+        }
+        levels = loaded;
+
+        int crossings = 0;
+        for (UUID productId : Set.copyOf(lowStock)) {
+            Level level = loaded.get(productId);
+            if (level == null || !level.isLow()) {
+                lowStock.remove(productId);
+                if (level != null && !initial) {
+                    publish(level, false);
+                    crossings++;
+                }
+            }
+        }
+        for (Level level : loaded.values()) {
+            if (level.isLow() && lowStock.add(level.productId) && !initial) {
+                publish(level, true);
+                crossings++;
+            }
+        }
+
+        ready = true;
+        log.info("Low-stock engine loaded {} products ({} below minimum, {} crossings) in {} ms", loaded.size(),
+                lowStock.size(), crossings, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Periodic safety net: a full reload every {@code stock.alerts.resync-ms},
+     * earlier if this subscriber fell behind the bus and lost movements.
+     */
+    @Scheduled(initialDelayString = "${stock.alerts.check-interval-ms:60000}",
+            fixedDelayString = "${stock.alerts.check-interval-ms:60000}")
+    public void checkConsistency() {
+        if (!ready) {
+            return;
+        }
+        long dropped = stockEventBus.getSubscriptions().stream()
+                .filter(s -> SUBSCRIPTION.equals(s.name()))
+                .mapToLong(StockEventBus.SubscriptionStats::dropped)
+                .sum();
+        if (dropped != droppedSeen) {
+            log.warn("Low-stock engine missed {} stock events, reloading", dropped - droppedSeen);
+            droppedSeen = dropped;
+            reload();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${stock.alerts.resync-ms:3600000}",
+            fixedDelayString = "${stock.alerts.resync-ms:3600000}")
+    public void resync() {
+        if (ready) {
+            reload();
+        }
+    }
+
+    /**
+     * Re-evaluate a product after it was created or edited (threshold, name,
+     * active flag). Call after the change is committed.
+     */
+    public void onProductChanged(Product product) {
+        Level level = levels.computeIfAbsent(product.getId(),
+                id -> new Level(id, product.getSku(), product.getName(), null, false, 0));
+        synchronized (level) {
+            level.sku = product.getSku();
+            level.name = product.getName();
+            level.minStock = product.getMinStock();
+            level.active = Boolean.TRUE.equals(product.getActive());
+            evaluate(level);
+        }
+    }
+
+    /**
+     * Products currently below their minimum stock, largest deficit first.
+     */
+    public List<LowStockAlert> getAlerts() {
+        Map<UUID, Level> current = levels;
+        return lowStock.stream()
+                .map(current::get)
+                .filter(Objects::nonNull)
+                .map(Level::toAlert)
+                .filter(alert -> alert.deficit() > 0)
+                .sorted(Comparator.comparingLong(LowStockAlert::deficit).reversed())
+                .toList();
+    }
+
+    private void onStockMoved(StockMovedEvent event) {
+        if (!ready) {
+            return;
+        }
+        // Unknown until the product's own change notification arrives
+        Level level = levels.computeIfAbsent(event.productId(),
+                id -> new Level(id, event.sku(), null, null, false, 0));
+        synchronized (level) {
+            level.total += event.delta();
+            evaluate(level);
+        }
+    }
+
+    /** Caller holds the level's monitor. */
+    private void evaluate(Level level) {
+        if (level.isLow()) {
+            if (lowStock.add(level.productId)) {
+                publish(level, true);
+            }
+        } else if (lowStock.remove(level.productId)) {
+            publish(level, false);
+        }
+    }
+
+    private void publish(Level level, boolean belowMin) {
+        try {
+            eventPublisher.publishEvent(new LowStockEvent(level.productId, level.sku, level.name, level.total,
+                    level.minStock, belowMin, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("Low-stock listener failed for {}: {}", level.sku, e.getMessage());
+        }
+    }
+
+    public record LowStockAlert(UUID productId, String sku, String name, long currentStock, int minStock,
+            long deficit) {
+    }
+
+    private static final class Level {
+
+        private final UUID productId;
+        private String sku;
+        private String name;
+        private Integer minStock;
+        private boolean active;
+        private long total;
+
+        private Level(UUID productId, String sku, String name, Integer minStock, boolean active, long total) {
+            this.productId = productId;
+            this.sku = sku;
+            this.name = name;
+            this.minStock = minStock;
+            this.active = active;
+            this.total = total;
+        }
+
+        private boolean isLow() {
+            return active && minStock != null && total < minStock;
+        }
+
+        private synchronized LowStockAlert toAlert() {
+            int min = minStock != null ? minStock : 0;
+            return new LowStockAlert(productId, sku, name, total, min, min - total);
+        }
+    }
+}
@@ -0,0 +1,890 @@
+package org.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.EmployeeDimension;
+import org.example.backend.dto.projection.LocationDimension;
+import org.example.backend.dto.projection.MovementFact;
+import org.example.backend.dto.projection.ProductDimension;
+import org.example.backend.enums.BackpressurePolicy;
+import org.example.backend.enums.CubeDimension;
+import org.example.backend.enums.CubeMeasure;
+import org.example.backend.enums.MovementType;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.event.StockMovedEvent;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Columnar in-memory cube of stock movements, sliced by any of the
+ * {@link CubeDimension}s through {@link #query(CubeQuery)}.
+ * <p>
+ * Each ledger entry is one row of dictionary codes (product, location,
+ * employee, movement type, day) plus its quantity, stored in fixed-size
+ * segments of primitive arrays. Category, zone, location type and warehouse are
+ * attributes of the product and location members instead of row columns, so
+ * they cost nothing per row and reflect the master data of the last reload.
+ * <p>
+ * Loaded from stock_ledger at startup (the last {@code stock.cube.history-days},
+ * 0 = everything still in the ledger) and extended from committed movements on
+ * the {@link StockEventBus}. Queries scan the segments in parallel on a
+ * dedicated ForkJoin pool and aggregate into primitive hash tables.
+ * <p>
+ * A single writer appends rows under {@code writeLock} and publishes them by
+ * bumping the row count; queries never lock. A movement performed before a
+ * reload started but committed after its load query is missing until the next
+ * reload.
+ */
+@Component
+@Slf4j
+public class MovementCube {
+
+    public static final int MAX_GROUP_BY = 3;
+
+    private static final String SUBSCRIPTION = "movement-cube";
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    /** Key columns of a segment. */
+    private static final int PRODUCT = 0;
+    private static final int LOCATION = 1;
+    private static final int EMPLOYEE = 2;
+    private static final int MOVEMENT_TYPE = 3;
+    private static final int DAY = 4;
+    /** Bytes per row over all columns. */
+    private static final int ROW_BYTES = 6 * Integer.BYTES;
+    /** Bits of one dimension code in a packed group key; MAX_GROUP_BY codes fit in a long. */
+    private static final int CODE_BITS = 21;
+    private static final int MAX_CODE = (1 << CODE_BITS) - 1;
+    private static final long DAY_BASE = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final String NONE = "(none)";
+    private static final MovementType[] MOVEMENT_TYPES = MovementType.values();
+    private static final int DEFAULT_LIMIT = 1000;
+    /** Group spaces up to this size are aggregated into plain arrays instead of a hash table. */
+    private static final int DENSE_GROUPS = 4096;
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final UserRepository userRepository;
+    private final StockEventBus stockEventBus;
+    private final TransactionTemplate readTransaction;
+    private final boolean enabled;
+    private final int historyDays;
+    private final ForkJoinPool pool;
+
+    private final Object writeLock = new Object();
+    private volatile State state;
+    /** Movements received while a reload runs; guarded by writeLock. */
+    private List<StockMovedEvent> pending;
+    private StockEventBus.Subscription subscription;
+    private long droppedSeen;
+    private volatile LocalDateTime loadedAt;
+    private volatile long loadMillis;
+
+    public MovementCube(StockLedgerRepository stockLedgerRepository,
+            ProductRepository productRepository,
+            LocationRepository locationRepository,
+            UserRepository userRepository,
+            StockEventBus stockEventBus,
+            PlatformTransactionManager transactionManager,
+            @Value("${stock.cube.enabled:true}") boolean enabled,
+            @Value("${stock.cube.history-days:0}") int historyDays,
+            @Value("${stock.cube.parallelism:0}") int parallelism) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.productRepository = productRepository;
+        this.locationRepository = locationRepository;
+        this.userRepository = userRepository;
+        this.stockEventBus = stockEventBus;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.historyDays = historyDays;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * True once loaded.
+     */
+    public boolean isActive() {
+        return state != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        subscription = stockEventBus.subscribe(SUBSCRIPTION, BackpressurePolicy.DROP, this::onStockMoved);
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Rebuild the cube from the ledger and the current master data. Queries keep
+     * reading the previous cube until the new one is swapped in.
+     */
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now();
+        synchronized (writeLock) {
+            pending = new ArrayList<>();
+        }
+
+        State next;
+        try {
+            next = load(cutoff);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            for (StockMovedEvent event : pending) {
+                // Older ones were read by the load query
+                if (!event.performedAt().isBefore(cutoff)) {
+                    append(next, event);
+                }
+            }
+            pending = null;
+            state = next;
+        }
+        loadedAt = cutoff;
+        loadMillis = System.currentTimeMillis() - start;
+        log.info("Movement cube loaded {} movements ({} products, {} locations, {} employees) in {} ms",
+                next.rows, next.products.size(), next.locations.size(), next.employees.size(), loadMillis);
+    }
+
+    /**
+     * Reload early if this subscriber fell behind the bus and lost movements.
+     */
+    @Scheduled(initialDelayString = "${stock.cube.check-interval-ms:60000}",
+            fixedDelayString = "${stock.cube.check-interval-ms:60000}")
+    public void checkConsistency() {
+        if (state == null) {
+            return;
+        }
+        long dropped = stockEventBus.getSubscriptions().stream()
+                .filter(s -> SUBSCRIPTION.equals(s.name()))
+                .mapToLong(StockEventBus.SubscriptionStats::dropped)
+                .sum();
+        if (dropped != droppedSeen) {
+            log.warn("Movement cube missed {} stock events, reloading", dropped - droppedSeen);
+            droppedSeen = dropped;
+            reload();
+        }
+    }
+
+    /**
+     * Periodic full reload, which also picks up category, zone and warehouse
+     * changes of existing products and locations.
+     */
+    @Scheduled(initialDelayString = "${stock.cube.resync-ms:86400000}",
+            fixedDelayString = "${stock.cube.resync-ms:86400000}")
+    public void resync() {
+        if (state != null) {
+            reload();
+        }
+    }
+
+    /**
+     * Group the movements matching the filters by up to {@link #MAX_GROUP_BY}
+     * dimensions. Without group-by dimensions the result is one grand total.
+     */
+    public CubeResult query(CubeQuery query) {
+        return query(query, DENSE_GROUPS);
+    }
+
+    /**
+     * @param denseGroups largest group space aggregated into plain arrays;
+     *                    tests pass 0 to force the hash table
+     */
+    CubeResult query(CubeQuery query, int denseGroups) {
+        State current = state;
+        if (current == null) {
+            throw new InvalidOperationException(enabled ? "Movement cube is still loading"
+                    : "Movement cube is disabled (stock.cube.enabled=false)");
+        }
+        List<CubeDimension> groupBy = query.groupBy() != null ? query.groupBy() : List.of();
+        if (groupBy.size() > MAX_GROUP_BY || Set.copyOf(groupBy).size() != groupBy.size()) {
+            throw new InvalidOperationException("Group by at most " + MAX_GROUP_BY + " distinct dimensions");
+        }
+        long start = System.nanoTime();
+        Snapshot snapshot = current.snapshot();
+
+        Map<CubeDimension, Set<String>> filters = query.filters() != null ? query.filters() : Map.of();
+        CubeDimension[] filterDims = filters.entrySet().stream()
+                .filter(e -> e.getValue() != null && !e.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .toArray(CubeDimension[]::new);
+        boolean[][] allowed = new boolean[filterDims.length][];
+        for (int f = 0; f < filterDims.length; f++) {
+            Set<String> values = filters.get(filterDims[f]);
+            allowed[f] = new boolean[current.cardinality(filterDims[f])];
+            for (int code = 0; code < allowed[f].length; code++) {
+                allowed[f][code] = values.contains(current.label(filterDims[f], code));
+            }
+        }
+        int dayFrom = query.from() != null ? dayCode(query.from()) : 0;
+        int dayTo = query.to() != null ? dayCode(query.to()) : MAX_CODE;
+
+        // A group key is the mixed-radix number of the group codes
+        int[] offsets = new int[groupBy.size()];
+        int[] radixes = new int[groupBy.size()];
+        long groups = 1;
+        for (int g = 0; g < groupBy.size(); g++) {
+            if (groupBy.get(g) == CubeDimension.DAY) {
+                offsets[g] = Math.max(dayFrom, current.minDay);
+                radixes[g] = Math.max(1, Math.min(dayTo, current.maxDay) - offsets[g] + 1);
+            } else {
+                radixes[g] = Math.max(1, current.cardinality(groupBy.get(g)));
+            }
+            groups *= radixes[g];
+        }
+        boolean dense = groups <= denseGroups;
+        if (!dense) {
+            Arrays.fill(offsets, 0);
+            Arrays.fill(radixes, 1 << CODE_BITS);
+        }
+
+        Scan scan = new Scan(snapshot, groupBy.toArray(CubeDimension[]::new), offsets, radixes, filterDims, allowed,
+                dayFrom, dayTo, dense ? (int) groups : 0);
+        GroupTable table = snapshot.segments.length == 0
+                ? scan.newTable()
+                : pool.invoke(new ScanTask(scan, 0, snapshot.segments.length));
+
+        List<CubeCell> cells = new ArrayList<>(table.size());
+        long matched = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (!table.used(slot)) {
+                continue;
+            }
+            long key = table.keyAt(slot);
+            Map<CubeDimension, String> labels = new EnumMap<>(CubeDimension.class);
+            for (int g = 0; g < groupBy.size(); g++) {
+                labels.put(groupBy.get(g), current.label(groupBy.get(g), (int) (key % radixes[g]) + offsets[g]));
+                key /= radixes[g];
+            }
+            long count = table.sum(slot, GroupTable.COUNT);
+            long in = table.sum(slot, GroupTable.IN);
+            long out = table.sum(slot, GroupTable.OUT);
+            long adjustment = table.sum(slot, GroupTable.ADJUSTMENT);
+            cells.add(new CubeCell(labels, count, in, out, adjustment, in - out + adjustment));
+            matched += count;
+        }
+        cells.sort(comparator(query.sortBy(), groupBy));
+
+        int limit = query.limit() > 0 ? query.limit() : DEFAULT_LIMIT;
+        boolean truncated = cells.size() > limit;
+        List<CubeCell> page = truncated ? cells.subList(0, limit) : cells;
+        return new CubeResult(groupBy, snapshot.rows, matched, cells.size(), truncated,
+                (System.nanoTime() - start) / 1_000_000.0, List.copyOf(page));
+    }
+
+    public CubeStats getStats() {
+        State current = state;
+        if (current == null) {
+            return new CubeStats(enabled, false, 0, 0, 0, 0, 0, 0, null, 0, pool.getParallelism());
+        }
+        int segments = current.segments.length;
+        return new CubeStats(enabled, true, current.rows, segments, current.products.size(),
+                current.locations.size(), current.employees.size(), (long) segments * SEGMENT_SIZE * ROW_BYTES,
+                loadedAt, loadMillis, pool.getParallelism());
+    }
+
+    private State load(LocalDateTime cutoff) {
+        State next = new State();
+        productRepository.findAllDimensions().forEach(next::putProduct);
+        locationRepository.findAllDimensions().forEach(next::putLocation);
+        userRepository.findAllDimensions().forEach(next::putEmployee);
+
+        LocalDateTime from = historyDays > 0 ? cutoff.toLocalDate().minusDays(historyDays).atStartOfDay() : null;
+        readTransaction.executeWithoutResult(status -> {
+            try (Stream<MovementFact> facts = stockLedgerRepository.streamMovementFacts(from, cutoff)) {
+                facts.forEach(f -> next.append(productCode(next, f.productId(), null),
+                        locationCode(next, f.locationId(), null), employeeCode(next, f.performedById()),
+                        f.movementType().ordinal(), dayCode(f.performedAt().toLocalDate()), f.quantity()));
+            }
+        });
+        return next;
+    }
+
+    private void onStockMoved(StockMovedEvent event) {
+        synchronized (writeLock) {
+            State current = state;
+            if (current != null) {
+                append(current, event);
+            }
+            if (pending != null) {
+                pending.add(event);
+            }
+        }
+    }
+
+    private void append(State target, StockMovedEvent event) {
+        target.append(productCode(target, event.productId(), event.sku()),
+                locationCode(target, event.locationId(), event.locationCode()),
+                employeeCode(target, event.performedById()), event.movementType().ordinal(),
+                dayCode(event.performedAt().toLocalDate()), event.quantity());
+    }
+
+    /** Members created after the dimensions were loaded are looked up on first use. */
+    private int productCode(State target, UUID productId, String sku) {
+        int code = target.products.find(productId);
+        return code >= 0 ? code : target.putProduct(productRepository.findDimension(productId)
+                .orElseGet(() -> new ProductDimension(productId, sku != null ? sku : productId.toString(), null)));
+    }
+
+    private int locationCode(State target, UUID locationId, String locationCode) {
+        int code = target.locations.find(locationId);
+        return code >= 0 ? code : target.putLocation(locationRepository.findDimension(locationId)
+                .orElseGet(() -> new LocationDimension(locationId,
+                        locationCode != null ? locationCode : locationId.toString(), null, null, null)));
+    }
+
+    private int employeeCode(State target, UUID userId) {
+        int code = target.employees.find(userId);
+        return code >= 0 ? code : target.putEmployee(userRepository.findDimension(userId)
+                .orElseGet(() -> new EmployeeDimension(userId, userId.toString())));
+    }
+
+    private static int dayCode(LocalDate day) {
+        return (int) Math.min(MAX_CODE, Math.max(0, day.toEpochDay() - DAY_BASE));
+    }
+
+    private static Comparator<CubeCell> comparator(CubeMeasure sortBy, List<CubeDimension> groupBy) {
+        if (sortBy == null) {
+            Comparator<CubeCell> byKey = (a, b) -> 0;
+            for (CubeDimension dimension : groupBy) {
+                byKey = byKey.thenComparing(cell -> cell.key().get(dimension));
+            }
+            return byKey;
+        }
+        Comparator<CubeCell> byMeasure = switch (sortBy) {
+            case COUNT -> Comparator.comparingLong(CubeCell::count);
+            case IN -> Comparator.comparingLong(CubeCell::in);
+            case OUT -> Comparator.comparingLong(CubeCell::out);
+            case ADJUSTMENT -> Comparator.comparingLong(CubeCell::adjustment);
+            case NET -> Comparator.comparingLong(CubeCell::net);
+        };
+        return byMeasure.reversed();
+    }
+
+    /**
+     * @param filters values allowed per dimension (labels: SKU, location code,
+     *                username, ISO date, ...); dimensions without values are
+     *                not filtered
+     * @param from    first day, inclusive; null = open
+     * @param to      last day, inclusive; null = open
+     * @param sortBy  measure to sort by, descending; null sorts by group key
+     * @param limit   maximum number of cells returned; 0 = default
+     */
+    public record CubeQuery(List<CubeDimension> groupBy, Map<CubeDimension, Set<String>> filters, LocalDate from,
+            LocalDate to, CubeMeasure sortBy, int limit) {
+    }
+
+    public record CubeCell(Map<CubeDimension, String> key, long count, long in, long out, long adjustment,
+            long net) {
+    }
+
+    /**
+     * @param rowsScanned movements in the cube when the query started
+     * @param rowsMatched movements passing the filters
+     * @param groups      number of cells before the limit was applied
+     */
+    public record CubeResult(List<CubeDimension> groupBy, long rowsScanned, long rowsMatched, int groups,
+            boolean truncated, double tookMs, List<CubeCell> cells) {
+    }
+
+    public record CubeStats(boolean enabled, boolean loaded, long rows, int segments, int products, int locations,
+            int employees, long approxBytes, LocalDateTime loadedAt, long loadMillis, int parallelism) {
+    }
+
+    /** Fixed-size block of rows, one primitive array per column. */
+    private static final class Segment {
+
+        /** Dictionary codes, indexed by PRODUCT, LOCATION, EMPLOYEE, MOVEMENT_TYPE, DAY. */
+        private final int[][] keys = new int[DAY + 1][SEGMENT_SIZE];
+        private final int[] quantity = new int[SEGMENT_SIZE];
+    }
+
+    /**
+     * Dictionaries, member attributes and rows of one load. Only the thread
+     * holding writeLock (or building the state) writes.
+     */
+    private static final class State {
+
+        private final Dictionary<UUID> products = new Dictionary<>();
+        private final Dictionary<UUID> locations = new Dictionary<>();
+        private final Dictionary<UUID> employees = new Dictionary<>();
+        private final Dictionary<String> categories = new Dictionary<>();
+        private final Dictionary<String> zones = new Dictionary<>();
+        private final Dictionary<String> locationTypes = new Dictionary<>();
+        private final Dictionary<String> warehouses = new Dictionary<>();
+
+        private final Column<String> productSku = new Column<>();
+        private final Column<String> locationCode = new Column<>();
+        private final Column<String> employeeName = new Column<>();
+        private final IntColumn productCategory = new IntColumn();
+        private final IntColumn locationZone = new IntColumn();
+        private final IntColumn locationType = new IntColumn();
+        private final IntColumn locationWarehouse = new IntColumn();
+
+        private volatile Segment[] segments = new Segment[0];
+        private volatile int minDay = Integer.MAX_VALUE;
+        private volatile int maxDay = -1;
+        /** Rows visible to queries; written last. */
+        private volatile int rows;
+
+        private int putProduct(ProductDimension product) {
+            int code = products.encode(product.id());
+            productSku.set(code, product.sku());
+            productCategory.set(code, categories.encode(orNone(product.category())));
+            return code;
+        }
+
+        private int putLocation(LocationDimension location) {
+            int code = locations.encode(location.id());
+            locationCode.set(code, location.code());
+            locationZone.set(code, zones.encode(orNone(location.zone())));
+            locationType.set(code, locationTypes.encode(location.type() != null ? location.type().name() : NONE));
+            locationWarehouse.set(code, warehouses.encode(orNone(location.warehouseCode())));
+            return code;
+        }
+
+        private int putEmployee(EmployeeDimension employee) {
+            int code = employees.encode(employee.id());
+            employeeName.set(code, employee.username());
+            return code;
+        }
+
+        private void append(int product, int location, int employee, int movementType, int day, int quantity) {
+            int row = rows;
+            int index = row >>> SEGMENT_BITS;
+            Segment[] current = segments;
+            if (index == current.length) {
+                current = Arrays.copyOf(current, index + 1);
+                current[index] = new Segment();
+                segments = current;
+            }
+            Segment segment = current[index];
+            int i = row & (SEGMENT_SIZE - 1);
+            segment.keys[PRODUCT][i] = product;
+            segment.keys[LOCATION][i] = location;
+            segment.keys[EMPLOYEE][i] = employee;
+            segment.keys[MOVEMENT_TYPE][i] = movementType;
+            segment.keys[DAY][i] = day;
+            segment.quantity[i] = quantity;
+            if (day < minDay) {
+                minDay = day;
+            }
+            if (day > maxDay) {
+                maxDay = day;
+            }
+            rows = row + 1;
+        }
+
+        /** Row count is read first, so every code of the visible rows is covered. */
+        private Snapshot snapshot() {
+            int visible = rows;
+            Segment[] current = segments;
+            int segmentCount = (visible + SEGMENT_SIZE - 1) >>> SEGMENT_BITS;
+            return new Snapshot(visible, Arrays.copyOf(current, segmentCount), productCategory.values,
+                    locationZone.values, locationType.values, locationWarehouse.values);
+        }
+
+        private int cardinality(CubeDimension dimension) {
+            return switch (dimension) {
+                case PRODUCT -> products.size();
+                case CATEGORY -> categories.size();
+                case WAREHOUSE -> warehouses.size();
+                case ZONE -> zones.size();
+                case LOCATION -> locations.size();
+                case LOCATION_TYPE -> locationTypes.size();
+                case EMPLOYEE -> employees.size();
+                case MOVEMENT_TYPE -> MOVEMENT_TYPES.length;
+                case DAY -> maxDay + 1;
+            };
+        }
+
+        private String label(CubeDimension dimension, int code) {
+            return switch (dimension) {
+                case PRODUCT -> productSku.get(code);
+                case CATEGORY -> categories.decode(code);
+                case WAREHOUSE -> warehouses.decode(code);
+                case ZONE -> zones.decode(code);
+                case LOCATION -> locationCode.get(code);
+                case LOCATION_TYPE -> locationTypes.decode(code);
+                case EMPLOYEE -> employeeName.get(code);
+                case MOVEMENT_TYPE -> MOVEMENT_TYPES[code].name();
+                case DAY -> LocalDate.ofEpochDay(DAY_BASE + code).toString();
+            };
+        }
+
+        private static String orNone(String value) {
+            return value != null && !value.isBlank() ? value : NONE;
+        }
+    }
+
+    /** Rows and member attributes as of the start of a query. */
+    private record Snapshot(int rows, Segment[] segments, int[] productCategory, int[] locationZone,
+            int[] locationType, int[] locationWarehouse) {
+
+        /** Key column holding the dimension, directly or through a member attribute. */
+        private int column(CubeDimension dimension) {
+            return switch (dimension) {
+                case PRODUCT, CATEGORY -> PRODUCT;
+                case LOCATION, ZONE, LOCATION_TYPE, WAREHOUSE -> LOCATION;
+                case EMPLOYEE -> EMPLOYEE;
+                case MOVEMENT_TYPE -> MOVEMENT_TYPE;
+                case DAY -> DAY;
+            };
+        }
+
+        /** Member code to attribute code, or null when the column holds the dimension itself. */
+        private int[] attribute(CubeDimension dimension) {
+            return switch (dimension) {
+                case CATEGORY -> productCategory;
+                case ZONE -> locationZone;
+                case LOCATION_TYPE -> locationType;
+                case WAREHOUSE -> locationWarehouse;
+                default -> null;
+            };
+        }
+    }
+
+    /** Dimensions resolved to key columns once per query, so the row loop has no branches on them. */
+    private static final class Scan {
+
+        private final Snapshot snapshot;
+        private final int[] groupColumns;
+        private final int[][] groupAttributes;
+        private final int[] groupOffsets;
+        private final long[] groupStrides;
+        private final int denseGroups;
+        private final int[] filterColumns;
+        private final int[][] filterAttributes;
+        private final boolean[][] allowed;
+        private final int dayFrom;
+        private final int dayTo;
+
+        /**
+         * @param denseGroups size of the group space when it is aggregated into
+         *                    plain arrays, 0 to use a hash table
+         */
+        private Scan(Snapshot snapshot, CubeDimension[] groupBy, int[] offsets, int[] radixes,
+                CubeDimension[] filterDims, boolean[][] allowed, int dayFrom, int dayTo, int denseGroups) {
+            this.snapshot = snapshot;
+            this.groupColumns = Arrays.stream(groupBy).mapToInt(snapshot::column).toArray();
+            this.groupAttributes = Arrays.stream(groupBy).map(snapshot::attribute).toArray(int[][]::new);
+            this.groupOffsets = offsets;
+            this.groupStrides = new long[groupBy.length];
+            long stride = 1;
+            for (int g = 0; g < groupBy.length; g++) {
+                groupStrides[g] = stride;
+                stride *= radixes[g];
+            }
+            this.denseGroups = denseGroups;
+            this.filterColumns = Arrays.stream(filterDims).mapToInt(snapshot::column).toArray();
+            this.filterAttributes = Arrays.stream(filterDims).map(snapshot::attribute).toArray(int[][]::new);
+            this.allowed = allowed;
+            this.dayFrom = dayFrom;
+            this.dayTo = dayTo;
+        }
+
+        private GroupTable newTable() {
+            return denseGroups > 0 ? new GroupTable(denseGroups) : new GroupTable();
+        }
+
+        private GroupTable scan(int segmentIndex) {
+            GroupTable table = newTable();
+            Segment segment = snapshot.segments[segmentIndex];
+            int[][] keys = segment.keys;
+            int[] days = keys[DAY];
+            int[] movementTypes = keys[MOVEMENT_TYPE];
+            int[] quantities = segment.quantity;
+            int count = Math.min(SEGMENT_SIZE, snapshot.rows - segmentIndex * SEGMENT_SIZE);
+            rows:
+            for (int i = 0; i < count; i++) {
+                int day = days[i];
+                if (day < dayFrom || day > dayTo) {
+                    continue;
+                }
+                for (int f = 0; f < filterColumns.length; f++) {
+                    int code = keys[filterColumns[f]][i];
+                    int[] attribute = filterAttributes[f];
+                    if (attribute != null) {
+                        code = attribute[code];
+                    }
+                    if (code >= allowed[f].length || !allowed[f][code]) {
+                        continue rows;
+                    }
+                }
+                long key = 0;
+                for (int g = 0; g < groupColumns.length; g++) {
+                    int code = keys[groupColumns[g]][i];
+                    int[] attribute = groupAttributes[g];
+                    key += (long) ((attribute != null ? attribute[code] : code) - groupOffsets[g]) * groupStrides[g];
+                }
+                table.add(key, movementTypes[i], quantities[i]);
+            }
+            return table;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<GroupTable> {
+
+        private final Scan scan;
+        private final int from;
+        private final int to;
+
+        private ScanTask(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GroupTable compute() {
+            if (to - from == 1) {
+                return scan.scan(from);
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask right = new ScanTask(scan, mid, to);
+            right.fork();
+            GroupTable left = new ScanTask(scan, from, mid).compute();
+            return GroupTable.merge(left, right.join());
+        }
+    }
+
+    /**
+     * Measure sums per group key: either indexed by the key itself (dense) or
+     * through an open-addressing hash table. The four sums of a group are
+     * interleaved so that a row touches one cache line.
+     */
+    private static final class GroupTable {
+
+        private static final long EMPTY = -1L;
+        private static final int COUNT = 0;
+        private static final int IN = 1;
+        private static final int OUT = 2;
+        private static final int ADJUSTMENT = 3;
+        private static final int WIDTH = 4;
+
+        /** Null in dense mode. */
+        private long[] keys;
+        private long[] sums;
+        private int size;
+
+        private GroupTable() {
+            keys = new long[64];
+            Arrays.fill(keys, EMPTY);
+            sums = new long[64 * WIDTH];
+        }
+
+        private GroupTable(int denseGroups) {
+            sums = new long[denseGroups * WIDTH];
+        }
+
+        private int capacity() {
+            return sums.length / WIDTH;
+        }
+
+        private boolean used(int slot) {
+            return sums[slot * WIDTH + COUNT] > 0;
+        }
+
+        private long keyAt(int slot) {
+            return keys != null ? keys[slot] : slot;
+        }
+
+        private long sum(int slot, int measure) {
+            return sums[slot * WIDTH + measure];
+        }
+
+        private int size() {
+            if (keys != null) {
+                return size;
+            }
+            int used = 0;
+            for (int slot = 0; slot < capacity(); slot++) {
+                if (used(slot)) {
+                    used++;
+                }
+            }
+            return used;
+        }
+
+        private void add(long key, int movementType, long quantity) {
+            int base = (keys != null ? slot(key) : (int) key) * WIDTH;
+            sums[base + COUNT]++;
+            if (movementType == MovementType.IN.ordinal()) {
+                sums[base + IN] += quantity;
+            } else if (movementType == MovementType.OUT.ordinal()) {
+                sums[base + OUT] += quantity;
+            } else {
+                sums[base + ADJUSTMENT] += quantity;
+            }
+        }
+
+        private void addAll(GroupTable other, int from) {
+            int base = (keys != null ? slot(other.keyAt(from)) : (int) other.keyAt(from)) * WIDTH;
+            for (int m = 0; m < WIDTH; m++) {
+                sums[base + m] += other.sums[from * WIDTH + m];
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    if ((size + 1) * 2 > keys.length) {
+                        grow();
+                        return slot(key);
+                    }
+                    keys[slot] = key;
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldSums = sums;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            sums = new long[oldSums.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    System.arraycopy(oldSums, i * WIDTH, sums, slot(oldKeys[i]) * WIDTH, WIDTH);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private static GroupTable merge(GroupTable a, GroupTable b) {
+            GroupTable target = a.keys == null || a.size >= b.size ? a : b;
+            GroupTable source = target == a ? b : a;
+            for (int slot = 0; slot < source.capacity(); slot++) {
+                if (source.used(slot)) {
+                    target.addAll(source, slot);
+                }
+            }
+            return target;
+        }
+    }
+
+    /** Append-only value dictionary with dense codes from 0. */
+    private static final class Dictionary<T> {
+
+        private final Map<T, Integer> codes = new ConcurrentHashMap<>();
+        private final Column<T> values = new Column<>();
+        private volatile int size;
+
+        private int encode(T value) {
+            Integer existing = codes.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int code = size;
+            if (code > MAX_CODE) {
+                throw new IllegalStateException("Movement cube dictionary is full (" + MAX_CODE + " members)");
+            }
+            values.set(code, value);
+            codes.put(value, code);
+            size = code + 1;
+            return code;
+        }
+
+        private int find(T value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        private T decode(int code) {
+            return values.get(code);
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+
+    /** Growable array published through a volatile reference. */
+    private static final class Column<T> {
+
+        private volatile Object[] values = new Object[64];
+
+        private void set(int index, T value) {
+            Object[] current = values;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            }
+            current[index] = value;
+            values = current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(int index) {
+            return (T) values[index];
+        }
+    }
+
+    private static final class IntColumn {
+
+        private volatile int[] values = new int[64];
+
+        private void set(int index, int value) {
+            int[] current = values;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            }
+            current[index] = value;
+            values = current;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.projection.MovementDayTotal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Daily rollup of the stock ledger (stock_movement_daily), so movement reports
+ * over long periods read one row per day, product, location and movement type
+ * instead of every ledger entry.
+ */
+public interface MovementRollupService {
+
+    /**
+     * Roll up every closed day after the last rolled-up one. A day is closed once
+     * its end is older than the configured lag, so transactions still in flight
+     * are not missed.
+     *
+     * @return number of rollup rows written
+     */
+    int rollUp();
+
+    /**
+     * Recompute already rolled-up days in {@code [from, to]} from the ledger,
+     * e.g. after ledger rows were repaired. Days archived out of the ledger are
+     * left untouched.
+     *
+     * @return number of rollup rows written
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * Last day covered by the rollup.
+     */
+    Optional<LocalDate> getRolledUpThrough();
+
+    /**
+     * Quantity and count per (day, movement type) in {@code [from, to]} for the
+     * optional product and location filters (null = no filter). Rolled-up days
+     * are read from the rollup, later days from the ledger.
+     */
+    List<MovementDayTotal> getDailyTotals(UUID productId, UUID locationId, LocalDate from, LocalDate to);
+}
@@ -1,4 +1,28 @@
 package org.example.backend.service;
 
+import org.example.backend.entity.Product;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cached product lookups for read paths. Returned entities are shared: do not
+ * modify them.
+ */
 public interface ProductService {
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the product does not exist
+     */
+    Product getProduct(UUID productId);
+
+    /**
+     * Product a barcode is registered to. Unknown barcodes are not cached.
+     */
+    Optional<UUID> findProductIdByBarcode(String barcode);
+
+    /**
+     * Product with this exact SKU. Unknown SKUs are not cached.
+     */
+    Optional<UUID> findProductIdBySku(String sku);
 }
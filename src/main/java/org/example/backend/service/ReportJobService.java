@@ -0,0 +1,109 @@
+package org.example.backend.service;
+
+import org.example.backend.enums.ExportFormat;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs large reports in the background on a bounded worker pool. Each job
+ * streams its rows into a gzip-compressed file that stays downloadable for the
+ * configured retention period.
+ * <p>
+ * Jobs are tracked in memory, so a restart forgets them (and deletes their
+ * files).
+ */
+public interface ReportJobService {
+
+    /**
+     * Queue a report. If an identical spec is already queued or running, that job
+     * is returned instead of starting a new one.
+     *
+     * @throws org.example.backend.exception.InvalidOperationException if the spec
+     *                                                                  is invalid or
+     *                                                                  the queue is
+     *                                                                  full
+     */
+    ReportJob submit(ReportSpec spec, String requestedBy);
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the job
+     *                                                                 is unknown or
+     *                                                                 expired
+     */
+    ReportJob getJob(UUID jobId);
+
+    /**
+     * Every known job, newest first.
+     */
+    List<ReportJob> getJobs();
+
+    /**
+     * Cancel a queued or running job. A running job stops at its next write.
+     * Finished jobs are left as they are.
+     */
+    ReportJob cancel(UUID jobId);
+
+    /**
+     * Compressed result file of a completed job.
+     *
+     * @throws org.example.backend.exception.InvalidOperationException if the job
+     *                                                                  has not
+     *                                                                  completed
+     */
+    Path getResultFile(UUID jobId);
+
+    /**
+     * Forget finished jobs older than the retention period and delete their
+     * files.
+     *
+     * @return number of jobs removed
+     */
+    int purgeExpired();
+
+    enum ReportType {
+        /** Every ledger movement of the period (same columns as the ledger export). */
+        STOCK_MOVEMENTS,
+        /** Per-employee productivity counters of the period, as in the productivity report. */
+        USER_PRODUCTIVITY
+    }
+
+    enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    /**
+     * What to report. Two specs are identical when all their fields are equal.
+     *
+     * @param productId  STOCK_MOVEMENTS only, optional
+     * @param locationId STOCK_MOVEMENTS only, optional
+     * @param userId     USER_PRODUCTIVITY only, optional (default: all employees)
+     */
+    record ReportSpec(ReportType type, ExportFormat format, LocalDate startDate, LocalDate endDate,
+            UUID productId, UUID locationId, UUID userId) {
+    }
+
+    /**
+     * @param rows            rows written, known once the job completed
+     * @param bytesWritten    uncompressed bytes written so far
+     * @param compressedBytes size of the result file once completed
+     * @param fileName        suggested download file name
+     */
+    record ReportJob(
+            UUID jobId,
+            ReportSpec spec,
+            JobStatus status,
+            String requestedBy,
+            LocalDateTime createdAt,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            long rows,
+            long bytesWritten,
+            long compressedBytes,
+            String fileName,
+            String error) {
+    }
+}
@@ -0,0 +1,370 @@
+package org.example.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.ChariotRow;
+import org.example.backend.dto.projection.LocationDimension;
+import org.example.backend.dto.projection.ProductLabel;
+import org.example.backend.entity.Chariot;
+import org.example.backend.entity.Product;
+import org.example.backend.enums.PackLevel;
+import org.example.backend.enums.ScanEntityType;
+import org.example.backend.repository.ChariotRepository;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.service.BarcodeIndex.ScanTarget;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns a scanned code into the chariot, location or product it names without
+ * touching the database.
+ * <p>
+ * A code is first classified by its shape: letters and digits reduced to
+ * {@code A} and {@code 9}, other characters kept, so {@code B07-N1} reads
+ * {@code A99-A9}. The shapes of all known chariot codes, location codes and
+ * SKUs, plus the GS1 barcode lengths, are compiled into a trie whose nodes
+ * carry the entity types that end there. The candidate types are then looked
+ * up in memory (chariots, locations and SKUs here, barcodes in
+ * {@link BarcodeIndex}), the remaining types only if those miss.
+ * <p>
+ * Deleted (inactive) locations and products do not decode. Loaded at startup,
+ * updated by the admin endpoints that create, edit or delete these entities
+ * and reloaded every {@code stock.scan.resync-ms}.
+ */
+@Component
+@Slf4j
+public class ScanDecoder {
+
+    private static final ScanEntityType[] TYPES = { ScanEntityType.CHARIOT, ScanEntityType.LOCATION,
+            ScanEntityType.PRODUCT };
+    /** EAN-8, UPC-A, EAN-13 and GTIN-14. */
+    private static final int[] GS1_LENGTHS = { 8, 12, 13, 14 };
+    /** Longer codes are not classified, only looked up. */
+    private static final int MAX_SHAPE_LENGTH = 64;
+
+    private final ChariotRepository chariotRepository;
+    private final LocationRepository locationRepository;
+    private final ProductRepository productRepository;
+    private final BarcodeIndex barcodeIndex;
+
+    private volatile Snapshot snapshot = Snapshot.empty();
+    private volatile boolean ready;
+
+    public ScanDecoder(ChariotRepository chariotRepository, LocationRepository locationRepository,
+            ProductRepository productRepository, BarcodeIndex barcodeIndex) {
+        this.chariotRepository = chariotRepository;
+        this.locationRepository = locationRepository;
+        this.productRepository = productRepository;
+        this.barcodeIndex = barcodeIndex;
+    }
+
+    /**
+     * True once loaded; until then every code decodes as unknown.
+     */
+    public boolean isActive() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${stock.scan.resync-ms:600000}",
+            fixedDelayString = "${stock.scan.resync-ms:600000}")
+    public void resync() {
+        if (ready) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Snapshot loaded = Snapshot.empty();
+        for (ChariotRow row : chariotRepository.findAllRows()) {
+            loaded.putChariot(new ChariotRef(row.id(), row.code(), Boolean.TRUE.equals(row.active())));
+        }
+        for (LocationDimension location : locationRepository.findAllActiveDimensions()) {
+            loaded.putLocation(location);
+        }
+        for (ProductLabel product : productRepository.findAllLabels()) {
+            loaded.putProduct(product);
+        }
+        loaded.compile();
+        snapshot = loaded;
+        ready = true;
+        log.info("Scan decoder loaded {} chariots, {} locations, {} products ({} code shapes) in {} ms",
+                loaded.chariots.size(), loaded.locations.size(), loaded.products.size(), loaded.shapes.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Call after a chariot was created or edited.
+     */
+    public synchronized void onChariotChanged(Chariot chariot) {
+        Snapshot updated = snapshot.copy();
+        updated.putChariot(new ChariotRef(chariot.getId(), chariot.getCode(), Boolean.TRUE.equals(chariot.getActive())));
+        updated.compile();
+        snapshot = updated;
+    }
+
+    /**
+     * Call after a location was created, edited or deleted.
+     */
+    public synchronized void onLocationChanged(UUID locationId) {
+        Snapshot updated = snapshot.copy();
+        updated.removeLocation(locationId);
+        locationRepository.findActiveDimension(locationId).ifPresent(updated::putLocation);
+        updated.compile();
+        snapshot = updated;
+    }
+
+    /**
+     * Call after a product was created, edited or deleted.
+     */
+    public synchronized void onProductChanged(Product product) {
+        Snapshot updated = snapshot.copy();
+        updated.putProduct(new ProductLabel(product.getId(), product.getSku(), product.getName(),
+                product.getUnitOfMeasure(), Boolean.TRUE.equals(product.getActive())));
+        updated.compile();
+        snapshot = updated;
+    }
+
+    public Decoded decode(String code) {
+        Snapshot current = snapshot;
+        int candidates = current.trie.classify(code);
+        for (ScanEntityType type : TYPES) {
+            if ((candidates & bit(type)) != 0) {
+                Decoded decoded = lookup(current, type, code);
+                if (decoded != null) {
+                    return decoded;
+                }
+            }
+        }
+        // Known entity whose code has an unusual shape, e.g. an internal barcode
+        for (ScanEntityType type : TYPES) {
+            if ((candidates & bit(type)) == 0) {
+                Decoded decoded = lookup(current, type, code);
+                if (decoded != null) {
+                    return decoded;
+                }
+            }
+        }
+        ScanEntityType likely = null;
+        for (ScanEntityType type : TYPES) {
+            if ((candidates & bit(type)) != 0) {
+                likely = type;
+                break;
+            }
+        }
+        return new Decoded(ScanEntityType.UNKNOWN, code, likely, null, null, null, null);
+    }
+
+    private Decoded lookup(Snapshot current, ScanEntityType type, String code) {
+        switch (type) {
+            case CHARIOT -> {
+                ChariotRef chariot = current.chariots.get(key(code));
+                return chariot != null ? new Decoded(type, code, null, chariot, null, null, null) : null;
+            }
+            case LOCATION -> {
+                LocationDimension location = current.locations.get(key(code));
+                return location != null ? new Decoded(type, code, null, null, location, null, null) : null;
+            }
+            case PRODUCT -> {
+                ScanTarget target = barcodeIndex.resolve(code).orElse(null);
+                if (target == null) {
+                    UUID productId = current.skus.get(key(code));
+                    target = productId != null ? new ScanTarget(productId, PackLevel.UNIT, 1) : null;
+                }
+                if (target == null) {
+                    return null;
+                }
+                ProductLabel product = current.products.get(target.productId());
+                if (product == null) {
+                    // Created on another instance since the last reload
+                    product = new ProductLabel(target.productId(), null, null, null, true);
+                } else if (!product.active()) {
+                    return null;
+                }
+                return new Decoded(type, code, null, null, null, product, target);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private static String key(String code) {
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    private static int bit(ScanEntityType type) {
+        return 1 << type.ordinal();
+    }
+
+    /**
+     * Result of a scan. Exactly one of chariot, location and product is set,
+     * none when the code is unknown.
+     *
+     * @param likelyType for an unknown code, the type its shape suggests, if any
+     * @param scan       for a product, the pack level and units per scan
+     */
+    public record Decoded(ScanEntityType type, String code, ScanEntityType likelyType, ChariotRef chariot,
+            LocationDimension location, ProductLabel product, ScanTarget scan) {
+    }
+
+    public record ChariotRef(UUID id, String code, boolean active) {
+    }
+
+    /**
+     * Everything a decode reads. Built or copied under the decoder's lock, then
+     * published and never modified again.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, ChariotRef> chariots;
+        private final Map<String, LocationDimension> locations;
+        private final Map<UUID, ProductLabel> products;
+        private final Map<String, UUID> skus;
+        /** Code shape to the types of entity with that shape. */
+        private final Map<String, Integer> shapes;
+        private ShapeTrie trie = new ShapeTrie();
+
+        private Snapshot(Map<String, ChariotRef> chariots, Map<String, LocationDimension> locations,
+                Map<UUID, ProductLabel> products, Map<String, UUID> skus, Map<String, Integer> shapes) {
+            this.chariots = chariots;
+            this.locations = locations;
+            this.products = products;
+            this.skus = skus;
+            this.shapes = shapes;
+        }
+
+        private static Snapshot empty() {
+            Snapshot snapshot = new Snapshot(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(),
+                    new HashMap<>());
+            for (int length : GS1_LENGTHS) {
+                snapshot.shapes.put("9".repeat(length), bit(ScanEntityType.PRODUCT));
+            }
+            return snapshot;
+        }
+
+        private Snapshot copy() {
+            return new Snapshot(new HashMap<>(chariots), new HashMap<>(locations), new HashMap<>(products),
+                    new HashMap<>(skus), new HashMap<>(shapes));
+        }
+
+        private void putChariot(ChariotRef chariot) {
+            chariots.put(key(chariot.code()), chariot);
+            addShape(chariot.code(), ScanEntityType.CHARIOT);
+        }
+
+        private void putLocation(LocationDimension location) {
+            locations.put(key(location.code()), location);
+            addShape(location.code(), ScanEntityType.LOCATION);
+        }
+
+        /** Also drops the entry under a code the location no longer has. */
+        private void removeLocation(UUID id) {
+            locations.values().removeIf(location -> location.id().equals(id));
+        }
+
+        /**
+         * Inactive products are kept so their barcodes are recognised and
+         * rejected, but their SKU no longer decodes.
+         */
+        private void putProduct(ProductLabel product) {
+            ProductLabel previous = products.put(product.id(), product);
+            if (previous != null && previous.sku() != null) {
+                skus.remove(key(previous.sku()), product.id());
+            }
+            if (product.sku() != null && product.active()) {
+                skus.put(key(product.sku()), product.id());
+                addShape(product.sku(), ScanEntityType.PRODUCT);
+            }
+        }
+
+        private void addShape(String code, ScanEntityType type) {
+            if (code.length() <= MAX_SHAPE_LENGTH) {
+                shapes.merge(ShapeTrie.shapeOf(code), bit(type), (a, b) -> a | b);
+            }
+        }
+
+        private void compile() {
+            ShapeTrie compiled = new ShapeTrie();
+            shapes.forEach(compiled::add);
+            trie = compiled;
+        }
+    }
+
+    /**
+     * Trie over code shapes. Each edge is one shape symbol (ASCII only, anything
+     * else is {@code ?}); a node's mask holds the types whose shape ends there.
+     */
+    private static final class ShapeTrie {
+
+        private final Node root = new Node();
+
+        private static char symbol(char c) {
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                return 'A';
+            }
+            if (c >= '0' && c <= '9') {
+                return '9';
+            }
+            return c < 128 ? c : '?';
+        }
+
+        private static String shapeOf(String code) {
+            char[] shape = new char[code.length()];
+            for (int i = 0; i < shape.length; i++) {
+                shape[i] = symbol(code.charAt(i));
+            }
+            return new String(shape);
+        }
+
+        private void add(String shape, int mask) {
+            Node node = root;
+            for (int i = 0; i < shape.length(); i++) {
+                node = node.child(shape.charAt(i));
+            }
+            node.mask |= mask;
+        }
+
+        /**
+         * Types whose shape matches the code exactly, 0 when none does.
+         */
+        private int classify(String code) {
+            if (code.length() > MAX_SHAPE_LENGTH) {
+                return 0;
+            }
+            Node node = root;
+            for (int i = 0; i < code.length() && node != null; i++) {
+                node = node.next != null ? node.next[symbol(code.charAt(i))] : null;
+            }
+            return node != null ? node.mask : 0;
+        }
+
+        private static final class Node {
+
+            private Node[] next;
+            private int mask;
+
+            private Node child(char symbol) {
+                if (next == null) {
+                    next = new Node[128];
+                }
+                if (next[symbol] == null) {
+                    next[symbol] = new Node();
+                }
+                return next[symbol];
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.example.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.entity.StockBalance;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.exception.InsufficientStockException;
+import org.example.backend.repository.StockBalanceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Optional in-process copy of stock_balance (enabled with
+ * {@code stock.engine.enabled=true}).
+ * <p>
+ * Balance reads are served from memory and outbound quantities are reserved
+ * before the database row is locked, so FR-24 (no negative stock) rejections
+ * never reach the database. The ledger and stock_balance stay
+ * the source of truth: committed quantities are only applied after commit and
+ * reservations are released when the transaction completes.
+ * <p>
+ * Committed quantities and in-flight reservations are kept apart. A
+ * {@link #reload()} never blocks movements: it reads stock_balance into a new
+ * map off to the side while commits keep landing on the current one and are
+ * captured, then replays the captured commits the load did not see and swaps the
+ * map in. Each commit carries the stock_balance row version it produced, and
+ * every cell remembers the version it was loaded at, so a commit is counted once
+ * whether or not the load query saw it. Reservations are never reloaded.
+ * Reloads happen at startup, after a balance rebuild and every
+ * {@code stock.engine.resync-ms}.
+ * <p>
+ * Only valid for a single application instance, since other instances'
+ * movements are not seen until the next reload.
+ */
+@Component
+@Slf4j
+public class StockBalanceEngine {
+
+    private final StockBalanceRepository stockBalanceRepository;
+    private final boolean enabled;
+
+    private volatile Map<StockBalanceId, Cell> committed = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<StockBalanceId, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    /** Guards {@link #committed} swaps and {@link #pending}. */
+    private final Object commitLock = new Object();
+    /** Commits completed while a reload runs; guarded by commitLock. */
+    private List<Commit> pending;
+
+    public StockBalanceEngine(StockBalanceRepository stockBalanceRepository,
+            @Value("${stock.engine.enabled:false}") boolean enabled) {
+        this.stockBalanceRepository = stockBalanceRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * True when {@code stock.engine.enabled} is set. Movements are reported to
+     * the engine from then on, even before the first load completes.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True once the engine is enabled and loaded; callers fall back to the
+     * database otherwise.
+     */
+    public boolean isActive() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${stock.engine.resync-ms:3600000}",
+            fixedDelayString = "${stock.engine.resync-ms:3600000}")
+    public void resync() {
+        if (isActive()) {
+            reload();
+        }
+    }
+
+    /**
+     * Replace the committed balances with the current content of stock_balance.
+     * Movements keep running against the previous map until the new one is
+     * swapped in.
+     */
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        synchronized (commitLock) {
+            pending = new ArrayList<>();
+        }
+
+        Map<StockBalanceId, Cell> loaded;
+        try {
+            List<StockBalance> rows = stockBalanceRepository.findAll();
+            loaded = new ConcurrentHashMap<>(rows.size() * 2);
+            for (StockBalance row : rows) {
+                loaded.put(row.getId(), new Cell(row.getVersion(), row.getQuantity()));
+            }
+        } catch (RuntimeException e) {
+            synchronized (commitLock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        int replayed;
+        synchronized (commitLock) {
+            replayed = pending.size();
+            for (Commit commit : pending) {
+                // Skipped by the cell when the load query already saw it
+                cell(loaded, commit.id()).apply(commit.version(), commit.delta());
+            }
+            pending = null;
+            committed = loaded;
+        }
+        ready = true;
+        log.info("Stock balance engine loaded {} balances ({} concurrent commits replayed) in {} ms",
+                loaded.size(), replayed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Committed balance minus the quantities reserved by in-flight movements.
+     */
+    public int getBalance(UUID productId, UUID locationId) {
+        StockBalanceId id = new StockBalanceId(productId, locationId);
+        Cell cell = committed.get(id);
+        AtomicInteger reservation = reserved.get(id);
+        return (cell != null ? cell.quantity.get() : 0) - (reservation != null ? reservation.get() : 0);
+    }
+
+    /**
+     * Mirror a movement of {@code delta} units. Outbound quantities are reserved
+     * immediately (once the engine is loaded) and released when the transaction
+     * completes; the delta itself is applied after commit.
+     * {@code committedVersion} is asked after commit for the stock_balance row
+     * version the transaction wrote. Outside a transaction the delta is applied
+     * at once.
+     *
+     * @throws InsufficientStockException if an outbound quantity exceeds the balance
+     */
+    public void apply(UUID productId, UUID locationId, int delta, LongSupplier committedVersion) {
+        StockBalanceId id = new StockBalanceId(productId, locationId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit(new Commit(id, Cell.UNVERSIONED, delta));
+            return;
+        }
+
+        int reservation = delta < 0 && ready ? -delta : 0;
+        if (reservation > 0) {
+            reserve(id, reservation);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        onCommit(new Commit(id, committedVersion.getAsLong(), delta));
+                    }
+                } finally {
+                    // After the commit is applied, so the balance never looks higher than it is
+                    if (reservation > 0) {
+                        reserved.get(id).addAndGet(-reservation);
+                    }
+                }
+            }
+        });
+    }
+
+    private void reserve(StockBalanceId id, int quantity) {
+        AtomicInteger reservation = reserved.computeIfAbsent(id, k -> new AtomicInteger());
+        int total = reservation.addAndGet(quantity);
+        Cell cell = committed.get(id);
+        int available = cell != null ? cell.quantity.get() : 0;
+        if (available < total) {
+            reservation.addAndGet(-quantity);
+            throw new InsufficientStockException(
+                    String.format("Insufficient stock. Available: %d, Required: %d",
+                            available - total + quantity, quantity));
+        }
+    }
+
+    private void onCommit(Commit commit) {
+        synchronized (commitLock) {
+            cell(committed, commit.id()).apply(commit.version(), commit.delta());
+            if (pending != null && commit.version() != Cell.UNVERSIONED) {
+                pending.add(commit);
+            }
+        }
+    }
+
+    private static Cell cell(Map<StockBalanceId, Cell> balances, StockBalanceId id) {
+        // Pairs absent from the load had no row yet: every commit on them is new
+        return balances.computeIfAbsent(id, k -> new Cell(Cell.UNVERSIONED, 0));
+    }
+
+    /**
+     * Committed quantity of a pair and the row version it was loaded at.
+     */
+    private static final class Cell {
+
+        private static final long UNVERSIONED = -1;
+
+        private final long loadedVersion;
+        private final AtomicInteger quantity;
+
+        private Cell(Long loadedVersion, int quantity) {
+            this.loadedVersion = loadedVersion != null ? loadedVersion : UNVERSIONED;
+            this.quantity = new AtomicInteger(quantity);
+        }
+
+        /** Row versions grow with every commit, so older ones are already in the load. */
+        private void apply(long version, int delta) {
+            if (version == UNVERSIONED || version > loadedVersion) {
+                quantity.addAndGet(delta);
+            }
+        }
+    }
+
+    private record Commit(StockBalanceId id, long version, int delta) {
+    }
+}
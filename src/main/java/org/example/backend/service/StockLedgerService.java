@@ -1,7 +1,10 @@
 package org.example.backend.service;
 
 import org.example.backend.entity.*;
+import org.example.backend.enums.MovementType;
+import org.example.backend.exception.InvalidOperationException;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -33,6 +36,39 @@ public interface StockLedgerService {
     StockLedger recordAdjustment(Product product, Location location, int quantity,
             Transaction transaction, TransactionLine transactionLine, User performedBy);
 
+    /**
+     * Record several movements in one go, e.g. all lines of a transaction.
+     * Balance rows are locked once per (product, location) in a fixed order,
+     * running balances are computed in memory and the ledger entries are written
+     * as JDBC batches. Movements are applied in list order, so an OUT may consume
+     * stock brought in by an earlier IN of the same batch.
+     *
+     * @return the ledger entries, in the order of {@code movements}
+     * @throws org.example.backend.exception.InsufficientStockException if any
+     *                                                                  movement
+     *                                                                  would make a
+     *                                                                  balance
+     *                                                                  negative
+     */
+    List<StockLedger> recordBatch(List<Movement> movements);
+
+    /**
+     * Move stock of a product between two locations as a single unit: both
+     * balance rows are locked together in canonical order and the OUT and IN
+     * legs are written in one batch, so opposite moves between the same
+     * locations cannot deadlock.
+     *
+     * @return the OUT entry at {@code from} followed by the IN entry at
+     *         {@code to}
+     * @throws org.example.backend.exception.InsufficientStockException if
+     *                                                                  {@code from}
+     *                                                                  holds less
+     *                                                                  than
+     *                                                                  {@code quantity}
+     */
+    List<StockLedger> move(Product product, Location from, Location to, int quantity,
+            Transaction transaction, TransactionLine transactionLine, User performedBy);
+
     /**
      * Get current stock balance for a product at a location.
      */
@@ -45,4 +81,72 @@ public interface StockLedgerService {
      *                                                                  insufficient
      */
     void validateStockAvailability(UUID productId, UUID locationId, int requiredQuantity);
+
+    /**
+     * Recreate the stock_balance table from the full ledger: the archived
+     * months plus the entries still in stock_ledger.
+     * Should run while no stock movements are being recorded.
+     *
+     * @return number of balance rows written
+     */
+    int rebuildBalances();
+
+    /**
+     * A single stock movement to record. {@code quantity} is positive for IN and
+     * OUT, and signed for ADJUSTMENT (same convention as the ledger).
+     */
+    record Movement(Product product, Location location, MovementType movementType, int quantity,
+            Transaction transaction, TransactionLine transactionLine, User performedBy) {
+
+        public static Movement in(Product product, Location location, int quantity,
+                Transaction transaction, TransactionLine transactionLine, User performedBy) {
+            requirePositive(MovementType.IN, quantity);
+            return new Movement(product, location, MovementType.IN, quantity, transaction, transactionLine, performedBy);
+        }
+
+        public static Movement out(Product product, Location location, int quantity,
+                Transaction transaction, TransactionLine transactionLine, User performedBy) {
+            requirePositive(MovementType.OUT, quantity);
+            return new Movement(product, location, MovementType.OUT, quantity, transaction, transactionLine, performedBy);
+        }
+
+        /**
+         * The OUT at {@code from} and IN at {@code to} of a move between two
+         * distinct locations.
+         *
+         * @throws InvalidOperationException if both locations are the same or the
+         *                                   quantity is not positive
+         */
+        public static List<Movement> transfer(Product product, Location from, Location to, int quantity,
+                Transaction transaction, TransactionLine transactionLine, User performedBy) {
+            if (from.getId().equals(to.getId())) {
+                throw new InvalidOperationException(
+                        "Cannot move product " + product.getSku() + " to its own location " + from.getCode());
+            }
+            if (quantity <= 0) {
+                throw new InvalidOperationException("Move quantity must be positive, got " + quantity);
+            }
+            return List.of(out(product, from, quantity, transaction, transactionLine, performedBy),
+                    in(product, to, quantity, transaction, transactionLine, performedBy));
+        }
+
+        private static void requirePositive(MovementType type, int quantity) {
+            if (quantity <= 0) {
+                throw new InvalidOperationException(type + " quantity must be positive, got " + quantity);
+            }
+        }
+
+        public static Movement adjustment(Product product, Location location, int quantity,
+                Transaction transaction, TransactionLine transactionLine, User performedBy) {
+            return new Movement(product, location, MovementType.ADJUSTMENT, quantity, transaction, transactionLine,
+                    performedBy);
+        }
+
+        /**
+         * Signed effect of this movement on the balance.
+         */
+        public int delta() {
+            return movementType == MovementType.OUT ? -quantity : quantity;
+        }
+    }
 }
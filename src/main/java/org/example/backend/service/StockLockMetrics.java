@@ -0,0 +1,190 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.enums.BalanceLockingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-wait, retry and conflict statistics of stock_balance writes.
+ * <p>
+ * Micrometer meters are tagged by locking mode only, to keep their cardinality
+ * bounded. Per (SKU, location) figures are kept in memory for at most
+ * {@code stock.ledger.contention.max-pairs} pairs and exposed through the admin
+ * API, which is enough to pick a locking mode per workload. When the table is
+ * full, the less contended half is dropped to make room, so the busiest pairs
+ * stay tracked while new ones can still enter.
+ */
+@Component
+public class StockLockMetrics {
+
+    private final Map<BalanceLockingMode, Timer> lockWait = new EnumMap<>(BalanceLockingMode.class);
+    private final Map<BalanceLockingMode, Counter> conflicts = new EnumMap<>(BalanceLockingMode.class);
+    private final Map<BalanceLockingMode, DistributionSummary> retries = new EnumMap<>(BalanceLockingMode.class);
+    private static final Comparator<ContentionStats> BUSIEST_FIRST = Comparator
+            .comparingLong(ContentionStats::conflicts)
+            .thenComparingDouble(ContentionStats::totalWaitMs)
+            .reversed();
+
+    private final ConcurrentHashMap<StockBalanceId, PairStats> pairs = new ConcurrentHashMap<>();
+    private final int maxTrackedPairs;
+
+    public StockLockMetrics(MeterRegistry meterRegistry,
+            @Value("${stock.ledger.contention.max-pairs:10000}") int maxTrackedPairs) {
+        this.maxTrackedPairs = maxTrackedPairs;
+        for (BalanceLockingMode mode : BalanceLockingMode.values()) {
+            String tag = mode.name().toLowerCase();
+            lockWait.put(mode, Timer.builder("stock.balance.lock.wait")
+                    .description("Time to acquire a stock_balance row, including optimistic retries")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+            conflicts.put(mode, Counter.builder("stock.balance.conflicts")
+                    .description("Optimistic version conflicts on stock_balance")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+            retries.put(mode, DistributionSummary.builder("stock.balance.retries")
+                    .description("Retries per stock_balance write")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Record a successful balance write and how long it took to get the row.
+     */
+    public void recordWrite(BalanceLockingMode mode, Product product, Location location, long waitNanos,
+            int retryCount) {
+        lockWait.get(mode).record(waitNanos, TimeUnit.NANOSECONDS);
+        retries.get(mode).record(retryCount);
+        recordPairWrite(product, location, waitNanos, retryCount);
+    }
+
+    /**
+     * Record the writes of several locations of one product whose rows were
+     * locked by a single statement. The wait counts once towards the lock-wait
+     * timer; each pair is charged the full wait in the contention table, since
+     * each of them was held up that long.
+     */
+    public void recordLockedWrites(BalanceLockingMode mode, Product product, List<Location> locations,
+            long waitNanos) {
+        lockWait.get(mode).record(waitNanos, TimeUnit.NANOSECONDS);
+        for (Location location : locations) {
+            retries.get(mode).record(0);
+            recordPairWrite(product, location, waitNanos, 0);
+        }
+    }
+
+    private void recordPairWrite(Product product, Location location, long waitNanos, int retryCount) {
+        PairStats stats = stats(product, location);
+        if (stats != null) {
+            stats.writes.increment();
+            stats.retries.add(retryCount);
+            stats.waitNanos.add(waitNanos);
+            stats.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    public void recordConflict(BalanceLockingMode mode, Product product, Location location) {
+        conflicts.get(mode).increment();
+        PairStats stats = stats(product, location);
+        if (stats != null) {
+            stats.conflicts.increment();
+        }
+    }
+
+    /**
+     * Pairs with the most conflicts, then the longest total wait.
+     */
+    public List<ContentionStats> getTopContended(int limit) {
+        return pairs.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(BUSIEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        pairs.clear();
+    }
+
+    private PairStats stats(Product product, Location location) {
+        StockBalanceId id = new StockBalanceId(product.getId(), location.getId());
+        PairStats stats = pairs.get(id);
+        if (stats == null) {
+            if (pairs.size() >= maxTrackedPairs) {
+                evictLeastContended();
+            }
+            stats = pairs.computeIfAbsent(id, k -> new PairStats(product.getSku(), location.getCode()));
+        }
+        return stats;
+    }
+
+    /**
+     * Drop the less contended half of the tracked pairs. One sort per
+     * {@code maxTrackedPairs / 2} new pairs keeps the amortized cost low.
+     */
+    private synchronized void evictLeastContended() {
+        if (pairs.size() < maxTrackedPairs) {
+            return; // another thread just made room
+        }
+        List<StockBalanceId> evicted = pairs.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(BUSIEST_FIRST)
+                .skip(maxTrackedPairs / 2)
+                .map(stats -> new StockBalanceId(stats.productId(), stats.locationId()))
+                .toList();
+        evicted.forEach(pairs::remove);
+    }
+
+    private static final class PairStats {
+        private final String sku;
+        private final String locationCode;
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private PairStats(String sku, String locationCode) {
+            this.sku = sku;
+            this.locationCode = locationCode;
+        }
+
+        private ContentionStats snapshot(StockBalanceId id) {
+            long writeCount = writes.sum();
+            long conflictCount = conflicts.sum();
+            long totalWait = waitNanos.sum();
+            long attempts = writeCount + conflictCount;
+            return new ContentionStats(id.getProductId(), id.getLocationId(), sku, locationCode,
+                    writeCount, conflictCount, retries.sum(),
+                    attempts == 0 ? 0 : (double) conflictCount / attempts,
+                    totalWait / 1_000_000.0,
+                    writeCount == 0 ? 0 : totalWait / 1_000_000.0 / writeCount,
+                    maxWaitNanos.get() / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Contention figures of one (product, location) since start or last reset.
+     */
+    public record ContentionStats(UUID productId, UUID locationId, String sku, String locationCode,
+            long writes, long conflicts, long retries, double conflictRate,
+            double totalWaitMs, double avgWaitMs, double maxWaitMs) {
+    }
+}
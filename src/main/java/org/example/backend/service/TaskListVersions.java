@@ -0,0 +1,63 @@
+package org.example.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of each employee's task list, used as its ETag so idle polls are
+ * answered with 304 before any query runs.
+ * <p>
+ * Every committed write to a task bumps the version of its assignee, and of the
+ * previous assignee when it was reassigned. The version also contains the
+ * process start time, so a restart never reuses a version, and a time bucket of
+ * {@code stock.tasks.list-max-age-ms}: changes committed on another instance
+ * are seen by clients of this one within that delay.
+ */
+@Component
+public class TaskListVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final long maxAgeMs;
+
+    public TaskListVersions(@Value("${stock.tasks.list-max-age-ms:60000}") long maxAgeMs) {
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Current version of the employee's task list. Read it before loading the
+     * list, so a change committed meanwhile yields a new version next time.
+     */
+    public String currentVersion(String username) {
+        AtomicLong version = versions.get(username);
+        return epoch + "-" + (version != null ? version.get() : 0) + "-"
+                + Long.toString(System.currentTimeMillis() / maxAgeMs, 36);
+    }
+
+    /**
+     * The employee's task list changed. Applied when the surrounding transaction
+     * commits, immediately outside of one.
+     */
+    public void onTaskListChanged(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(username);
+            }
+        });
+    }
+
+    private void bump(String username) {
+        versions.computeIfAbsent(username, key -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.backend.service;
+
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-employee, per-day productivity counters (user_productivity_daily). The
+ * {@code record*} methods are called by the workflow inside the operation's
+ * own transaction, so counters commit or roll back with it; reports then sum
+ * one row per employee and day.
+ */
+public interface UserProductivityService {
+
+    /**
+     * Count a task its assignee finished: one completed task if its status is
+     * COMPLETED, plus its start-to-finish minutes, on the day it finished. Call
+     * once, when the task first reaches COMPLETED or FAILED.
+     */
+    void recordTaskFinished(Transaction task);
+
+    /**
+     * Take back what {@link #recordTaskFinished} counted for a task leaving
+     * COMPLETED or FAILED. Call before its status and completion time change.
+     */
+    void recordTaskReopened(Transaction task);
+
+    void recordLinesExecuted(User user, int lines);
+
+    void recordDiscrepancyReported(User user);
+
+    /**
+     * Counters of {@code [from, to]} summed per employee, for every employee
+     * or only {@code userId}. Employees without activity are listed with zeros.
+     */
+    List<UserProductivity> getReport(LocalDate from, LocalDate to, UUID userId);
+
+    /**
+     * Recompute the counters of {@code [from, to]} from tasks, ledger and
+     * discrepancies. Lines executed on days archived out of the ledger keep
+     * their current value.
+     *
+     * @return number of counter rows written
+     */
+    int rebuild(LocalDate from, LocalDate to);
+
+    /**
+     * @param openDiscrepancies discrepancies reported by the employee and still
+     *                          unresolved, regardless of the period
+     */
+    record UserProductivity(
+            UUID userId,
+            String fullName,
+            String username,
+            long tasksCompleted,
+            long linesExecuted,
+            long discrepanciesReported,
+            long activeMinutes,
+            long openDiscrepancies) {
+    }
+}
@@ -1,4 +1,20 @@
 package org.example.backend.service;
 
+import org.example.backend.entity.Warehouse;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cached warehouse lookups for read paths. Returned entities are shared: do
+ * not modify them.
+ */
 public interface WarehouseService {
+
+    /**
+     * @throws org.example.backend.exception.ResourceNotFoundException if the warehouse does not exist
+     */
+    Warehouse getWarehouse(UUID warehouseId);
+
+    List<Warehouse> getActiveWarehouses();
 }
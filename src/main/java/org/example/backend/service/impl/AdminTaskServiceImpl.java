@@ -0,0 +1,85 @@
+package org.example.backend.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.request.UpdateTaskRequest;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.AdminTaskService;
+import org.example.backend.service.UserProductivityService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class AdminTaskServiceImpl implements AdminTaskService {
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final UserProductivityService userProductivityService;
+
+    @Override
+    public Transaction updateTask(UUID taskId, UpdateTaskRequest request) {
+        Transaction transaction = findTask(taskId);
+
+        User assignee = request.getAssignedToId() == null ? null
+                : userRepository.findById(request.getAssignedToId())
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found: " + request.getAssignedToId()));
+        boolean statusChanged = request.getStatus() != null && request.getStatus() != transaction.getStatus();
+        boolean wasFinished = isFinished(transaction.getStatus());
+
+        // What was counted for a finished task is taken back before it changes
+        boolean recount = wasFinished && (statusChanged || assignee != null);
+        if (recount) {
+            userProductivityService.recordTaskReopened(transaction);
+        }
+
+        if (assignee != null) {
+            transaction.setAssignedTo(assignee);
+            transaction.setAssignedAt(LocalDateTime.now());
+        }
+        if (request.getPriority() != null)
+            transaction.setPriority(request.getPriority());
+        if (statusChanged) {
+            if (!wasFinished && isFinished(request.getStatus())) {
+                transaction.setCompletedAt(LocalDateTime.now());
+                recount = true;
+            }
+            transaction.setStatus(request.getStatus());
+        }
+        if (request.getNotes() != null)
+            transaction.setNotes(request.getNotes());
+
+        transaction = transactionRepository.save(transaction);
+        if (recount && isFinished(transaction.getStatus())) {
+            userProductivityService.recordTaskFinished(transaction);
+        }
+        return transaction;
+    }
+
+    @Override
+    public Transaction cancelTask(UUID taskId) {
+        Transaction transaction = findTask(taskId);
+        if (isFinished(transaction.getStatus())) {
+            userProductivityService.recordTaskReopened(transaction);
+        }
+        transaction.setStatus(TransactionStatus.CANCELLED);
+        return transactionRepository.save(transaction);
+    }
+
+    private Transaction findTask(UUID taskId) {
+        return transactionRepository.findById(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found: " + taskId));
+    }
+
+    private static boolean isFinished(TransactionStatus status) {
+        return status == TransactionStatus.COMPLETED || status == TransactionStatus.FAILED;
+    }
+}
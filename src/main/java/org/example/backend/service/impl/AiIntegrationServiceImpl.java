@@ -3,8 +3,10 @@ package org.example.backend.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.backend.client.AiServiceClient;
+import org.example.backend.config.CacheConfig;
 import org.example.backend.dto.request.*;
 import org.example.backend.service.AiIntegrationService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
@@ -32,6 +34,7 @@ public class AiIntegrationServiceImpl implements AiIntegrationService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.AI_MODEL_INFO, key = "'current'")
     public Map<String, Object> getModelInfo() {
         try {
             return aiServiceClient.getModelInfo();
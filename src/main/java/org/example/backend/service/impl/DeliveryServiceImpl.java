@@ -8,9 +8,13 @@ import org.example.backend.entity.User;
 import org.example.backend.exception.InvalidOperationException;
 import org.example.backend.service.DeliveryService;
 import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLedgerService.Movement;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,10 +25,7 @@ public class DeliveryServiceImpl implements DeliveryService {
 
     @Override
     public void processDeliveryLine(Transaction transaction, TransactionLine line, User performer) {
-        if (line.getSourceLocation() == null) {
-            throw new InvalidOperationException(
-                    "Delivery line " + line.getLineNumber() + " must have a source (picking/expedition) location");
-        }
+        validateLine(line);
 
         log.info("Processing delivery line {}: product={}, qty={}, from={}",
                 line.getLineNumber(), line.getProduct().getSku(),
@@ -49,8 +50,20 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Override
     public void processDelivery(Transaction transaction, User performer) {
         log.info("Processing full delivery transaction: {}", transaction.getReference());
+
+        List<Movement> movements = new ArrayList<>();
         for (TransactionLine line : transaction.getTransactionLines()) {
-            processDeliveryLine(transaction, line, performer);
+            validateLine(line);
+            movements.add(Movement.out(line.getProduct(), line.getSourceLocation(), line.getQuantity(),
+                    transaction, line, performer));
+        }
+        stockLedgerService.recordBatch(movements);
+    }
+
+    private void validateLine(TransactionLine line) {
+        if (line.getSourceLocation() == null) {
+            throw new InvalidOperationException(
+                    "Delivery line " + line.getLineNumber() + " must have a source (picking/expedition) location");
         }
     }
 }
@@ -1,4 +1,83 @@
 package org.example.backend.service.impl;
 
-public class InventoryServiceImpl {
+import lombok.RequiredArgsConstructor;
+import org.example.backend.dto.projection.LocationProductStock;
+import org.example.backend.dto.projection.LocationStock;
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.service.InventoryService;
+import org.example.backend.service.LocationService;
+import org.example.backend.service.ProductService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final double NEAR_FULL_RATIO = 0.85;
+
+    private final StockBalanceRepository stockBalanceRepository;
+    private final ProductService productService;
+    private final LocationService locationService;
+
+    @Override
+    public ProductStock getProductStock(UUID productId) {
+        Product product = productService.getProduct(productId);
+        List<LocationStock> locations = stockBalanceRepository.findPositiveByProductIds(List.of(productId));
+        long total = locations.stream().mapToLong(LocationStock::quantity).sum();
+        return new ProductStock(product.getId(), product.getSku(), product.getName(), product.getUnitOfMeasure(),
+                total, locations);
+    }
+
+    @Override
+    public ProductStock findStockBySku(String sku) {
+        String code = sku.trim();
+        UUID productId = productService.findProductIdBySku(code)
+                .or(() -> productService.findProductIdByBarcode(code))
+                .orElseThrow(() -> new ResourceNotFoundException("No product with SKU or barcode: " + code));
+        return getProductStock(productId);
+    }
+
+    @Override
+    public LocationContents getLocationContents(UUID locationId) {
+        Location location = locationService.getLocation(locationId);
+        List<LocationProductStock> products = stockBalanceRepository.findPositiveByLocationId(locationId);
+
+        Double occupancy = occupancyPercent(location, products);
+        CapacityStatus status;
+        if (products.isEmpty()) {
+            status = CapacityStatus.EMPTY;
+        } else if (occupancy == null) {
+            status = CapacityStatus.UNKNOWN;
+        } else if (occupancy >= 100) {
+            status = CapacityStatus.FULL;
+        } else if (occupancy >= NEAR_FULL_RATIO * 100) {
+            status = CapacityStatus.NEAR_FULL;
+        } else {
+            status = CapacityStatus.NORMAL;
+        }
+        return new LocationContents(location.getId(), location.getCode(), location.getZone(), location.getType(),
+                products, occupancy, status);
+    }
+
+    private static Double occupancyPercent(Location location, List<LocationProductStock> products) {
+        if (location.getVolumeM3() == null || location.getVolumeM3() <= 0) {
+            return null;
+        }
+        double used = 0;
+        for (LocationProductStock product : products) {
+            if (product.volumePcs() == null) {
+                return null;
+            }
+            used += product.volumePcs() * product.quantity();
+        }
+        return Math.round(used / location.getVolumeM3() * 1000) / 10.0;
+    }
 }
@@ -0,0 +1,160 @@
+package org.example.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.ArchivedLedgerEntry;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.LedgerArchiveService;
+import org.example.backend.service.LedgerCheckpointService;
+import org.example.backend.service.MovementRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@Service
+@Slf4j
+@Transactional
+public class LedgerArchiveServiceImpl implements LedgerArchiveService {
+
+    /** Products loaded per query while copying a month. */
+    private static final int PRODUCT_CHUNK = 200;
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final LedgerCheckpointService ledgerCheckpointService;
+    private final MovementRollupService movementRollupService;
+    private final int retainMonths;
+
+    public LedgerArchiveServiceImpl(StockLedgerRepository stockLedgerRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            LedgerCheckpointService ledgerCheckpointService,
+            MovementRollupService movementRollupService,
+            @Value("${stock.archive.retain-months:3}") int retainMonths) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.ledgerCheckpointService = ledgerCheckpointService;
+        this.movementRollupService = movementRollupService;
+        this.retainMonths = retainMonths;
+    }
+
+    /**
+     * Settle the segments left pending by a stop between writing and
+     * publishing: the delete committed if the month has no ledger rows left.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingSegments() {
+        for (YearMonth month : ledgerArchiveRepository.findPendingMonths()) {
+            boolean deleted = !stockLedgerRepository.existsByPerformedAtGreaterThanEqualAndPerformedAtLessThan(
+                    month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+            if (deleted) {
+                publish(month);
+            } else {
+                log.warn("Discarding pending ledger archive segment {}: its rows are still in stock_ledger", month);
+                ledgerArchiveRepository.discardPendingSegment(month);
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<YearMonth> findArchivableMonths() {
+        YearMonth firstRetained = YearMonth.now().minusMonths(retainMonths);
+        List<YearMonth> months = new ArrayList<>();
+        stockLedgerRepository.findOldestPerformedAt().ifPresent(oldest -> {
+            for (YearMonth m = YearMonth.from(oldest); m.isBefore(firstRetained); m = m.plusMonths(1)) {
+                months.add(m);
+            }
+        });
+        return months;
+    }
+
+    @Override
+    public long archiveMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now().minusMonths(retainMonths))) {
+            throw new InvalidOperationException("Month " + month + " is within the " + retainMonths
+                    + "-month retention window and cannot be archived");
+        }
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        boolean olderRowsLeft = stockLedgerRepository.findOldestPerformedAt()
+                .filter(oldest -> oldest.isBefore(from)).isPresent();
+        if (olderRowsLeft) {
+            throw new InvalidOperationException("Older months must be archived before " + month);
+        }
+
+        // Balances after the month must not depend on the rows about to be deleted
+        ledgerCheckpointService.createCheckpointsAt(to);
+        // Movement reports of the month are served from the rollup once it is archived
+        movementRollupService.rollUp();
+
+        List<UUID> productIds = new ArrayList<>(stockLedgerRepository.findDistinctProductIdsBetween(from, to));
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        productIds.sort(Comparator.naturalOrder());
+
+        // Chunks are in product order and sorted inside, so the concatenation
+        // follows the segment order without holding the whole month in memory
+        int chunks = (productIds.size() + PRODUCT_CHUNK - 1) / PRODUCT_CHUNK;
+        Iterator<ArchivedLedgerEntry> entries = IntStream.range(0, chunks)
+                .mapToObj(i -> productIds.subList(i * PRODUCT_CHUNK,
+                        Math.min(productIds.size(), (i + 1) * PRODUCT_CHUNK)))
+                .flatMap(chunk -> stockLedgerRepository.findArchiveEntries(chunk, from, to).stream()
+                        .sorted(LedgerArchiveRepository.ENTRY_ORDER))
+                .iterator();
+
+        long written;
+        try {
+            written = ledgerArchiveRepository.writeSegment(month, entries);
+        } catch (IOException e) {
+            ledgerArchiveRepository.discardPendingSegment(month);
+            throw new IllegalStateException("Failed to write ledger archive segment for " + month, e);
+        }
+        // The segment becomes visible only once the delete has committed, so the
+        // month is never counted from both the archive and the ledger
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    publish(month);
+                } else {
+                    ledgerArchiveRepository.discardPendingSegment(month);
+                }
+            }
+        });
+
+        int deleted = stockLedgerRepository.deleteByPerformedAtBetween(from, to);
+        if (deleted != written) {
+            throw new IllegalStateException(String.format(
+                    "Archive of %s wrote %d entries but deleted %d rows", month, written, deleted));
+        }
+
+        log.info("Archived {} stock ledger entries of {}", written, month);
+        return written;
+    }
+
+    private void publish(YearMonth month) {
+        try {
+            ledgerArchiveRepository.publishSegment(month);
+        } catch (IOException e) {
+            // Left pending; published on the next start
+            log.error("Failed to publish ledger archive segment {}: {}", month, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.BalanceAggregate;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.entity.StockLedgerCheckpoint;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockLedgerCheckpointRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.LedgerCheckpointService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@Transactional
+public class LedgerCheckpointServiceImpl implements LedgerCheckpointService {
+
+    /** Lower bound for tail replays before the first checkpoint run. */
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final StockLedgerCheckpointRepository checkpointRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final long lagMinutes;
+    private final int dailyRunDays;
+
+    public LedgerCheckpointServiceImpl(StockLedgerCheckpointRepository checkpointRepository,
+            StockLedgerRepository stockLedgerRepository,
+            ProductRepository productRepository,
+            LocationRepository locationRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            @Value("${stock.checkpoint.lag-minutes:10}") long lagMinutes,
+            @Value("${stock.checkpoint.daily-run-days:31}") int dailyRunDays) {
+        this.checkpointRepository = checkpointRepository;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.productRepository = productRepository;
+        this.locationRepository = locationRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.lagMinutes = lagMinutes;
+        this.dailyRunDays = dailyRunDays;
+    }
+
+    @Override
+    public int createCheckpoints() {
+        return createCheckpoints(LocalDateTime.now().minusMinutes(lagMinutes));
+    }
+
+    /**
+     * Write the balances at every retained boundary after the previous run and
+     * at {@code cutoff}, each one the run before it plus the ledger entries in
+     * between. Runs that are neither boundaries nor the latest are then pruned.
+     * <p>
+     * A boundary without new entries is skipped when the run holding its
+     * balances is kept anyway, so an as-of query never replays more than the
+     * entries of one boundary interval.
+     */
+    int createCheckpoints(LocalDateTime cutoff) {
+        Optional<LocalDateTime> previous = checkpointRepository.findLatestAsOf();
+        if (previous.isPresent() && !cutoff.isAfter(previous.get())) {
+            return 0;
+        }
+        Optional<LocalDateTime> historyStart = previous.or(this::findHistoryStart);
+        if (historyStart.isEmpty()) {
+            return 0;
+        }
+
+        Map<StockBalanceId, Long> balances = new LinkedHashMap<>();
+        previous.ifPresent(asOf -> checkpointRepository.findByAsOf(asOf).forEach(c -> balances.put(
+                new StockBalanceId(c.getProduct().getId(), c.getLocation().getId()), c.getBalance().longValue())));
+        // Balances only held by a run that the next prune deletes
+        boolean unretained = previous.filter(asOf -> !isRetained(asOf, cutoff)).isPresent();
+
+        List<LocalDateTime> positions = new ArrayList<>(boundariesBetween(historyStart.get(), cutoff));
+        positions.add(cutoff);
+
+        LocalDateTime at = previous.orElse(LEDGER_START);
+        int written = 0;
+        int runs = 0;
+        for (LocalDateTime position : positions) {
+            List<BalanceAggregate> deltas = tail(null, null, null, at, position);
+            deltas.forEach(d -> balances.merge(new StockBalanceId(d.productId(), d.locationId()), d.quantity(),
+                    Long::sum));
+            at = position;
+
+            boolean boundary = !position.equals(cutoff);
+            if (!deltas.isEmpty() || (boundary && unretained)) {
+                written += saveRun(balances, position);
+                runs++;
+                unretained = false;
+            }
+        }
+        if (runs == 0) {
+            // The previous run still holds the balances at cutoff
+            return 0;
+        }
+
+        int pruned = pruneRunsBefore(cutoff);
+        log.info("Wrote {} stock ledger checkpoints in {} runs up to {}, pruned {} superseded runs",
+                written, runs, cutoff, pruned);
+        return written;
+    }
+
+    @Override
+    public int createCheckpointsAt(LocalDateTime boundary) {
+        if (checkpointRepository.findLatestAsOfAtOrBefore(boundary).filter(boundary::equals).isPresent()) {
+            return 0;
+        }
+
+        int written = saveRun(balancesAsOf(null, null, null, boundary), boundary);
+        log.info("Wrote {} stock ledger checkpoints at boundary {}", written, boundary);
+        return written;
+    }
+
+    /**
+     * Write a run at {@code asOf}. Zero balances are left out: a pair missing
+     * from a run had a zero balance at its position.
+     */
+    private int saveRun(Map<StockBalanceId, Long> balances, LocalDateTime asOf) {
+        List<StockLedgerCheckpoint> checkpoints = balances.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .map(e -> StockLedgerCheckpoint.builder()
+                        .product(productRepository.getReferenceById(e.getKey().getProductId()))
+                        .location(locationRepository.getReferenceById(e.getKey().getLocationId()))
+                        .asOf(asOf)
+                        .balance(e.getValue().intValue())
+                        .build())
+                .toList();
+        checkpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    /**
+     * Delete the runs before {@code latest} that are not retained boundaries.
+     */
+    private int pruneRunsBefore(LocalDateTime latest) {
+        List<LocalDateTime> superseded = checkpointRepository.findRunsBefore(latest).stream()
+                .filter(asOf -> !isRetained(asOf, latest))
+                .toList();
+        return superseded.isEmpty() ? 0 : checkpointRepository.deleteByAsOfIn(superseded);
+    }
+
+    /**
+     * Retained boundaries: the start of every day in the last
+     * {@code stock.checkpoint.daily-run-days} days before {@code latest}, and the
+     * start of every month (archiving writes these too).
+     */
+    private boolean isRetained(LocalDateTime asOf, LocalDateTime latest) {
+        if (!asOf.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            return false;
+        }
+        return asOf.getDayOfMonth() == 1 || !asOf.toLocalDate().isBefore(firstDailyRun(latest));
+    }
+
+    /**
+     * Retained boundaries in {@code (from, to)}, oldest first.
+     */
+    private List<LocalDateTime> boundariesBetween(LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> boundaries = new ArrayList<>();
+        LocalDate firstDaily = firstDailyRun(to);
+        LocalDate day = from.toLocalDate().plusDays(1);
+        while (day.atStartOfDay().isBefore(to)) {
+            if (day.getDayOfMonth() == 1 || !day.isBefore(firstDaily)) {
+                boundaries.add(day.atStartOfDay());
+                day = day.plusDays(1);
+            } else {
+                // Only month starts until the daily window
+                LocalDate nextMonth = day.withDayOfMonth(1).plusMonths(1);
+                day = nextMonth.isBefore(firstDaily) ? nextMonth : firstDaily;
+            }
+        }
+        return boundaries;
+    }
+
+    private LocalDate firstDailyRun(LocalDateTime latest) {
+        return latest.toLocalDate().minusDays(dailyRunDays);
+    }
+
+    /**
+     * Time of the oldest movement, archived or not.
+     */
+    private Optional<LocalDateTime> findHistoryStart() {
+        return ledgerArchiveRepository.findArchivedFrom().or(stockLedgerRepository::findOldestPerformedAt);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getBalanceAsOf(UUID productId, UUID locationId, LocalDateTime asOf) {
+        Optional<LocalDateTime> compactedAt = checkpointRepository.findLatestAsOfAtOrBefore(asOf);
+        long balance = compactedAt
+                .flatMap(at -> checkpointRepository.findByProduct_IdAndLocation_IdAndAsOf(productId, locationId, at))
+                .map(StockLedgerCheckpoint::getBalance)
+                .orElse(0);
+        LocalDateTime from = compactedAt.orElse(LEDGER_START);
+
+        for (BalanceAggregate d : tail(productId, locationId, null, from, asOf)) {
+            balance += d.quantity();
+        }
+        return (int) balance;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BalancesAsOf getBalancesAsOf(UUID productId, UUID locationId, UUID warehouseId, LocalDateTime asOf) {
+        // A run holds every non-zero balance at its position, so every pair only
+        // needs the ledger tail after the latest one
+        Optional<LocalDateTime> compactedAt = checkpointRepository.findLatestAsOfAtOrBefore(asOf);
+        List<BalanceAggregate> balances = balancesAsOf(productId, locationId, warehouseId, compactedAt, asOf)
+                .entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .map(e -> new BalanceAggregate(e.getKey().getProductId(), e.getKey().getLocationId(), e.getValue()))
+                .toList();
+        return new BalancesAsOf(compactedAt.orElse(null), balances);
+    }
+
+    private Map<StockBalanceId, Long> balancesAsOf(UUID productId, UUID locationId, UUID warehouseId,
+            LocalDateTime asOf) {
+        return balancesAsOf(productId, locationId, warehouseId, checkpointRepository.findLatestAsOfAtOrBefore(asOf),
+                asOf);
+    }
+
+    private Map<StockBalanceId, Long> balancesAsOf(UUID productId, UUID locationId, UUID warehouseId,
+            Optional<LocalDateTime> compactedAt, LocalDateTime asOf) {
+        Map<StockBalanceId, Long> balances = new LinkedHashMap<>();
+        compactedAt.ifPresent(at -> checkpointRepository
+                .findByAsOfInScope(productId, locationId, warehouseId, at)
+                .forEach(c -> balances.put(new StockBalanceId(c.getProduct().getId(), c.getLocation().getId()),
+                        c.getBalance().longValue())));
+
+        tail(productId, locationId, warehouseId, compactedAt.orElse(LEDGER_START), asOf)
+                .forEach(d -> balances.merge(new StockBalanceId(d.productId(), d.locationId()), d.quantity(),
+                        Long::sum));
+        return balances;
+    }
+
+    /**
+     * Ledger entries in {@code (from, to]}, read from the archive for the part of
+     * the window that has already been archived.
+     */
+    private List<BalanceAggregate> tail(UUID productId, UUID locationId, UUID warehouseId,
+            LocalDateTime from, LocalDateTime to) {
+        List<BalanceAggregate> tail = new ArrayList<>(stockLedgerRepository.aggregateBalancesBetweenInScope(
+                productId, locationId, warehouseId, from, to));
+
+        Optional<LocalDateTime> archivedUpTo = ledgerArchiveRepository.findArchivedUpTo();
+        if (archivedUpTo.isPresent() && from.isBefore(archivedUpTo.get())) {
+            LocalDateTime archiveTo = to.isBefore(archivedUpTo.get()) ? to : archivedUpTo.get();
+            tail.addAll(ledgerArchiveRepository.aggregateBalancesBetweenInScope(
+                    productId, locationId, warehouseId, from, archiveTo));
+        }
+        return tail;
+    }
+}
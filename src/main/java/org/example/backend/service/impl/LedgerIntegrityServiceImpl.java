@@ -0,0 +1,334 @@
+package org.example.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.BalanceAggregate;
+import org.example.backend.dto.projection.LedgerChainRow;
+import org.example.backend.entity.StockBalance;
+import org.example.backend.entity.StockLedger;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.LedgerIntegrityService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Verifies the ledger one product at a time on a dedicated ForkJoin pool. The
+ * product list is split recursively so idle workers steal ranges from busy
+ * ones (a few hot products typically hold most of the rows). Each product is
+ * streamed once, in chain order, in its own read-only transaction; repairs are
+ * written afterwards in short transactions of {@code repair-batch-size} rows.
+ * <p>
+ * Archived months are not re-verified: their net effect per pair is used as the
+ * opening balance of the live chain.
+ */
+@Service
+@Slf4j
+public class LedgerIntegrityServiceImpl implements LedgerIntegrityService {
+
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int PRODUCTS_PER_TASK = 8;
+    private static final int MAX_SAMPLE_ISSUES = 100;
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final StockBalanceRepository stockBalanceRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int parallelism;
+    private final int repairBatchSize;
+
+    private final AtomicReference<Run> currentRun = new AtomicReference<>();
+
+    public LedgerIntegrityServiceImpl(StockLedgerRepository stockLedgerRepository,
+            StockBalanceRepository stockBalanceRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${stock.integrity.parallelism:0}") int parallelism,
+            @Value("${stock.integrity.repair-batch-size:500}") int repairBatchSize) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.stockBalanceRepository = stockBalanceRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.parallelism = parallelism > 0 ? parallelism : Math.min(4, Runtime.getRuntime().availableProcessors());
+        this.repairBatchSize = repairBatchSize;
+    }
+
+    @Override
+    public IntegrityStatus startVerification(boolean repair) {
+        Run run = new Run(repair);
+        Run previous = currentRun.get();
+        if (previous != null && previous.status == RunStatus.RUNNING
+                || !currentRun.compareAndSet(previous, run)) {
+            throw new InvalidOperationException("A ledger integrity run is already in progress");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        pool.execute(() -> {
+            try {
+                execute(run);
+                run.finish(RunStatus.COMPLETED, null);
+                log.info("Ledger integrity run {} finished: {} rows, {} inconsistent, {} repaired, {} balance mismatches",
+                        run.id, run.rowsScanned, run.inconsistentRows, run.repairedRows, run.balanceMismatches);
+            } catch (RuntimeException e) {
+                log.error("Ledger integrity run {} failed", run.id, e);
+                run.finish(RunStatus.FAILED, e.getMessage());
+            } finally {
+                pool.shutdown();
+            }
+        });
+        return run.snapshot();
+    }
+
+    @Override
+    public IntegrityStatus getStatus() {
+        Run run = currentRun.get();
+        return run != null ? run.snapshot() : null;
+    }
+
+    private void execute(Run run) {
+        Map<UUID, Map<UUID, Long>> openingBalances = new HashMap<>();
+        ledgerArchiveRepository.findArchivedUpTo().ifPresent(upTo -> {
+            for (BalanceAggregate a : ledgerArchiveRepository.aggregateBalancesBetweenInScope(null, null, null,
+                    LEDGER_START, upTo)) {
+                openingBalances.computeIfAbsent(a.productId(), p -> new HashMap<>()).put(a.locationId(), a.quantity());
+            }
+        });
+
+        Set<UUID> productIds = new LinkedHashSet<>(stockLedgerRepository.findDistinctProductIds());
+        productIds.addAll(openingBalances.keySet());
+        List<UUID> products = new ArrayList<>(productIds);
+        run.totalProducts = products.size();
+        log.info("Ledger integrity run {} started over {} products (repair={})", run.id, products.size(), run.repair);
+
+        new ProductRange(run, products, openingBalances, 0, products.size()).invoke();
+    }
+
+    /**
+     * Splits the product list in halves until ranges are small enough to verify
+     * sequentially.
+     */
+    private class ProductRange extends RecursiveAction {
+
+        private final Run run;
+        private final List<UUID> products;
+        private final Map<UUID, Map<UUID, Long>> openingBalances;
+        private final int from;
+        private final int to;
+
+        ProductRange(Run run, List<UUID> products, Map<UUID, Map<UUID, Long>> openingBalances, int from, int to) {
+            this.run = run;
+            this.products = products;
+            this.openingBalances = openingBalances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PRODUCTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    UUID productId = products.get(i);
+                    verifyProduct(run, productId, openingBalances.getOrDefault(productId, Map.of()));
+                    run.processedProducts.incrementAndGet();
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProductRange(run, products, openingBalances, from, mid),
+                    new ProductRange(run, products, openingBalances, mid, to));
+        }
+    }
+
+    private void verifyProduct(Run run, UUID productId, Map<UUID, Long> opening) {
+        Map<UUID, Integer> repairs = new HashMap<>();
+        Map<UUID, Long> chainBalances = new HashMap<>(opening);
+
+        readTransaction.executeWithoutResult(status -> {
+            ChainWalker walker = new ChainWalker(run, productId, opening, repairs, chainBalances);
+            try (Stream<LedgerChainRow> rows = stockLedgerRepository.streamChainRowsByProduct(productId)) {
+                rows.forEach(walker::accept);
+            }
+            walker.finish();
+
+            Map<UUID, Integer> stored = new HashMap<>();
+            for (StockBalance b : stockBalanceRepository.findByProductIdWithLocation(productId)) {
+                stored.put(b.getId().getLocationId(), b.getQuantity());
+            }
+            Set<UUID> locations = new HashSet<>(chainBalances.keySet());
+            locations.addAll(stored.keySet());
+            for (UUID locationId : locations) {
+                long expected = chainBalances.getOrDefault(locationId, 0L);
+                long actual = stored.getOrDefault(locationId, 0);
+                run.pairsChecked.incrementAndGet();
+                if (expected != actual) {
+                    run.balanceMismatches.incrementAndGet();
+                    run.addIssue(new Issue(IssueType.STOCK_BALANCE, productId, locationId, null, actual, expected));
+                }
+            }
+        });
+
+        if (run.repair && !repairs.isEmpty()) {
+            repair(run, repairs);
+        }
+    }
+
+    /**
+     * Replays the chains of one product. Entries written in the same batch can
+     * share a timestamp, so rows with equal (location, performedAt) are matched
+     * greedily against the running sum instead of trusting their id order.
+     */
+    private class ChainWalker {
+
+        private final Run run;
+        private final UUID productId;
+        private final Map<UUID, Long> opening;
+        private final Map<UUID, Integer> repairs;
+        private final Map<UUID, Long> chainBalances;
+        private final List<LedgerChainRow> sameInstant = new ArrayList<>();
+        private UUID locationId;
+        private long balance;
+
+        ChainWalker(Run run, UUID productId, Map<UUID, Long> opening, Map<UUID, Integer> repairs,
+                Map<UUID, Long> chainBalances) {
+            this.run = run;
+            this.productId = productId;
+            this.opening = opening;
+            this.repairs = repairs;
+            this.chainBalances = chainBalances;
+        }
+
+        void accept(LedgerChainRow row) {
+            run.rowsScanned.increment();
+            if (!row.locationId().equals(locationId)) {
+                finish();
+                locationId = row.locationId();
+                balance = opening.getOrDefault(locationId, 0L);
+            } else if (!row.performedAt().equals(sameInstant.get(0).performedAt())) {
+                flush();
+            }
+            sameInstant.add(row);
+        }
+
+        void finish() {
+            if (locationId != null) {
+                flush();
+                chainBalances.put(locationId, balance);
+            }
+        }
+
+        private void flush() {
+            while (!sameInstant.isEmpty()) {
+                int next = 0;
+                for (int i = 0; i < sameInstant.size(); i++) {
+                    LedgerChainRow candidate = sameInstant.get(i);
+                    if (candidate.runningBalance() == balance + candidate.delta()) {
+                        next = i;
+                        break;
+                    }
+                }
+                LedgerChainRow row = sameInstant.remove(next);
+                long expected = balance + row.delta();
+                if (row.runningBalance() != expected) {
+                    if (expected < 0) {
+                        run.negativeRows.incrementAndGet();
+                        run.addIssue(new Issue(IssueType.NEGATIVE_BALANCE, productId, locationId, row.id(),
+                                row.runningBalance(), expected));
+                    } else {
+                        run.inconsistentRows.incrementAndGet();
+                        run.addIssue(new Issue(IssueType.RUNNING_BALANCE, productId, locationId, row.id(),
+                                row.runningBalance(), expected));
+                        repairs.put(row.id(), (int) expected);
+                    }
+                }
+                balance = expected;
+            }
+        }
+    }
+
+    /**
+     * Rewrite running balances in short transactions; updates are sent as JDBC
+     * batches (hibernate.jdbc.batch_size).
+     */
+    private void repair(Run run, Map<UUID, Integer> repairs) {
+        List<UUID> ids = new ArrayList<>(repairs.keySet());
+        for (int start = 0; start < ids.size(); start += repairBatchSize) {
+            List<UUID> chunk = ids.subList(start, Math.min(start + repairBatchSize, ids.size()));
+            writeTransaction.executeWithoutResult(status -> {
+                List<StockLedger> entries = stockLedgerRepository.findAllById(chunk);
+                entries.forEach(e -> e.setRunningBalance(repairs.get(e.getId())));
+                stockLedgerRepository.saveAll(entries);
+            });
+            run.repairedRows.addAndGet(chunk.size());
+        }
+    }
+
+    /**
+     * Mutable progress of a run, updated concurrently by the pool workers.
+     */
+    private static class Run {
+
+        final UUID id = UUID.randomUUID();
+        final boolean repair;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicInteger processedProducts = new AtomicInteger();
+        final LongAdder rowsScanned = new LongAdder();
+        final AtomicLong pairsChecked = new AtomicLong();
+        final AtomicLong inconsistentRows = new AtomicLong();
+        final AtomicLong negativeRows = new AtomicLong();
+        final AtomicLong repairedRows = new AtomicLong();
+        final AtomicLong balanceMismatches = new AtomicLong();
+        final ConcurrentLinkedQueue<Issue> sampleIssues = new ConcurrentLinkedQueue<>();
+        final AtomicInteger sampled = new AtomicInteger();
+        volatile int totalProducts;
+        volatile RunStatus status = RunStatus.RUNNING;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        Run(boolean repair) {
+            this.repair = repair;
+        }
+
+        void addIssue(Issue issue) {
+            if (sampled.getAndIncrement() < MAX_SAMPLE_ISSUES) {
+                sampleIssues.add(issue);
+            }
+        }
+
+        void finish(RunStatus status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        IntegrityStatus snapshot() {
+            return new IntegrityStatus(id, status, repair, startedAt, finishedAt, totalProducts,
+                    processedProducts.get(), rowsScanned.sum(), pairsChecked.get(), inconsistentRows.get(),
+                    negativeRows.get(), repairedRows.get(), balanceMismatches.get(), error,
+                    List.copyOf(sampleIssues));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package org.example.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.ChariotRow;
+import org.example.backend.dto.projection.TaskStatusCount;
+import org.example.backend.enums.BackpressurePolicy;
+import org.example.backend.enums.ChariotStatus;
+import org.example.backend.enums.LiveTopic;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.event.ChariotStatusChangedEvent;
+import org.example.backend.event.LowStockEvent;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.event.TaskStatusChangedEvent;
+import org.example.backend.repository.ChariotRepository;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.service.LiveFeedService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Fan-out of live events to SSE subscribers.
+ * <p>
+ * Every event is serialized once into an SSE frame that all subscribers share.
+ * Producers only append the frame to each subscriber's bounded queue; a small
+ * writer pool drains the queues, one subscriber at a time per thread, so a
+ * request thread or the stock event bus never waits on a socket. A subscriber
+ * whose queue overflows is disconnected (the browser's EventSource reconnects
+ * and starts again from a snapshot).
+ * <p>
+ * Writes are blocking servlet I/O: a client that stops reading holds one writer
+ * thread until its socket times out, while its queue fills up and gets it
+ * dropped.
+ */
+@Service
+@Slf4j
+public class LiveFeedServiceImpl implements LiveFeedService {
+
+    /** Frames written per turn before the writer moves on to another subscriber. */
+    private static final int DRAIN_BATCH = 64;
+
+    private final ObjectMapper objectMapper;
+    private final StockEventBus stockEventBus;
+    private final TransactionRepository transactionRepository;
+    private final ChariotRepository chariotRepository;
+    private final StockBalanceRepository stockBalanceRepository;
+    private final long emitterTimeoutMs;
+    private final int queueCapacity;
+    private final long snapshotIntervalMs;
+    private final ExecutorService writers;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<LiveTopic, CachedFrame> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+    private StockEventBus.Subscription stockSubscription;
+
+    public LiveFeedServiceImpl(ObjectMapper objectMapper,
+            StockEventBus stockEventBus,
+            TransactionRepository transactionRepository,
+            ChariotRepository chariotRepository,
+            StockBalanceRepository stockBalanceRepository,
+            @Value("${stock.live.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${stock.live.queue-size:1024}") int queueCapacity,
+            @Value("${stock.live.snapshot-interval-ms:30000}") long snapshotIntervalMs,
+            @Value("${stock.live.writer-threads:4}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.stockEventBus = stockEventBus;
+        this.transactionRepository = transactionRepository;
+        this.chariotRepository = chariotRepository;
+        this.stockBalanceRepository = stockBalanceRepository;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.queueCapacity = queueCapacity;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "live-feed-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void subscribeToStockEvents() {
+        stockSubscription = stockEventBus.subscribe("live-feed", BackpressurePolicy.DROP,
+                event -> broadcast(LiveTopic.STOCK, "stock", event));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (stockSubscription != null) {
+            stockSubscription.close();
+        }
+        subscribers.forEach(Subscriber::drop);
+        writers.shutdown();
+    }
+
+    @Override
+    public SseEmitter subscribe(Set<LiveTopic> topics) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, EnumSet.copyOf(topics));
+        emitter.onCompletion(subscriber::disconnect);
+        emitter.onError(e -> subscriber.disconnect());
+        emitter.onTimeout(() -> {
+            subscriber.disconnect();
+            emitter.complete();
+        });
+
+        // Register first, so no change committed while the snapshot is built is missed
+        subscribers.add(subscriber);
+        for (LiveTopic topic : subscriber.topics) {
+            subscriber.offer(snapshotFrame(topic, false));
+        }
+        return emitter;
+    }
+
+    @Override
+    public LiveFeedStats getStats() {
+        Map<LiveTopic, Integer> byTopic = new EnumMap<>(LiveTopic.class);
+        for (LiveTopic topic : LiveTopic.values()) {
+            byTopic.put(topic, (int) subscribers.stream().filter(s -> s.topics.contains(topic)).count());
+        }
+        return new LiveFeedStats(subscribers.size(), byTopic, eventIds.get(), framesSent.get(), dropped.get(),
+                disconnected.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskStatusChanged(TaskStatusChangedEvent event) {
+        broadcast(LiveTopic.TASKS, "task", event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChariotStatusChanged(ChariotStatusChangedEvent event) {
+        broadcast(LiveTopic.CHARIOTS, "chariot", event);
+    }
+
+    @EventListener
+    public void onLowStock(LowStockEvent event) {
+        broadcast(LiveTopic.STOCK, "low-stock", event);
+    }
+
+    /**
+     * Periodic snapshot; also keeps idle connections from being closed by
+     * proxies.
+     */
+    @Scheduled(initialDelayString = "${stock.live.snapshot-interval-ms:30000}",
+            fixedDelayString = "${stock.live.snapshot-interval-ms:30000}")
+    public void publishSnapshots() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (LiveTopic topic : LiveTopic.values()) {
+            if (subscribers.stream().anyMatch(s -> s.topics.contains(topic))) {
+                Set<DataWithMediaType> frame = snapshotFrame(topic, true);
+                subscribers.stream().filter(s -> s.topics.contains(topic)).forEach(s -> s.offer(frame));
+            }
+        }
+    }
+
+    private void broadcast(LiveTopic topic, String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> frame = frame(name, payload);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.topics.contains(topic)) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    /**
+     * Snapshot frame of a topic. Reused for up to one snapshot interval, so a wave
+     * of reconnecting clients costs one set of queries.
+     */
+    private Set<DataWithMediaType> snapshotFrame(LiveTopic topic, boolean refresh) {
+        long now = System.currentTimeMillis();
+        CachedFrame cached = snapshots.get(topic);
+        if (!refresh && cached != null && now - cached.builtAt < snapshotIntervalMs) {
+            return cached.frame;
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("topic", topic);
+        snapshot.put("at", LocalDateTime.now());
+        switch (topic) {
+            case STOCK -> {
+                snapshot.put("movementsPublished", stockEventBus.getPublishedCount());
+                snapshot.put("warehouses", stockBalanceRepository.sumByWarehouse());
+            }
+            case TASKS -> {
+                Map<TransactionStatus, Long> counts = new EnumMap<>(TransactionStatus.class);
+                for (TaskStatusCount count : transactionRepository.countGroupedByStatus()) {
+                    counts.put(count.status(), count.count());
+                }
+                snapshot.put("counts", counts);
+                snapshot.put("active", transactionRepository.findActiveTaskRows(TransactionStatus.IN_PROGRESS));
+            }
+            case CHARIOTS -> {
+                List<ChariotRow> chariots = chariotRepository.findAllRows();
+                Map<ChariotStatus, Long> counts = chariots.stream().collect(Collectors.groupingBy(
+                        ChariotRow::status, () -> new EnumMap<>(ChariotStatus.class), Collectors.counting()));
+                snapshot.put("counts", counts);
+                snapshot.put("chariots", chariots);
+            }
+        }
+        Set<DataWithMediaType> frame = frame("snapshot", snapshot);
+        snapshots.put(topic, new CachedFrame(frame, now));
+        return frame;
+    }
+
+    private Set<DataWithMediaType> frame(String name, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize live event " + name, e);
+        }
+    }
+
+    private record CachedFrame(Set<DataWithMediaType> frame, long builtAt) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<LiveTopic> topics;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+        /** Set while a drain of this subscriber is queued or running on the writer pool. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean completed;
+
+        private Subscriber(SseEmitter emitter, Set<LiveTopic> topics) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                dropped.incrementAndGet();
+                log.debug("Live feed subscriber dropped: {} frames behind", queue.size());
+                drop();
+                return;
+            }
+            schedule();
+        }
+
+        /** Disconnect from our side; the emitter is completed on a writer thread. */
+        void drop() {
+            closed = true;
+            subscribers.remove(this);
+            schedule();
+        }
+
+        /** The connection is already gone (completed, failed or timed out). */
+        void disconnect() {
+            if (!closed) {
+                disconnected.incrementAndGet();
+            }
+            closed = true;
+            completed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                if (closed) {
+                    complete();
+                    return;
+                }
+                Set<DataWithMediaType> frame;
+                for (int i = 0; i < DRAIN_BATCH && !closed && (frame = queue.poll()) != null; i++) {
+                    emitter.send(frame);
+                    framesSent.incrementAndGet();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away mid-write
+                disconnect();
+            } finally {
+                scheduled.set(false);
+                if ((closed && !completed) || (!closed && !queue.isEmpty())) {
+                    schedule();
+                }
+            }
+        }
+
+        private void complete() {
+            completed = true;
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+}
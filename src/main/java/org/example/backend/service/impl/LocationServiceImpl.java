@@ -1,4 +1,26 @@
 package org.example.backend.service.impl;
 
-public class LocationServiceImpl {
+import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
+import org.example.backend.entity.Location;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.service.LocationService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class LocationServiceImpl implements LocationService {
+
+    private final LocationRepository locationRepository;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.LOCATIONS, key = "#locationId")
+    public Location getLocation(UUID locationId) {
+        return locationRepository.findById(locationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Location not found: " + locationId));
+    }
 }
@@ -0,0 +1,156 @@
+package org.example.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.MovementDayAggregate;
+import org.example.backend.dto.projection.MovementDayTotal;
+import org.example.backend.entity.StockMovementDaily;
+import org.example.backend.entity.StockMovementDailyId;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.repository.StockMovementDailyRepository;
+import org.example.backend.service.MovementRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class MovementRollupServiceImpl implements MovementRollupService {
+
+    private final StockMovementDailyRepository dailyRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long lagMinutes;
+    private final int chunkDays;
+
+    public MovementRollupServiceImpl(StockMovementDailyRepository dailyRepository,
+            StockLedgerRepository stockLedgerRepository,
+            ProductRepository productRepository,
+            LocationRepository locationRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${stock.rollup.lag-minutes:10}") long lagMinutes,
+            @Value("${stock.rollup.chunk-days:31}") int chunkDays) {
+        this.dailyRepository = dailyRepository;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.productRepository = productRepository;
+        this.locationRepository = locationRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lagMinutes = lagMinutes;
+        this.chunkDays = Math.max(1, chunkDays);
+    }
+
+    @Override
+    public synchronized int rollUp() {
+        // Days before this one ended more than lag-minutes ago
+        LocalDate firstOpenDay = LocalDateTime.now().minusMinutes(lagMinutes).toLocalDate();
+        Optional<LocalDate> from = dailyRepository.findLastDay()
+                .map(day -> day.plusDays(1))
+                .or(() -> stockLedgerRepository.findOldestPerformedAt().map(LocalDateTime::toLocalDate));
+        if (from.isEmpty() || !from.get().isBefore(firstOpenDay)) {
+            return 0;
+        }
+
+        int written = rollUpDays(from.get(), firstOpenDay);
+        log.info("Rolled up stock movements of {} to {} ({} rows)", from.get(), firstOpenDay.minusDays(1), written);
+        return written;
+    }
+
+    @Override
+    public synchronized int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidOperationException("Start date must not be after end date");
+        }
+        Optional<LocalDate> lastDay = dailyRepository.findLastDay();
+        if (lastDay.isEmpty()) {
+            return 0;
+        }
+        // Later days belong to the next rollUp, archived ones are no longer in the ledger
+        LocalDate end = to.isAfter(lastDay.get()) ? lastDay.get() : to;
+        LocalDate start = ledgerArchiveRepository.findArchivedUpTo()
+                .map(LocalDateTime::toLocalDate)
+                .filter(from::isBefore)
+                .orElse(from);
+        if (start.isAfter(end)) {
+            return 0;
+        }
+
+        int written = rollUpDays(start, end.plusDays(1));
+        log.info("Rebuilt stock movement rollup of {} to {} ({} rows)", start, end, written);
+        return written;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> getRolledUpThrough() {
+        return dailyRepository.findLastDay();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MovementDayTotal> getDailyTotals(UUID productId, UUID locationId, LocalDate from, LocalDate to) {
+        Optional<LocalDate> lastDay = dailyRepository.findLastDay();
+
+        List<MovementDayTotal> totals = new ArrayList<>();
+        LocalDate tailFrom = from;
+        if (lastDay.isPresent() && !lastDay.get().isBefore(from)) {
+            LocalDate rolledTo = to.isAfter(lastDay.get()) ? lastDay.get() : to;
+            totals.addAll(dailyRepository.sumDailyByType(productId, locationId, from, rolledTo));
+            tailFrom = lastDay.get().plusDays(1);
+        }
+        if (!tailFrom.isAfter(to)) {
+            totals.addAll(stockLedgerRepository.sumDailyByType(productId, locationId,
+                    tailFrom.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+        }
+        totals.sort(Comparator.comparing(MovementDayTotal::day).thenComparing(MovementDayTotal::movementType));
+        return totals;
+    }
+
+    /**
+     * Replace the rollup of the days in {@code [from, to)}, one transaction per
+     * chunk so a long backfill neither holds one huge transaction nor loses all
+     * progress on failure.
+     */
+    private int rollUpDays(LocalDate from, LocalDate to) {
+        int written = 0;
+        for (LocalDate chunkStart = from; chunkStart.isBefore(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays).isBefore(to) ? chunkStart.plusDays(chunkDays) : to;
+            LocalDate start = chunkStart;
+            Integer rows = transactionTemplate.execute(status -> {
+                dailyRepository.deleteByDayBetween(start, chunkEnd);
+                List<MovementDayAggregate> aggregates = stockLedgerRepository.aggregateDaily(
+                        start.atStartOfDay(), chunkEnd.atStartOfDay());
+                dailyRepository.saveAll(aggregates.stream()
+                        .map(a -> StockMovementDaily.builder()
+                                .id(new StockMovementDailyId(a.day(), a.productId(), a.locationId(),
+                                        a.movementType()))
+                                .product(productRepository.getReferenceById(a.productId()))
+                                .location(locationRepository.getReferenceById(a.locationId()))
+                                .totalQuantity(a.quantity())
+                                .movementCount(a.count())
+                                .build())
+                        .toList());
+                return aggregates.size();
+            });
+            written += rows != null ? rows : 0;
+        }
+        return written;
+    }
+}
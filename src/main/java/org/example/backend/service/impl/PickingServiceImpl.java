@@ -8,9 +8,13 @@ import org.example.backend.entity.User;
 import org.example.backend.exception.InvalidOperationException;
 import org.example.backend.service.PickingService;
 import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLedgerService.Movement;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,37 +25,17 @@ public class PickingServiceImpl implements PickingService {
 
     @Override
     public void processPickingLine(Transaction transaction, TransactionLine line, User performer) {
-        if (line.getSourceLocation() == null) {
-            throw new InvalidOperationException(
-                    "Picking line " + line.getLineNumber() + " must have a source (storage) location");
-        }
-        if (line.getDestinationLocation() == null) {
-            throw new InvalidOperationException(
-                    "Picking line " + line.getLineNumber() + " must have a destination (picking rack) location");
-        }
+        validateLine(line);
 
         log.info("Processing picking line {}: product={}, qty={}, from={} -> to={}",
                 line.getLineNumber(), line.getProduct().getSku(), line.getQuantity(),
                 line.getSourceLocation().getCode(), line.getDestinationLocation().getCode());
 
-        // Validate stock availability at storage location
-        stockLedgerService.validateStockAvailability(
-                line.getProduct().getId(),
-                line.getSourceLocation().getId(),
-                line.getQuantity());
-
-        // Stock OUT from storage location
-        stockLedgerService.recordStockOut(
+        // OUT at the source and IN at the destination under one lock; the
+        // availability check happens once the source row is locked
+        stockLedgerService.move(
                 line.getProduct(),
                 line.getSourceLocation(),
-                line.getQuantity(),
-                transaction,
-                line,
-                performer);
-
-        // Stock IN at picking rack location
-        stockLedgerService.recordStockIn(
-                line.getProduct(),
                 line.getDestinationLocation(),
                 line.getQuantity(),
                 transaction,
@@ -62,8 +46,25 @@ public class PickingServiceImpl implements PickingService {
     @Override
     public void processPicking(Transaction transaction, User performer) {
         log.info("Processing full picking transaction: {}", transaction.getReference());
+
+        List<Movement> movements = new ArrayList<>();
         for (TransactionLine line : transaction.getTransactionLines()) {
-            processPickingLine(transaction, line, performer);
+            validateLine(line);
+            // Availability is checked in order by the batch itself
+            movements.addAll(Movement.transfer(line.getProduct(), line.getSourceLocation(),
+                    line.getDestinationLocation(), line.getQuantity(), transaction, line, performer));
+        }
+        stockLedgerService.recordBatch(movements);
+    }
+
+    private void validateLine(TransactionLine line) {
+        if (line.getSourceLocation() == null) {
+            throw new InvalidOperationException(
+                    "Picking line " + line.getLineNumber() + " must have a source (storage) location");
+        }
+        if (line.getDestinationLocation() == null) {
+            throw new InvalidOperationException(
+                    "Picking line " + line.getLineNumber() + " must have a destination (picking rack) location");
         }
     }
 }
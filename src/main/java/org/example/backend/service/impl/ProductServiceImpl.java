@@ -1,4 +1,41 @@
 package org.example.backend.service.impl;
 
-public class ProductServiceImpl {
+import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
+import org.example.backend.entity.Product;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.ProductBarcodeRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.service.ProductService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class ProductServiceImpl implements ProductService {
+
+    private final ProductRepository productRepository;
+    private final ProductBarcodeRepository productBarcodeRepository;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#productId")
+    public Product getProduct(UUID productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BARCODES, key = "#barcode", unless = "#result == null")
+    public Optional<UUID> findProductIdByBarcode(String barcode) {
+        return productBarcodeRepository.findProductIdByBarcode(barcode);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.SKUS, key = "#sku", unless = "#result == null")
+    public Optional<UUID> findProductIdBySku(String sku) {
+        return productRepository.findIdBySku(sku);
+    }
 }
@@ -8,9 +8,13 @@ import org.example.backend.entity.User;
 import org.example.backend.exception.InvalidOperationException;
 import org.example.backend.service.ReceiptService;
 import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLedgerService.Movement;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,10 +25,7 @@ public class ReceiptServiceImpl implements ReceiptService {
 
     @Override
     public void processReceiptLine(Transaction transaction, TransactionLine line, User performer) {
-        if (line.getDestinationLocation() == null) {
-            throw new InvalidOperationException(
-                    "Receipt line " + line.getLineNumber() + " must have a destination location");
-        }
+        validateLine(line);
 
         log.info("Processing receipt line {}: product={}, qty={}, dest={}",
                 line.getLineNumber(), line.getProduct().getSku(),
@@ -43,8 +44,22 @@ public class ReceiptServiceImpl implements ReceiptService {
     @Override
     public void processReceipt(Transaction transaction, User performer) {
         log.info("Processing full receipt transaction: {}", transaction.getReference());
+
+        // All lines go through a single batch: one lock per (product, location)
+        // and batched ledger inserts instead of one round-trip per line
+        List<Movement> movements = new ArrayList<>();
         for (TransactionLine line : transaction.getTransactionLines()) {
-            processReceiptLine(transaction, line, performer);
+            validateLine(line);
+            movements.add(Movement.in(line.getProduct(), line.getDestinationLocation(), line.getQuantity(),
+                    transaction, line, performer));
+        }
+        stockLedgerService.recordBatch(movements);
+    }
+
+    private void validateLine(TransactionLine line) {
+        if (line.getDestinationLocation() == null) {
+            throw new InvalidOperationException(
+                    "Receipt line " + line.getLineNumber() + " must have a destination location");
         }
     }
 }
@@ -0,0 +1,379 @@
+package org.example.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.example.backend.enums.ExportFormat;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.service.LedgerExportService;
+import org.example.backend.service.ReportJobService;
+import org.example.backend.service.UserProductivityService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@Slf4j
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final String[] PRODUCTIVITY_HEADER = { "userId", "fullName", "username", "tasksCompleted",
+            "linesExecuted", "discrepanciesReported", "activeMinutes", "openDiscrepancies" };
+    private static final int GZIP_BUFFER = 64 * 1024;
+    /** Files written by this service: {@code <job id>.gz} and {@code <job id>.part}. */
+    private static final Pattern JOB_FILE = Pattern.compile("[0-9a-f-]{36}\\.(gz|part)");
+
+    private final LedgerExportService ledgerExportService;
+    private final UserProductivityService userProductivityService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    /** Queued and running jobs by spec, for deduplication. */
+    private final Map<ReportSpec, Job> inFlight = new ConcurrentHashMap<>();
+
+    public ReportJobServiceImpl(LedgerExportService ledgerExportService,
+            UserProductivityService userProductivityService,
+            ObjectMapper objectMapper,
+            @Value("${stock.reports.directory:./data/reports}") String directory,
+            @Value("${stock.reports.workers:2}") int workers,
+            @Value("${stock.reports.queue-size:20}") int queueSize,
+            @Value("${stock.reports.retention-hours:24}") long retentionHours) throws IOException {
+        this.ledgerExportService = ledgerExportService;
+        this.userProductivityService = userProductivityService;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.retention = Duration.ofHours(retentionHours);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), task -> {
+                    Thread thread = new Thread(task, "report-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        // Jobs only live in memory, so files of a previous run can no longer be downloaded
+        if (Files.isDirectory(this.directory)) {
+            try (Stream<Path> files = Files.list(this.directory)) {
+                files.filter(f -> JOB_FILE.matcher(f.getFileName().toString()).matches()).forEach(this::deleteQuietly);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ReportJob submit(ReportSpec spec, String requestedBy) {
+        validate(spec);
+
+        Job created = new Job(spec, requestedBy);
+        Job job = inFlight.computeIfAbsent(spec, s -> created);
+        if (job != created) {
+            return job.view();
+        }
+
+        jobs.put(created.id, created);
+        try {
+            created.future = executor.submit(() -> run(created));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(spec, created);
+            jobs.remove(created.id);
+            throw new InvalidOperationException("Too many report jobs queued, try again later");
+        }
+        log.info("Report job {} queued by {}: {}", created.id, requestedBy, spec);
+        return created.view();
+    }
+
+    @Override
+    public ReportJob getJob(UUID jobId) {
+        return find(jobId).view();
+    }
+
+    @Override
+    public List<ReportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job j) -> j.createdAt).reversed())
+                .map(Job::view)
+                .toList();
+    }
+
+    @Override
+    public ReportJob cancel(UUID jobId) {
+        Job job = find(jobId);
+        synchronized (job) {
+            if (job.status == JobStatus.QUEUED) {
+                job.finish(JobStatus.CANCELLED, null);
+                if (job.future != null) {
+                    job.future.cancel(false);
+                }
+                inFlight.remove(job.spec, job);
+            } else if (job.status == JobStatus.RUNNING) {
+                // Picked up by the job's output stream on its next write
+                job.cancelRequested = true;
+            }
+        }
+        return job.view();
+    }
+
+    @Override
+    public Path getResultFile(UUID jobId) {
+        Job job = find(jobId);
+        if (job.status != JobStatus.COMPLETED) {
+            throw new InvalidOperationException("Report job " + jobId + " is " + job.status);
+        }
+        return resultFile(job);
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${stock.reports.cleanup-interval-ms:3600000}",
+            fixedDelayString = "${stock.reports.cleanup-interval-ms:3600000}")
+    public int purgeExpired() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(retention);
+        int removed = 0;
+        for (Job job : jobs.values()) {
+            if (job.finishedAt != null && job.finishedAt.isBefore(expiredBefore) && jobs.remove(job.id, job)) {
+                deleteQuietly(resultFile(job));
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Purged {} expired report jobs", removed);
+        }
+        return removed;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+        Path part = directory.resolve(job.id + ".part");
+        try {
+            Files.createDirectories(directory);
+            long rows;
+            try (JobOutputStream out = new JobOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(part), GZIP_BUFFER), job)) {
+                rows = write(job.spec, out);
+            }
+            Path file = resultFile(job);
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (job) {
+                job.rows = rows;
+                job.compressedBytes = Files.size(file);
+                job.finish(JobStatus.COMPLETED, null);
+            }
+            log.info("Report job {} completed: {} rows, {} bytes compressed in {} ms", job.id, rows,
+                    job.compressedBytes, Duration.between(job.startedAt, job.finishedAt).toMillis());
+        } catch (CancellationException e) {
+            deleteQuietly(part);
+            synchronized (job) {
+                job.finish(JobStatus.CANCELLED, null);
+            }
+            log.info("Report job {} cancelled", job.id);
+        } catch (Exception e) {
+            deleteQuietly(part);
+            synchronized (job) {
+                job.finish(JobStatus.FAILED, e.getMessage());
+            }
+            log.error("Report job {} failed", job.id, e);
+        } finally {
+            inFlight.remove(job.spec, job);
+        }
+    }
+
+    private long write(ReportSpec spec, OutputStream out) throws IOException {
+        return switch (spec.type()) {
+            case STOCK_MOVEMENTS -> ledgerExportService.export(spec.format(), spec.productId(), spec.locationId(),
+                    spec.startDate().atStartOfDay(), spec.endDate().plusDays(1).atStartOfDay(), out);
+            case USER_PRODUCTIVITY -> writeRows(spec.format(), PRODUCTIVITY_HEADER, productivityRows(spec), out);
+        };
+    }
+
+    private List<Map<String, Object>> productivityRows(ReportSpec spec) {
+        return userProductivityService.getReport(spec.startDate(), spec.endDate(), spec.userId()).stream()
+                .map(user -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("userId", user.userId());
+                    row.put("fullName", user.fullName());
+                    row.put("username", user.username());
+                    row.put("tasksCompleted", user.tasksCompleted());
+                    row.put("linesExecuted", user.linesExecuted());
+                    row.put("discrepanciesReported", user.discrepanciesReported());
+                    row.put("activeMinutes", user.activeMinutes());
+                    row.put("openDiscrepancies", user.openDiscrepancies());
+                    return row;
+                })
+                .toList();
+    }
+
+    private long writeRows(ExportFormat format, String[] header, List<Map<String, Object>> rows, OutputStream out)
+            throws IOException {
+        if (format == ExportFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.RFC4180.builder().setHeader(header).build());
+            for (Map<String, Object> row : rows) {
+                printer.printRecord(row.values());
+            }
+            printer.flush();
+        } else {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                for (Map<String, Object> row : rows) {
+                    objectMapper.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+        return rows.size();
+    }
+
+    private static void validate(ReportSpec spec) {
+        if (spec.type() == null || spec.format() == null || spec.startDate() == null || spec.endDate() == null) {
+            throw new InvalidOperationException("Report type, format, start date and end date are required");
+        }
+        if (spec.startDate().isAfter(spec.endDate())) {
+            throw new InvalidOperationException("Start date must not be after end date");
+        }
+        if (spec.type() == ReportType.USER_PRODUCTIVITY && (spec.productId() != null || spec.locationId() != null)) {
+            throw new InvalidOperationException("Product and location filters do not apply to " + spec.type());
+        }
+        if (spec.type() == ReportType.STOCK_MOVEMENTS && spec.userId() != null) {
+            throw new InvalidOperationException("The user filter does not apply to " + spec.type());
+        }
+    }
+
+    private Job find(UUID jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private Path resultFile(Job job) {
+        return directory.resolve(job.id + ".gz");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Job {
+
+        private final UUID id = UUID.randomUUID();
+        private final ReportSpec spec;
+        private final String requestedBy;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile boolean cancelRequested;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long rows;
+        private volatile long compressedBytes;
+        private volatile String error;
+        private volatile Future<?> future;
+
+        private Job(ReportSpec spec, String requestedBy) {
+            this.spec = spec;
+            this.requestedBy = requestedBy;
+        }
+
+        /** Caller holds the job's monitor. */
+        private void finish(JobStatus finalStatus, String message) {
+            status = finalStatus;
+            error = message;
+            finishedAt = LocalDateTime.now();
+        }
+
+        private String fileName() {
+            String extension = spec.format() == ExportFormat.CSV ? "csv" : "ndjson";
+            return spec.type().name().toLowerCase().replace('_', '-') + "-" + spec.startDate() + "-"
+                    + spec.endDate() + "." + extension + ".gz";
+        }
+
+        private synchronized ReportJob view() {
+            return new ReportJob(id, spec, status, requestedBy, createdAt, startedAt, finishedAt, rows,
+                    bytesWritten.get(), compressedBytes, fileName(), error);
+        }
+    }
+
+    /** Counts what the report writes and aborts it once the job is cancelled. */
+    private static final class JobOutputStream extends FilterOutputStream {
+
+        private final Job job;
+
+        private JobOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkCancelled();
+            out.write(b);
+            job.bytesWritten.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            out.write(b, off, len);
+            job.bytesWritten.addAndGet(len);
+        }
+
+        private void checkCancelled() {
+            if (job.cancelRequested) {
+                throw new CancellationException("Report job " + job.id + " cancelled");
+            }
+        }
+    }
+}
@@ -1,25 +1,78 @@
 package org.example.backend.service.impl;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.BalanceVersion;
 import org.example.backend.entity.*;
+import org.example.backend.enums.BalanceLockingMode;
 import org.example.backend.enums.MovementType;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.event.StockMovedEvent;
 import org.example.backend.exception.InsufficientStockException;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockBalanceRepository;
 import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.StockBalanceEngine;
 import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLockMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class StockLedgerServiceImpl implements StockLedgerService {
 
+    /** Lower bound of the archive read when rebuilding balances. */
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final StockLedgerRepository stockLedgerRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final StockBalanceRepository stockBalanceRepository;
+    private final ProductRepository productRepository;
+    private final LocationRepository locationRepository;
+    private final StockBalanceEngine stockBalanceEngine;
+    private final StockLockMetrics stockLockMetrics;
+    private final StockEventBus stockEventBus;
+    private final BalanceLockingMode lockingMode;
+    private final int optimisticMaxAttempts;
+    private final long optimisticBackoffMs;
+
+    public StockLedgerServiceImpl(StockLedgerRepository stockLedgerRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            StockBalanceRepository stockBalanceRepository,
+            ProductRepository productRepository,
+            LocationRepository locationRepository,
+            StockBalanceEngine stockBalanceEngine,
+            StockLockMetrics stockLockMetrics,
+            StockEventBus stockEventBus,
+            @Value("${stock.ledger.locking:pessimistic}") String lockingMode,
+            @Value("${stock.ledger.optimistic.max-attempts:5}") int optimisticMaxAttempts,
+            @Value("${stock.ledger.optimistic.backoff-ms:5}") long optimisticBackoffMs) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.stockBalanceRepository = stockBalanceRepository;
+        this.productRepository = productRepository;
+        this.locationRepository = locationRepository;
+        this.stockBalanceEngine = stockBalanceEngine;
+        this.stockLockMetrics = stockLockMetrics;
+        this.stockEventBus = stockEventBus;
+        this.lockingMode = BalanceLockingMode.valueOf(lockingMode.toUpperCase());
+        this.optimisticMaxAttempts = optimisticMaxAttempts;
+        this.optimisticBackoffMs = optimisticBackoffMs;
+        log.info("Stock balance locking mode: {}", this.lockingMode);
+    }
 
     @Override
     public StockLedger recordStockIn(Product product, Location location, int quantity,
@@ -27,11 +80,7 @@ public class StockLedgerServiceImpl implements StockLedgerService {
         log.info("Recording stock IN: product={}, location={}, qty={}, txn={}",
                 product.getSku(), location.getCode(), quantity, transaction.getReference());
 
-        int currentBalance = getBalanceWithLock(product.getId(), location.getId());
-        int newBalance = currentBalance + quantity;
-
-        return createLedgerEntry(product, location, transaction, transactionLine,
-                MovementType.IN, quantity, newBalance, performedBy);
+        return record(Movement.in(product, location, quantity, transaction, transactionLine, performedBy));
     }
 
     @Override
@@ -40,17 +89,7 @@ public class StockLedgerServiceImpl implements StockLedgerService {
         log.info("Recording stock OUT: product={}, location={}, qty={}, txn={}",
                 product.getSku(), location.getCode(), quantity, transaction.getReference());
 
-        int currentBalance = getBalanceWithLock(product.getId(), location.getId());
-        int newBalance = currentBalance - quantity;
-
-        if (newBalance < 0) {
-            throw new InsufficientStockException(
-                    String.format("Insufficient stock for product %s at location %s. Available: %d, Requested: %d",
-                            product.getSku(), location.getCode(), currentBalance, quantity));
-        }
-
-        return createLedgerEntry(product, location, transaction, transactionLine,
-                MovementType.OUT, quantity, newBalance, performedBy);
+        return record(Movement.out(product, location, quantity, transaction, transactionLine, performedBy));
     }
 
     @Override
@@ -59,26 +98,79 @@ public class StockLedgerServiceImpl implements StockLedgerService {
         log.info("Recording stock ADJUSTMENT: product={}, location={}, qty={}, txn={}",
                 product.getSku(), location.getCode(), quantity, transaction.getReference());
 
-        int currentBalance = getBalanceWithLock(product.getId(), location.getId());
-        int newBalance = currentBalance + quantity;
+        return record(Movement.adjustment(product, location, quantity, transaction, transactionLine, performedBy));
+    }
 
-        if (newBalance < 0) {
-            throw new InsufficientStockException(
-                    String.format(
-                            "Adjustment would result in negative stock for product %s at location %s. Balance: %d, Adjustment: %d",
-                            product.getSku(), location.getCode(), currentBalance, quantity));
+    @Override
+    public List<StockLedger> recordBatch(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return List.of();
+        }
+        log.info("Recording stock batch: {} movements, txn={}",
+                movements.size(), movements.get(0).transaction().getReference());
+
+        // Movement indexes per pair, in list order
+        Map<StockBalanceId, List<Integer>> movementsByPair = new LinkedHashMap<>();
+        for (int i = 0; i < movements.size(); i++) {
+            movementsByPair.computeIfAbsent(balanceId(movements.get(i)), id -> new ArrayList<>()).add(i);
+        }
+
+        // Net effect per pair, used for the in-memory engine reservation. The engine
+        // asks after commit for the row version each pair was written with.
+        Map<StockBalanceId, LongSupplier> writtenVersions = new HashMap<>();
+        movementsByPair.forEach((id, indexes) -> {
+            Movement first = movements.get(indexes.get(0));
+            int netDelta = indexes.stream().mapToInt(i -> movements.get(i).delta()).sum();
+            applyToEngine(first.product(), first.location(), netDelta,
+                    () -> writtenVersions.get(id).getAsLong());
+        });
+
+        int[] runningBalances = new int[movements.size()];
+        if (lockingMode == BalanceLockingMode.OPTIMISTIC) {
+            for (StockBalanceId id : canonicalOrder(movementsByPair.keySet())) {
+                long version = applyOptimistically(id, movements, movementsByPair.get(id), runningBalances);
+                writtenVersions.put(id, () -> version);
+            }
+        } else {
+            Map<StockBalanceId, StockBalance> balances = lockBalances(movements, movementsByPair);
+            movementsByPair.forEach((id, indexes) -> {
+                StockBalance balance = balances.get(id);
+                balance.setQuantity(applyMovements(balance.getQuantity(), movements, indexes, runningBalances));
+                // Bumped by the flush at commit
+                writtenVersions.put(id, balance::getVersion);
+            });
+        }
+
+        List<StockLedger> entries = new ArrayList<>(movements.size());
+        for (int i = 0; i < movements.size(); i++) {
+            entries.add(buildLedgerEntry(movements.get(i), runningBalances[i]));
         }
+        List<StockLedger> saved = stockLedgerRepository.saveAll(entries);
 
-        return createLedgerEntry(product, location, transaction, transactionLine,
-                MovementType.ADJUSTMENT, quantity, newBalance, performedBy);
+        // Snapshot now (entities may be detached later), publish only once committed
+        List<StockMovedEvent> events = saved.stream().map(StockMovedEvent::of).toList();
+        afterCommit(() -> events.forEach(stockEventBus::publish));
+        return saved;
+    }
+
+    @Override
+    public List<StockLedger> move(Product product, Location from, Location to, int quantity,
+            Transaction transaction, TransactionLine transactionLine, User performedBy) {
+        List<Movement> movements = Movement.transfer(product, from, to, quantity, transaction, transactionLine,
+                performedBy);
+        log.info("Recording stock MOVE: product={}, from={}, to={}, qty={}, txn={}",
+                product.getSku(), from.getCode(), to.getCode(), quantity, transaction.getReference());
+
+        return recordBatch(movements);
     }
 
     @Override
     @Transactional(readOnly = true)
     public int getCurrentBalance(UUID productId, UUID locationId) {
-        return stockLedgerRepository.findLatestByProductAndLocation(productId, locationId)
-                .map(StockLedger::getRunningBalance)
-                .orElse(0);
+        if (stockBalanceEngine.isActive()) {
+            return stockBalanceEngine.getBalance(productId, locationId);
+        }
+        return stockBalanceRepository.findQuantity(productId, locationId).orElse(0);
     }
 
     @Override
@@ -91,30 +183,228 @@ public class StockLedgerServiceImpl implements StockLedgerService {
         }
     }
 
+    @Override
+    public int rebuildBalances() {
+        log.info("Rebuilding stock_balance from the ledger archive and stock_ledger");
+        stockBalanceRepository.deleteAllInBatch();
+
+        // Archived months are no longer in stock_ledger: their net effect per pair
+        // is the opening balance the remaining entries add to
+        Map<StockBalanceId, Long> sums = new LinkedHashMap<>();
+        ledgerArchiveRepository.findArchivedUpTo().ifPresent(upTo -> ledgerArchiveRepository
+                .aggregateBalancesBetweenInScope(null, null, null, LEDGER_START, upTo)
+                .forEach(a -> sums.merge(new StockBalanceId(a.productId(), a.locationId()), a.quantity(), Long::sum)));
+        stockLedgerRepository.aggregateBalances()
+                .forEach(a -> sums.merge(new StockBalanceId(a.productId(), a.locationId()), a.quantity(), Long::sum));
+
+        List<StockBalance> balances = sums.entrySet().stream()
+                .map(e -> StockBalance.builder()
+                        .id(e.getKey())
+                        .product(productRepository.getReferenceById(e.getKey().getProductId()))
+                        .location(locationRepository.getReferenceById(e.getKey().getLocationId()))
+                        .quantity(e.getValue().intValue())
+                        .build())
+                .toList();
+        stockBalanceRepository.saveAll(balances);
+
+        log.info("Rebuilt {} stock balance rows", balances.size());
+        afterCommit(stockBalanceEngine::reload);
+        return balances.size();
+    }
+
     /**
-     * Get balance using pessimistic lock for write operations.
+     * Mirror a movement in the in-memory engine when it is enabled, failing fast
+     * on FR-24 before any row is locked once it is loaded.
      */
-    private int getBalanceWithLock(UUID productId, UUID locationId) {
-        return stockLedgerRepository.findLatestByProductAndLocationForUpdate(productId, locationId)
-                .map(StockLedger::getRunningBalance)
-                .orElse(0);
-    }
-
-    private StockLedger createLedgerEntry(Product product, Location location, Transaction transaction,
-            TransactionLine transactionLine, MovementType movementType,
-            int quantity, int runningBalance, User performedBy) {
-        StockLedger entry = StockLedger.builder()
-                .product(product)
-                .location(location)
-                .transaction(transaction)
-                .transactionLine(transactionLine)
-                .movementType(movementType)
-                .quantity(quantity)
+    private void applyToEngine(Product product, Location location, int delta, LongSupplier writtenVersion) {
+        if (!stockBalanceEngine.isEnabled() || delta == 0) {
+            return;
+        }
+        try {
+            stockBalanceEngine.apply(product.getId(), location.getId(), delta, writtenVersion);
+        } catch (InsufficientStockException e) {
+            throw new InsufficientStockException(
+                    String.format("Insufficient stock for product %s at location %s. Available: %d, Requested: %d",
+                            product.getSku(), location.getCode(),
+                            stockBalanceEngine.getBalance(product.getId(), location.getId()), -delta));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private StockLedger record(Movement movement) {
+        return recordBatch(List.of(movement)).get(0);
+    }
+
+    /**
+     * Apply the movements of one pair in order, starting from {@code balance},
+     * and fill in their running balances.
+     *
+     * @return the final balance of the pair
+     */
+    private int applyMovements(int balance, List<Movement> movements, List<Integer> indexes,
+            int[] runningBalances) {
+        for (int i : indexes) {
+            Movement movement = movements.get(i);
+            int newBalance = balance + movement.delta();
+            if (newBalance < 0) {
+                throw insufficientStock(movement, balance);
+            }
+            runningBalances[i] = newBalance;
+            balance = newBalance;
+        }
+        return balance;
+    }
+
+    /**
+     * Lock the balance rows touched by a batch, creating missing ones. Products
+     * are locked in canonical order and all locations of a product in a single
+     * ordered statement, so two batches touching the same pairs (e.g. opposite
+     * transfers) cannot deadlock. Missing rows of a product are upserted and
+     * locked before moving on to the next product, so a concurrent first
+     * movement on the same pair waits for the row instead of failing.
+     */
+    private Map<StockBalanceId, StockBalance> lockBalances(List<Movement> movements,
+            Map<StockBalanceId, List<Integer>> movementsByPair) {
+        Map<UUID, List<UUID>> locationsByProduct = new LinkedHashMap<>();
+        for (StockBalanceId id : canonicalOrder(movementsByPair.keySet())) {
+            locationsByProduct.computeIfAbsent(id.getProductId(), p -> new ArrayList<>()).add(id.getLocationId());
+        }
+
+        Map<StockBalanceId, StockBalance> balances = new HashMap<>();
+        locationsByProduct.forEach((productId, locationIds) -> {
+            long start = System.nanoTime();
+            lockRows(productId, locationIds, balances);
+
+            List<UUID> missing = locationIds.stream()
+                    .filter(locationId -> !balances.containsKey(new StockBalanceId(productId, locationId)))
+                    .toList();
+            if (!missing.isEmpty()) {
+                // Concurrent first writers may both get here; one insert wins
+                LocalDateTime now = LocalDateTime.now();
+                missing.forEach(locationId -> stockBalanceRepository.insertZeroIfAbsent(productId, locationId, now));
+                lockRows(productId, missing, balances);
+            }
+
+            // One wait per product, shared by the locations locked together
+            List<Movement> firsts = locationIds.stream()
+                    .map(locationId -> movements.get(movementsByPair.get(new StockBalanceId(productId, locationId))
+                            .get(0)))
+                    .toList();
+            stockLockMetrics.recordLockedWrites(BalanceLockingMode.PESSIMISTIC, firsts.get(0).product(),
+                    firsts.stream().map(Movement::location).toList(), System.nanoTime() - start);
+        });
+        return balances;
+    }
+
+    private void lockRows(UUID productId, List<UUID> locationIds, Map<StockBalanceId, StockBalance> balances) {
+        for (StockBalance balance : stockBalanceRepository.findByProductIdAndLocationIdsForUpdate(productId,
+                locationIds)) {
+            balances.put(balance.getId(), balance);
+        }
+    }
+
+    /**
+     * Optimistic write of one pair: read quantity and version without locking,
+     * then update only if the version is unchanged. On conflict the pair is
+     * re-read and retried after a jittered backoff. Once updated, the row stays
+     * locked by this transaction, so pairs already written are never redone.
+     * <p>
+     * Needs READ COMMITTED isolation (the PostgreSQL default): under MySQL's
+     * REPEATABLE READ a retry would keep reading the same snapshot.
+     *
+     * @return the row version written
+     */
+    private long applyOptimistically(StockBalanceId id, List<Movement> movements, List<Integer> indexes,
+            int[] runningBalances) {
+        Movement first = movements.get(indexes.get(0));
+        long start = System.nanoTime();
+
+        for (int attempt = 1;; attempt++) {
+            BalanceVersion current = stockBalanceRepository
+                    .findQuantityAndVersion(id.getProductId(), id.getLocationId())
+                    .orElseGet(() -> {
+                        // Concurrent first writers may both get here; one insert wins
+                        stockBalanceRepository.insertZeroIfAbsent(id.getProductId(), id.getLocationId(),
+                                LocalDateTime.now());
+                        return stockBalanceRepository.findQuantityAndVersion(id.getProductId(), id.getLocationId())
+                                .orElseThrow();
+                    });
+            int newBalance = applyMovements(current.quantity(), movements, indexes, runningBalances);
+
+            if (stockBalanceRepository.updateIfVersion(id.getProductId(), id.getLocationId(), newBalance,
+                    current.version(), LocalDateTime.now()) == 1) {
+                stockLockMetrics.recordWrite(BalanceLockingMode.OPTIMISTIC, first.product(), first.location(),
+                        System.nanoTime() - start, attempt - 1);
+                return current.version() + 1;
+            }
+
+            stockLockMetrics.recordConflict(BalanceLockingMode.OPTIMISTIC, first.product(), first.location());
+            if (attempt >= optimisticMaxAttempts) {
+                log.warn("Giving up on stock balance {} / {} after {} conflicting attempts",
+                        first.product().getSku(), first.location().getCode(), attempt);
+                throw new ObjectOptimisticLockingFailureException(StockBalance.class, id);
+            }
+            backoff(attempt);
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = optimisticBackoffMs << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(1 + ThreadLocalRandom.current().nextLong(ceiling));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ObjectOptimisticLockingFailureException("Interrupted while retrying stock balance update", e);
+        }
+    }
+
+    private List<StockBalanceId> canonicalOrder(Collection<StockBalanceId> ids) {
+        List<StockBalanceId> sorted = new ArrayList<>(ids);
+        sorted.sort(Comparator.comparing(StockBalanceId::getProductId).thenComparing(StockBalanceId::getLocationId));
+        return sorted;
+    }
+
+    private StockBalanceId balanceId(Movement movement) {
+        return new StockBalanceId(movement.product().getId(), movement.location().getId());
+    }
+
+    private InsufficientStockException insufficientStock(Movement movement, int currentBalance) {
+        if (movement.movementType() == MovementType.ADJUSTMENT) {
+            return new InsufficientStockException(
+                    String.format(
+                            "Adjustment would result in negative stock for product %s at location %s. Balance: %d, Adjustment: %d",
+                            movement.product().getSku(), movement.location().getCode(),
+                            currentBalance, movement.quantity()));
+        }
+        return new InsufficientStockException(
+                String.format("Insufficient stock for product %s at location %s. Available: %d, Requested: %d",
+                        movement.product().getSku(), movement.location().getCode(),
+                        currentBalance, movement.quantity()));
+    }
+
+    private StockLedger buildLedgerEntry(Movement movement, int runningBalance) {
+        return StockLedger.builder()
+                .product(movement.product())
+                .location(movement.location())
+                .transaction(movement.transaction())
+                .transactionLine(movement.transactionLine())
+                .movementType(movement.movementType())
+                .quantity(movement.quantity())
                 .runningBalance(runningBalance)
-                .performedBy(performedBy)
+                .performedBy(movement.performedBy())
                 .performedAt(LocalDateTime.now())
                 .build();
-
-        return stockLedgerRepository.save(entry);
     }
 }
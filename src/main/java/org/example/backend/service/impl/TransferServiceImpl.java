@@ -7,10 +7,14 @@ import org.example.backend.entity.TransactionLine;
 import org.example.backend.entity.User;
 import org.example.backend.exception.InvalidOperationException;
 import org.example.backend.service.StockLedgerService;
+import org.example.backend.service.StockLedgerService.Movement;
 import org.example.backend.service.TransferService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,37 +25,17 @@ public class TransferServiceImpl implements TransferService {
 
     @Override
     public void processTransferLine(Transaction transaction, TransactionLine line, User performer) {
-        if (line.getSourceLocation() == null) {
-            throw new InvalidOperationException(
-                    "Transfer line " + line.getLineNumber() + " must have a source location");
-        }
-        if (line.getDestinationLocation() == null) {
-            throw new InvalidOperationException(
-                    "Transfer line " + line.getLineNumber() + " must have a destination location");
-        }
+        validateLine(line);
 
         log.info("Processing transfer line {}: product={}, qty={}, from={} -> to={}",
                 line.getLineNumber(), line.getProduct().getSku(), line.getQuantity(),
                 line.getSourceLocation().getCode(), line.getDestinationLocation().getCode());
 
-        // Validate stock availability at source before moving
-        stockLedgerService.validateStockAvailability(
-                line.getProduct().getId(),
-                line.getSourceLocation().getId(),
-                line.getQuantity());
-
-        // Stock OUT from source location
-        stockLedgerService.recordStockOut(
+        // OUT at the source and IN at the destination under one lock; the
+        // availability check happens once the source row is locked
+        stockLedgerService.move(
                 line.getProduct(),
                 line.getSourceLocation(),
-                line.getQuantity(),
-                transaction,
-                line,
-                performer);
-
-        // Stock IN at destination location
-        stockLedgerService.recordStockIn(
-                line.getProduct(),
                 line.getDestinationLocation(),
                 line.getQuantity(),
                 transaction,
@@ -62,8 +46,25 @@ public class TransferServiceImpl implements TransferService {
     @Override
     public void processTransfer(Transaction transaction, User performer) {
         log.info("Processing full transfer transaction: {}", transaction.getReference());
+
+        List<Movement> movements = new ArrayList<>();
         for (TransactionLine line : transaction.getTransactionLines()) {
-            processTransferLine(transaction, line, performer);
+            validateLine(line);
+            // Availability is checked in order by the batch itself
+            movements.addAll(Movement.transfer(line.getProduct(), line.getSourceLocation(),
+                    line.getDestinationLocation(), line.getQuantity(), transaction, line, performer));
+        }
+        stockLedgerService.recordBatch(movements);
+    }
+
+    private void validateLine(TransactionLine line) {
+        if (line.getSourceLocation() == null) {
+            throw new InvalidOperationException(
+                    "Transfer line " + line.getLineNumber() + " must have a source location");
+        }
+        if (line.getDestinationLocation() == null) {
+            throw new InvalidOperationException(
+                    "Transfer line " + line.getLineNumber() + " must have a destination location");
         }
     }
 }
@@ -0,0 +1,245 @@
+package org.example.backend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.backend.dto.projection.TaskTiming;
+import org.example.backend.dto.projection.UserCount;
+import org.example.backend.dto.projection.UserDayCount;
+import org.example.backend.dto.projection.UserProductivityTotal;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.entity.UserProductivityDaily;
+import org.example.backend.entity.UserProductivityDailyId;
+import org.example.backend.enums.Role;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.exception.InvalidOperationException;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.repository.TaskDiscrepancyRepository;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.repository.UserProductivityDailyRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserProductivityService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class UserProductivityServiceImpl implements UserProductivityService {
+
+    private static final int CHUNK_DAYS = 31;
+    private static final List<TransactionStatus> FINISHED = List.of(TransactionStatus.COMPLETED,
+            TransactionStatus.FAILED);
+
+    private final UserProductivityDailyRepository dailyRepository;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final TaskDiscrepancyRepository taskDiscrepancyRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final LedgerArchiveRepository ledgerArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserProductivityServiceImpl(UserProductivityDailyRepository dailyRepository,
+            UserRepository userRepository,
+            TransactionRepository transactionRepository,
+            TaskDiscrepancyRepository taskDiscrepancyRepository,
+            StockLedgerRepository stockLedgerRepository,
+            LedgerArchiveRepository ledgerArchiveRepository,
+            PlatformTransactionManager transactionManager) {
+        this.dailyRepository = dailyRepository;
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.taskDiscrepancyRepository = taskDiscrepancyRepository;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.ledgerArchiveRepository = ledgerArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * First start with an empty counter table: backfill it from the history.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (dailyRepository.count() > 0) {
+            return;
+        }
+        Optional<LocalDate> oldest = Stream.of(transactionRepository.findOldestCompletedAt(),
+                taskDiscrepancyRepository.findOldestReportedAt(),
+                stockLedgerRepository.findOldestPerformedAt())
+                .flatMap(Optional::stream)
+                .min(LocalDateTime::compareTo)
+                .map(LocalDateTime::toLocalDate);
+        oldest.ifPresent(from -> rebuild(from, LocalDate.now()));
+    }
+
+    @Override
+    @Transactional
+    public void recordTaskFinished(Transaction task) {
+        if (task.getAssignedTo() == null || task.getCompletedAt() == null) {
+            return;
+        }
+        long tasks = task.getStatus() == TransactionStatus.COMPLETED ? 1 : 0;
+        increment(task.getAssignedTo().getId(), task.getCompletedAt().toLocalDate(), tasks, 0, 0,
+                activeMinutes(task.getStartedAt(), task.getCompletedAt()));
+    }
+
+    @Override
+    @Transactional
+    public void recordTaskReopened(Transaction task) {
+        if (task.getAssignedTo() == null || task.getCompletedAt() == null) {
+            return;
+        }
+        long tasks = task.getStatus() == TransactionStatus.COMPLETED ? 1 : 0;
+        increment(task.getAssignedTo().getId(), task.getCompletedAt().toLocalDate(), -tasks, 0, 0,
+                -activeMinutes(task.getStartedAt(), task.getCompletedAt()));
+    }
+
+    @Override
+    @Transactional
+    public void recordLinesExecuted(User user, int lines) {
+        increment(user.getId(), LocalDate.now(), 0, lines, 0, 0);
+    }
+
+    @Override
+    @Transactional
+    public void recordDiscrepancyReported(User user) {
+        increment(user.getId(), LocalDate.now(), 0, 0, 1, 0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserProductivity> getReport(LocalDate from, LocalDate to, UUID userId) {
+        if (from.isAfter(to)) {
+            throw new InvalidOperationException("Start date must not be after end date");
+        }
+        List<User> users = userId != null
+                ? userRepository.findById(userId).map(List::of).orElse(List.of())
+                : userRepository.findByRole(Role.EMPLOYEE);
+        Map<UUID, UserProductivityTotal> totals = dailyRepository.sumByUser(from, to, userId).stream()
+                .collect(Collectors.toMap(UserProductivityTotal::userId, Function.identity()));
+        Map<UUID, Long> open = taskDiscrepancyRepository.countOpenByReporter().stream()
+                .collect(Collectors.toMap(UserCount::userId, UserCount::count));
+
+        return users.stream().map(user -> {
+            UserProductivityTotal total = totals.get(user.getId());
+            return new UserProductivity(user.getId(), user.getFullName(), user.getUsername(),
+                    total != null ? total.tasksCompleted() : 0,
+                    total != null ? total.linesExecuted() : 0,
+                    total != null ? total.discrepanciesReported() : 0,
+                    total != null ? total.activeMinutes() : 0,
+                    open.getOrDefault(user.getId(), 0L));
+        }).toList();
+    }
+
+    @Override
+    public synchronized int rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidOperationException("Start date must not be after end date");
+        }
+        Optional<LocalDate> archivedUpTo = ledgerArchiveRepository.findArchivedUpTo()
+                .map(LocalDateTime::toLocalDate);
+
+        int written = 0;
+        LocalDate end = to.plusDays(1);
+        for (LocalDate chunkStart = from; chunkStart.isBefore(end); chunkStart = chunkStart.plusDays(CHUNK_DAYS)) {
+            LocalDate chunkEnd = chunkStart.plusDays(CHUNK_DAYS).isBefore(end) ? chunkStart.plusDays(CHUNK_DAYS) : end;
+            LocalDate start = chunkStart;
+            Integer rows = transactionTemplate.execute(status -> rebuildDays(start, chunkEnd, archivedUpTo));
+            written += rows != null ? rows : 0;
+        }
+        log.info("Rebuilt user productivity counters of {} to {} ({} rows)", from, to, written);
+        return written;
+    }
+
+    /**
+     * Replace the counters of {@code [from, to)}.
+     */
+    private int rebuildDays(LocalDate from, LocalDate to, Optional<LocalDate> archivedUpTo) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atStartOfDay();
+        Map<UserProductivityDailyId, long[]> counters = new HashMap<>();
+
+        // Ledger rows before the archive boundary are gone: keep what was counted live
+        if (archivedUpTo.isPresent() && from.isBefore(archivedUpTo.get())) {
+            for (UserProductivityDaily row : dailyRepository.findByDayBetween(from, to.minusDays(1))) {
+                if (row.getId().getDay().isBefore(archivedUpTo.get())) {
+                    counters(counters, row.getId().getDay(), row.getId().getUserId())[1] = row.getLinesExecuted();
+                }
+            }
+        }
+        for (TaskTiming task : transactionRepository.findTaskTimings(FINISHED, start, end)) {
+            long[] c = counters(counters, task.completedAt().toLocalDate(), task.assigneeId());
+            if (task.status() == TransactionStatus.COMPLETED) {
+                c[0]++;
+            }
+            c[3] += activeMinutes(task.startedAt(), task.completedAt());
+        }
+        for (UserDayCount lines : stockLedgerRepository.countExecutedLinesByPerformerAndDay(start, end)) {
+            counters(counters, lines.day(), lines.userId())[1] += lines.count();
+        }
+        for (UserDayCount reported : taskDiscrepancyRepository.countByReporterAndDay(start, end)) {
+            counters(counters, reported.day(), reported.userId())[2] += reported.count();
+        }
+
+        dailyRepository.deleteByDayBetween(from, to.minusDays(1));
+        dailyRepository.flush();
+        LocalDateTime now = LocalDateTime.now();
+        dailyRepository.saveAll(counters.entrySet().stream()
+                .map(e -> newRow(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2], e.getValue()[3],
+                        now))
+                .toList());
+        return counters.size();
+    }
+
+    /**
+     * Add to the (user, day) row, creating it on the user's first activity of
+     * the day. Two transactions creating the same row at once both add to the
+     * row that wins the insert, so the caller's transaction is never aborted.
+     */
+    private void increment(UUID userId, LocalDate day, long tasks, long lines, long discrepancies, long minutes) {
+        LocalDateTime now = LocalDateTime.now();
+        if (dailyRepository.increment(day, userId, tasks, lines, discrepancies, minutes, now) == 0) {
+            dailyRepository.insertZeroIfAbsent(day, userId, now);
+            dailyRepository.increment(day, userId, tasks, lines, discrepancies, minutes, now);
+        }
+    }
+
+    private UserProductivityDaily newRow(UserProductivityDailyId id, long tasks, long lines, long discrepancies,
+            long minutes, LocalDateTime now) {
+        return UserProductivityDaily.builder()
+                .id(id)
+                .user(userRepository.getReferenceById(id.getUserId()))
+                .tasksCompleted(tasks)
+                .linesExecuted(lines)
+                .discrepanciesReported(discrepancies)
+                .activeMinutes(minutes)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static long[] counters(Map<UserProductivityDailyId, long[]> counters, LocalDate day, UUID userId) {
+        return counters.computeIfAbsent(new UserProductivityDailyId(day, userId), id -> new long[4]);
+    }
+
+    private static long activeMinutes(LocalDateTime startedAt, LocalDateTime completedAt) {
+        if (startedAt == null || completedAt == null || startedAt.isAfter(completedAt)) {
+            return 0;
+        }
+        return Duration.between(startedAt, completedAt).toMinutes();
+    }
+}
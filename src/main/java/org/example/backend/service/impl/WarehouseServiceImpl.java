@@ -1,4 +1,35 @@
 package org.example.backend.service.impl;
 
-public class WarehouseServiceImpl {
+import lombok.RequiredArgsConstructor;
+import org.example.backend.config.CacheConfig;
+import org.example.backend.entity.Warehouse;
+import org.example.backend.exception.ResourceNotFoundException;
+import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.WarehouseService;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class WarehouseServiceImpl implements WarehouseService {
+
+    private final WarehouseRepository warehouseRepository;
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.WAREHOUSES, key = "#warehouseId")
+    public Warehouse getWarehouse(UUID warehouseId) {
+        return warehouseRepository.findById(warehouseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Warehouse not found: " + warehouseId));
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.WAREHOUSES, key = "'active'")
+    public List<Warehouse> getActiveWarehouses() {
+        return warehouseRepository.findAll().stream()
+                .filter(Warehouse::getActive)
+                .toList();
+    }
 }
@@ -0,0 +1,100 @@
+package org.example.backend.util;
+
+import org.example.backend.exception.InvalidOperationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position in a listing ordered by (timestamp DESC, id DESC). Pages are read
+ * with {@code WHERE (timestamp, id) < (:at, :id)} instead of OFFSET, so every
+ * page costs one index range scan however deep the client has scrolled.
+ * <p>
+ * Clients only see the opaque {@link #encode() token}.
+ */
+public record KeysetCursor(LocalDateTime at, UUID id) {
+
+    /** Sorts after every real row; used for the first page. */
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0),
+            new UUID(-1L, -1L));
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null for a missing token
+     * @throws InvalidOperationException if the token was not produced by
+     *                                   {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    UUID.fromString(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidOperationException("Invalid page cursor");
+        }
+    }
+
+    /**
+     * @return the decoded cursor, or {@link #START} for a missing token
+     */
+    public static KeysetCursor decodeOrStart(String token) {
+        KeysetCursor cursor = decode(token);
+        return cursor != null ? cursor : START;
+    }
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * One row more than the page size, to tell whether another page follows.
+     */
+    public static Pageable limit(int requested) {
+        return PageRequest.of(0, pageSize(requested) + 1);
+    }
+
+    /**
+     * Cursor of the row after an offset page, so clients can switch to keyset
+     * paging from any page; null on the last page.
+     */
+    public static <T> String next(Page<T> page, Function<T, KeysetCursor> keyOf) {
+        return page.hasNext() ? keyOf.apply(page.getContent().get(page.getNumberOfElements() - 1)).encode() : null;
+    }
+
+    /**
+     * Build the {content, nextCursor, hasMore} response of a page fetched with
+     * {@link #limit(int)}.
+     */
+    public static <T> Map<String, Object> page(List<T> rows, int requested, Function<T, KeysetCursor> keyOf,
+            Function<T, ?> mapper) {
+        int size = pageSize(requested);
+        boolean hasMore = rows.size() > size;
+        List<T> content = hasMore ? rows.subList(0, size) : rows;
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content.stream().map(mapper).toList());
+        page.put("nextCursor", hasMore ? keyOf.apply(content.get(size - 1)).encode() : null);
+        page.put("hasMore", hasMore);
+        return page;
+    }
+}
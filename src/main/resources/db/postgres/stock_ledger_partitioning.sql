@@ -0,0 +1,94 @@
+-- Monthly range partitioning of stock_ledger on performed_at (PostgreSQL 12+).
+--
+-- Run once, in a maintenance window, after the application has created the
+-- schema. Then set stock.ledger.partitioned=true so the application keeps
+-- creating the partitions of the coming months.
+--
+-- Hibernate only sees the parent table, so ddl-auto=update keeps working. The
+-- primary key becomes (id, performed_at), as PostgreSQL requires the partition
+-- key to be part of it.
+--
+-- A database converted by an earlier version of this script only needs the
+-- CREATE OR REPLACE FUNCTION statement below to be run again.
+
+BEGIN;
+
+-- Creates the partition of a month. Rows of that month already sitting in the
+-- default partition would make the attach fail, so inserts into the default
+-- partition are blocked while they are moved into the new table, which is then
+-- attached.
+CREATE OR REPLACE FUNCTION stock_ledger_ensure_partition(month_start date) RETURNS void AS $$
+DECLARE
+    first_day date := date_trunc('month', month_start)::date;
+    next_month date := (date_trunc('month', month_start) + interval '1 month')::date;
+    partition_name text := 'stock_ledger_' || to_char(first_day, 'YYYY_MM');
+    moved bigint;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE stock_ledger INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+        partition_name);
+    IF to_regclass('stock_ledger_default') IS NOT NULL THEN
+        LOCK TABLE stock_ledger_default IN SHARE ROW EXCLUSIVE MODE;
+        EXECUTE format(
+            'WITH moved AS (DELETE FROM stock_ledger_default WHERE performed_at >= %L AND performed_at < %L '
+            'RETURNING *) INSERT INTO %I SELECT * FROM moved',
+            first_day, next_month, partition_name);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        IF moved > 0 THEN
+            RAISE NOTICE 'Moved % stock_ledger rows of % out of the default partition', moved, first_day;
+        END IF;
+    END IF;
+    EXECUTE format('ALTER TABLE stock_ledger ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, first_day, next_month);
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE stock_ledger RENAME TO stock_ledger_unpartitioned;
+ALTER INDEX idx_stock_ledger_product_location RENAME TO idx_stock_ledger_product_location_old;
+ALTER INDEX idx_stock_ledger_performed RENAME TO idx_stock_ledger_performed_old;
+ALTER INDEX idx_stock_ledger_product_performed RENAME TO idx_stock_ledger_product_performed_old;
+ALTER INDEX idx_stock_ledger_location_performed RENAME TO idx_stock_ledger_location_performed_old;
+
+CREATE TABLE stock_ledger (
+    LIKE stock_ledger_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY RANGE (performed_at);
+
+ALTER TABLE stock_ledger ADD PRIMARY KEY (id, performed_at);
+CREATE INDEX idx_stock_ledger_product_location ON stock_ledger (product_id, location_id, performed_at);
+CREATE INDEX idx_stock_ledger_performed ON stock_ledger (performed_at, id);
+CREATE INDEX idx_stock_ledger_product_performed ON stock_ledger (product_id, performed_at, id);
+CREATE INDEX idx_stock_ledger_location_performed ON stock_ledger (location_id, performed_at, id);
+
+ALTER TABLE stock_ledger ADD FOREIGN KEY (product_id) REFERENCES products (id);
+ALTER TABLE stock_ledger ADD FOREIGN KEY (location_id) REFERENCES emplacements (id_emplacement);
+ALTER TABLE stock_ledger ADD FOREIGN KEY (transaction_id) REFERENCES transactions (id_transaction);
+ALTER TABLE stock_ledger ADD FOREIGN KEY (transaction_line_id) REFERENCES lignes_transaction (id);
+ALTER TABLE stock_ledger ADD FOREIGN KEY (performed_by_id) REFERENCES users (id_utilisateur);
+
+-- Rows outside every monthly partition (should not happen) land here until
+-- the partition of their month is created
+CREATE TABLE stock_ledger_default PARTITION OF stock_ledger DEFAULT;
+
+DO $$
+DECLARE
+    m date;
+BEGIN
+    FOR m IN
+        SELECT generate_series(
+            date_trunc('month', COALESCE(MIN(performed_at), now())),
+            date_trunc('month', now()) + interval '1 month',
+            interval '1 month')::date
+        FROM stock_ledger_unpartitioned
+    LOOP
+        PERFORM stock_ledger_ensure_partition(m);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO stock_ledger SELECT * FROM stock_ledger_unpartitioned;
+DROP TABLE stock_ledger_unpartitioned;
+
+COMMIT;
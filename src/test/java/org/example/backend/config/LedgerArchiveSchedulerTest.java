@@ -0,0 +1,30 @@
+package org.example.backend.config;
+
+import org.example.backend.service.LedgerArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LedgerArchiveSchedulerTest {
+
+    @Test
+    void relativeArchiveDirectoryFailsStartup() {
+        assertThrows(IllegalStateException.class,
+                () -> new LedgerArchiveScheduler(mock(LedgerArchiveService.class), "./data/ledger-archive"));
+    }
+
+    @Test
+    void absoluteArchiveDirectoryIsCreated(@TempDir Path root) {
+        Path directory = root.resolve("ledger-archive");
+
+        new LedgerArchiveScheduler(mock(LedgerArchiveService.class), directory.toString());
+
+        assertTrue(Files.isDirectory(directory));
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.backend.controller;
+
+import org.example.backend.config.CacheConfig;
+import org.example.backend.entity.User;
+import org.example.backend.enums.Role;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The users cache in front of {@code loadUserByUsername}, read by the JWT
+ * filter on every request, and the admin cache endpoints. Runs on the
+ * in-memory H2 database of the {@code test} profile.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminCacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User admin;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        admin = userRepository.save(admin("cache-admin-" + suffix));
+        other = userRepository.save(admin("cache-other-" + suffix));
+        users().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(List.of(admin, other));
+        users().clear();
+    }
+
+    @Test
+    void secondRequestOfAUserIsServedFromTheCache() throws Exception {
+        mockMvc.perform(as(admin, get("/admin/cache"))).andExpect(status().isOk());
+        assertNotNull(users().get(admin.getUsername()));
+        long misses = users().getNativeCache().stats().missCount();
+        long hits = users().getNativeCache().stats().hitCount();
+
+        mockMvc.perform(as(admin, get("/admin/cache"))).andExpect(status().isOk());
+
+        assertEquals(misses, users().getNativeCache().stats().missCount());
+        assertEquals(hits + 1, users().getNativeCache().stats().hitCount());
+    }
+
+    @Test
+    void updatingAUserEvictsItsCachedDetails() throws Exception {
+        mockMvc.perform(as(other, get("/admin/cache"))).andExpect(status().isOk());
+        assertNotNull(users().get(other.getUsername()));
+
+        mockMvc.perform(as(admin, put("/admin/users/" + other.getId()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"active\": false}"))
+                .andExpect(status().isOk());
+
+        assertNull(users().get(other.getUsername()));
+        // Without the eviction the cached, still active details would let it in
+        mockMvc.perform(as(other, get("/admin/cache"))).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void unknownCacheIsNotFound() throws Exception {
+        mockMvc.perform(as(admin, delete("/admin/cache/no-such-cache")))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    private MockHttpServletRequestBuilder as(User user, MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + jwtUtil.generateToken(user));
+    }
+
+    private CaffeineCache users() {
+        return (CaffeineCache) cacheManager.getCache(CacheConfig.USERS);
+    }
+
+    private static User admin(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@test.local")
+                .password("-")
+                .role(Role.ADMIN)
+                .build();
+    }
+}
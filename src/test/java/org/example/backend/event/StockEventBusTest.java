@@ -0,0 +1,135 @@
+package org.example.backend.event;
+
+import org.example.backend.enums.BackpressurePolicy;
+import org.example.backend.enums.MovementType;
+import org.example.backend.event.StockEventBus.SubscriptionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockEventBusTest {
+
+    private static final int BUFFER_SIZE = 8;
+
+    private StockEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void dropSubscriberSkipsOverwrittenEventsWithoutBlockingProducers() throws Exception {
+        bus = new StockEventBus(BUFFER_SIZE, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        bus.subscribe("slow", BackpressurePolicy.DROP, event -> {
+            awaitQuietly(release);
+            received.add(event.quantity());
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            bus.publish(event(i));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000,
+                "producers must not wait for a DROP subscriber");
+        release.countDown();
+
+        waitUntil(() -> stats().delivered() + stats().dropped() == 100);
+        SubscriptionStats stats = stats();
+        assertTrue(stats.dropped() > 0, "a subscriber lapped by the producers must drop events");
+        assertEquals(0, stats.lag());
+        assertEquals(0, bus.getBlockTimeouts());
+        assertEquals(99, received.get(received.size() - 1));
+        for (int i = 1; i < received.size(); i++) {
+            assertTrue(received.get(i) > received.get(i - 1), "events must arrive in publish order");
+        }
+    }
+
+    @Test
+    void blockingSubscriberReceivesEveryEventInOrder() throws Exception {
+        bus = new StockEventBus(BUFFER_SIZE, 5000);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        bus.subscribe("audit", BackpressurePolicy.BLOCK_PRODUCER, event -> {
+            sleepQuietly(1);
+            received.add(event.quantity());
+        });
+
+        for (int i = 0; i < 50; i++) {
+            bus.publish(event(i));
+        }
+
+        waitUntil(() -> received.size() == 50);
+        assertEquals(0, stats().dropped());
+        assertEquals(0, bus.getBlockTimeouts());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    void blockedProducerGivesUpAfterTimeout() throws Exception {
+        bus = new StockEventBus(BUFFER_SIZE, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        bus.subscribe("stuck", BackpressurePolicy.BLOCK_PRODUCER, event -> awaitQuietly(release));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            bus.publish(event(i));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(bus.getBlockTimeouts() > 0, "a stuck subscriber must time the producer out");
+        assertTrue(elapsedMs >= 50, "the producer must wait for the subscriber before overwriting");
+        waitUntil(() -> stats().delivered() + stats().dropped() == BUFFER_SIZE + 2);
+        assertTrue(stats().dropped() > 0);
+    }
+
+    private SubscriptionStats stats() {
+        return bus.getSubscriptions().get(0);
+    }
+
+    private static StockMovedEvent event(int sequence) {
+        return new StockMovedEvent(UUID.randomUUID(), UUID.randomUUID(), "SKU", UUID.randomUUID(), "LOC",
+                UUID.randomUUID(), UUID.randomUUID(), MovementType.IN, sequence, sequence, sequence,
+                UUID.randomUUID(), LocalDateTime.now());
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.projection.BarcodeEntry;
+import org.example.backend.entity.Product;
+import org.example.backend.enums.PackLevel;
+import org.example.backend.repository.ProductBarcodeRepository;
+import org.example.backend.service.BarcodeIndex.ScanTarget;
+import org.example.backend.service.BarcodeIndex.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BarcodeIndexTest {
+
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+
+    @Test
+    void collidingKeysWrapAroundTheEndOfTheTable() {
+        Table table = new Table(0);
+        int last = IntStream.range(0, 1000).map(i -> table.slot("K" + i)).max().orElseThrow();
+        // A probe run starting in the last slot and wrapping to slots 0, 1 and 2
+        List<String> run = new ArrayList<>(keysWithSlot(table, last, 3));
+        run.add(keysWithSlot(table, 0, 1).get(0));
+        run.forEach(code -> table.put(code, first, PackLevel.UNIT, 1));
+
+        assertEquals(run.size(), table.size());
+        run.forEach(code -> assertEquals(first, table.get(code).productId(), code));
+    }
+
+    @Test
+    void removalFromAProbeRunKeepsEveryOtherKey() {
+        Table table = new Table(0);
+        int last = IntStream.range(0, 1000).map(i -> table.slot("K" + i)).max().orElseThrow();
+        List<String> lastHome = keysWithSlot(table, last, 3);
+        List<String> zeroHome = keysWithSlot(table, 0, 2);
+        // Slots last, 0, 1, 2, 3: homes interleaved across the wrap
+        List<String> run = new ArrayList<>(List.of(lastHome.get(0), zeroHome.get(0), lastHome.get(1),
+                zeroHome.get(1), lastHome.get(2)));
+        run.forEach(code -> table.put(code, first, PackLevel.UNIT, 1));
+
+        String middle = run.remove(2);
+        table.remove(middle);
+        assertNull(table.get(middle));
+        assertEquals(run.size(), table.size());
+        run.forEach(code -> assertNotNull(table.get(code), code));
+
+        // The entry now in slot 0 is at its home and must stay there
+        String head = run.remove(0);
+        table.remove(head);
+        assertNull(table.get(head));
+        assertEquals(run.size(), table.size());
+        run.forEach(code -> assertNotNull(table.get(code), code));
+    }
+
+    @Test
+    void conflictingCodeKeepsItsFirstOwner() {
+        Table table = new Table(0);
+        assertEquals(0, table.putAll("U1", "F1", null, first, 6, 48));
+
+        assertEquals(1, table.putAll("U2", "F1", "P2", second, 12, 96));
+
+        assertEquals(new ScanTarget(first, PackLevel.FARDEAU, 6), table.get("F1"));
+        assertEquals(new ScanTarget(second, PackLevel.PALETTE, 96), table.get("P2"));
+    }
+
+    @Test
+    void productChangeUpdatesFardeauAndPaletteMultipliers() {
+        ProductBarcodeRepository repository = mock(ProductBarcodeRepository.class);
+        when(repository.findAllEntries()).thenReturn(List.of(
+                new BarcodeEntry("U1", "F1", "P1", first, 6, 48),
+                new BarcodeEntry("U2", "F2", "P2", second, 10, 100)));
+        BarcodeIndex index = new BarcodeIndex(repository);
+        index.reload();
+
+        index.onProductChanged(Product.builder().id(first).colisageFardeau(12).colisagePalette(null).build());
+
+        assertEquals(new ScanTarget(first, PackLevel.UNIT, 1), index.resolve("U1").orElseThrow());
+        assertEquals(new ScanTarget(first, PackLevel.FARDEAU, 12), index.resolve("F1").orElseThrow());
+        assertEquals(new ScanTarget(first, PackLevel.PALETTE, 0), index.resolve("P1").orElseThrow());
+        assertEquals(new ScanTarget(second, PackLevel.FARDEAU, 10), index.resolve("F2").orElseThrow());
+        assertEquals(6, index.size());
+    }
+
+    private static List<String> keysWithSlot(Table table, int slot, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String code = "C" + slot + "-" + i;
+            if (table.slot(code) == slot) {
+                keys.add(code);
+            }
+        }
+        return keys;
+    }
+}
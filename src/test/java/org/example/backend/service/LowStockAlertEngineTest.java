@@ -0,0 +1,139 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.projection.ProductStockLevel;
+import org.example.backend.entity.Product;
+import org.example.backend.enums.BackpressurePolicy;
+import org.example.backend.enums.MovementType;
+import org.example.backend.event.LowStockEvent;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.event.StockMovedEvent;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.service.LowStockAlertEngine.LowStockAlert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LowStockAlertEngineTest {
+
+    private final UUID productId = UUID.randomUUID();
+
+    private ProductRepository productRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private LowStockAlertEngine engine;
+    private Consumer<StockMovedEvent> bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        StockEventBus stockEventBus = mock(StockEventBus.class);
+        engine = new LowStockAlertEngine(productRepository, stockEventBus, eventPublisher);
+
+        when(productRepository.findAllStockLevels()).thenReturn(List.of(level(productId, 10, 20)));
+        engine.onApplicationReady();
+        ArgumentCaptor<Consumer<StockMovedEvent>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(stockEventBus).subscribe(eq("low-stock"), eq(BackpressurePolicy.DROP), handler.capture());
+        bus = handler.getValue();
+    }
+
+    @Test
+    void stockOutBelowMinimumPublishesAnAlert() {
+        move(-12);
+
+        LowStockEvent event = published();
+        assertTrue(event.belowMin());
+        assertEquals(8, event.totalStock());
+        assertEquals(10, event.minStock());
+        assertEquals(List.of(productId), engine.getAlerts().stream().map(LowStockAlert::productId).toList());
+
+        move(-1);
+        verify(eventPublisher).publishEvent(any(LowStockEvent.class));
+    }
+
+    @Test
+    void loweringTheMinimumClearsTheAlert() {
+        move(-12);
+        clearInvocations(eventPublisher);
+
+        engine.onProductChanged(product(5));
+
+        assertFalse(published().belowMin());
+        assertTrue(engine.getAlerts().isEmpty());
+    }
+
+    @Test
+    void restockClearsTheAlert() {
+        move(-12);
+        clearInvocations(eventPublisher);
+
+        move(4);
+
+        LowStockEvent event = published();
+        assertFalse(event.belowMin());
+        assertEquals(12, event.totalStock());
+        assertTrue(engine.getAlerts().isEmpty());
+    }
+
+    @Test
+    void reloadPublishesOnlyTheDifferences() {
+        UUID stillLow = UUID.randomUUID();
+        UUID nowLow = UUID.randomUUID();
+        when(productRepository.findAllStockLevels()).thenReturn(List.of(
+                level(productId, 10, 20), level(stillLow, 10, 2), level(nowLow, 10, 30)));
+        engine.reload();
+        clearInvocations(eventPublisher);
+
+        when(productRepository.findAllStockLevels()).thenReturn(List.of(
+                level(productId, 10, 20), level(stillLow, 10, 3), level(nowLow, 10, 1)));
+        engine.reload();
+
+        ArgumentCaptor<LowStockEvent> events = ArgumentCaptor.forClass(LowStockEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(events.capture());
+        assertEquals(nowLow, events.getValue().productId());
+        assertTrue(events.getValue().belowMin());
+
+        clearInvocations(eventPublisher);
+        engine.reload();
+        verify(eventPublisher, never()).publishEvent(any(LowStockEvent.class));
+    }
+
+    private LowStockEvent published() {
+        ArgumentCaptor<LowStockEvent> event = ArgumentCaptor.forClass(LowStockEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return event.getValue();
+    }
+
+    private void move(int delta) {
+        MovementType type = delta < 0 ? MovementType.OUT : MovementType.IN;
+        bus.accept(new StockMovedEvent(UUID.randomUUID(), productId, "SKU", UUID.randomUUID(), "LOC",
+                UUID.randomUUID(), UUID.randomUUID(), type, Math.abs(delta), delta, 0, UUID.randomUUID(),
+                LocalDateTime.now()));
+    }
+
+    private Product product(int minStock) {
+        return Product.builder().id(productId).sku("SKU").name("Product").minStock(minStock).build();
+    }
+
+    private static ProductStockLevel level(UUID productId, int minStock, long total) {
+        return new ProductStockLevel(productId, "SKU", "Product", minStock, true, total);
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.backend.service;
+
+import org.example.backend.dto.projection.EmployeeDimension;
+import org.example.backend.dto.projection.LocationDimension;
+import org.example.backend.dto.projection.MovementFact;
+import org.example.backend.dto.projection.ProductDimension;
+import org.example.backend.enums.CubeDimension;
+import org.example.backend.enums.LocationType;
+import org.example.backend.enums.MovementType;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.MovementCube.CubeCell;
+import org.example.backend.service.MovementCube.CubeQuery;
+import org.example.backend.service.MovementCube.CubeResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dense and hash-table aggregation of the cube against a brute-force sum over
+ * the same movements.
+ */
+class MovementCubeTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 3, 1);
+    private static final int DAYS = 20;
+
+    private final List<ProductDimension> products = List.of(
+            new ProductDimension(UUID.randomUUID(), "SKU-A", "Drinks"),
+            new ProductDimension(UUID.randomUUID(), "SKU-B", "Drinks"),
+            new ProductDimension(UUID.randomUUID(), "SKU-C", null));
+    private final List<LocationDimension> locations = List.of(
+            new LocationDimension(UUID.randomUUID(), "L1", "Z1", LocationType.STORAGE, "W1"),
+            new LocationDimension(UUID.randomUUID(), "L2", "Z2", LocationType.PICKING, "W1"),
+            new LocationDimension(UUID.randomUUID(), "L3", null, LocationType.STORAGE, "W2"),
+            new LocationDimension(UUID.randomUUID(), "L4", "Z1", LocationType.RECEIVING, "W2"));
+    private final List<EmployeeDimension> employees = List.of(
+            new EmployeeDimension(UUID.randomUUID(), "alice"),
+            new EmployeeDimension(UUID.randomUUID(), "bob"));
+    private final List<MovementFact> facts = new ArrayList<>();
+
+    private MovementCube cube;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            MovementType type = MovementType.values()[random.nextInt(MovementType.values().length)];
+            int quantity = type == MovementType.ADJUSTMENT ? random.nextInt(21) - 10 : 1 + random.nextInt(50);
+            // Days 2 to DAYS - 3 only, so queries can reach past both ends
+            LocalDate day = FIRST_DAY.plusDays(2 + random.nextInt(DAYS - 4));
+            facts.add(new MovementFact(pick(random, products).id(), pick(random, locations).id(),
+                    pick(random, employees).id(), type, quantity, day.atTime(random.nextInt(24), 0)));
+        }
+
+        StockLedgerRepository stockLedgerRepository = mock(StockLedgerRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        LocationRepository locationRepository = mock(LocationRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(productRepository.findAllDimensions()).thenReturn(products);
+        when(locationRepository.findAllDimensions()).thenReturn(locations);
+        when(userRepository.findAllDimensions()).thenReturn(employees);
+        when(stockLedgerRepository.streamMovementFacts(any(), any())).thenAnswer(invocation -> facts.stream());
+
+        cube = new MovementCube(stockLedgerRepository, productRepository, locationRepository, userRepository,
+                mock(StockEventBus.class), mock(PlatformTransactionManager.class), true, 0, 2);
+        cube.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cube.shutdown();
+    }
+
+    @Test
+    void groupByDayWithinARangeStartsAtTheRangeOffset() {
+        assertMatchesBruteForce(query(List.of(CubeDimension.DAY), Map.of(), day(5), day(12)));
+    }
+
+    @Test
+    void groupByDayOverARangeWiderThanTheData() {
+        assertMatchesBruteForce(query(List.of(CubeDimension.DAY, CubeDimension.MOVEMENT_TYPE), Map.of(),
+                day(0), day(DAYS + 5)));
+    }
+
+    @Test
+    void groupByProductAndDayFilteredByWarehouse() {
+        assertMatchesBruteForce(query(List.of(CubeDimension.PRODUCT, CubeDimension.DAY),
+                Map.of(CubeDimension.WAREHOUSE, Set.of("W1")), day(8), null));
+    }
+
+    @Test
+    void groupByAttributesFilteredByZoneAndMovementType() {
+        assertMatchesBruteForce(query(List.of(CubeDimension.CATEGORY, CubeDimension.EMPLOYEE, CubeDimension.ZONE),
+                Map.of(CubeDimension.ZONE, Set.of("Z1", "(none)"),
+                        CubeDimension.MOVEMENT_TYPE, Set.of("IN", "ADJUSTMENT")),
+                null, day(10)));
+    }
+
+    @Test
+    void grandTotalFilteredByProductAndLocationType() {
+        assertMatchesBruteForce(query(List.of(),
+                Map.of(CubeDimension.PRODUCT, Set.of("SKU-A", "SKU-C"),
+                        CubeDimension.LOCATION_TYPE, Set.of("STORAGE")),
+                null, null));
+    }
+
+    private void assertMatchesBruteForce(CubeQuery query) {
+        Map<Map<CubeDimension, String>, Sums> expected = bruteForce(query);
+        assertTrue(expected.size() > 1 || query.groupBy().isEmpty(), "the query should produce several groups");
+
+        CubeResult dense = cube.query(query);
+        CubeResult hashed = cube.query(query, 0);
+
+        for (CubeResult result : List.of(dense, hashed)) {
+            assertEquals(facts.size(), result.rowsScanned());
+            assertEquals(expected.values().stream().mapToLong(Sums::count).sum(), result.rowsMatched());
+            assertEquals(expected, result.cells().stream()
+                    .collect(Collectors.toMap(CubeCell::key, Sums::of)));
+        }
+        assertEquals(dense.cells(), hashed.cells());
+    }
+
+    private Map<Map<CubeDimension, String>, Sums> bruteForce(CubeQuery query) {
+        Map<Map<CubeDimension, String>, Sums> sums = new HashMap<>();
+        for (MovementFact fact : facts) {
+            LocalDate day = fact.performedAt().toLocalDate();
+            if ((query.from() != null && day.isBefore(query.from()))
+                    || (query.to() != null && day.isAfter(query.to()))) {
+                continue;
+            }
+            boolean allowed = query.filters().entrySet().stream()
+                    .allMatch(filter -> filter.getValue().contains(label(filter.getKey(), fact)));
+            if (!allowed) {
+                continue;
+            }
+            Map<CubeDimension, String> key = new EnumMap<>(CubeDimension.class);
+            query.groupBy().forEach(dimension -> key.put(dimension, label(dimension, fact)));
+            sums.merge(key, Sums.of(fact), Sums::plus);
+        }
+        return sums;
+    }
+
+    private String label(CubeDimension dimension, MovementFact fact) {
+        ProductDimension product = byId(products, ProductDimension::id).get(fact.productId());
+        LocationDimension location = byId(locations, LocationDimension::id).get(fact.locationId());
+        return switch (dimension) {
+            case PRODUCT -> product.sku();
+            case CATEGORY -> orNone(product.category());
+            case WAREHOUSE -> location.warehouseCode();
+            case ZONE -> orNone(location.zone());
+            case LOCATION -> location.code();
+            case LOCATION_TYPE -> location.type().name();
+            case EMPLOYEE -> byId(employees, EmployeeDimension::id).get(fact.performedById()).username();
+            case MOVEMENT_TYPE -> fact.movementType().name();
+            case DAY -> fact.performedAt().toLocalDate().toString();
+        };
+    }
+
+    private static CubeQuery query(List<CubeDimension> groupBy, Map<CubeDimension, Set<String>> filters,
+            LocalDate from, LocalDate to) {
+        return new CubeQuery(groupBy, filters, from, to, null, 0);
+    }
+
+    private static LocalDate day(int offset) {
+        return FIRST_DAY.plusDays(offset);
+    }
+
+    private static String orNone(String value) {
+        return value != null ? value : "(none)";
+    }
+
+    private static <T> Map<UUID, T> byId(List<T> members, Function<T, UUID> id) {
+        return members.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static <T> T pick(Random random, List<T> members) {
+        return members.get(random.nextInt(members.size()));
+    }
+
+    private record Sums(long count, long in, long out, long adjustment) {
+
+        private static Sums of(CubeCell cell) {
+            return new Sums(cell.count(), cell.in(), cell.out(), cell.adjustment());
+        }
+
+        private static Sums of(MovementFact fact) {
+            long quantity = fact.quantity();
+            return switch (fact.movementType()) {
+                case IN -> new Sums(1, quantity, 0, 0);
+                case OUT -> new Sums(1, 0, quantity, 0);
+                case ADJUSTMENT -> new Sums(1, 0, 0, quantity);
+            };
+        }
+
+        private Sums plus(Sums other) {
+            return new Sums(count + other.count, in + other.in, out + other.out, adjustment + other.adjustment);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.backend.service;
+
+import org.example.backend.entity.StockBalance;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.exception.InsufficientStockException;
+import org.example.backend.repository.StockBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockBalanceEngineTest {
+
+    private final UUID productId = UUID.randomUUID();
+    private final UUID locationId = UUID.randomUUID();
+
+    private StockBalanceRepository stockBalanceRepository;
+    private StockBalanceEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        stockBalanceRepository = mock(StockBalanceRepository.class);
+        engine = new StockBalanceEngine(stockBalanceRepository, true);
+    }
+
+    @Test
+    void reservesOutboundQuantitiesUntilTheTransactionCompletes() {
+        load(10, 3);
+
+        List<TransactionSynchronization> out = inTransaction(-4, 4);
+        assertEquals(6, balance());
+        assertThrows(InsufficientStockException.class, () -> inTransaction(-7, 5));
+        assertEquals(6, balance());
+
+        complete(out, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(10, balance());
+    }
+
+    @Test
+    void commitSeenByTheReloadQueryIsNotCountedTwice() {
+        load(10, 3);
+        List<TransactionSynchronization> out = inTransaction(-4, 4);
+
+        when(stockBalanceRepository.findAll()).thenAnswer(invocation -> {
+            complete(out, TransactionSynchronization.STATUS_COMMITTED);
+            return List.of(row(6, 4));
+        });
+        engine.reload();
+
+        assertEquals(6, balance());
+    }
+
+    @Test
+    void commitMissedByTheReloadQueryIsReplayed() {
+        load(10, 3);
+        List<TransactionSynchronization> out = inTransaction(-4, 4);
+
+        when(stockBalanceRepository.findAll()).thenAnswer(invocation -> {
+            List<StockBalance> snapshot = List.of(row(10, 3));
+            complete(out, TransactionSynchronization.STATUS_COMMITTED);
+            return snapshot;
+        });
+        engine.reload();
+
+        assertEquals(6, balance());
+    }
+
+    @Test
+    void reloadKeepsReservationsOfMovementsStillInFlight() {
+        load(10, 3);
+        List<TransactionSynchronization> out = inTransaction(-4, 4);
+
+        load(10, 3);
+        assertEquals(6, balance());
+
+        complete(out, TransactionSynchronization.STATUS_COMMITTED);
+        load(6, 4);
+        assertEquals(6, balance());
+    }
+
+    @Test
+    void movementCommittedBeforeTheFirstLoadFinishesIsNotLost() {
+        assertFalse(engine.isActive());
+        List<TransactionSynchronization> in = inTransaction(5, 1);
+
+        when(stockBalanceRepository.findAll()).thenAnswer(invocation -> {
+            complete(in, TransactionSynchronization.STATUS_COMMITTED);
+            return List.of();
+        });
+        engine.reload();
+
+        assertEquals(5, balance());
+    }
+
+    private void load(int quantity, long version) {
+        when(stockBalanceRepository.findAll()).thenReturn(List.of(row(quantity, version)));
+        engine.reload();
+    }
+
+    private StockBalance row(int quantity, long version) {
+        return StockBalance.builder()
+                .id(new StockBalanceId(productId, locationId))
+                .quantity(quantity)
+                .version(version)
+                .build();
+    }
+
+    private int balance() {
+        return engine.getBalance(productId, locationId);
+    }
+
+    /**
+     * Report a movement from inside a transaction and return its callbacks, to
+     * be completed by the test.
+     */
+    private List<TransactionSynchronization> inTransaction(int delta, long writtenVersion) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.apply(productId, locationId, delta, () -> writtenVersion);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.enums.BalanceLockingMode;
+import org.example.backend.service.StockLockMetrics.ContentionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StockLockMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StockLockMetrics metrics = new StockLockMetrics(registry, 100);
+
+    @Test
+    void statementLockingSeveralLocationsCountsItsWaitOnce() {
+        Product product = Product.builder().id(UUID.randomUUID()).sku("P").build();
+        List<Location> locations = List.of(location("A"), location("B"), location("C"));
+
+        metrics.recordLockedWrites(BalanceLockingMode.PESSIMISTIC, product, locations,
+                TimeUnit.MILLISECONDS.toNanos(30));
+
+        Timer wait = registry.get("stock.balance.lock.wait").tag("mode", "pessimistic").timer();
+        assertEquals(1, wait.count());
+        assertEquals(30, wait.totalTime(TimeUnit.MILLISECONDS), 0.001);
+
+        List<ContentionStats> pairs = metrics.getTopContended(10);
+        assertEquals(3, pairs.size());
+        for (ContentionStats pair : pairs) {
+            assertEquals(1, pair.writes());
+            assertEquals(30, pair.totalWaitMs(), 0.001);
+        }
+    }
+
+    private static Location location(String code) {
+        return Location.builder().id(UUID.randomUUID()).code(code).build();
+    }
+}
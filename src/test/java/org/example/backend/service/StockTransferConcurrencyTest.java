@@ -0,0 +1,201 @@
+package org.example.backend.service;
+
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.entity.Warehouse;
+import org.example.backend.enums.LocationType;
+import org.example.backend.enums.Role;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.enums.TransactionType;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.StockLedgerService.Movement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Opposite transfers running at the same time must neither deadlock nor lose
+ * a movement: both lock the same balance rows in the same order. Runs on the
+ * in-memory H2 database of the {@code test} profile and removes its own rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockTransferConcurrencyTest {
+
+    private static final int ROUNDS = 50;
+    private static final int INITIAL = 1000;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Warehouse warehouse;
+    private Location a;
+    private Location b;
+    private final List<Location> freshLocations = new ArrayList<>();
+    private Product p;
+    private Product q;
+    private User user;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        warehouse = warehouseRepository.save(Warehouse.builder().code("WT-" + suffix).name("Test").build());
+        a = locationRepository.save(location(warehouse, "A-" + suffix));
+        b = locationRepository.save(location(warehouse, "B-" + suffix));
+        p = productRepository.save(product("P-" + suffix));
+        q = productRepository.save(product("Q-" + suffix));
+        user = userRepository.save(User.builder()
+                .username("transfer-" + suffix)
+                .email("transfer-" + suffix + "@test.local")
+                .password("-")
+                .role(Role.EMPLOYEE)
+                .build());
+        transaction = transactionRepository.save(Transaction.builder()
+                .type(TransactionType.TRANSFER)
+                .reference("TR-" + suffix)
+                .status(TransactionStatus.IN_PROGRESS)
+                .createdBy(user)
+                .build());
+
+        List<Movement> stock = new ArrayList<>();
+        for (Product product : List.of(p, q)) {
+            for (Location location : List.of(a, b)) {
+                stock.add(Movement.in(product, location, INITIAL, transaction, null, user));
+            }
+        }
+        stockLedgerService.recordBatch(stock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Product product : List.of(p, q)) {
+            jdbcTemplate.update("DELETE FROM stock_ledger WHERE product_id = ?", product.getId());
+            jdbcTemplate.update("DELETE FROM stock_balance WHERE product_id = ?", product.getId());
+        }
+        transactionRepository.delete(transaction);
+        locationRepository.deleteAll(List.of(a, b));
+        locationRepository.deleteAll(freshLocations);
+        productRepository.deleteAll(List.of(p, q));
+        warehouseRepository.delete(warehouse);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void oppositeTransfersOfOneProductDoNotDeadlock() throws Exception {
+        runConcurrently(ROUNDS,
+                () -> stockLedgerService.move(p, a, b, 1, transaction, null, user),
+                () -> stockLedgerService.move(p, b, a, 1, transaction, null, user));
+
+        assertEquals(INITIAL, stockLedgerService.getCurrentBalance(p.getId(), a.getId()));
+        assertEquals(INITIAL, stockLedgerService.getCurrentBalance(p.getId(), b.getId()));
+    }
+
+    @Test
+    void oppositeBatchesOverTwoProductsDoNotDeadlock() throws Exception {
+        runConcurrently(ROUNDS,
+                () -> stockLedgerService.recordBatch(transfers(p, a, b, q, b, a)),
+                () -> stockLedgerService.recordBatch(transfers(q, a, b, p, b, a)));
+
+        for (Product product : List.of(p, q)) {
+            assertEquals(INITIAL, stockLedgerService.getCurrentBalance(product.getId(), a.getId()));
+            assertEquals(INITIAL, stockLedgerService.getCurrentBalance(product.getId(), b.getId()));
+        }
+    }
+
+    @Test
+    void concurrentFirstMovementsOnANewPairBothApply() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 20; i++) {
+            freshLocations.add(locationRepository.save(location(warehouse, "N" + i + "-" + suffix)));
+        }
+
+        Runnable receiveEverywhere = () -> freshLocations
+                .forEach(location -> stockLedgerService.recordStockIn(p, location, 1, transaction, null, user));
+        runConcurrently(1, receiveEverywhere, receiveEverywhere);
+
+        for (Location location : freshLocations) {
+            assertEquals(2, stockLedgerService.getCurrentBalance(p.getId(), location.getId()));
+        }
+    }
+
+    private List<Movement> transfers(Product first, Location firstFrom, Location firstTo,
+            Product second, Location secondFrom, Location secondTo) {
+        List<Movement> movements = new ArrayList<>();
+        movements.addAll(Movement.transfer(first, firstFrom, firstTo, 1, transaction, null, user));
+        movements.addAll(Movement.transfer(second, secondFrom, secondTo, 1, transaction, null, user));
+        return movements;
+    }
+
+    /**
+     * Run both actions {@code rounds} times on two threads released together;
+     * any failure, e.g. a deadlock, lock timeout or duplicate key, fails the test.
+     */
+    private void runConcurrently(int rounds, Runnable first, Runnable second) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> results = new ArrayList<>();
+            for (Runnable action : List.of(first, second)) {
+                Callable<Void> task = () -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        action.run();
+                    }
+                    return null;
+                };
+                results.add(pool.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Location location(Warehouse warehouse, String code) {
+        return Location.builder().code(code).warehouse(warehouse).type(LocationType.values()[0]).volumeM3(10.0)
+                .build();
+    }
+
+    private static Product product(String sku) {
+        return Product.builder().sku(sku).name(sku).unitOfMeasure("U").colisageFardeau(6).colisagePalette(48)
+                .volumePcs(0.01).minStock(5).build();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.backend.service.impl;
+
+import org.example.backend.dto.request.UpdateTaskRequest;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.service.UserProductivityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AdminTaskServiceImplTest {
+
+    private TransactionRepository transactionRepository;
+    private UserProductivityService userProductivityService;
+    private AdminTaskServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        userProductivityService = mock(UserProductivityService.class);
+        service = new AdminTaskServiceImpl(transactionRepository, mock(UserRepository.class), userProductivityService);
+        when(transactionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void cancellingAFinishedTaskTakesBackItsCounters() {
+        Transaction task = task(TransactionStatus.COMPLETED);
+
+        service.cancelTask(task.getId());
+
+        assertEquals(TransactionStatus.CANCELLED, task.getStatus());
+        var order = inOrder(userProductivityService, transactionRepository);
+        order.verify(userProductivityService).recordTaskReopened(task);
+        order.verify(transactionRepository).save(task);
+        verify(userProductivityService, never()).recordTaskFinished(any());
+    }
+
+    @Test
+    void cancellingAnOpenTaskLeavesTheCountersAlone() {
+        Transaction task = task(TransactionStatus.IN_PROGRESS);
+
+        service.cancelTask(task.getId());
+
+        assertEquals(TransactionStatus.CANCELLED, task.getStatus());
+        verifyNoInteractions(userProductivityService);
+    }
+
+    @Test
+    void reopeningAFinishedTaskTakesBackItsCountersOnly() {
+        Transaction task = task(TransactionStatus.FAILED);
+
+        service.updateTask(task.getId(), UpdateTaskRequest.builder().status(TransactionStatus.IN_PROGRESS).build());
+
+        verify(userProductivityService).recordTaskReopened(task);
+        verify(userProductivityService, never()).recordTaskFinished(any());
+    }
+
+    @Test
+    void finishingAnOpenTaskCountsItOnce() {
+        Transaction task = task(TransactionStatus.IN_PROGRESS);
+        task.setCompletedAt(null);
+
+        service.updateTask(task.getId(), UpdateTaskRequest.builder().status(TransactionStatus.COMPLETED).build());
+
+        verify(userProductivityService, never()).recordTaskReopened(any());
+        verify(userProductivityService).recordTaskFinished(task);
+    }
+
+    private Transaction task(TransactionStatus status) {
+        Transaction task = Transaction.builder()
+                .id(UUID.randomUUID())
+                .status(status)
+                .assignedTo(User.builder().id(UUID.randomUUID()).build())
+                .startedAt(LocalDateTime.now().minusHours(1))
+                .completedAt(LocalDateTime.now())
+                .build();
+        when(transactionRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        return task;
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.backend.service.impl;
+
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.entity.StockLedger;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.entity.Warehouse;
+import org.example.backend.enums.LocationType;
+import org.example.backend.enums.Role;
+import org.example.backend.enums.TransactionStatus;
+import org.example.backend.enums.TransactionType;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockLedgerCheckpointRepository;
+import org.example.backend.repository.TransactionRepository;
+import org.example.backend.repository.UserRepository;
+import org.example.backend.repository.WarehouseRepository;
+import org.example.backend.service.LedgerCheckpointService.BalancesAsOf;
+import org.example.backend.service.StockLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retention of checkpoint runs and the ledger tail read by as-of queries.
+ * Runs on the in-memory H2 database of the {@code test} profile.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerCheckpointServiceImplTest {
+
+    @Autowired
+    private LedgerCheckpointServiceImpl ledgerCheckpointService;
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private StockLedgerCheckpointRepository checkpointRepository;
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Well inside the window of daily runs. */
+    private final LocalDate day = LocalDate.now().minusDays(10);
+
+    private Warehouse warehouse;
+    private Location location;
+    private Product product;
+    private User user;
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        warehouse = warehouseRepository.save(Warehouse.builder().code("WC-" + suffix).name("Test").build());
+        location = locationRepository.save(Location.builder().code("C-" + suffix).warehouse(warehouse)
+                .type(LocationType.values()[0]).volumeM3(10.0).build());
+        product = productRepository.save(Product.builder().sku("C-" + suffix).name("C-" + suffix)
+                .unitOfMeasure("U").colisageFardeau(6).colisagePalette(48).volumePcs(0.01).minStock(5).build());
+        user = userRepository.save(User.builder().username("checkpoint-" + suffix)
+                .email("checkpoint-" + suffix + "@test.local").password("-").role(Role.EMPLOYEE).build());
+        transaction = transactionRepository.save(Transaction.builder().type(TransactionType.RECEIPT)
+                .reference("TC-" + suffix).status(TransactionStatus.IN_PROGRESS).createdBy(user).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkpointRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM stock_ledger WHERE product_id = ?", product.getId());
+        jdbcTemplate.update("DELETE FROM stock_balance WHERE product_id = ?", product.getId());
+        transactionRepository.delete(transaction);
+        locationRepository.delete(location);
+        productRepository.delete(product);
+        warehouseRepository.delete(warehouse);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void asOfQueryBetweenRunsReadsOnlyTheTailAfterTheNearestRetainedRun() {
+        StockLedger first = receive(10, at(-1, 10));
+        StockLedger second = receive(5, at(0, 10));
+        issue(3, at(1, 10));
+        receive(7, at(2, 10));
+
+        LocalDateTime firstCutoff = at(1, 12);
+        LocalDateTime secondCutoff = at(2, 12);
+        ledgerCheckpointService.createCheckpoints(firstCutoff);
+        ledgerCheckpointService.createCheckpoints(secondCutoff);
+
+        List<LocalDateTime> runs = checkpointRepository.findRunsBefore(secondCutoff);
+        assertTrue(runs.containsAll(List.of(at(0, 0), at(1, 0), at(2, 0))), "day starts are kept: " + runs);
+        assertFalse(runs.contains(firstCutoff), "a superseded intra-day run is pruned: " + runs);
+
+        LocalDateTime between = at(1, 18);
+        assertEquals(12, ledgerCheckpointService.getBalanceAsOf(product.getId(), location.getId(), between));
+
+        // Entries before the run at the start of day 1 are already folded into it
+        for (StockLedger entry : List.of(first, second)) {
+            jdbcTemplate.update("DELETE FROM stock_ledger WHERE id = ?", entry.getId());
+        }
+        assertEquals(12, ledgerCheckpointService.getBalanceAsOf(product.getId(), location.getId(), between));
+        BalancesAsOf asOf = ledgerCheckpointService.getBalancesAsOf(product.getId(), null, null, between);
+        assertEquals(at(1, 0), asOf.checkpointAt());
+        assertEquals(12, asOf.balances().get(0).quantity());
+        assertEquals(19, ledgerCheckpointService.getBalanceAsOf(product.getId(), location.getId(), at(2, 11)));
+    }
+
+    @Test
+    void dayRunsLeaveTheWindowButMonthStartsStay() {
+        receive(4, at(0, 10));
+        ledgerCheckpointService.createCheckpoints(at(1, 12));
+
+        LocalDateTime later = at(90, 12);
+        ledgerCheckpointService.createCheckpoints(later);
+
+        LocalDate firstDaily = later.toLocalDate().minusDays(31);
+        List<LocalDateTime> runs = checkpointRepository.findRunsBefore(later.plusSeconds(1));
+        assertFalse(runs.isEmpty());
+        for (LocalDateTime run : runs) {
+            assertTrue(run.getDayOfMonth() == 1 || !run.toLocalDate().isBefore(firstDaily),
+                    "only month starts are kept outside the daily window: " + runs);
+        }
+        assertEquals(4, ledgerCheckpointService.getBalanceAsOf(product.getId(), location.getId(), later));
+    }
+
+    private LocalDateTime at(int dayOffset, int hour) {
+        return day.plusDays(dayOffset).atTime(hour, 0);
+    }
+
+    private StockLedger receive(int quantity, LocalDateTime performedAt) {
+        return backdate(stockLedgerService.recordStockIn(product, location, quantity, transaction, null, user),
+                performedAt);
+    }
+
+    private StockLedger issue(int quantity, LocalDateTime performedAt) {
+        return backdate(stockLedgerService.recordStockOut(product, location, quantity, transaction, null, user),
+                performedAt);
+    }
+
+    private StockLedger backdate(StockLedger entry, LocalDateTime performedAt) {
+        jdbcTemplate.update("UPDATE stock_ledger SET performed_at = ? WHERE id = ?", performedAt, entry.getId());
+        return entry;
+    }
+}
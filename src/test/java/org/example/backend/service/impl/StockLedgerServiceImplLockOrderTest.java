@@ -0,0 +1,198 @@
+package org.example.backend.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.backend.entity.Location;
+import org.example.backend.entity.Product;
+import org.example.backend.entity.StockBalance;
+import org.example.backend.entity.StockBalanceId;
+import org.example.backend.entity.Transaction;
+import org.example.backend.entity.User;
+import org.example.backend.entity.Warehouse;
+import org.example.backend.event.StockEventBus;
+import org.example.backend.repository.LedgerArchiveRepository;
+import org.example.backend.repository.LocationRepository;
+import org.example.backend.repository.ProductRepository;
+import org.example.backend.repository.StockBalanceRepository;
+import org.example.backend.repository.StockLedgerRepository;
+import org.example.backend.service.StockBalanceEngine;
+import org.example.backend.service.StockLedgerService.Movement;
+import org.example.backend.service.StockLockMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lock order of the pessimistic balance writes: products in
+ * {@link UUID#compareTo} order, one {@code SELECT ... ORDER BY locationId FOR UPDATE}
+ * per product. The database orders UUIDs as unsigned bytes, Java as signed
+ * longs, so the two orders may disagree; that is harmless only as long as the
+ * Java order is used between products and the database order within one.
+ */
+class StockLedgerServiceImplLockOrderTest {
+
+    /** Negative most significant bits: first for Java, last for the database. */
+    private static final UUID HIGH_BIT = UUID.fromString("f0000000-0000-0000-0000-000000000001");
+    private static final UUID LOW_BIT = UUID.fromString("10000000-0000-0000-0000-000000000001");
+
+    private StockBalanceRepository stockBalanceRepository;
+    private StockLedgerServiceImpl service;
+
+    private final Warehouse warehouse = Warehouse.builder().id(UUID.randomUUID()).code("W").build();
+    private final Transaction transaction = Transaction.builder().id(UUID.randomUUID()).reference("T").build();
+    private final User user = User.builder().id(UUID.randomUUID()).username("u").build();
+
+    @BeforeEach
+    void setUp() {
+        StockLedgerRepository stockLedgerRepository = mock(StockLedgerRepository.class);
+        stockBalanceRepository = mock(StockBalanceRepository.class);
+        when(stockLedgerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        // Every requested row exists with enough stock
+        when(stockBalanceRepository.findByProductIdAndLocationIdsForUpdate(any(), any())).thenAnswer(invocation -> {
+            UUID productId = invocation.getArgument(0);
+            Collection<UUID> locationIds = invocation.getArgument(1);
+            return locationIds.stream()
+                    .map(locationId -> StockBalance.builder()
+                            .id(new StockBalanceId(productId, locationId))
+                            .quantity(100)
+                            .build())
+                    .toList();
+        });
+
+        service = new StockLedgerServiceImpl(stockLedgerRepository, mock(LedgerArchiveRepository.class),
+                stockBalanceRepository, mock(ProductRepository.class), mock(LocationRepository.class),
+                new StockBalanceEngine(stockBalanceRepository, false),
+                new StockLockMetrics(new SimpleMeterRegistry(), 100),
+                new StockEventBus(8, 1000),
+                "pessimistic", 5, 5);
+    }
+
+    @Test
+    void locksProductsInJavaOrderWithOneStatementPerProduct() {
+        Product highBit = product(HIGH_BIT);
+        Product lowBit = product(LOW_BIT);
+        Location a = location(LOW_BIT);
+        Location b = location(HIGH_BIT);
+
+        service.recordBatch(List.of(
+                Movement.out(lowBit, a, 1, transaction, null, user),
+                Movement.in(highBit, b, 1, transaction, null, user),
+                Movement.in(lowBit, b, 1, transaction, null, user),
+                Movement.out(highBit, a, 1, transaction, null, user)));
+
+        List<LockCall> calls = lockCalls(2);
+        assertTrue(HIGH_BIT.compareTo(LOW_BIT) < 0);
+        assertEquals(HIGH_BIT, calls.get(0).productId());
+        assertEquals(LOW_BIT, calls.get(1).productId());
+        for (LockCall call : calls) {
+            assertEquals(2, call.locationIds().size(), "all locations of a product in one statement");
+        }
+    }
+
+    @Test
+    void oppositeTransfersLockTheSameRowsTheSameWay() {
+        Product product = product(UUID.randomUUID());
+        Location a = location(HIGH_BIT);
+        Location b = location(LOW_BIT);
+
+        service.move(product, a, b, 1, transaction, null, user);
+        service.move(product, b, a, 1, transaction, null, user);
+
+        List<LockCall> calls = lockCalls(2);
+        assertEquals(calls.get(0).productId(), calls.get(1).productId());
+        // One statement each: the database orders both location sets identically
+        assertEquals(calls.get(0).locationIds(), calls.get(1).locationIds());
+    }
+
+    @Test
+    void oppositeCrossProductBatchesLockProductsInTheSameOrder() {
+        Product p = product(HIGH_BIT);
+        Product q = product(LOW_BIT);
+        Location a = location(UUID.randomUUID());
+        Location b = location(UUID.randomUUID());
+
+        List<Movement> forward = new ArrayList<>();
+        forward.addAll(Movement.transfer(p, a, b, 1, transaction, null, user));
+        forward.addAll(Movement.transfer(q, b, a, 1, transaction, null, user));
+        List<Movement> backward = new ArrayList<>();
+        backward.addAll(Movement.transfer(q, a, b, 1, transaction, null, user));
+        backward.addAll(Movement.transfer(p, b, a, 1, transaction, null, user));
+        service.recordBatch(forward);
+        service.recordBatch(backward);
+
+        List<LockCall> calls = lockCalls(4);
+        assertEquals(List.of(HIGH_BIT, LOW_BIT, HIGH_BIT, LOW_BIT),
+                calls.stream().map(LockCall::productId).toList());
+    }
+
+    @Test
+    void upsertsMissingRowsBeforeLockingThem() {
+        Product product = product(UUID.randomUUID());
+        Location existing = location(LOW_BIT);
+        Location missing = location(HIGH_BIT);
+        doReturn(List.of(balance(product, existing)), List.of(balance(product, missing)))
+                .when(stockBalanceRepository).findByProductIdAndLocationIdsForUpdate(any(), any());
+
+        service.move(product, existing, missing, 1, transaction, null, user);
+
+        InOrder inOrder = inOrder(stockBalanceRepository);
+        inOrder.verify(stockBalanceRepository)
+                .findByProductIdAndLocationIdsForUpdate(eq(product.getId()), argThat(ids -> ids.size() == 2));
+        inOrder.verify(stockBalanceRepository).insertZeroIfAbsent(eq(product.getId()), eq(missing.getId()), any());
+        inOrder.verify(stockBalanceRepository)
+                .findByProductIdAndLocationIdsForUpdate(product.getId(), List.of(missing.getId()));
+        verify(stockBalanceRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LockCall> lockCalls(int expected) {
+        ArgumentCaptor<UUID> products = ArgumentCaptor.forClass(UUID.class);
+        ArgumentCaptor<Collection<UUID>> locations = ArgumentCaptor.forClass(Collection.class);
+        verify(stockBalanceRepository, times(expected))
+                .findByProductIdAndLocationIdsForUpdate(products.capture(), locations.capture());
+        List<LockCall> calls = new ArrayList<>();
+        for (int i = 0; i < expected; i++) {
+            calls.add(new LockCall(products.getAllValues().get(i),
+                    List.copyOf(new TreeSet<>(locations.getAllValues().get(i)))));
+        }
+        return calls;
+    }
+
+    private static StockBalance balance(Product product, Location location) {
+        return StockBalance.builder()
+                .id(new StockBalanceId(product.getId(), location.getId()))
+                .quantity(100)
+                .build();
+    }
+
+    private Product product(UUID id) {
+        return Product.builder().id(id).sku("P-" + id.toString().substring(0, 4)).build();
+    }
+
+    private Location location(UUID id) {
+        return Location.builder().id(id).code("L-" + id.toString().substring(0, 4)).warehouse(warehouse).build();
+    }
+
+    private record LockCall(UUID productId, List<UUID> locationIds) {
+    }
+}